@@ -6,8 +6,21 @@ import com.googlecode.lanterna.screen.TerminalScreen;
 import com.googlecode.lanterna.terminal.DefaultTerminalFactory;
 import com.googlecode.lanterna.terminal.swing.SwingTerminalFrame;
 import com.googlecode.lanterna.input.KeyType;
+import com.hakimi.road.ai.Action;
+import com.hakimi.road.ai.Autopilot;
+import com.hakimi.road.engine.AnsiFrameEncoder;
+import com.hakimi.road.engine.AsciicastRecorder;
+import com.hakimi.road.engine.FrameExporter;
+import com.hakimi.road.engine.RenderProfile;
 import com.hakimi.road.engine.GameEngine;
+import com.hakimi.road.engine.OutputStage;
 import com.hakimi.road.engine.RenderEngine;
+import com.hakimi.road.engine.RenderLoop;
+import com.hakimi.road.entity.Player;
+import com.hakimi.road.replay.Replay;
+import com.hakimi.road.replay.ReplayRecorder;
+import com.hakimi.road.system.InputEvent;
+import com.hakimi.road.system.InputLatencyTracker;
 import com.hakimi.road.system.InputSystem;
 import com.hakimi.road.util.GameConfig;
 import com.hakimi.road.util.SaveManager;
@@ -17,7 +30,15 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.swing.SwingUtilities;
 
 /**
@@ -26,10 +47,36 @@ import javax.swing.SwingUtilities;
  */
 public class Main {
     private static final Logger logger = LogManager.getLogger(Main.class);
+    private static final long TICK_NANOS = GameConfig.GAME_LOOP_DELAY_MS * 1_000_000L;
+    private static final int MAX_LAG_TICKS = 5;
+    // 菜单无操作这么久后进入演示模式
+    private static final long ATTRACT_IDLE_NANOS = TimeUnit.SECONDS.toNanos(30);
+    // 一局演示最长时间，到时回到菜单
+    private static final long ATTRACT_MAX_NANOS = TimeUnit.SECONDS.toNanos(90);
+    // 演示用的自动驾驶偶尔失误，让演示自然结束
+    private static final double ATTRACT_MISTAKE_RATE = 0.01;
+    private static final String REPLAY_DIR = "data/replays";
     private Screen screen;
     private GameEngine gameEngine;
     private RenderEngine renderEngine;
+    private RenderLoop renderLoop;
+    private OutputStage outputStage;
     private InputSystem inputSystem;
+    // 玩家从菜单开始的一局经由录像录制器推进，结束时保存录像（读档继续的对局无法从种子复现，不录制）
+    private ReplayRecorder replayRecorder;
+    private boolean recordingReplay;
+    private final List<InputEvent> pendingEvents = new ArrayList<>();
+    private final InputLatencyTracker latencyTracker = new InputLatencyTracker();
+    private final AtomicBoolean resized = new AtomicBoolean();
+    private final Random random = new Random();
+
+    // 演示模式：开启后菜单闲置时由自动驾驶试玩，任意键返回菜单（默认关闭）
+    private final boolean attractEnabled = Boolean.parseBoolean(System.getProperty("hakimi.attract",
+            String.valueOf(SettingsManager.getInstance().isAttractMode())));
+    private final Autopilot attractPilot = new Autopilot(System.nanoTime(), ATTRACT_MISTAKE_RATE);
+    private boolean attractMode;
+    private long attractStartNanos;
+    private long lastInputNanos = System.nanoTime();
 
     // 设置界面状态
     private int settingsSelectedOption = 0;
@@ -61,12 +108,53 @@ public class Main {
         setupScreen();
         initializeGame();
 
-        // 主游戏循环
-        while (true) {
-            handleInput();
-            gameEngine.update();
-            render();
-            Thread.sleep(GameConfig.GAME_LOOP_DELAY_MS);
+        // 主模拟循环：游戏进行中按固定节奏推进，画面交给渲染线程异步输出；
+        // 菜单、暂停、结束等静态界面只在输入、尺寸变化或状态切换时重绘，其余时间阻塞等待输入
+        long nextTickNanos = System.nanoTime();
+        GameEngine.GameState publishedState = null;
+        while (renderLoop.isRunning() && outputStage.isRunning()) {
+            boolean dirty = handleInput() > 0;
+            if (resized.getAndSet(false)) {
+                screen.doResizeIfNecessary();
+                dirty = true;
+            }
+
+            if (attractMode) {
+                attractPilot.control(gameEngine);
+            }
+            if (gameEngine.isTicking()) {
+                if (recordingReplay && gameEngine.getGameState() == GameEngine.GameState.PLAYING) {
+                    replayRecorder.update();
+                } else {
+                    gameEngine.update();
+                }
+            }
+            updateReplayRecording();
+            updateAttractMode();
+
+            GameEngine.GameState state = gameEngine.getGameState();
+            if (state == GameEngine.GameState.PLAYING || dirty || state != publishedState) {
+                renderLoop.publish(gameEngine.captureSnapshot(getMenuSelection(), saveInputName));
+                publishedState = state;
+            }
+
+            if (gameEngine.isTicking()) {
+                nextTickNanos += TICK_NANOS;
+                long sleepNanos = nextTickNanos - System.nanoTime();
+                if (sleepNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } else if (-sleepNanos > MAX_LAG_TICKS * TICK_NANOS) {
+                    // 落后太多（例如进程被挂起）时重新对齐，避免连续补帧
+                    logger.debug("模拟落后 {} ms，重新对齐节奏", -sleepNanos / 1_000_000);
+                    nextTickNanos = System.nanoTime();
+                }
+            } else {
+                // 开启演示模式时，菜单上最多等到该进入演示的时候
+                long idleLeft = ATTRACT_IDLE_NANOS - (System.nanoTime() - lastInputNanos);
+                boolean waitForAttract = attractEnabled && state == GameEngine.GameState.MENU;
+                inputSystem.awaitInput(waitForAttract ? Math.max(1, idleLeft) : 0);
+                nextTickNanos = System.nanoTime();
+            }
         }
     }
 
@@ -81,7 +169,7 @@ public class Main {
 
         // 获取显示模式设置
         int displayMode = SettingsManager.getInstance().getDisplayMode();
-        // 0=Auto, 1=Swing, 2=Console
+        // 0=Auto, 1=Swing, 2=Console, 3=Low bandwidth console
 
         // 检测操作系统
         String osName = System.getProperty("os.name", "").toLowerCase();
@@ -92,7 +180,7 @@ public class Main {
 
         if (displayMode == 1) {
             useSwing = true;
-        } else if (displayMode == 2) {
+        } else if (displayMode == 2 || displayMode == RenderProfile.LOW_BANDWIDTH_DISPLAY_MODE) {
             useSwing = false;
         } else {
             // Auto mode
@@ -138,8 +226,7 @@ public class Main {
         // 清空屏幕并移动到顶部
         screen.clear();
         // 如果最终使用的是非Swing终端（即Console模式），确保ANSI转义序列正确输出
-        if (!(screen instanceof TerminalScreen
-                && ((TerminalScreen) screen).getTerminal() instanceof SwingTerminalFrame)) {
+        if (!isSwingTerminal()) {
             // 输出ANSI转义序列，将光标移动到左上角并清屏
             System.out.print("\033[H\033[2J");
             System.out.flush();
@@ -147,27 +234,144 @@ public class Main {
         screen.refresh();
     }
 
+    private boolean isSwingTerminal() {
+        return screen instanceof TerminalScreen
+                && ((TerminalScreen) screen).getTerminal() instanceof SwingTerminalFrame;
+    }
+
+    /**
+     * 终端模式下录制 asciicast：
+     * -Dhakimi.record=文件.cast 录制整局；-Dhakimi.recordRing=分钟数 只保留最近一段，游戏结束时保存到 recordings 目录
+     */
+    private void startRecording() {
+        String recordPath = System.getProperty("hakimi.record");
+        String ringMinutes = System.getProperty("hakimi.recordRing");
+        TerminalSize size = screen.getTerminalSize();
+        AsciicastRecorder recorder;
+        if (recordPath != null && !recordPath.isEmpty()) {
+            recorder = AsciicastRecorder.streaming(Paths.get(recordPath), size.getColumns(), size.getRows());
+        } else if (ringMinutes != null && !ringMinutes.isEmpty()) {
+            try {
+                recorder = AsciicastRecorder.ring(Paths.get("recordings"), Integer.parseInt(ringMinutes),
+                        size.getColumns(), size.getRows());
+            } catch (NumberFormatException e) {
+                logger.error("无效的录制时长: {}", ringMinutes);
+                return;
+            }
+        } else {
+            return;
+        }
+        try {
+            recorder.start();
+        } catch (IOException e) {
+            logger.error("无法开始录制", e);
+            return;
+        }
+        outputStage.setRecorder(recorder);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                recorder.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "asciicast-shutdown"));
+    }
+
+    /**
+     * 指定了 -Dhakimi.export=路径 时把画面导出为 GIF（.gif）或 PNG 序列（目录）
+     */
+    private void startFrameExport() {
+        String exportPath = System.getProperty("hakimi.export");
+        if (exportPath == null || exportPath.isEmpty()) {
+            return;
+        }
+        FrameExporter exporter = new FrameExporter(Paths.get(exportPath), GameConfig.GAME_LOOP_DELAY_MS);
+        try {
+            exporter.start();
+        } catch (IOException e) {
+            logger.error("无法开始导出画面: {}", exportPath, e);
+            return;
+        }
+        outputStage.setFrameExporter(exporter);
+        // 游戏通过 System.exit 退出，在关闭钩子里写完剩余的帧和 GIF 文件尾
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                exporter.close();
+            } catch (IOException | InterruptedException e) {
+                logger.error("结束画面导出失败", e);
+            }
+        }, "frame-export-shutdown"));
+    }
+
     /**
      * 初始化游戏组件
      */
     private void initializeGame() {
+        SettingsManager settings = SettingsManager.getInstance();
+        RenderProfile profile = isSwingTerminal() ? RenderProfile.STANDARD
+                : RenderProfile.forDisplayMode(settings.getDisplayMode(), settings.isLowBandwidthMonochrome());
+        outputStage = new OutputStage(screen);
+        outputStage.setLatencyTracker(latencyTracker);
+        outputStage.setScrollRendering(settings.isScrollRendering());
+        if (!isSwingTerminal()) {
+            // 终端模式下直接输出编码后的差异，减少每帧写出的字节数
+            outputStage.setAnsiOutput(new AnsiFrameEncoder(profile.getColorMode()), System.out);
+            startRecording();
+        }
+        startFrameExport();
+        outputStage.start();
         gameEngine = new GameEngine(screen);
-        renderEngine = new RenderEngine(screen);
-        renderEngine.setNotificationSystem(gameEngine.getNotificationSystem());
+        gameEngine.setOutputStage(outputStage);
+        replayRecorder = new ReplayRecorder(gameEngine);
+        renderEngine = new RenderEngine();
+        renderEngine.setProfile(profile);
+        renderLoop = new RenderLoop(screen, renderEngine, outputStage);
+        renderLoop.start();
         inputSystem = new InputSystem(screen);
+        inputSystem.start();
+
+        // 终端尺寸变化时唤醒模拟线程重绘
+        if (screen instanceof TerminalScreen) {
+            ((TerminalScreen) screen).getTerminal().addResizeListener((terminal, newSize) -> {
+                resized.set(true);
+                inputSystem.wakeUp();
+            });
+        }
     }
 
     /**
      * 处理输入
+     * 每个tick取空输入队列，避免按住方向键时按键在队列中堆积造成延迟
+     *
+     * @return 处理的输入事件数量
      */
-    private void handleInput() throws IOException {
-        // 只轮询一次输入
-        com.googlecode.lanterna.input.KeyStroke key = inputSystem.pollInput();
-
-        if (key == null) {
-            return; // 没有输入
+    private int handleInput() throws IOException {
+        pendingEvents.clear();
+        // 只有游戏进行中合并连续换道，设置界面上的左右键每次都要调整一次
+        int count = inputSystem.drainInput(pendingEvents,
+                gameEngine.getGameState() == GameEngine.GameState.PLAYING);
+        if (count == 0) {
+            return 0; // 没有输入
+        }
+        lastInputNanos = System.nanoTime();
+        if (attractMode) {
+            // 演示中按任意键回到菜单，按键本身不再处理
+            pendingEvents.clear();
+            stopAttractMode();
+            return count;
         }
+        for (InputEvent event : pendingEvents) {
+            handleInputEvent(event);
+        }
+        pendingEvents.clear();
+        return count;
+    }
 
+    /**
+     * 处理单个输入事件
+     */
+    private void handleInputEvent(InputEvent event) throws IOException {
+        com.googlecode.lanterna.input.KeyStroke key = event.getKey();
         GameEngine.GameState state = gameEngine.getGameState();
 
         // 根据游戏状态处理输入
@@ -194,17 +398,30 @@ public class Main {
                     saveInputName = "";
                     isInputtingSaveName = true;
                 } else {
-                    // 检查转向输入 (A/D)
-                    if (key.getCharacter() != null) {
-                        if (key.getCharacter() == 'a' || key.getCharacter() == 'A') {
-                            gameEngine.handleTurnInput(-1);
-                        } else if (key.getCharacter() == 'd' || key.getCharacter() == 'D') {
-                            gameEngine.handleTurnInput(1);
+                    Action action = inputSystem.toAction(key);
+                    if (action == Action.NONE) {
+                        break;
+                    }
+                    int laneBefore = gameEngine.getPlayer().getLane();
+                    Player.PlayerState stateBefore = gameEngine.getPlayer().getState();
+                    int scoreBefore = gameEngine.getScoreSystem().getScore();
+
+                    // 和自动驾驶走同一个入口（移动、跳跃、滑铲、转向），合并的换道按次数执行
+                    for (int i = 0; i < event.getRepeatCount(); i++) {
+                        if (recordingReplay) {
+                            replayRecorder.apply(action, event.getTimestampNanos());
+                        } else {
+                            gameEngine.applyAction(action, gameEngine.turnPhaseAt(event.getTimestampNanos()));
                         }
                     }
 
-                    // 处理玩家输入（移动、跳跃、滑铲）
-                    inputSystem.processInput(gameEngine.getPlayer(), key);
+                    // 按键产生了可见效果，等待显示它的那一帧统计延迟
+                    if (gameEngine.getPlayer().getLane() != laneBefore
+                            || gameEngine.getPlayer().getState() != stateBefore
+                            || gameEngine.getScoreSystem().getScore() != scoreBefore) {
+                        latencyTracker.inputApplied(event.getTimestampNanos(),
+                                gameEngine.getNextSnapshotSequence());
+                    }
                 }
                 break;
             case PAUSED:
@@ -224,7 +441,7 @@ public class Main {
                 if (inputSystem.isExitPressed(key)) {
                     gameEngine.returnToMenu();
                 } else if (inputSystem.isEnterPressed(key)) {
-                    gameEngine.startGame();
+                    startRecordedGame();
                 }
                 break;
             case SETTINGS:
@@ -240,62 +457,85 @@ public class Main {
     }
 
     /**
-     * 渲染游戏画面
+     * 菜单闲置时开始演示，演示的一局结束或超过最长时间后回到菜单
      */
-    private void render() throws IOException {
+    private void updateAttractMode() {
+        if (!attractEnabled) {
+            return;
+        }
         GameEngine.GameState state = gameEngine.getGameState();
-        TerminalSize size = screen.getTerminalSize();
-        int width = size.getColumns();
-        int height = size.getRows();
+        long now = System.nanoTime();
+        if (attractMode) {
+            if (state != GameEngine.GameState.PLAYING || now - attractStartNanos >= ATTRACT_MAX_NANOS) {
+                stopAttractMode();
+            }
+        } else if (state == GameEngine.GameState.MENU && now - lastInputNanos >= ATTRACT_IDLE_NANOS) {
+            logger.info("菜单闲置，进入演示模式");
+            attractMode = true;
+            attractStartNanos = now;
+            gameEngine.setUnattended(true);
+            gameEngine.startGame();
+            gameEngine.getNotificationSystem().addNotification("演示模式", "按任意键返回菜单", "▶", 3000,
+                    com.googlecode.lanterna.TextColor.ANSI.CYAN, com.hakimi.road.ui.NotificationSystem.Priority.NORMAL);
+        }
+    }
 
-        switch (state) {
-            case MENU:
-                renderEngine.renderMenu(width, height);
-                break;
-            case PLAYING:
-            case PAUSED:
-                renderEngine.renderGame(
-                        gameEngine.getCurrentLevel(),
-                        gameEngine.getPlayer(),
-                        gameEngine.getChaser(),
-                        gameEngine.getObstacles(),
-                        gameEngine.getItems(),
-                        gameEngine.getSceneryList(),
-                        gameEngine.isChaserVisible(),
-                        gameEngine.getScoreSystem().getScore(),
-                        gameEngine.getScoreSystem().getDistance(),
-                        gameEngine.getGameSpeed(),
-                        gameEngine.getRoadManager().getCurrentCurvature(),
-                        width,
-                        height);
-                // 如果暂停，显示暂停提示
-                if (state == GameEngine.GameState.PAUSED) {
-                    String pauseText = "游戏暂停 - 按 P 继续，按 S 保存";
-                    int x = width / 2 - pauseText.length() / 2;
-                    int y = height / 2;
-                    screen.newTextGraphics().putString(x, y, pauseText);
-                }
-                break;
-            case GAME_OVER:
-                renderEngine.renderGameOver(
-                        gameEngine.getScoreSystem().getScore(),
-                        gameEngine.getScoreSystem().getDistance(),
-                        gameEngine.isCaughtByChaser(),
-                        width,
-                        height);
-                break;
+    /**
+     * 用新的随机种子开始一局并录像
+     */
+    private void startRecordedGame() {
+        replayRecorder.start(random.nextLong());
+        recordingReplay = true;
+    }
+
+    /**
+     * 录制中的一局结束时保存录像，中途回到菜单时放弃
+     */
+    private void updateReplayRecording() {
+        if (!recordingReplay) {
+            return;
+        }
+        GameEngine.GameState state = gameEngine.getGameState();
+        if (state == GameEngine.GameState.GAME_OVER) {
+            recordingReplay = false;
+            saveReplay(replayRecorder.finish());
+        } else if (state == GameEngine.GameState.MENU) {
+            recordingReplay = false;
+        }
+    }
+
+    private void saveReplay(Replay replay) {
+        Path file = Paths.get(REPLAY_DIR, "replay-" + System.currentTimeMillis() + ".json");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(file, replay.toJson().getBytes(StandardCharsets.UTF_8));
+            logger.info("录像已保存: {}", file);
+        } catch (IOException e) {
+            logger.error("保存录像失败: {}", file, e);
+        }
+    }
+
+    private void stopAttractMode() {
+        attractMode = false;
+        gameEngine.resetGame();
+        gameEngine.setUnattended(false);
+        lastInputNanos = System.nanoTime();
+    }
+
+    /**
+     * 当前菜单界面的选中项（随帧快照交给渲染线程）
+     */
+    private int getMenuSelection() {
+        switch (gameEngine.getGameState()) {
             case SETTINGS:
-                renderEngine.renderSettings(width, height, settingsSelectedOption);
-                break;
+                return settingsSelectedOption;
             case SAVE_MENU:
-                renderEngine.renderSaveMenu(width, height, saveMenuSelectedIndex, saveInputName);
-                break;
+                return saveMenuSelectedIndex;
             case LOAD_MENU:
-                renderEngine.renderLoadMenu(width, height, loadMenuSelectedIndex);
-                break;
+                return loadMenuSelectedIndex;
+            default:
+                return 0;
         }
-
-        screen.refresh();
     }
 
     /**
@@ -303,7 +543,7 @@ public class Main {
      */
     private void handleMenuInput(com.googlecode.lanterna.input.KeyStroke key) {
         if (inputSystem.isEnterPressed(key)) {
-            gameEngine.startGame();
+            startRecordedGame();
         } else if (isSettingsKey(key)) {
             gameEngine.enterSettings();
             settingsSelectedOption = 0;
@@ -353,7 +593,7 @@ public class Main {
                     break;
                 case 4: // 显示模式
                     int currentMode = settings.getDisplayMode();
-                    int newMode = (currentMode + 2) % 3; // 0->2->1->0 (reverse)
+                    int newMode = (currentMode + 3) % 4; // 0->3->2->1->0 (reverse)
                     settings.setDisplayMode(newMode);
                     settings.saveSettings();
                     break;
@@ -387,7 +627,7 @@ public class Main {
                     break;
                 case 4: // 显示模式
                     int currentMode = settings.getDisplayMode();
-                    int newMode = (currentMode + 1) % 3; // 0->1->2->0
+                    int newMode = (currentMode + 1) % 4; // 0->1->2->3->0
                     settings.setDisplayMode(newMode);
                     settings.saveSettings();
                     break;
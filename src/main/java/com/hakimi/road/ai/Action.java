@@ -0,0 +1,15 @@
+package com.hakimi.road.ai;
+
+/**
+ * 玩家操作
+ * 与键盘输入一一对应（见 InputSystem.toAction），人和自动驾驶都通过 GameEngine.applyAction 执行
+ */
+public enum Action {
+    NONE,
+    MOVE_LEFT,
+    MOVE_RIGHT,
+    JUMP,
+    SLIDE,
+    TURN_LEFT,
+    TURN_RIGHT
+}
@@ -0,0 +1,251 @@
+package com.hakimi.road.ai;
+
+import com.hakimi.road.engine.GameEngine;
+import com.hakimi.road.entity.Item;
+import com.hakimi.road.entity.Obstacle;
+import com.hakimi.road.entity.Player;
+import com.hakimi.road.level.DifficultyConfig;
+import com.hakimi.road.level.RoadManager;
+import com.hakimi.road.system.ActionModel;
+import com.hakimi.road.util.GameConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 自动驾驶
+ * 只看屏幕上已经出现的障碍物和道具，按键方式与玩家相同（换道、跳跃、滑铲、转向）。
+ * 每个逻辑帧前做一次规划：按当前速度推算之后若干逻辑帧每条车道的障碍物，
+ * 在 ActionModel 的 (车道, 动作阶段) 状态上从远到近求出每一帧还能活下去的状态，
+ * 再从本帧可选的操作中挑一个落在其中的（优先不动，其次去吃道具）。
+ * 一次规划只是几十个 long 的位运算，可以在无界面模式下同时跑大量实例。
+ */
+public class Autopilot {
+    private static final ActionModel MODEL = ActionModel.forGame();
+    // 规划的逻辑帧数：足够做完一次跳跃再接一次滑铲
+    private static final int HORIZON = MODEL.getJumpTicks() + MODEL.getSlideTicks() + 2;
+    private static final Action[] RANDOM_ACTIONS = { Action.MOVE_LEFT, Action.MOVE_RIGHT, Action.JUMP, Action.SLIDE };
+    // 同一逻辑帧内的候选操作：换道方向 × 动作，按偏好顺序排列
+    private static final int[][] MOVES = { { 0, 0 }, { -1, 0 }, { 1, 0 }, { 0, 1 }, { 0, 2 }, { -1, 1 }, { 1, 1 },
+            { -1, 2 }, { 1, 2 } };
+
+    private final Random random;
+    private final double mistakeRate;
+    private final long[] alive = new long[HORIZON + 1];
+    private final long[] safe = new long[HORIZON + 1];
+    // 第 k 个逻辑帧时障碍物累计移动的距离
+    private final int[] travel = new int[HORIZON + 1];
+
+    /**
+     * 不犯错的自动驾驶
+     */
+    public Autopilot() {
+        this(0, 0);
+    }
+
+    /**
+     * @param seed        随机失误使用的种子
+     * @param mistakeRate 每个逻辑帧随机乱按一次的概率（浸泡测试用来走到受击、结束等路径）
+     */
+    public Autopilot(long seed, double mistakeRate) {
+        this.random = new Random(seed);
+        this.mistakeRate = mistakeRate;
+    }
+
+    /**
+     * 决定本帧的操作并交给游戏执行
+     */
+    public List<Action> control(GameEngine engine) {
+        List<Action> actions = decide(engine);
+        for (Action action : actions) {
+            engine.applyAction(action);
+        }
+        return actions;
+    }
+
+    /**
+     * 决定本帧的操作（不执行）
+     * 躲避只在下一次 update() 是逻辑帧时规划，其余帧只处理转向
+     */
+    public List<Action> decide(GameEngine engine) {
+        if (engine.getGameState() != GameEngine.GameState.PLAYING) {
+            return Collections.emptyList();
+        }
+        List<Action> actions = new ArrayList<>(2);
+        Action turn = decideTurn(engine.getRoadManager());
+        if (turn != Action.NONE) {
+            actions.add(turn);
+        }
+        if (engine.isLogicTickNext()) {
+            if (mistakeRate > 0 && random.nextDouble() < mistakeRate) {
+                actions.add(RANDOM_ACTIONS[random.nextInt(RANDOM_ACTIONS.length)]);
+            } else {
+                planMove(engine, actions);
+            }
+        }
+        return actions;
+    }
+
+    /**
+     * 进入转向窗口时按对应方向
+     */
+    private static Action decideTurn(RoadManager road) {
+        if (!road.isTurnActive() || road.getSegmentDistanceRemaining() > GameConfig.TURN_WINDOW_TOLERANCE) {
+            return Action.NONE;
+        }
+        if (road.getCurrentSegment() == RoadManager.SegmentType.TURN_LEFT_90) {
+            return Action.TURN_LEFT;
+        }
+        if (road.getCurrentSegment() == RoadManager.SegmentType.TURN_RIGHT_90) {
+            return Action.TURN_RIGHT;
+        }
+        return Action.NONE;
+    }
+
+    private void planMove(GameEngine engine, List<Action> actions) {
+        Player player = engine.getPlayer();
+        int rows = engine.getScreenRows();
+        int playerY = Player.calculateY(rows, Player.PlayerState.NORMAL);
+        predictTravel(engine.getDifficulty(), engine.getScoreSystem().getDistance(), engine.getGameSpeed());
+        int horizon = buildSafeMasks(engine.getObstacles(), rows, playerY);
+
+        // 从远到近：alive[k] = 第 k 个逻辑帧不被撞、且之后仍有路可走的状态
+        alive[horizon] = safe[horizon];
+        for (int k = horizon - 1; k >= 1; k--) {
+            long candidates = safe[k];
+            long result = 0;
+            while (candidates != 0) {
+                int state = Long.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+                if ((MODEL.successorsOf(state) & alive[k + 1]) != 0) {
+                    result |= 1L << state;
+                }
+            }
+            alive[k] = result;
+        }
+
+        int lane = player.getLane();
+        // 在逻辑帧前按下时动作会覆盖 stateTimer / 2 个逻辑帧
+        int ticksLeft = player.getStateTimer() / ActionModel.FRAMES_PER_TICK;
+        // Player.jump()/slide() 只在正常状态下生效
+        boolean free = player.isNormal();
+        int itemDirection = Integer.signum(nearestItemLane(engine.getItems(), playerY, lane) - lane);
+
+        int best = -1;
+        int bestSurvival = -1;
+        for (int pass = 0; pass < 2 && best < 0; pass++) {
+            for (int i = 0; i < MOVES.length; i++) {
+                int[] move = MOVES[i];
+                // 第一轮只考虑不动和朝道具方向换道，第二轮考虑全部
+                boolean preferred = move[1] == 0 && (move[0] == 0 || move[0] == itemDirection);
+                if (pass == 0 && !preferred) {
+                    continue;
+                }
+                int target = lane + move[0];
+                if (target < 0 || target >= GameConfig.ROAD_WIDTH || move[1] != 0 && !free) {
+                    continue;
+                }
+                int state = free ? nextFreeState(target, move[1])
+                        : MODEL.state(target, player.getState(), ticksLeft);
+                if ((alive[1] >> state & 1) != 0) {
+                    best = i;
+                    break;
+                }
+                if (pass == 1) {
+                    // 怎样都躲不过时选撑得最久的
+                    int survival = survival(state, horizon);
+                    if (survival > bestSurvival) {
+                        bestSurvival = survival;
+                        best = i;
+                    }
+                }
+            }
+        }
+        if (best < 0) {
+            return;
+        }
+        int[] move = MOVES[best];
+        if (move[0] != 0) {
+            actions.add(move[0] < 0 ? Action.MOVE_LEFT : Action.MOVE_RIGHT);
+        }
+        if (move[1] == 1) {
+            actions.add(Action.JUMP);
+        } else if (move[1] == 2) {
+            actions.add(Action.SLIDE);
+        }
+    }
+
+    /**
+     * 逻辑帧先按旧速度前进，再按新距离算出速度移动障碍物（与 GameEngine.update 的顺序相同）
+     */
+    private void predictTravel(DifficultyConfig difficulty, int distance, int speed) {
+        for (int k = 1; k <= HORIZON; k++) {
+            distance += speed;
+            speed = difficulty.speedAt(distance);
+            travel[k] = travel[k - 1] + speed;
+        }
+    }
+
+    /**
+     * 算出每个逻辑帧的安全状态，返回需要规划的帧数
+     */
+    private int buildSafeMasks(List<Obstacle> obstacles, int rows, int playerY) {
+        int horizon = 1;
+        for (int k = 1; k <= HORIZON; k++) {
+            safe[k] = MODEL.allStates();
+        }
+        for (Obstacle obstacle : obstacles) {
+            for (int k = 1; k <= HORIZON; k++) {
+                // 与 Obstacle.checkCollision 相同：障碍物先移动再判定
+                int y = obstacle.getY() + travel[k];
+                if (y > rows - 1) {
+                    break;
+                }
+                if (y + GameConfig.OBSTACLE_HEIGHT >= playerY) {
+                    safe[k] = MODEL.avoid(safe[k], obstacle.getLane(), obstacle.getHeight());
+                    horizon = Math.max(horizon, k);
+                }
+            }
+        }
+        return Math.min(HORIZON, horizon + 1);
+    }
+
+    private static int nextFreeState(int lane, int action) {
+        if (action == 1) {
+            return MODEL.state(lane, Player.PlayerState.JUMPING, MODEL.getJumpTicks());
+        }
+        if (action == 2) {
+            return MODEL.state(lane, Player.PlayerState.SLIDING, MODEL.getSlideTicks());
+        }
+        return MODEL.state(lane, Player.PlayerState.NORMAL, 0);
+    }
+
+    /**
+     * 从第 1 帧的状态出发最多能撑过几帧
+     */
+    private int survival(int state, int horizon) {
+        long reach = (1L << state) & safe[1];
+        int k = 1;
+        while (reach != 0 && k < horizon) {
+            reach = MODEL.successors(reach) & safe[++k];
+        }
+        return reach == 0 ? k - 1 : k;
+    }
+
+    /**
+     * 玩家前方最近的道具所在车道，没有时返回当前车道
+     */
+    private static int nearestItemLane(List<Item> items, int playerY, int lane) {
+        int bestY = Integer.MIN_VALUE;
+        int bestLane = lane;
+        for (Item item : items) {
+            if (item.getY() < playerY && item.getY() > bestY) {
+                bestY = item.getY();
+                bestLane = item.getLane();
+            }
+        }
+        return bestLane;
+    }
+}
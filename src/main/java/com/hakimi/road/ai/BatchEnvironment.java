@@ -0,0 +1,242 @@
+package com.hakimi.road.ai;
+
+import com.hakimi.road.engine.GameEngine;
+import com.hakimi.road.entity.Item;
+import com.hakimi.road.entity.Obstacle;
+import com.hakimi.road.entity.Player;
+import com.hakimi.road.level.RoadManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 批量训练环境
+ * 把 N 局无界面的游戏包装成同步推进的 step/reset 接口，供训练和评估智能体使用。
+ * 每次 step 每局执行一个操作（Action 的序号）并推进一个逻辑帧；观测、奖励和结束标记写入预先分配的数组，
+ * 这一层不创建任何对象。某局游戏结束时自动用新种子重开，该局的观测已经是新一局的。
+ *
+ * 每局的观测占 OBSERVATION_SIZE 个 float：
+ * 车道、动作(0正常/1跳跃/2滑铲)、动作剩余帧、速度、弯曲度、转向方向(-1/0/1)、距转向点、血量，
+ * 之后是 GRID_ROWS × 3 的车道占用网格（屏幕从上到下按行缩放；0空、1低障碍、2高障碍、3道具）。
+ */
+public class BatchEnvironment {
+    public static final int OBS_LANE = 0;
+    public static final int OBS_STATE = 1;
+    public static final int OBS_STATE_TIMER = 2;
+    public static final int OBS_SPEED = 3;
+    public static final int OBS_CURVATURE = 4;
+    public static final int OBS_TURN = 5;
+    public static final int OBS_TURN_DISTANCE = 6;
+    public static final int OBS_HEALTH = 7;
+    public static final int OBS_GRID = 8;
+    public static final int GRID_ROWS = 20;
+    public static final int GRID_LANES = 3;
+    public static final int OBSERVATION_SIZE = OBS_GRID + GRID_ROWS * GRID_LANES;
+
+    public static final int CELL_EMPTY = 0;
+    public static final int CELL_LOW = 1;
+    public static final int CELL_HIGH = 2;
+    public static final int CELL_ITEM = 3;
+
+    // 每受击一次的奖励惩罚（奖励平时是本步跑过的距离）
+    public static final float HIT_PENALTY = 100f;
+
+    private static final Action[] ACTIONS = Action.values();
+    public static final int ACTION_COUNT = ACTIONS.length;
+
+    private final GameEngine[] engines;
+    private final SplittableRandom[] seeds;
+    private final float[] observations;
+    private final float[] rewards;
+    private final boolean[] dones;
+    private final int[] finalDistances;
+    private long episodes;
+
+    /**
+     * @param count 同时运行的局数
+     * @param seed  所有局的种子都由它派生，同样的种子和操作序列得到同样的结果
+     */
+    public BatchEnvironment(int count, long seed) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("局数必须大于0: " + count);
+        }
+        this.engines = new GameEngine[count];
+        this.seeds = new SplittableRandom[count];
+        SplittableRandom root = new SplittableRandom(seed);
+        for (int i = 0; i < count; i++) {
+            seeds[i] = root.split();
+            GameEngine engine = new GameEngine(null);
+            engine.setUnattended(true);
+            engines[i] = engine;
+        }
+        this.observations = new float[count * OBSERVATION_SIZE];
+        this.rewards = new float[count];
+        this.dones = new boolean[count];
+        this.finalDistances = new int[count];
+    }
+
+    /**
+     * 所有局重新开始
+     *
+     * @return 观测数组（与 getObservations 是同一个数组）
+     */
+    public float[] reset() {
+        for (int i = 0; i < engines.length; i++) {
+            startEpisode(i);
+            rewards[i] = 0;
+            dones[i] = false;
+            writeObservation(i);
+        }
+        return observations;
+    }
+
+    /**
+     * 每局执行一个操作并推进一个逻辑帧
+     *
+     * @param actions 每局的操作序号（Action.ordinal()）
+     */
+    public void step(int[] actions) {
+        if (actions.length != engines.length) {
+            throw new IllegalArgumentException("操作数量 " + actions.length + " 与局数 " + engines.length + " 不一致");
+        }
+        // 先检查全部操作，避免只推进了一部分局
+        for (int action : actions) {
+            if (action < 0 || action >= ACTION_COUNT) {
+                throw new IllegalArgumentException("无效的操作: " + action);
+            }
+        }
+        for (int i = 0; i < engines.length; i++) {
+            GameEngine engine = engines[i];
+            if (engine.getGameState() != GameEngine.GameState.PLAYING) {
+                startEpisode(i);
+            }
+            int distance = engine.getScoreSystem().getDistance();
+            int health = engine.getPlayer().getHealth();
+
+            engine.applyAction(ACTIONS[actions[i]]);
+            advanceTick(engine);
+
+            rewards[i] = engine.getScoreSystem().getDistance() - distance
+                    - HIT_PENALTY * Math.max(0, health - engine.getPlayer().getHealth());
+            dones[i] = engine.getGameState() == GameEngine.GameState.GAME_OVER;
+            if (dones[i]) {
+                finalDistances[i] = engine.getScoreSystem().getDistance();
+                startEpisode(i);
+            }
+            writeObservation(i);
+        }
+    }
+
+    /**
+     * 开始新的一局，并停在下一次 update() 就是逻辑帧的位置，使每一步的操作都在逻辑帧之前生效
+     */
+    private void startEpisode(int i) {
+        GameEngine engine = engines[i];
+        engine.startGame(seeds[i].nextLong());
+        if (!engine.isLogicTickNext()) {
+            engine.update();
+        }
+        episodes++;
+    }
+
+    /**
+     * 逻辑帧 + 其后的普通帧
+     */
+    private static void advanceTick(GameEngine engine) {
+        engine.update();
+        if (engine.getGameState() == GameEngine.GameState.PLAYING) {
+            engine.update();
+        }
+    }
+
+    private void writeObservation(int i) {
+        GameEngine engine = engines[i];
+        int base = i * OBSERVATION_SIZE;
+        Player player = engine.getPlayer();
+        RoadManager road = engine.getRoadManager();
+
+        observations[base + OBS_LANE] = player.getLane();
+        observations[base + OBS_STATE] = player.isJumping() ? 1 : player.isSliding() ? 2 : 0;
+        observations[base + OBS_STATE_TIMER] = player.getStateTimer();
+        observations[base + OBS_SPEED] = engine.getGameSpeed();
+        observations[base + OBS_CURVATURE] = (float) road.getCurrentCurvature();
+        int turn = 0;
+        if (road.isTurnActive()) {
+            turn = road.getCurrentSegment() == RoadManager.SegmentType.TURN_LEFT_90 ? -1 : 1;
+        }
+        observations[base + OBS_TURN] = turn;
+        observations[base + OBS_TURN_DISTANCE] = turn != 0 ? road.getSegmentDistanceRemaining() : 0;
+        observations[base + OBS_HEALTH] = player.getHealth();
+
+        int grid = base + OBS_GRID;
+        Arrays.fill(observations, grid, grid + GRID_ROWS * GRID_LANES, CELL_EMPTY);
+        int rows = engine.getScreenRows();
+        List<Item> items = engine.getItems();
+        for (int j = 0; j < items.size(); j++) {
+            Item item = items.get(j);
+            mark(grid, rows, item.getY(), item.getLane(), CELL_ITEM);
+        }
+        // 障碍物覆盖道具
+        List<Obstacle> obstacles = engine.getObstacles();
+        for (int j = 0; j < obstacles.size(); j++) {
+            Obstacle obstacle = obstacles.get(j);
+            int cell = obstacle.getHeight() == Obstacle.ObstacleHeight.LOW ? CELL_LOW : CELL_HIGH;
+            mark(grid, rows, obstacle.getY(), obstacle.getLane(), cell);
+        }
+    }
+
+    private void mark(int grid, int rows, int y, int lane, int cell) {
+        if (y < 0 || y >= rows || lane < 0 || lane >= GRID_LANES) {
+            return;
+        }
+        int row = y * GRID_ROWS / rows;
+        observations[grid + row * GRID_LANES + lane] = cell;
+    }
+
+    public int size() {
+        return engines.length;
+    }
+
+    /**
+     * 观测数组：第 i 局从 i * OBSERVATION_SIZE 开始
+     */
+    public float[] getObservations() {
+        return observations;
+    }
+
+    /**
+     * 上一步每局的奖励：跑过的距离减去受击惩罚
+     */
+    public float[] getRewards() {
+        return rewards;
+    }
+
+    /**
+     * 上一步每局是否结束（已自动重开）
+     */
+    public boolean[] getDones() {
+        return dones;
+    }
+
+    /**
+     * 上一步结束的那局跑过的距离（dones[i] 为 true 时有效）
+     */
+    public int[] getFinalDistances() {
+        return finalDistances;
+    }
+
+    /**
+     * 累计开始过的局数
+     */
+    public long getEpisodeCount() {
+        return episodes;
+    }
+
+    /**
+     * 第 i 局的引擎（调试和评估用，不要在 step 之间修改它）
+     */
+    public GameEngine getEngine(int i) {
+        return engines[i];
+    }
+}
@@ -0,0 +1,449 @@
+package com.hakimi.road.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.hakimi.road.engine.GameEngine;
+import com.hakimi.road.level.DifficultyConfig;
+import com.hakimi.road.level.RoadManager;
+import com.hakimi.road.util.GameConfig;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * 难度调参扫描
+ * 对可调参数的每个组合（障碍物密度、加速间隔、弯道权重倍数、道具概率）生成一份 DifficultyConfig，
+ * 用会犯错的自动驾驶并行跑若干局，统计距离分布、死亡原因和第一次受击的时间，
+ * 每个组合跑完立即交给回调（写报告）。所有组合使用同一组赛道种子和自动驾驶种子，组合之间的差别只来自参数。
+ * 用法: mvn exec:java -Dexec.mainClass=com.hakimi.road.ai.DifficultySweep
+ *       -Dexec.args="out=data/sweep.csv games=2000 spawn=6,8,10,12 interval=30,50,80 curves=0.5,1,2 items=2,5,10"
+ * 报告文件以 .json/.jsonl 结尾时每行一个 JSON 对象，否则为 CSV。
+ */
+public class DifficultySweep {
+    private static final int SURVIVED = GameEngine.HitCause.values().length;
+    private static final String[] CSV_COLUMNS = { "spawnRate", "speedInterval", "curveScale", "itemChance", "games",
+            "meanDistance", "p10Distance", "p50Distance", "p90Distance", "maxDistance", "deathsLowObstacle",
+            "deathsHighObstacle", "deathsTurn", "survived", "hitless", "meanFirstHitSeconds",
+            "medianFirstHitSeconds" };
+
+    private final JsonNode base;
+    private final int games;
+    private final long seed;
+    private final double mistakeRate;
+    private final int maxFrames;
+    private int[] spawnRates;
+    private int[] speedIntervals;
+    private double[] curveScales = { 1 };
+    private int[] itemChances;
+
+    /**
+     * 一个参数组合的统计结果
+     */
+    public static final class Stats {
+        private final int spawnRate;
+        private final int speedInterval;
+        private final double curveScale;
+        private final int itemChance;
+        private final int games;
+        private final double meanDistance;
+        private final int p10Distance;
+        private final int p50Distance;
+        private final int p90Distance;
+        private final int maxDistance;
+        private final int[] deaths;
+        private final int hitless;
+        private final double meanFirstHitSeconds;
+        private final double medianFirstHitSeconds;
+
+        private Stats(int spawnRate, int speedInterval, double curveScale, int itemChance, int[] distances,
+                int[] causes, int[] firstHitFrames) {
+            this.spawnRate = spawnRate;
+            this.speedInterval = speedInterval;
+            this.curveScale = curveScale;
+            this.itemChance = itemChance;
+            this.games = distances.length;
+
+            int[] sorted = distances.clone();
+            Arrays.sort(sorted);
+            this.meanDistance = Arrays.stream(sorted).asLongStream().sum() / (double) Math.max(1, games);
+            this.p10Distance = percentile(sorted, 10);
+            this.p50Distance = percentile(sorted, 50);
+            this.p90Distance = percentile(sorted, 90);
+            this.maxDistance = games > 0 ? sorted[games - 1] : 0;
+
+            this.deaths = new int[SURVIVED + 1];
+            for (int cause : causes) {
+                deaths[cause]++;
+            }
+
+            int[] hits = Arrays.stream(firstHitFrames).filter(frame -> frame >= 0).sorted().toArray();
+            this.hitless = games - hits.length;
+            double secondsPerFrame = GameConfig.GAME_LOOP_DELAY_MS / 1000.0;
+            this.meanFirstHitSeconds = hits.length == 0 ? 0
+                    : Arrays.stream(hits).asLongStream().sum() * secondsPerFrame / hits.length;
+            this.medianFirstHitSeconds = percentile(hits, 50) * secondsPerFrame;
+        }
+
+        private static int percentile(int[] sorted, int percent) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+        }
+
+        public int getSpawnRate() {
+            return spawnRate;
+        }
+
+        public int getSpeedInterval() {
+            return speedInterval;
+        }
+
+        public double getCurveScale() {
+            return curveScale;
+        }
+
+        public int getItemChance() {
+            return itemChance;
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        public double getMeanDistance() {
+            return meanDistance;
+        }
+
+        public int getP10Distance() {
+            return p10Distance;
+        }
+
+        public int getP50Distance() {
+            return p50Distance;
+        }
+
+        public int getP90Distance() {
+            return p90Distance;
+        }
+
+        public int getMaxDistance() {
+            return maxDistance;
+        }
+
+        /**
+         * 因该原因（最后一次受击）结束的局数
+         */
+        public int getDeaths(GameEngine.HitCause cause) {
+            return deaths[cause.ordinal()];
+        }
+
+        public int getDeathsLowObstacle() {
+            return getDeaths(GameEngine.HitCause.LOW_OBSTACLE);
+        }
+
+        public int getDeathsHighObstacle() {
+            return getDeaths(GameEngine.HitCause.HIGH_OBSTACLE);
+        }
+
+        public int getDeathsTurn() {
+            return getDeaths(GameEngine.HitCause.TURN);
+        }
+
+        /**
+         * 跑满帧数上限仍未结束的局数
+         */
+        public int getSurvived() {
+            return deaths[SURVIVED];
+        }
+
+        /**
+         * 一次都没有受击的局数
+         */
+        public int getHitless() {
+            return hitless;
+        }
+
+        /**
+         * 第一次受击的平均游戏时间（秒，只统计受过击的局）
+         */
+        public double getMeanFirstHitSeconds() {
+            return meanFirstHitSeconds;
+        }
+
+        public double getMedianFirstHitSeconds() {
+            return medianFirstHitSeconds;
+        }
+
+        /**
+         * 与 CSV_COLUMNS 对应的一行
+         */
+        String toCsv() {
+            return String.format(Locale.ROOT, "%d,%d,%s,%d,%d,%.1f,%d,%d,%d,%d,%d,%d,%d,%d,%d,%.2f,%.2f",
+                    spawnRate, speedInterval, curveScale, itemChance, games, meanDistance, p10Distance,
+                    p50Distance, p90Distance, maxDistance, getDeathsLowObstacle(), getDeathsHighObstacle(),
+                    getDeathsTurn(), getSurvived(), hitless, meanFirstHitSeconds, medianFirstHitSeconds);
+        }
+    }
+
+    /**
+     * 流式报告：每个组合一行，写完立即刷新，中途停止也不会丢掉已完成的组合
+     */
+    public static final class Report implements Consumer<Stats>, Closeable {
+        private final Writer writer;
+        private final boolean json;
+        private final ObjectMapper objectMapper = new ObjectMapper();
+
+        /**
+         * @param json true 时每行一个 JSON 对象，否则为带表头的 CSV
+         */
+        public Report(Writer writer, boolean json) throws IOException {
+            this.writer = writer;
+            this.json = json;
+            if (!json) {
+                writer.write(String.join(",", CSV_COLUMNS));
+                writer.write('\n');
+                writer.flush();
+            }
+        }
+
+        /**
+         * 按扩展名选择格式
+         */
+        public static Report open(Path path) throws IOException {
+            String name = path.getFileName().toString();
+            boolean json = name.endsWith(".json") || name.endsWith(".jsonl");
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+            return new Report(writer, json);
+        }
+
+        @Override
+        public void accept(Stats stats) {
+            try {
+                writer.write(json ? objectMapper.writeValueAsString(stats) : stats.toCsv());
+                writer.write('\n');
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    /**
+     * 以当前生效的难度配置为基础
+     */
+    public DifficultySweep(int games, long seed, double mistakeRate, int maxFrames) {
+        this(DifficultyConfig.getInstance(), games, seed, mistakeRate, maxFrames);
+    }
+
+    /**
+     * @param base        未扫描的参数取自这份配置
+     * @param games       每个组合的局数
+     * @param mistakeRate 自动驾驶每个逻辑帧乱按的概率，必须大于0才会死亡
+     * @param maxFrames   每局的帧数上限，跑满算作存活
+     */
+    public DifficultySweep(DifficultyConfig base, int games, long seed, double mistakeRate, int maxFrames) {
+        this.base = base.toJson();
+        this.games = games;
+        this.seed = seed;
+        this.mistakeRate = mistakeRate;
+        this.maxFrames = maxFrames;
+        this.spawnRates = new int[] { base.bandAt(0).getObstacleSpawnRate() };
+        this.speedIntervals = new int[] { base.getSpeedIncreaseInterval() };
+        this.itemChances = new int[] { base.bandAt(0).getItemChance() };
+    }
+
+    /**
+     * 障碍物密度（平均每多少个距离单位一个，所有区间相同）
+     */
+    public void setSpawnRates(int... spawnRates) {
+        this.spawnRates = spawnRates;
+    }
+
+    /**
+     * 速度每加一所需的分数
+     */
+    public void setSpeedIntervals(int... speedIntervals) {
+        this.speedIntervals = speedIntervals;
+    }
+
+    /**
+     * 弯道和急转弯权重的倍数（直道权重不变）
+     */
+    public void setCurveScales(double... curveScales) {
+        this.curveScales = curveScales;
+    }
+
+    /**
+     * 道具概率（百分比，所有区间相同）
+     */
+    public void setItemChances(int... itemChances) {
+        this.itemChances = itemChances;
+    }
+
+    public int getCombinationCount() {
+        return spawnRates.length * speedIntervals.length * curveScales.length * itemChances.length;
+    }
+
+    /**
+     * 依次跑完所有组合，每个组合结束时调用 listener
+     */
+    public void run(Consumer<Stats> listener) {
+        SplittableRandom seeds = new SplittableRandom(seed);
+        long[] worldSeeds = new long[games];
+        long[] botSeeds = new long[games];
+        for (int i = 0; i < games; i++) {
+            worldSeeds[i] = seeds.nextLong();
+            botSeeds[i] = seeds.nextLong();
+        }
+        for (int spawnRate : spawnRates) {
+            for (int speedInterval : speedIntervals) {
+                for (double curveScale : curveScales) {
+                    for (int itemChance : itemChances) {
+                        DifficultyConfig config = configFor(spawnRate, speedInterval, curveScale, itemChance);
+                        listener.accept(runCombination(config, worldSeeds, botSeeds, spawnRate, speedInterval,
+                                curveScale, itemChance));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 在基础配置的 JSON 上改写参数
+     */
+    DifficultyConfig configFor(int spawnRate, int speedInterval, double curveScale, int itemChance) {
+        ObjectNode root = base.deepCopy();
+        root.put("speedIncreaseInterval", speedInterval);
+        for (JsonNode node : root.path("bands")) {
+            ObjectNode band = (ObjectNode) node;
+            band.put("obstacleSpawnRate", spawnRate);
+            band.put("itemChance", itemChance);
+            ObjectNode segments = (ObjectNode) band.path("segments");
+            Iterator<Map.Entry<String, JsonNode>> fields = segments.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (!RoadManager.SegmentType.STRAIGHT.name().equals(field.getKey())) {
+                    field.setValue(segments.numberNode(field.getValue().asDouble() * curveScale));
+                }
+            }
+        }
+        return DifficultyConfig.fromJson(root);
+    }
+
+    private Stats runCombination(DifficultyConfig config, long[] worldSeeds, long[] botSeeds, int spawnRate,
+            int speedInterval, double curveScale, int itemChance) {
+        int[] distances = new int[games];
+        int[] causes = new int[games];
+        int[] firstHitFrames = new int[games];
+        // 分成比核心数多几倍的批次，每批复用一个引擎；每局只写自己的下标
+        int batches = Math.max(1, Math.min(games, Runtime.getRuntime().availableProcessors() * 4));
+        IntStream.range(0, batches).parallel().forEach(batch -> {
+            GameEngine engine = new GameEngine(null);
+            engine.setUnattended(true);
+            engine.setDifficulty(config);
+            for (int i = batch; i < games; i += batches) {
+                playGame(engine, worldSeeds[i], botSeeds[i], i, distances, causes, firstHitFrames);
+            }
+        });
+        return new Stats(spawnRate, speedInterval, curveScale, itemChance, distances, causes, firstHitFrames);
+    }
+
+    private void playGame(GameEngine engine, long worldSeed, long botSeed, int index, int[] distances,
+            int[] causes, int[] firstHitFrames) {
+        Autopilot autopilot = new Autopilot(botSeed, mistakeRate);
+        engine.startGame(worldSeed);
+        int maxHealth = engine.getPlayer().getMaxHealth();
+        int firstHit = -1;
+        int frame = 0;
+        for (; frame < maxFrames && engine.getGameState() == GameEngine.GameState.PLAYING; frame++) {
+            autopilot.control(engine);
+            engine.update();
+            if (firstHit < 0 && engine.getPlayer().getHealth() < maxHealth) {
+                firstHit = frame;
+            }
+        }
+        distances[index] = engine.getScoreSystem().getDistance();
+        causes[index] = engine.getGameState() == GameEngine.GameState.GAME_OVER
+                ? engine.getLastHitCause().ordinal() : SURVIVED;
+        firstHitFrames[index] = firstHit;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                System.err.println("用法: DifficultySweep out=报告.csv|.jsonl [games=局数] [spawn=6,8,10] [interval=30,50]"
+                        + " [curves=0.5,1,2] [items=2,5] [seed=种子] [mistakes=失误率] [maxFrames=每局帧数上限]");
+                System.exit(2);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        // 大量对局同时运行时日志会成为瓶颈
+        Configurator.setAllLevels(LogManager.ROOT_LOGGER_NAME, Level.OFF);
+
+        int games = Integer.parseInt(options.getOrDefault("games", "1000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", String.valueOf(System.nanoTime())));
+        double mistakeRate = Double.parseDouble(options.getOrDefault("mistakes", "0.02"));
+        // 默认每局最多 20 分钟游戏时间
+        int maxFrames = Integer.parseInt(options.getOrDefault("maxFrames",
+                String.valueOf(20 * 60 * 1000 / GameConfig.GAME_LOOP_DELAY_MS)));
+        DifficultySweep sweep = new DifficultySweep(games, seed, mistakeRate, maxFrames);
+        if (options.containsKey("spawn")) {
+            sweep.setSpawnRates(parseInts(options.get("spawn")));
+        }
+        if (options.containsKey("interval")) {
+            sweep.setSpeedIntervals(parseInts(options.get("interval")));
+        }
+        if (options.containsKey("curves")) {
+            sweep.setCurveScales(Arrays.stream(options.get("curves").split(",")).mapToDouble(Double::parseDouble)
+                    .toArray());
+        }
+        if (options.containsKey("items")) {
+            sweep.setItemChances(parseInts(options.get("items")));
+        }
+
+        Path out = Paths.get(options.getOrDefault("out", "data/sweep.csv"));
+        System.out.printf("种子 %d: %d 个组合, 每个 %d 局, 报告写入 %s%n", seed, sweep.getCombinationCount(), games, out);
+        long start = System.nanoTime();
+        try (Report report = Report.open(out)) {
+            sweep.run(stats -> {
+                report.accept(stats);
+                System.out.printf("%s (%.0f 秒)%n", stats.toCsv(), (System.nanoTime() - start) / 1e9);
+            });
+        }
+    }
+
+    private static int[] parseInts(String list) {
+        return Arrays.stream(list.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+}
@@ -0,0 +1,168 @@
+package com.hakimi.road.ai;
+
+import com.hakimi.road.engine.GameEngine;
+import com.hakimi.road.entity.Player;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 浸泡测试
+ * 在无界面模式下并行跑大量自动驾驶，不睡眠、不渲染，游戏结束后换一个种子继续，
+ * 统计局数、距离和受击次数，并收集运行中抛出的异常（附带种子和帧号，便于复现）。
+ * 用法: mvn exec:java -Dexec.mainClass=com.hakimi.road.ai.SoakRunner -Dexec.args="机器人数 每个的帧数 [种子] [失误率]"
+ */
+public class SoakRunner {
+    private final int bots;
+    private final long framesPerBot;
+    private final long seed;
+    private final double mistakeRate;
+
+    /**
+     * 汇总结果
+     */
+    public static final class Result {
+        private long frames;
+        private int runs;
+        private long totalDistance;
+        private int maxDistance;
+        private int hits;
+        private final List<String> failures = new ArrayList<>();
+
+        private void merge(Result other) {
+            frames += other.frames;
+            runs += other.runs;
+            totalDistance += other.totalDistance;
+            maxDistance = Math.max(maxDistance, other.maxDistance);
+            hits += other.hits;
+            failures.addAll(other.failures);
+        }
+
+        public long getFrames() {
+            return frames;
+        }
+
+        /**
+         * 结束的局数（包括被打断的最后一局）
+         */
+        public int getRuns() {
+            return runs;
+        }
+
+        public long getTotalDistance() {
+            return totalDistance;
+        }
+
+        public int getMaxDistance() {
+            return maxDistance;
+        }
+
+        public int getHits() {
+            return hits;
+        }
+
+        public List<String> getFailures() {
+            return Collections.unmodifiableList(failures);
+        }
+    }
+
+    /**
+     * @param mistakeRate 自动驾驶每个逻辑帧乱按的概率，大于0时才会走到受击和游戏结束
+     */
+    public SoakRunner(int bots, long framesPerBot, long seed, double mistakeRate) {
+        this.bots = bots;
+        this.framesPerBot = framesPerBot;
+        this.seed = seed;
+        this.mistakeRate = mistakeRate;
+    }
+
+    /**
+     * 并行运行所有机器人，全部结束后返回
+     */
+    public Result run() {
+        SplittableRandom seeds = new SplittableRandom(seed);
+        long[] botSeeds = new long[bots];
+        for (int i = 0; i < bots; i++) {
+            botSeeds[i] = seeds.nextLong();
+        }
+        List<Result> results = IntStream.range(0, bots).parallel()
+                .mapToObj(i -> runBot(i, botSeeds[i]))
+                .collect(Collectors.toList());
+        Result total = new Result();
+        for (Result result : results) {
+            total.merge(result);
+        }
+        return total;
+    }
+
+    private Result runBot(int index, long botSeed) {
+        Result result = new Result();
+        SplittableRandom worldSeeds = new SplittableRandom(botSeed);
+        Autopilot autopilot = new Autopilot(botSeed, mistakeRate);
+        GameEngine engine = new GameEngine(null);
+        engine.setUnattended(true);
+        long worldSeed = worldSeeds.nextLong();
+        long frame = 0;
+        try {
+            engine.startGame(worldSeed);
+            for (; frame < framesPerBot; frame++) {
+                if (engine.getGameState() == GameEngine.GameState.GAME_OVER) {
+                    recordRun(engine, result);
+                    worldSeed = worldSeeds.nextLong();
+                    engine.startGame(worldSeed);
+                }
+                autopilot.control(engine);
+                engine.update();
+            }
+            recordRun(engine, result);
+        } catch (Throwable e) {
+            result.failures.add("bot " + index + " seed " + worldSeed + " frame " + frame + ": " + e);
+        }
+        result.frames = frame;
+        return result;
+    }
+
+    private static void recordRun(GameEngine engine, Result result) {
+        int distance = engine.getScoreSystem().getDistance();
+        Player player = engine.getPlayer();
+        result.runs++;
+        result.totalDistance += distance;
+        result.maxDistance = Math.max(result.maxDistance, distance);
+        result.hits += Math.max(0, player.getMaxHealth() - player.getHealth());
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("用法: SoakRunner 机器人数 每个的帧数 [种子] [失误率]");
+            System.exit(2);
+        }
+        // 大量机器人同时运行时日志会成为瓶颈
+        Configurator.setAllLevels(LogManager.ROOT_LOGGER_NAME, Level.OFF);
+
+        int bots = Integer.parseInt(args[0]);
+        long frames = Long.parseLong(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        double mistakeRate = args.length > 3 ? Double.parseDouble(args[3]) : 0.02;
+
+        long start = System.nanoTime();
+        Result result = new SoakRunner(bots, frames, seed, mistakeRate).run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("种子 %d: %d 个机器人, %d 帧, %.1f 秒 (%.0f 帧/秒)%n", seed, bots, result.getFrames(),
+                seconds, result.getFrames() / Math.max(seconds, 1e-9));
+        System.out.printf("局数 %d, 平均距离 %d, 最远 %d, 受击 %d%n", result.getRuns(),
+                result.getTotalDistance() / Math.max(1, result.getRuns()), result.getMaxDistance(), result.getHits());
+        for (String failure : result.getFailures()) {
+            System.out.println("失败: " + failure);
+        }
+        System.exit(result.getFailures().isEmpty() ? 0 : 1);
+    }
+}
@@ -0,0 +1,598 @@
+package com.hakimi.road.engine;
+
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.TextImage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ANSI 帧编码器（终端模式）
+ * 维护终端上实际显示内容的副本，只为发生变化的单元生成转义序列：
+ * 光标移动在 CUP/CUF/换行/直接重写中间字符之间取字节数最少的方式，
+ * 成段的空白用 EL/ECH 擦除代替逐个写空格；空格不关心前景色，不为它切换颜色；
+ * 前景色与背景色同时变化时合并为一条 SGR，并按颜色对缓存序列。
+ * 每帧的输出先写入一个缓冲区，再一次性写给终端。
+ * 低带宽模式下可以把颜色降为基本8色或单色，颜色越少需要切换的属性越少。
+ */
+public class AnsiFrameEncoder {
+    /**
+     * 输出的颜色范围
+     */
+    public enum ColorMode {
+        // 原样输出
+        FULL,
+        // 降为基本8色
+        ANSI8,
+        // 全部使用终端默认颜色
+        MONOCHROME
+    }
+
+    private static final byte ESC = 0x1b;
+    private static final byte[] RESET_AND_CLEAR = "\033[0m\033[H\033[2J".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RESET_ATTRIBUTES = "\033[0m".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RESET_SCROLL_REGION = "\033[r".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NEWLINE = { '\r', '\n' };
+    // 直接重写中间字符时最多跨越的单元数
+    private static final int MAX_REWRITE_GAP = 8;
+
+    // 终端上当前显示的内容，null 表示未知
+    private TextCharacter[][] displayed;
+    private int columns;
+    private int rows;
+
+    // 终端当前的光标位置（-1 表示未知）与文字属性
+    private int cursorX = -1;
+    private int cursorY = -1;
+    private TextColor currentForeground = TextColor.ANSI.DEFAULT;
+    private TextColor currentBackground = TextColor.ANSI.DEFAULT;
+    private EnumSet<SGR> currentModifiers = EnumSet.noneOf(SGR.class);
+
+    private final Map<TextColor, byte[]> foregroundCache = new HashMap<>();
+    private final Map<TextColor, byte[]> backgroundCache = new HashMap<>();
+    private final Map<TextColor, Map<TextColor, byte[]>> pairCache = new HashMap<>();
+
+    private final ColorMode colorMode;
+    // 降色后的单元（跨帧保留，游戏中出现的单元种类很少）
+    private final Map<TextCharacter, TextCharacter> reducedCells = new HashMap<>();
+
+    private byte[] buffer = new byte[16 * 1024];
+    private int length;
+    // 上一次 encode 是否从清屏重画开始
+    private boolean keyframe;
+
+    public AnsiFrameEncoder() {
+        this(ColorMode.FULL);
+    }
+
+    public AnsiFrameEncoder(ColorMode colorMode) {
+        this.colorMode = colorMode;
+    }
+
+    public ColorMode getColorMode() {
+        return colorMode;
+    }
+
+    /**
+     * 编码一帧（不滚动）
+     *
+     * @return 本帧输出的字节数
+     */
+    public int encode(TextImage frame) {
+        return encode(frame, 0, 0, 0);
+    }
+
+    /**
+     * 编码一帧，先让终端把 [scrollTop, scrollBottom] 区域上移 scrollDistance 行
+     *
+     * @return 本帧输出的字节数
+     */
+    public int encode(TextImage frame, int scrollTop, int scrollBottom, int scrollDistance) {
+        length = 0;
+        keyframe = false;
+        TerminalSize size = frame.getSize();
+        if (displayed == null || size.getColumns() != columns || size.getRows() != rows) {
+            resetDisplay(size);
+        } else if (scrollDistance > 0 && scrollTop < scrollBottom) {
+            scroll(scrollTop, scrollBottom, scrollDistance);
+        }
+
+        for (int y = 0; y < rows; y++) {
+            TextCharacter[] line = displayed[y];
+            for (int x = 0; x < columns; x++) {
+                TextCharacter wanted = cellAt(frame, x, y);
+                TextCharacter shown = line[x];
+                if (looksSame(wanted, shown)) {
+                    if (wanted.isDoubleWidth()) {
+                        x++; // 跳过后半个宽字符
+                    }
+                    continue;
+                }
+                if (wanted.isDoubleWidth() && x + 1 >= columns) {
+                    // 最后一列放不下宽字符
+                    wanted = wanted.withCharacter(' ');
+                }
+                if (isBlank(wanted)) {
+                    int erased = eraseBlankRun(frame, x, y);
+                    if (erased > 0) {
+                        x += erased - 1;
+                        continue;
+                    }
+                }
+
+                moveCursor(x, y);
+                applyAttributes(wanted);
+                appendCharacter(wanted);
+                line[x] = wanted;
+
+                if (wanted.isDoubleWidth()) {
+                    line[x + 1] = cellAt(frame, x + 1, y);
+                    advanceCursor(2);
+                    x++;
+                } else {
+                    advanceCursor(1);
+                    if (shown != null && shown.isDoubleWidth() && x + 1 < columns) {
+                        // 覆盖了宽字符的前半个，后半个在终端上的状态不确定
+                        line[x + 1] = null;
+                    }
+                }
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 把上一次 encode 的结果一次性写出
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (length > 0) {
+            out.write(buffer, 0, length);
+            out.flush();
+        }
+    }
+
+    /**
+     * 忘记终端上的内容，下一帧整屏重画
+     */
+    public void invalidate() {
+        displayed = null;
+    }
+
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * 上一次 encode 的输出是否是整屏重画（不依赖终端上原有的内容）
+     */
+    public boolean isKeyframe() {
+        return keyframe;
+    }
+
+    /**
+     * 帧中 (x, y) 处按颜色模式降色后的单元
+     */
+    private TextCharacter cellAt(TextImage frame, int x, int y) {
+        TextCharacter c = frame.getCharacterAt(x, y);
+        if (c == null) {
+            return TextCharacter.DEFAULT_CHARACTER;
+        }
+        if (colorMode == ColorMode.FULL) {
+            return c;
+        }
+        TextCharacter reduced = reducedCells.get(c);
+        if (reduced == null) {
+            reduced = c.withForegroundColor(reduceColor(c.getForegroundColor(), true))
+                    .withBackgroundColor(reduceColor(c.getBackgroundColor(), false));
+            reducedCells.put(c, reduced);
+        }
+        return reduced;
+    }
+
+    private TextColor reduceColor(TextColor color, boolean foreground) {
+        if (colorMode == ColorMode.MONOCHROME) {
+            return TextColor.ANSI.DEFAULT;
+        }
+        if (color instanceof TextColor.ANSI) {
+            TextColor.ANSI ansi = (TextColor.ANSI) color;
+            if (ansi == TextColor.ANSI.BLACK_BRIGHT) {
+                // 亮黑色降为黑色会和路面底色混在一起，前景改用白色
+                return foreground ? TextColor.ANSI.WHITE : TextColor.ANSI.BLACK;
+            }
+            if (ansi.isBright()) {
+                String name = ansi.name();
+                return TextColor.ANSI.valueOf(name.substring(0, name.length() - "_BRIGHT".length()));
+            }
+            return ansi;
+        }
+        // 索引色和RGB取最接近的基本色
+        TextColor.ANSI nearest = TextColor.ANSI.BLACK;
+        int best = Integer.MAX_VALUE;
+        for (TextColor.ANSI ansi : TextColor.ANSI.values()) {
+            if (ansi == TextColor.ANSI.DEFAULT || ansi.isBright()) {
+                continue;
+            }
+            int dr = ansi.getRed() - color.getRed();
+            int dg = ansi.getGreen() - color.getGreen();
+            int db = ansi.getBlue() - color.getBlue();
+            int distance = dr * dr + dg * dg + db * db;
+            if (distance < best) {
+                best = distance;
+                nearest = ansi;
+            }
+        }
+        return nearest;
+    }
+
+    private void resetDisplay(TerminalSize size) {
+        columns = size.getColumns();
+        rows = size.getRows();
+        displayed = new TextCharacter[rows][columns];
+        for (TextCharacter[] line : displayed) {
+            Arrays.fill(line, TextCharacter.DEFAULT_CHARACTER);
+        }
+        append(RESET_AND_CLEAR);
+        keyframe = true;
+        cursorX = 0;
+        cursorY = 0;
+        resetAttributes();
+    }
+
+    /**
+     * 从 (x, y) 开始的一段空白用擦除序列代替逐个写空格，划算时才擦除
+     *
+     * @return 擦除的单元数，没有擦除时返回0
+     */
+    private int eraseBlankRun(TextImage frame, int x, int y) {
+        TextCharacter[] line = displayed[y];
+        if (x > 0 && (line[x - 1] == null || line[x - 1].isDoubleWidth())) {
+            // 擦掉宽字符的后半个会连带前半个
+            return 0;
+        }
+        TextCharacter blank = cellAt(frame, x, y);
+        int end = x;
+        int changed = 0;
+        while (end < columns) {
+            TextCharacter c = cellAt(frame, end, y);
+            if (!isBlank(c) || !c.getBackgroundColor().equals(blank.getBackgroundColor())) {
+                break;
+            }
+            if (!looksSame(c, line[end])) {
+                changed++;
+            }
+            end++;
+        }
+        int run = end - x;
+        boolean toEndOfLine = end == columns;
+        // 擦到行尾用 EL，否则用 ECH，之后还要把光标移过这一段
+        int eraseCost = toEndOfLine ? 3 : 3 + digits(run) + forwardCost(run);
+        if (changed <= eraseCost) {
+            return 0;
+        }
+
+        moveCursor(x, y);
+        applyAttributes(blank);
+        if (toEndOfLine) {
+            append(ESC);
+            append((byte) '[');
+            append((byte) 'K');
+        } else {
+            appendCsi(run, 'X');
+            if (line[end - 1] != null && line[end - 1].isDoubleWidth()) {
+                line[end] = null;
+            }
+        }
+        for (int i = x; i < end; i++) {
+            line[i] = cellAt(frame, i, y);
+        }
+        return run;
+    }
+
+    /**
+     * 用 DECSTBM 设置滚动区域并上移，副本同步平移，底部空出的行为空白
+     */
+    private void scroll(int top, int bottom, int distance) {
+        bottom = Math.min(bottom, rows - 1);
+        distance = Math.min(distance, bottom - top + 1);
+
+        // 新出现的行用默认背景填充
+        append(RESET_ATTRIBUTES);
+        resetAttributes();
+        appendCsi(top + 1, bottom + 1, 'r');
+        appendCsi(bottom + 1, 1, 'H');
+        for (int i = 0; i < distance; i++) {
+            append((byte) '\n');
+        }
+        append(RESET_SCROLL_REGION);
+        cursorX = -1;
+        cursorY = -1;
+
+        for (int y = top; y <= bottom; y++) {
+            int source = y + distance;
+            if (source <= bottom) {
+                displayed[y] = displayed[source];
+            } else {
+                TextCharacter[] blank = new TextCharacter[columns];
+                Arrays.fill(blank, TextCharacter.DEFAULT_CHARACTER);
+                displayed[y] = blank;
+            }
+        }
+    }
+
+    /**
+     * 选择字节数最少的方式把光标移到 (x, y)
+     */
+    private void moveCursor(int x, int y) {
+        if (x == cursorX && y == cursorY) {
+            return;
+        }
+        int absoluteCost = 4 + digits(y + 1) + digits(x + 1);
+
+        if (y == cursorY && x > cursorX && cursorX >= 0) {
+            int gap = x - cursorX;
+            int forwardCost = forwardCost(gap);
+            int rewriteCost = rewriteCost(cursorX, x, y);
+            if (rewriteCost >= 0 && rewriteCost <= forwardCost && rewriteCost <= absoluteCost) {
+                TextCharacter[] line = displayed[y];
+                for (int i = cursorX; i < x; i++) {
+                    appendCharacter(line[i]);
+                }
+                cursorX = x;
+                return;
+            }
+            if (forwardCost < absoluteCost) {
+                appendForward(gap);
+                cursorX = x;
+                return;
+            }
+        }
+
+        if (cursorY >= 0 && y == cursorY + 1 && 2 + forwardCost(x) < absoluteCost) {
+            // 回车换行后再右移（光标不在滚动区域底部，换行不会滚屏）
+            append(NEWLINE);
+            cursorX = 0;
+            cursorY = y;
+            if (x > 0) {
+                appendForward(x);
+                cursorX = x;
+            }
+            return;
+        }
+
+        appendCsi(y + 1, x + 1, 'H');
+        cursorX = x;
+        cursorY = y;
+    }
+
+    private static int forwardCost(int gap) {
+        return gap == 0 ? 0 : gap == 1 ? 3 : 3 + digits(gap);
+    }
+
+    private void appendForward(int gap) {
+        if (gap == 1) {
+            append(ESC);
+            append((byte) '[');
+            append((byte) 'C');
+        } else {
+            appendCsi(gap, 'C');
+        }
+    }
+
+    /**
+     * 两个单元在终端上看起来是否相同（空格只比较背景色）
+     */
+    private static boolean looksSame(TextCharacter a, TextCharacter b) {
+        if (a.equals(b)) {
+            return true;
+        }
+        return b != null && isBlank(a) && isBlank(b) && a.getBackgroundColor().equals(b.getBackgroundColor());
+    }
+
+    /**
+     * 不带下划线、反色等可见修饰的空格
+     */
+    private static boolean isBlank(TextCharacter c) {
+        return " ".equals(c.getCharacterString()) && c.getModifiers().isEmpty();
+    }
+
+    /**
+     * 直接重写 [from, to) 区间已显示字符的字节数，无法重写时返回-1
+     */
+    private int rewriteCost(int from, int to, int y) {
+        if (to - from > MAX_REWRITE_GAP) {
+            return -1;
+        }
+        TextCharacter[] line = displayed[y];
+        int cost = 0;
+        for (int i = from; i < to; i++) {
+            TextCharacter c = line[i];
+            if (c == null || c.isDoubleWidth() || c.getCharacterString().length() != 1
+                    || c.getCharacterString().charAt(0) >= 0x80
+                    || !c.getBackgroundColor().equals(currentBackground)
+                    || !c.getModifiers().equals(currentModifiers)
+                    || (!isBlank(c) && !c.getForegroundColor().equals(currentForeground))) {
+                return -1;
+            }
+            cost++;
+        }
+        return cost;
+    }
+
+    private void advanceCursor(int cells) {
+        cursorX += cells;
+        if (cursorX >= columns) {
+            // 写到最后一列后光标处于待换行状态，位置不可靠
+            cursorX = -1;
+            cursorY = -1;
+        }
+    }
+
+    /**
+     * 输出与当前属性不同的部分，前景和背景同时变化时合并为一条序列
+     */
+    private void applyAttributes(TextCharacter c) {
+        // 空格看不出前景色，沿用当前前景色可以省掉一次切换
+        TextColor fg = isBlank(c) ? currentForeground : c.getForegroundColor();
+        TextColor bg = c.getBackgroundColor();
+        EnumSet<SGR> modifiers = c.getModifiers();
+
+        if (!modifiers.equals(currentModifiers)) {
+            appendFullAttributes(fg, bg, modifiers);
+        } else {
+            boolean fgChanged = !fg.equals(currentForeground);
+            boolean bgChanged = !bg.equals(currentBackground);
+            if (fgChanged && bgChanged) {
+                append(pairCache.computeIfAbsent(fg, k -> new HashMap<>())
+                        .computeIfAbsent(bg, k -> buildSgr(fg.getForegroundSGRSequence(),
+                                bg.getBackgroundSGRSequence())));
+            } else if (fgChanged) {
+                append(foregroundCache.computeIfAbsent(fg, k -> buildSgr(k.getForegroundSGRSequence())));
+            } else if (bgChanged) {
+                append(backgroundCache.computeIfAbsent(bg, k -> buildSgr(k.getBackgroundSGRSequence())));
+            }
+        }
+        currentForeground = fg;
+        currentBackground = bg;
+    }
+
+    private void appendFullAttributes(TextColor fg, TextColor bg, EnumSet<SGR> modifiers) {
+        append(ESC);
+        append((byte) '[');
+        append((byte) '0');
+        for (SGR sgr : modifiers) {
+            String code = sgrCode(sgr);
+            if (code != null) {
+                append((byte) ';');
+                appendAscii(code);
+            }
+        }
+        append((byte) ';');
+        append(fg.getForegroundSGRSequence());
+        append((byte) ';');
+        append(bg.getBackgroundSGRSequence());
+        append((byte) 'm');
+        currentModifiers = EnumSet.copyOf(modifiers);
+    }
+
+    private static String sgrCode(SGR sgr) {
+        switch (sgr) {
+            case BOLD:
+                return "1";
+            case ITALIC:
+                return "3";
+            case UNDERLINE:
+                return "4";
+            case BLINK:
+                return "5";
+            case REVERSE:
+                return "7";
+            case CROSSED_OUT:
+                return "9";
+            case FRAKTUR:
+                return "20";
+            case BORDERED:
+                return "51";
+            case CIRCLED:
+                return "52";
+            default:
+                return null;
+        }
+    }
+
+    private static byte[] buildSgr(byte[]... parameters) {
+        int size = 3 + parameters.length - 1;
+        for (byte[] p : parameters) {
+            size += p.length;
+        }
+        byte[] sequence = new byte[size];
+        int pos = 0;
+        sequence[pos++] = ESC;
+        sequence[pos++] = '[';
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                sequence[pos++] = ';';
+            }
+            System.arraycopy(parameters[i], 0, sequence, pos, parameters[i].length);
+            pos += parameters[i].length;
+        }
+        sequence[pos] = 'm';
+        return sequence;
+    }
+
+    private void resetAttributes() {
+        currentForeground = TextColor.ANSI.DEFAULT;
+        currentBackground = TextColor.ANSI.DEFAULT;
+        currentModifiers = EnumSet.noneOf(SGR.class);
+    }
+
+    private void appendCharacter(TextCharacter c) {
+        String text = c.getCharacterString();
+        if (text.length() == 1 && text.charAt(0) < 0x80) {
+            append((byte) text.charAt(0));
+        } else {
+            append(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void appendCsi(int n, char command) {
+        append(ESC);
+        append((byte) '[');
+        appendNumber(n);
+        append((byte) command);
+    }
+
+    private void appendCsi(int a, int b, char command) {
+        append(ESC);
+        append((byte) '[');
+        appendNumber(a);
+        append((byte) ';');
+        appendNumber(b);
+        append((byte) command);
+    }
+
+    private void appendNumber(int n) {
+        if (n >= 10) {
+            appendNumber(n / 10);
+        }
+        append((byte) ('0' + n % 10));
+    }
+
+    private void appendAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            append((byte) s.charAt(i));
+        }
+    }
+
+    private void append(byte b) {
+        ensureCapacity(1);
+        buffer[length++] = b;
+    }
+
+    private void append(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+
+    private static int digits(int n) {
+        return n < 10 ? 1 : n < 100 ? 2 : n < 1000 ? 3 : 4;
+    }
+}
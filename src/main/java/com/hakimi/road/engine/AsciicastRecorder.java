@@ -0,0 +1,320 @@
+package com.hakimi.road.engine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * asciicast v2 录制器
+ * 输出线程把写给终端的字节连同时间戳交给录制器，由后台线程写成 asciinema 可以播放的 .cast 文件，
+ * 游戏逻辑和终端输出都不会等待磁盘。
+ * 两种模式：
+ * 持续录制整局会话；或者只在内存里保留最近 N 分钟（环形），需要时（例如游戏结束）才保存。
+ * 终端输出是增量的，环形模式按关键帧（整屏重画）分段丢弃旧数据，保存的录像总是从一次整屏重画开始。
+ */
+public class AsciicastRecorder implements Runnable {
+    private static final Logger logger = LogManager.getLogger(AsciicastRecorder.class);
+
+    // 保存请求后再等一会儿，把游戏结束画面也录进去
+    private static final long SAVE_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * 一次写出（或尺寸变化）
+     */
+    private static final class Event {
+        final long nanos;
+        final String type;
+        final String data;
+        final boolean keyframe;
+
+        Event(long nanos, String type, String data, boolean keyframe) {
+            this.nanos = nanos;
+            this.type = type;
+            this.data = data;
+            this.keyframe = keyframe;
+        }
+    }
+
+    private static final Event END = new Event(0, "", "", false);
+
+    private final Path target;
+    private final long ringNanos;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlockingQueue<Event> queue = new LinkedBlockingQueue<>();
+
+    // 终端尺寸（输出线程写，后台线程读）
+    private volatile int columns;
+    private volatile int rows;
+    // 上一个关键帧的时间（只属于输出线程）
+    private long lastKeyframeNanos;
+    private volatile long saveDeadline;
+
+    // 以下只属于后台线程
+    private Writer writer;
+    private long startNanos = -1;
+    private final Deque<List<Event>> segments = new ArrayDeque<>();
+    private int savedCount;
+
+    private Thread thread;
+
+    AsciicastRecorder(Path target, long ringNanos, int columns, int rows) {
+        this.target = target;
+        this.ringNanos = ringNanos;
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    /**
+     * 持续把整局会话录制到文件
+     */
+    public static AsciicastRecorder streaming(Path file, int columns, int rows) {
+        return new AsciicastRecorder(file, 0, columns, rows);
+    }
+
+    /**
+     * 只保留最近 minutes 分钟，调用 requestSave 时保存到目录 directory
+     */
+    public static AsciicastRecorder ring(Path directory, int minutes, int columns, int rows) {
+        return new AsciicastRecorder(directory, TimeUnit.MINUTES.toNanos(Math.max(1, minutes)), columns, rows);
+    }
+
+    public boolean isRing() {
+        return ringNanos > 0;
+    }
+
+    /**
+     * 启动后台写入线程
+     */
+    public synchronized void start() throws IOException {
+        if (thread != null) {
+            return;
+        }
+        if (isRing()) {
+            Files.createDirectories(target);
+        } else {
+            Path parent = target.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8);
+            writeHeader(writer);
+        }
+        Thread recordThread = new Thread(this, "asciicast-writer");
+        recordThread.setDaemon(true);
+        thread = recordThread;
+        recordThread.start();
+        logger.info("开始录制终端输出到 {}{}", target, isRing() ? " (环形)" : "");
+    }
+
+    /**
+     * 记录一次写给终端的输出（输出线程调用，不会阻塞）
+     *
+     * @param keyframe 这次输出是否从整屏重画开始
+     */
+    public void record(byte[] bytes, int offset, int length, boolean keyframe) {
+        if (length <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (keyframe) {
+            lastKeyframeNanos = now;
+        }
+        queue.offer(new Event(now, "o", new String(bytes, offset, length, StandardCharsets.UTF_8), keyframe));
+    }
+
+    /**
+     * 记录终端尺寸变化
+     */
+    public void resize(int columns, int rows) {
+        if (columns == this.columns && rows == this.rows) {
+            return;
+        }
+        this.columns = columns;
+        this.rows = rows;
+        queue.offer(new Event(System.nanoTime(), "r", columns + "x" + rows, false));
+    }
+
+    /**
+     * 环形模式下是否该插入一次整屏重画（保证丢弃旧数据后录像仍能从完整画面开始）
+     */
+    public boolean isKeyframeDue() {
+        return isRing() && System.nanoTime() - lastKeyframeNanos >= ringNanos / 4;
+    }
+
+    /**
+     * 保存环形缓冲里的录像（任意线程调用，稍后由后台线程写出）
+     */
+    public void requestSave() {
+        if (isRing() && saveDeadline == 0) {
+            saveDeadline = System.nanoTime() + SAVE_DELAY_NANOS;
+        }
+    }
+
+    /**
+     * 写完排队的输出后停止录制
+     */
+    public void close() throws InterruptedException {
+        Thread recordThread;
+        synchronized (this) {
+            recordThread = thread;
+            thread = null;
+        }
+        if (recordThread != null) {
+            queue.offer(END);
+            recordThread.join();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                Event event = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (event == END) {
+                    break;
+                }
+                if (event != null) {
+                    handle(event);
+                }
+                if (event == null || queue.isEmpty()) {
+                    idle();
+                }
+            }
+            if (saveDeadline != 0) {
+                saveRing();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("录制终端输出失败，停止录制", e);
+        } finally {
+            closeWriter();
+        }
+    }
+
+    private void handle(Event event) throws IOException {
+        if (!isRing()) {
+            writeEvent(writer, event, startNanos(event));
+            return;
+        }
+        if (event.keyframe || segments.isEmpty()) {
+            segments.addLast(new ArrayList<>());
+        }
+        segments.peekLast().add(event);
+        // 下一段的开头已经超出时间窗口时，整段丢弃
+        long cutoff = event.nanos - ringNanos;
+        while (segments.size() > 1 && segmentStart(secondSegment()) <= cutoff) {
+            segments.removeFirst();
+        }
+    }
+
+    private void idle() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        long deadline = saveDeadline;
+        if (deadline != 0 && System.nanoTime() - deadline >= 0) {
+            saveRing();
+        }
+    }
+
+    private List<Event> secondSegment() {
+        Iterator<List<Event>> iterator = segments.iterator();
+        iterator.next();
+        return iterator.next();
+    }
+
+    private static long segmentStart(List<Event> segment) {
+        return segment.get(0).nanos;
+    }
+
+    private long startNanos(Event event) {
+        if (startNanos < 0) {
+            startNanos = event.nanos;
+        }
+        return startNanos;
+    }
+
+    /**
+     * 把环形缓冲写成一个新文件，内存中的数据保留
+     */
+    private void saveRing() {
+        saveDeadline = 0;
+        if (segments.isEmpty()) {
+            return;
+        }
+        String name = "hakimi-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date())
+                + "-" + (++savedCount) + ".cast";
+        Path file = target.resolve(name);
+        long start = segmentStart(segments.peekFirst());
+        int events = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeHeader(out);
+            for (List<Event> segment : segments) {
+                for (Event event : segment) {
+                    writeEvent(out, event, start);
+                    events++;
+                }
+            }
+            logger.info("保存录像 {} ({} 条输出)", file, events);
+        } catch (IOException e) {
+            logger.error("保存录像失败: {}", file, e);
+        }
+    }
+
+    private void writeHeader(Writer out) throws IOException {
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("version", 2);
+        header.put("width", columns);
+        header.put("height", rows);
+        header.put("timestamp", System.currentTimeMillis() / 1000);
+        String term = System.getenv("TERM");
+        header.put("env", Map.of("TERM", term != null ? term : "xterm-256color"));
+        out.write(objectMapper.writeValueAsString(header));
+        out.write('\n');
+    }
+
+    private void writeEvent(Writer out, Event event, long start) throws IOException {
+        double seconds = Math.round((event.nanos - start) / 1000.0) / 1_000_000.0;
+        out.write(objectMapper.writeValueAsString(Arrays.asList(seconds, event.type, event.data)));
+        out.write('\n');
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.error("关闭录像文件失败", e);
+            }
+            writer = null;
+        }
+    }
+
+    // For Testing Only
+    int getSegmentCount() {
+        return segments.size();
+    }
+}
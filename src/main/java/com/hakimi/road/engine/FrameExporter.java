@@ -0,0 +1,270 @@
+package com.hakimi.road.engine;
+
+import com.googlecode.lanterna.graphics.BasicTextImage;
+import com.googlecode.lanterna.graphics.TextImage;
+import com.hakimi.road.renderer.GlyphAtlas;
+import com.hakimi.road.renderer.RasterRenderer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 帧导出器
+ * 在后台线程把字符帧光栅化后写成 PNG 序列或 GIF 动画，每帧写完就释放，内存占用不随录制时长增长：
+ * 待写的帧放在有界队列里，帧缓冲循环复用；GIF 通过 ImageWriter 的写序列接口逐帧追加。
+ * 实时游戏用 offer（写不过来时丢帧，不阻塞输出线程），回放等离线场景用 submit（阻塞等待）。
+ */
+public class FrameExporter implements Runnable {
+    private static final Logger logger = LogManager.getLogger(FrameExporter.class);
+
+    /**
+     * 导出格式
+     */
+    public enum Format {
+        // 目录下的 frame-00000.png, frame-00001.png, ...
+        PNG_SEQUENCE,
+        // 单个 GIF 动画文件
+        GIF
+    }
+
+    private static final int QUEUE_CAPACITY = 8;
+    private static final int FONT_SIZE = 14;
+    // 队列结束标记
+    private static final BasicTextImage END = new BasicTextImage(1, 1);
+
+    private final Path target;
+    private final Format format;
+    private final int frameDelayMs;
+    private final RasterRenderer raster;
+    private final BlockingQueue<BasicTextImage> pending = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final BlockingQueue<BasicTextImage> free = new ArrayBlockingQueue<>(QUEUE_CAPACITY + 1);
+
+    private final AtomicLong framesWritten = new AtomicLong();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private ImageWriter gifWriter;
+    private ImageOutputStream gifOutput;
+    private volatile IOException failure;
+    private volatile boolean closed;
+    private Thread thread;
+
+    /**
+     * @param target       GIF 文件（扩展名为 .gif）或 PNG 序列的目录
+     * @param frameDelayMs 相邻两帧的时间间隔
+     */
+    public FrameExporter(Path target, int frameDelayMs) {
+        this.target = target;
+        this.format = formatFor(target);
+        this.frameDelayMs = frameDelayMs;
+        this.raster = new RasterRenderer(new GlyphAtlas(FONT_SIZE));
+    }
+
+    /**
+     * 按路径的扩展名决定导出格式
+     */
+    public static Format formatFor(Path target) {
+        return target.getFileName().toString().toLowerCase().endsWith(".gif") ? Format.GIF : Format.PNG_SEQUENCE;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * 启动导出线程
+     */
+    public synchronized void start() throws IOException {
+        if (thread != null) {
+            return;
+        }
+        if (format == Format.GIF) {
+            Path parent = target.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.deleteIfExists(target);
+            gifWriter = ImageIO.getImageWritersByFormatName("gif").next();
+            gifOutput = ImageIO.createImageOutputStream(target.toFile());
+            gifWriter.setOutput(gifOutput);
+            gifWriter.prepareWriteSequence(null);
+        } else {
+            Files.createDirectories(target);
+        }
+        Thread exportThread = new Thread(this, "frame-export");
+        exportThread.setDaemon(true);
+        thread = exportThread;
+        exportThread.start();
+        logger.info("开始导出画面到 {} ({})", target, format);
+    }
+
+    /**
+     * 复制一帧并排队导出，队列已满时丢弃（不会阻塞）
+     *
+     * @return 是否已排队
+     */
+    public boolean offer(TextImage frame) {
+        if (closed) {
+            return false;
+        }
+        BasicTextImage copy = copyOf(frame);
+        if (!pending.offer(copy)) {
+            free.offer(copy);
+            droppedFrames.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 复制一帧并排队导出，队列已满时等待
+     */
+    public void submit(TextImage frame) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("导出器已关闭");
+        }
+        pending.put(copyOf(frame));
+    }
+
+    private BasicTextImage copyOf(TextImage frame) {
+        BasicTextImage copy = free.poll();
+        if (copy == null || !copy.getSize().equals(frame.getSize())) {
+            copy = new BasicTextImage(frame.getSize());
+        }
+        frame.copyTo(copy);
+        return copy;
+    }
+
+    /**
+     * 写完已排队的帧后结束导出（GIF 在这里写入文件尾）
+     */
+    public void close() throws IOException, InterruptedException {
+        Thread exportThread;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            exportThread = thread;
+        }
+        if (exportThread != null) {
+            pending.put(END);
+            exportThread.join();
+        }
+        if (gifWriter != null) {
+            try {
+                if (failure == null) {
+                    gifWriter.endWriteSequence();
+                }
+            } finally {
+                gifWriter.dispose();
+                gifOutput.close();
+            }
+        }
+        logger.info("画面导出结束: 写出 {} 帧，丢弃 {} 帧", framesWritten.get(), droppedFrames.get());
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                BasicTextImage frame = pending.take();
+                if (frame == END) {
+                    return;
+                }
+                if (failure == null) {
+                    writeFrame(raster.render(frame));
+                }
+                free.offer(frame);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeFrame(BufferedImage image) {
+        try {
+            long index = framesWritten.get();
+            if (format == Format.GIF) {
+                gifWriter.writeToSequence(new IIOImage(image, null, gifMetadata(image, index == 0)), null);
+            } else {
+                ImageIO.write(image, "png", target.resolve(String.format("frame-%05d.png", index)).toFile());
+            }
+            framesWritten.incrementAndGet();
+        } catch (IOException e) {
+            logger.error("导出画面失败，停止导出", e);
+            failure = e;
+        }
+    }
+
+    /**
+     * GIF 帧的元数据：帧间隔，首帧附带循环播放的扩展块
+     */
+    private IIOMetadata gifMetadata(BufferedImage image, boolean first) throws IOException {
+        ImageWriteParam param = gifWriter.getDefaultWriteParam();
+        IIOMetadata metadata = gifWriter.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image),
+                param);
+        String formatName = metadata.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(formatName);
+
+        IIOMetadataNode control = child(root, "GraphicControlExtension");
+        control.setAttribute("disposalMethod", "none");
+        control.setAttribute("userInputFlag", "FALSE");
+        control.setAttribute("transparentColorFlag", "FALSE");
+        control.setAttribute("delayTime", String.valueOf(Math.max(1, frameDelayMs / 10)));
+        control.setAttribute("transparentColorIndex", "0");
+
+        if (first) {
+            IIOMetadataNode extensions = child(root, "ApplicationExtensions");
+            IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+            loop.setAttribute("applicationID", "NETSCAPE");
+            loop.setAttribute("authenticationCode", "2.0");
+            loop.setUserObject(new byte[] { 0x1, 0, 0 });
+            extensions.appendChild(loop);
+        }
+        metadata.setFromTree(formatName, root);
+        return metadata;
+    }
+
+    private static IIOMetadataNode child(IIOMetadataNode root, String name) {
+        for (int i = 0; i < root.getLength(); i++) {
+            if (root.item(i).getNodeName().equalsIgnoreCase(name)) {
+                return (IIOMetadataNode) root.item(i);
+            }
+        }
+        IIOMetadataNode node = new IIOMetadataNode(name);
+        root.appendChild(node);
+        return node;
+    }
+
+    /**
+     * 已写出的帧数
+     */
+    public long getFramesWritten() {
+        return framesWritten.get();
+    }
+
+    /**
+     * 因为写不过来而丢弃的帧数
+     */
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+}
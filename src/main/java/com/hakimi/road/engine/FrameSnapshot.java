@@ -0,0 +1,360 @@
+package com.hakimi.road.engine;
+
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.TextImage;
+import com.hakimi.road.entity.Item;
+import com.hakimi.road.entity.Obstacle;
+import com.hakimi.road.entity.Player;
+import com.hakimi.road.entity.Scenery;
+import com.hakimi.road.level.Level;
+import com.hakimi.road.level.RoadManager;
+import com.hakimi.road.ui.NotificationSystem;
+import com.hakimi.road.util.SaveManager;
+import com.hakimi.road.util.SettingsManager;
+
+import java.util.List;
+
+/**
+ * 帧快照
+ * 模拟线程每个tick发布一份，渲染线程只读取快照，不接触可变的游戏对象。
+ * 实体以紧凑的int数组保存，创建后不再修改。
+ * 设置界面的选项值和存档列表也在模拟线程上读进快照，渲染线程不读设置和存档文件。
+ */
+public final class FrameSnapshot {
+    private static final int[] EMPTY = new int[0];
+    private static final String[] NO_SAVES = new String[0];
+    private static final long[] NO_TIMESTAMPS = new long[0];
+    private static final Item.ItemType[] ITEM_TYPES = Item.ItemType.values();
+
+    private final long sequence;
+    private final GameEngine.GameState gameState;
+
+    // 菜单界面状态
+    private final int menuSelection;
+    private final String menuInput;
+
+    // 设置界面的选项值（其他界面为0）
+    private final int baseGameSpeed;
+    private final int obstacleSpawnRate;
+    private final int speedIncreaseInterval;
+    private final int gameLoopDelayMs;
+    private final int displayMode;
+
+    // 存档、读档界面的存档名和保存时间（其他界面为空）
+    private final String[] saveNames;
+    private final long[] saveTimestamps;
+
+    // 玩家
+    private final int playerLane;
+    private final Player.PlayerState playerState;
+    private final int playerVerticalOffset;
+    private final int health;
+    private final int maxHealth;
+    private final int driedFishCount;
+    private final boolean hagenAbility;
+
+    // 追逐者
+    private final boolean chaserVisible;
+    private final int chaserAnimationFrame;
+    private final boolean caughtByChaser;
+
+    // 实体: 障碍物(lane, y, type), 道具(lane, y, type序号), 风景(side, y)
+    private final int[] obstacles;
+    private final int[] items;
+    private final int[] scenery;
+
+    private final int score;
+    private final int distance;
+    private final int gameSpeed;
+    private final double curvature;
+    // 前方道路弯曲度采样，[0] 是玩家脚下
+    private final double[] roadAhead;
+    private final Level level;
+
+    // 通知
+    private final TextImage toast;
+    private final TextColor screenFlashColor;
+    private final int screenFlashTimer;
+
+    FrameSnapshot(GameEngine engine, long sequence, int menuSelection, String menuInput) {
+        this.sequence = sequence;
+        this.gameState = engine.getGameState();
+        this.menuSelection = menuSelection;
+        this.menuInput = menuInput;
+
+        if (gameState == GameEngine.GameState.SETTINGS) {
+            SettingsManager settings = SettingsManager.getInstance();
+            this.baseGameSpeed = settings.getBaseGameSpeed();
+            this.obstacleSpawnRate = settings.getObstacleSpawnRate();
+            this.speedIncreaseInterval = settings.getSpeedIncreaseInterval();
+            this.gameLoopDelayMs = settings.getGameLoopDelayMs();
+            this.displayMode = settings.getDisplayMode();
+        } else {
+            this.baseGameSpeed = 0;
+            this.obstacleSpawnRate = 0;
+            this.speedIncreaseInterval = 0;
+            this.gameLoopDelayMs = 0;
+            this.displayMode = 0;
+        }
+
+        if (gameState == GameEngine.GameState.SAVE_MENU || gameState == GameEngine.GameState.LOAD_MENU) {
+            SaveManager saveManager = SaveManager.getInstance();
+            this.saveNames = saveManager.getSaveList().toArray(NO_SAVES);
+            this.saveTimestamps = new long[saveNames.length];
+            for (int i = 0; i < saveNames.length; i++) {
+                saveTimestamps[i] = saveManager.getSaveTimestamp(saveNames[i]);
+            }
+        } else {
+            this.saveNames = NO_SAVES;
+            this.saveTimestamps = NO_TIMESTAMPS;
+        }
+
+        Player player = engine.getPlayer();
+        this.playerLane = player.getLane();
+        this.playerState = player.getState();
+        this.playerVerticalOffset = player.getVerticalOffset();
+        this.health = player.getHealth();
+        this.maxHealth = player.getMaxHealth();
+        this.driedFishCount = player.getDriedFishCount();
+        this.hagenAbility = player.hasHagenAbility();
+
+        this.chaserVisible = engine.isChaserVisible();
+        this.chaserAnimationFrame = engine.getChaser().getAnimationFrame();
+        this.caughtByChaser = engine.isCaughtByChaser();
+
+        this.obstacles = packObstacles(engine.getObstacles());
+        this.items = packItems(engine.getItems());
+        this.scenery = packScenery(engine.getSceneryList());
+
+        this.score = engine.getScoreSystem().getScore();
+        this.distance = engine.getScoreSystem().getDistance();
+        this.gameSpeed = engine.getGameSpeed();
+        this.curvature = engine.getRoadManager().getCurrentCurvature();
+        this.roadAhead = new double[RoadManager.LOOKAHEAD_DISTANCE + 1];
+        engine.getRoadManager().copyLookahead(roadAhead);
+        this.level = engine.getCurrentLevel();
+
+        NotificationSystem notifications = engine.getNotificationSystem();
+        this.toast = notifications.getToastImage();
+        this.screenFlashColor = notifications.getScreenFlashColor();
+        this.screenFlashTimer = notifications.getScreenFlashTimer();
+    }
+
+    private static int[] packObstacles(List<Obstacle> list) {
+        if (list.isEmpty()) {
+            return EMPTY;
+        }
+        int[] packed = new int[list.size() * 3];
+        for (int i = 0; i < list.size(); i++) {
+            Obstacle o = list.get(i);
+            packed[i * 3] = o.getLane();
+            packed[i * 3 + 1] = o.getY();
+            packed[i * 3 + 2] = o.getType();
+        }
+        return packed;
+    }
+
+    private static int[] packItems(List<Item> list) {
+        if (list.isEmpty()) {
+            return EMPTY;
+        }
+        int[] packed = new int[list.size() * 3];
+        for (int i = 0; i < list.size(); i++) {
+            Item item = list.get(i);
+            packed[i * 3] = item.getLane();
+            packed[i * 3 + 1] = item.getY();
+            packed[i * 3 + 2] = item.getType().ordinal();
+        }
+        return packed;
+    }
+
+    private static int[] packScenery(List<Scenery> list) {
+        if (list.isEmpty()) {
+            return EMPTY;
+        }
+        int[] packed = new int[list.size() * 2];
+        for (int i = 0; i < list.size(); i++) {
+            Scenery s = list.get(i);
+            packed[i * 2] = s.getSide();
+            packed[i * 2 + 1] = s.getY();
+        }
+        return packed;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public GameEngine.GameState getGameState() {
+        return gameState;
+    }
+
+    public int getMenuSelection() {
+        return menuSelection;
+    }
+
+    public String getMenuInput() {
+        return menuInput;
+    }
+
+    public int getBaseGameSpeed() {
+        return baseGameSpeed;
+    }
+
+    public int getObstacleSpawnRate() {
+        return obstacleSpawnRate;
+    }
+
+    public int getSpeedIncreaseInterval() {
+        return speedIncreaseInterval;
+    }
+
+    public int getGameLoopDelayMs() {
+        return gameLoopDelayMs;
+    }
+
+    public int getDisplayMode() {
+        return displayMode;
+    }
+
+    public int getSaveCount() {
+        return saveNames.length;
+    }
+
+    public String getSaveName(int index) {
+        return saveNames[index];
+    }
+
+    /**
+     * 存档的保存时间，读不到时为0
+     */
+    public long getSaveTimestamp(int index) {
+        return saveTimestamps[index];
+    }
+
+    public int getPlayerLane() {
+        return playerLane;
+    }
+
+    public Player.PlayerState getPlayerState() {
+        return playerState;
+    }
+
+    public int getPlayerVerticalOffset() {
+        return playerVerticalOffset;
+    }
+
+    public int getHealth() {
+        return health;
+    }
+
+    public int getMaxHealth() {
+        return maxHealth;
+    }
+
+    public int getDriedFishCount() {
+        return driedFishCount;
+    }
+
+    public boolean hasHagenAbility() {
+        return hagenAbility;
+    }
+
+    public boolean isChaserVisible() {
+        return chaserVisible;
+    }
+
+    public int getChaserAnimationFrame() {
+        return chaserAnimationFrame;
+    }
+
+    public boolean isCaughtByChaser() {
+        return caughtByChaser;
+    }
+
+    public int getObstacleCount() {
+        return obstacles.length / 3;
+    }
+
+    public int getObstacleLane(int index) {
+        return obstacles[index * 3];
+    }
+
+    public int getObstacleY(int index) {
+        return obstacles[index * 3 + 1];
+    }
+
+    public int getObstacleType(int index) {
+        return obstacles[index * 3 + 2];
+    }
+
+    public int getItemCount() {
+        return items.length / 3;
+    }
+
+    public int getItemLane(int index) {
+        return items[index * 3];
+    }
+
+    public int getItemY(int index) {
+        return items[index * 3 + 1];
+    }
+
+    public Item.ItemType getItemType(int index) {
+        return ITEM_TYPES[items[index * 3 + 2]];
+    }
+
+    public int getSceneryCount() {
+        return scenery.length / 2;
+    }
+
+    public int getScenerySide(int index) {
+        return scenery[index * 2];
+    }
+
+    public int getSceneryY(int index) {
+        return scenery[index * 2 + 1];
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDistance() {
+        return distance;
+    }
+
+    public int getGameSpeed() {
+        return gameSpeed;
+    }
+
+    public double getCurvature() {
+        return curvature;
+    }
+
+    /**
+     * 前方道路的弯曲度采样（只读，不要修改）
+     */
+    public double[] getRoadAhead() {
+        return roadAhead;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * 当前通知弹窗的字符单元（发布后不会被修改），没有通知时为null
+     */
+    public TextImage getToast() {
+        return toast;
+    }
+
+    public TextColor getScreenFlashColor() {
+        return screenFlashColor;
+    }
+
+    public int getScreenFlashTimer() {
+        return screenFlashTimer;
+    }
+}
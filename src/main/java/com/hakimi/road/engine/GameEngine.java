@@ -2,7 +2,7 @@ package com.hakimi.road.engine;
 
 import com.googlecode.lanterna.TerminalSize;
 import com.googlecode.lanterna.screen.Screen;
-import com.googlecode.lanterna.screen.TerminalScreen;
+import com.hakimi.road.ai.Action;
 import com.hakimi.road.entity.Chaser;
 import com.hakimi.road.entity.Item;
 import com.hakimi.road.entity.Obstacle;
@@ -12,13 +12,14 @@ import com.hakimi.road.system.Achievement;
 import com.hakimi.road.system.AchievementManager;
 import com.hakimi.road.system.CollisionSystem;
 import com.hakimi.road.system.ScoreSystem;
+import com.hakimi.road.level.DifficultyConfig;
 import com.hakimi.road.level.Level;
 import com.hakimi.road.level.LevelManager;
+import com.hakimi.road.level.TrackStream;
 import com.hakimi.road.ui.NotificationSystem;
 import com.hakimi.road.util.GameConfig;
 import com.hakimi.road.util.SaveManager;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -33,7 +34,13 @@ import org.apache.logging.log4j.Logger;
 public class GameEngine {
     private static final Logger logger = LogManager.getLogger(GameEngine.class);
     private Screen screen;
+    private OutputStage outputStage;
     private Random random;
+    // 预先生成的赛道（每局用一个新种子）
+    private TrackStream track;
+    private boolean backgroundGeneration;
+    // 生成参数和速度曲线（调参时每个引擎可以不同）
+    private DifficultyConfig difficulty;
     private CollisionSystem collisionSystem;
     private ScoreSystem scoreSystem;
 
@@ -46,14 +53,35 @@ public class GameEngine {
     private int hitCount;
     private int chaserVisibleTimer;
     private static final int CHASER_VISIBLE_DURATION = 40;
+    // 逻辑更新每两帧执行一次
+    private static final long LOGIC_TICK_NANOS = 2L * GameConfig.GAME_LOOP_DELAY_MS * 1_000_000L;
+    /**
+     * 转向按键在逻辑帧内的到达时刻量化成的相位数（0 为刚完成逻辑更新，TURN_PHASES - 1 为下一次逻辑更新）
+     * 录像记下量化后的相位，重新模拟时得到完全相同的判定
+     */
+    public static final int TURN_PHASES = 16;
     private boolean caughtByChaser;
     private boolean chaserAwakened;
     private int tickCounter;
+    private long lastLogicTickNanos;
+    private long snapshotSequence;
+    // 无人操作（演示、自动测试）时不解锁成就、不响铃
+    private boolean unattended;
+    private HitCause lastHitCause;
+    // 没有屏幕时按这个尺寸模拟（玩家位置和碰撞判定依赖屏幕行数），每帧复用同一个对象
+    private TerminalSize headlessSize = new TerminalSize(GameConfig.TERMINAL_WIDTH, GameConfig.TERMINAL_HEIGHT);
 
     public enum GameState {
         MENU, PLAYING, GAME_OVER, PAUSED, SETTINGS, SAVE_MENU, LOAD_MENU
     }
 
+    /**
+     * 受击原因
+     */
+    public enum HitCause {
+        LOW_OBSTACLE, HIGH_OBSTACLE, TURN
+    }
+
     private GameState gameState;
 
     private NotificationSystem notificationSystem;
@@ -63,6 +91,8 @@ public class GameEngine {
     public GameEngine(Screen screen) {
         this.screen = screen;
         this.random = new Random();
+        this.backgroundGeneration = screen != null;
+        this.difficulty = DifficultyConfig.getInstance();
         this.collisionSystem = new CollisionSystem();
         this.scoreSystem = new ScoreSystem();
         this.player = new Player();
@@ -81,20 +111,60 @@ public class GameEngine {
         // 初始化通知系统和成就管理器
         // 初始化通知系统和成就管理器
         this.notificationSystem = new NotificationSystem();
-        this.levelManager = new LevelManager();
-        this.roadManager = new com.hakimi.road.level.RoadManager();
+        this.levelManager = new LevelManager(difficulty);
+        this.roadManager = new com.hakimi.road.level.RoadManager(difficulty);
         AchievementManager.getInstance().setNotificationSystem(notificationSystem);
         logger.info("GameEngine初始化完成");
     }
 
+    /**
+     * 设置终端输出线程（响铃等效果通过它异步执行）
+     */
+    public void setOutputStage(OutputStage outputStage) {
+        this.outputStage = outputStage;
+    }
+
+    /**
+     * 生成当前状态的帧快照，交给渲染线程（只能在模拟线程调用）
+     *
+     * @param menuSelection 当前菜单界面的选中项
+     * @param menuInput     当前菜单界面的输入文本
+     */
+    public FrameSnapshot captureSnapshot(int menuSelection, String menuInput) {
+        return new FrameSnapshot(this, ++snapshotSequence, menuSelection, menuInput);
+    }
+
+    /**
+     * 下一份快照的序号（即第一份能反映当前状态变化的快照）
+     */
+    public long getNextSnapshotSequence() {
+        return snapshotSequence + 1;
+    }
+
     public com.hakimi.road.level.RoadManager getRoadManager() {
         return roadManager;
     }
 
+    /**
+     * 当前状态是否需要按固定节奏调用 update()
+     * 只有游戏进行中或还有通知在计时时需要，其余界面可以阻塞等待输入
+     */
+    public boolean isTicking() {
+        if (gameState == GameState.PLAYING) {
+            return true;
+        }
+        return gameState != GameState.PAUSED && notificationSystem.hasPendingNotifications();
+    }
+
     /**
      * 更新游戏状态
      */
-    public void update() throws IOException {
+    public void update() {
+        // 暂停时完全停止计时（包括通知）
+        if (gameState == GameState.PAUSED) {
+            return;
+        }
+
         // 更新通知系统
         notificationSystem.update();
 
@@ -111,6 +181,8 @@ public class GameEngine {
             return;
         }
 
+        lastLogicTickNanos = System.nanoTime();
+
         // 更新分数和距离
         scoreSystem.update(gameSpeed);
 
@@ -122,41 +194,15 @@ public class GameEngine {
 
         // 检查分数成就
         if (scoreSystem.getScore() >= 5000) {
-            AchievementManager.getInstance().unlockAchievement(Achievement.MASTER);
+            unlockAchievement(Achievement.MASTER);
         }
 
         // 更新游戏速度
-        gameSpeed = GameConfig.BASE_GAME_SPEED + scoreSystem.getScore() / GameConfig.SPEED_INCREASE_INTERVAL;
-
-        // 生成新障碍物
-        if (random.nextInt(GameConfig.OBSTACLE_SPAWN_RATE) < gameSpeed) {
-            int lane = random.nextInt(GameConfig.ROAD_WIDTH);
-            int type = random.nextInt(GameConfig.OBSTACLE_TYPES);
-            obstacles.add(new Obstacle(lane, 0, type));
-        }
-
-        // 生成道具 (5% 概率)
-        if (random.nextInt(100) < 5) {
-            int lane = random.nextInt(GameConfig.ROAD_WIDTH);
-            // 简单检查该车道顶部是否有障碍物，避免重叠
-            boolean occupied = false;
-            for (Obstacle o : obstacles) {
-                if (o.getLane() == lane && o.getY() < 5) {
-                    occupied = true;
-                    break;
-                }
-            }
-            if (!occupied) {
-                Item.ItemType type = (random.nextInt(10) == 0) ? Item.ItemType.HAGEN_ABILITY : Item.ItemType.DRIED_FISH;
-                items.add(new Item(lane, 0, type));
-            }
-        }
+        gameSpeed = difficulty.speedAt(scoreSystem.getDistance());
 
-        // 生成路边风景 (15% 概率)
-        if (random.nextInt(100) < 15) {
-            int side = random.nextBoolean() ? -1 : 1;
-            sceneryList.add(new Scenery(side, 0, Scenery.SceneryType.TREE));
-        }
+        // 放入跑过的赛道块内容（在生成线程上预先生成）
+        ensureTrack();
+        track.spawn(scoreSystem.getDistance(), obstacles, items, sceneryList);
 
         // 更新道路管理器
         roadManager.update(gameSpeed, scoreSystem.getDistance());
@@ -167,38 +213,28 @@ public class GameEngine {
         }
 
         // 移动障碍物
+        // 倒序按下标遍历，删除时不移动还没访问的元素，也不用每帧创建迭代器
         TerminalSize size = getTerminalSize();
-        java.util.Iterator<Obstacle> obstacleIterator = obstacles.iterator();
-        while (obstacleIterator.hasNext()) {
-            Obstacle obstacle = obstacleIterator.next();
+        for (int i = obstacles.size() - 1; i >= 0; i--) {
+            Obstacle obstacle = obstacles.get(i);
             obstacle.move(gameSpeed);
             if (obstacle.isOutOfScreen(size.getRows())) {
-                obstacleIterator.remove();
+                obstacles.remove(i);
                 scoreSystem.obstacleAvoided();
             }
         }
 
         // 移动道具
-        // 移动道具
-        java.util.Iterator<Item> itemIterator = items.iterator();
-        while (itemIterator.hasNext()) {
-            Item item = itemIterator.next();
+        for (int i = items.size() - 1; i >= 0; i--) {
+            Item item = items.get(i);
             item.move(gameSpeed);
             if (item.isOutOfScreen(size.getRows())) {
-                itemIterator.remove();
+                items.remove(i);
             }
         }
 
         // 移动风景
-        // 移动风景
-        java.util.Iterator<Scenery> sceneryIterator = sceneryList.iterator();
-        while (sceneryIterator.hasNext()) {
-            Scenery scenery = sceneryIterator.next();
-            scenery.move(gameSpeed);
-            if (scenery.isOutOfScreen(size.getRows())) {
-                sceneryIterator.remove();
-            }
-        }
+        moveScenery(gameSpeed, size.getRows());
 
         // 更新追逐者
         int playerY = player.calculateY(size.getRows());
@@ -208,7 +244,7 @@ public class GameEngine {
             chaserVisibleTimer--;
             // 检查幸存者成就（简单模拟：如果追逐者出现且计时器快结束时还活着）
             if (chaserVisibleTimer == 1 && !caughtByChaser) {
-                AchievementManager.getInstance().unlockAchievement(Achievement.SURVIVOR);
+                unlockAchievement(Achievement.SURVIVOR);
             }
         }
 
@@ -223,7 +259,7 @@ public class GameEngine {
             } else if (collectedItem.getType() == Item.ItemType.HAGEN_ABILITY) {
                 player.setHagenAbility(true);
                 notificationSystem.addNotification("此猫已有哈根", "被人抓住时自动哈气", "★", 3000,
-                        com.googlecode.lanterna.TextColor.ANSI.YELLOW);
+                        com.googlecode.lanterna.TextColor.ANSI.YELLOW, NotificationSystem.Priority.HIGH);
                 playCollectSound();
                 notificationSystem.triggerScreenFlash(com.googlecode.lanterna.TextColor.ANSI.YELLOW, 5);
             } else {
@@ -247,11 +283,12 @@ public class GameEngine {
                     }
 
                     notificationSystem.addNotification("哈!!!!!!", "吓退了敌人!", "⚡", 2000,
-                            com.googlecode.lanterna.TextColor.ANSI.RED);
+                            com.googlecode.lanterna.TextColor.ANSI.RED, NotificationSystem.Priority.HIGH);
                     playHitSound();
                     notificationSystem.triggerScreenFlash(com.googlecode.lanterna.TextColor.ANSI.YELLOW, 3);
                 } else {
-                    handlePlayerHit();
+                    handlePlayerHit(hitObstacle.getHeight() == Obstacle.ObstacleHeight.LOW
+                            ? HitCause.LOW_OBSTACLE : HitCause.HIGH_OBSTACLE);
                 }
             }
         }
@@ -263,14 +300,40 @@ public class GameEngine {
      * @param direction -1: Left, 1: Right
      */
     public void handleTurnInput(int direction) {
+        handleTurnInput(direction, 0);
+    }
+
+    /**
+     * 按键到达时刻在当前逻辑帧内的相位（0 到 TURN_PHASES - 1）
+     *
+     * @param timestampNanos 按键到达时间（System.nanoTime），0表示没有时间戳
+     */
+    public int turnPhaseAt(long timestampNanos) {
+        if (timestampNanos == 0 || lastLogicTickNanos == 0) {
+            return 0;
+        }
+        double fraction = (double) (timestampNanos - lastLogicTickNanos) / LOGIC_TICK_NANOS;
+        return (int) Math.round(Math.max(0, Math.min(1, fraction)) * (TURN_PHASES - 1));
+    }
+
+    /**
+     * 处理带逻辑帧内相位的转向输入
+     * 相位折算成上次逻辑更新之后已跑的距离，使转向窗口的判定精确到tick以内
+     *
+     * @param direction -1: Left, 1: Right
+     * @param turnPhase 见 turnPhaseAt，0表示按当前状态判定
+     */
+    private void handleTurnInput(int direction, int turnPhase) {
         if (gameState != GameState.PLAYING)
             return;
 
-        com.hakimi.road.level.RoadManager.TurnResult result = roadManager.checkTurn(direction);
+        double elapsedDistance = (double) turnPhase * gameSpeed / (TURN_PHASES - 1);
+
+        com.hakimi.road.level.RoadManager.TurnResult result = roadManager.checkTurn(direction, elapsedDistance);
         if (result == com.hakimi.road.level.RoadManager.TurnResult.SUCCESS) {
             // 转向成功
             notificationSystem.addNotification("飘移成功!", "完美过弯!", ">>>", 1000,
-                    com.googlecode.lanterna.TextColor.ANSI.GREEN);
+                    com.googlecode.lanterna.TextColor.ANSI.GREEN, NotificationSystem.Priority.HIGH);
             // 奖励分数
             scoreSystem.addScore(500);
             scoreSystem.obstacleAvoided(); // 算作躲避一次
@@ -286,25 +349,173 @@ public class GameEngine {
             // 消耗哈根
             player.consumeHagen();
             notificationSystem.addNotification("哈!!!!!!", "强行过弯!", "⚡", 2000,
-                    com.googlecode.lanterna.TextColor.ANSI.RED);
+                    com.googlecode.lanterna.TextColor.ANSI.RED, NotificationSystem.Priority.HIGH);
             notificationSystem.triggerScreenFlash(com.googlecode.lanterna.TextColor.ANSI.YELLOW, 3);
         } else {
-            handlePlayerHit(); // 视为撞击
+            handlePlayerHit(HitCause.TURN); // 视为撞击
             notificationSystem.addNotification("撞墙了!", "未能及时转向", "XXX", 2000,
-                    com.googlecode.lanterna.TextColor.ANSI.RED);
+                    com.googlecode.lanterna.TextColor.ANSI.RED, NotificationSystem.Priority.HIGH);
+        }
+    }
+
+    /**
+     * 执行一次玩家操作，转向按当前逻辑帧的状态判定（自动驾驶、重新模拟使用）
+     */
+    public void applyAction(Action action) {
+        applyAction(action, 0);
+    }
+
+    /**
+     * 执行一次玩家操作
+     * 键盘输入也转换成 Action 从这里执行，转向按按键到达时的逻辑帧内相位判定
+     *
+     * @param turnPhase 转向的逻辑帧内相位（见 turnPhaseAt），其他操作忽略
+     */
+    public void applyAction(Action action, int turnPhase) {
+        if (gameState != GameState.PLAYING) {
+            return;
+        }
+        switch (action) {
+            case MOVE_LEFT:
+                player.moveToLane(player.getLane() - 1);
+                break;
+            case MOVE_RIGHT:
+                player.moveToLane(player.getLane() + 1);
+                break;
+            case JUMP:
+                player.jump();
+                break;
+            case SLIDE:
+                player.slide();
+                break;
+            case TURN_LEFT:
+                handleTurnInput(-1, turnPhase);
+                break;
+            case TURN_RIGHT:
+                handleTurnInput(1, turnPhase);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 下一次 update() 是否会执行逻辑更新
+     */
+    public boolean isLogicTickNext() {
+        return (tickCounter + 1) % 2 == 0;
+    }
+
+    /**
+     * 设置无人操作模式（演示或自动测试，不解锁成就、不响铃）
+     */
+    public void setUnattended(boolean unattended) {
+        this.unattended = unattended;
+    }
+
+    public boolean isUnattended() {
+        return unattended;
+    }
+
+    /**
+     * 设置没有屏幕时模拟使用的屏幕行数（重新模拟其他终端高度上录制的对局时使用）
+     */
+    public void setHeadlessRows(int rows) {
+        this.headlessSize = new TerminalSize(GameConfig.TERMINAL_WIDTH, rows);
+    }
+
+    private void unlockAchievement(Achievement achievement) {
+        if (!unattended) {
+            AchievementManager.getInstance().unlockAchievement(achievement);
         }
     }
 
     private void checkDistanceAchievements() {
         int distance = scoreSystem.getDistance();
         if (distance >= 10) {
-            AchievementManager.getInstance().unlockAchievement(Achievement.FIRST_STEP);
+            unlockAchievement(Achievement.FIRST_STEP);
         }
         if (distance >= 100) {
-            AchievementManager.getInstance().unlockAchievement(Achievement.SPRINTER);
+            unlockAchievement(Achievement.SPRINTER);
         }
         if (distance >= 1000) {
-            AchievementManager.getInstance().unlockAchievement(Achievement.MARATHON);
+            unlockAchievement(Achievement.MARATHON);
+        }
+    }
+
+    /**
+     * 是否在后台线程生成赛道（默认有终端时开启；无界面的批量模拟在模拟线程生成）
+     */
+    public void setBackgroundGeneration(boolean backgroundGeneration) {
+        this.backgroundGeneration = backgroundGeneration;
+    }
+
+    /**
+     * 设置生成参数、速度曲线和关卡划分，从下一条赛道（开始游戏或读档）起生效
+     */
+    public void setDifficulty(DifficultyConfig difficulty) {
+        this.difficulty = difficulty;
+        levelManager.setDifficulty(difficulty);
+        roadManager.setDifficulty(difficulty);
+    }
+
+    public DifficultyConfig getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * 当前赛道的种子
+     */
+    public long getWorldSeed() {
+        ensureTrack();
+        return track.getSeed();
+    }
+
+    /**
+     * 从指定距离开始一条新赛道
+     */
+    private void startTrack(long seed, int distance) {
+        if (track != null) {
+            track.close();
+        }
+        track = new TrackStream(seed, distance, backgroundGeneration, difficulty);
+        roadManager.setSegmentSource(track);
+        roadManager.reset(distance);
+    }
+
+    /**
+     * 从头重建赛道，按与 update 相同的顺序把赛道和道路推进到 distance
+     * 障碍物和道具已经从存档恢复，跑过的只丢弃；风景不存档，按同样的方式移动后留在屏幕上的保留
+     *
+     * @return distance 不在这条速度曲线经过的位置上时返回 false（存档与难度配置不符）
+     */
+    private boolean rebuildTrack(long seed, int distance) {
+        startTrack(seed, 0);
+        List<Obstacle> skippedObstacles = new ArrayList<>();
+        List<Item> skippedItems = new ArrayList<>();
+        int rows = getTerminalSize().getRows();
+        int travelled = 0;
+        int speed = GameConfig.BASE_GAME_SPEED;
+        while (travelled < distance) {
+            travelled += speed;
+            speed = difficulty.speedAt(travelled);
+            track.spawn(travelled, skippedObstacles, skippedItems, sceneryList);
+            skippedObstacles.clear();
+            skippedItems.clear();
+            roadManager.update(speed, travelled);
+            moveScenery(speed, rows);
+        }
+        if (travelled != distance) {
+            logger.warn("存档距离 {} 与速度曲线不符，从存档位置开始新赛道", distance);
+            sceneryList.clear();
+            return false;
+        }
+        return true;
+    }
+
+    private void ensureTrack() {
+        if (track == null) {
+            startTrack(random.nextLong(), scoreSystem.getDistance());
         }
     }
 
@@ -312,12 +523,24 @@ public class GameEngine {
      * 开始游戏
      */
     public void startGame() {
+        startGame(random.nextLong());
+    }
+
+    /**
+     * 用指定的赛道种子开始游戏
+     */
+    public void startGame(long seed) {
         logger.info("开始新游戏");
         gameState = GameState.PLAYING;
         player = new Player();
         obstacles.clear();
         items.clear();
+        sceneryList.clear();
         scoreSystem.reset();
+        startTrack(seed, 0);
+        lastHitCause = null;
+        // 每局从同一逻辑帧相位开始，同样的种子和输入才能得到同样的结果
+        tickCounter = 0;
         hitCount = 0;
         chaserVisibleTimer = 0;
         chaserAwakened = false;
@@ -333,6 +556,10 @@ public class GameEngine {
     public void resetGame() {
         logger.info("重置游戏");
         gameState = GameState.MENU;
+        if (track != null) {
+            track.close();
+            track = null;
+        }
         player = new Player();
         obstacles.clear();
         items.clear();
@@ -386,6 +613,20 @@ public class GameEngine {
         return gameSpeed;
     }
 
+    /**
+     * 最近一次受击的原因（本局还没有受击时为 null）
+     */
+    public HitCause getLastHitCause() {
+        return lastHitCause;
+    }
+
+    /**
+     * 受击次数（等于已损失的血量）
+     */
+    public int getHitCount() {
+        return hitCount;
+    }
+
     public Chaser getChaser() {
         return chaser;
     }
@@ -445,6 +686,13 @@ public class GameEngine {
      * 保存游戏
      */
     public boolean saveGame(String saveName) {
+        return SaveManager.getInstance().saveGame(saveName, createSaveData());
+    }
+
+    /**
+     * 把当前状态整理成存档数据（不写文件）
+     */
+    public SaveManager.GameSaveData createSaveData() {
         SaveManager.GameSaveData saveData = new SaveManager.GameSaveData();
 
         // 保存玩家数据
@@ -454,6 +702,7 @@ public class GameEngine {
         saveData.playerStateTimer = player.getStateTimer();
         saveData.driedFishCount = player.getDriedFishCount();
         saveData.hasHagenAbility = player.hasHagenAbility();
+        saveData.invincibilityTimer = player.getInvincibilityTimer();
         // Saving health implicitly by reconstructing or we should add health to
         // SaveManager?
         // For now, let's keep it simple. If we want to save health, we need to update
@@ -477,6 +726,11 @@ public class GameEngine {
         saveData.chaserVisibleTimer = chaserVisibleTimer;
         saveData.chaserAwakened = chaserAwakened;
         saveData.caughtByChaser = caughtByChaser;
+        saveData.tickCounter = tickCounter;
+
+        // 保存赛道
+        saveData.trackSeed = getWorldSeed();
+        saveData.turnCompleted = roadManager.isTurnCompleted();
 
         // 保存分数系统
         saveData.score = scoreSystem.getScore();
@@ -503,10 +757,12 @@ public class GameEngine {
             saveData.items.add(itemData);
         }
 
-        // 保存成就
-        saveData.unlockedAchievements = AchievementManager.getInstance().getUnlockedAchievementIds();
+        // 保存成就（无人操作时不涉及成就）
+        if (!unattended) {
+            saveData.unlockedAchievements = AchievementManager.getInstance().getUnlockedAchievementIds();
+        }
 
-        return SaveManager.getInstance().saveGame(saveName, saveData);
+        return saveData;
     }
 
     /**
@@ -517,7 +773,14 @@ public class GameEngine {
         if (saveData == null) {
             return false;
         }
+        restoreSaveData(saveData);
+        return true;
+    }
 
+    /**
+     * 从存档数据恢复状态（不读文件）
+     */
+    public void restoreSaveData(SaveManager.GameSaveData saveData) {
         // 恢复玩家数据
         player.setLane(saveData.playerLane);
         player.setY(saveData.playerY);
@@ -525,6 +788,7 @@ public class GameEngine {
         player.setStateTimer(saveData.playerStateTimer);
         player.setDriedFishCount(saveData.driedFishCount);
         player.setHagenAbility(saveData.hasHagenAbility);
+        player.setInvincibilityTimer(saveData.invincibilityTimer);
 
         // 恢复追逐者数据
         chaser.setY(saveData.chaserY);
@@ -533,6 +797,7 @@ public class GameEngine {
         // 恢复游戏状态
         gameSpeed = saveData.gameSpeed;
         gameSpeed = saveData.gameSpeed;
+        tickCounter = saveData.tickCounter;
         hitCount = saveData.hitCount;
         // Sync health with hitCount
         player.setHealth(player.getMaxHealth() - hitCount);
@@ -567,7 +832,18 @@ public class GameEngine {
         }
 
         // 恢复成就
-        AchievementManager.getInstance().mergeUnlockedAchievements(saveData.unlockedAchievements);
+        if (!unattended) {
+            AchievementManager.getInstance().mergeUnlockedAchievements(saveData.unlockedAchievements);
+        }
+
+        // 用存档的种子重建赛道；旧存档没有种子，从存档位置开始一条新赛道
+        sceneryList.clear();
+        if (saveData.trackSeed == null || !rebuildTrack(saveData.trackSeed, saveData.distance)) {
+            startTrack(saveData.trackSeed != null ? saveData.trackSeed : random.nextLong(), saveData.distance);
+        }
+        if (saveData.turnCompleted) {
+            roadManager.markTurnCompleted();
+        }
 
         // 恢复游戏状态
         if (caughtByChaser) {
@@ -575,11 +851,10 @@ public class GameEngine {
         } else {
             gameState = GameState.PLAYING;
         }
-
-        return true;
     }
 
-    private void handlePlayerHit() {
+    private void handlePlayerHit(HitCause cause) {
+        lastHitCause = cause;
         player.damage();
         hitCount = player.getMaxHealth() - player.getHealth();
 
@@ -590,23 +865,24 @@ public class GameEngine {
         notificationSystem.triggerScreenFlash(com.googlecode.lanterna.TextColor.ANSI.RED, 5);
 
         // 解锁受伤成就
-        AchievementManager.getInstance().unlockAchievement(Achievement.OUCH);
+        unlockAchievement(Achievement.OUCH);
 
         logger.warn("玩家受击: 剩余血量={}", player.getHealth());
         if (player.getHealth() <= 0) {
             caughtByChaser = true;
             gameState = GameState.GAME_OVER;
             logger.info("游戏结束: 血量耗尽");
+            // 环形录制时保存最近一段录像（演示和批量模拟的对局不保存）
+            if (outputStage != null && !unattended) {
+                outputStage.saveRecording();
+            }
         }
     }
 
     private void playHitSound() {
-        try {
-            if (screen instanceof TerminalScreen) {
-                ((TerminalScreen) screen).getTerminal().bell();
-            }
-        } catch (IOException e) {
-            // ignore
+        // 响铃交给输出线程，避免在游戏逻辑中同步写终端
+        if (outputStage != null && !unattended) {
+            outputStage.requestBell();
         }
     }
 
@@ -614,19 +890,32 @@ public class GameEngine {
         // Collect sound can be subtle, for now just a bell or maybe nothing if bell is
         // too annoying
         // Let's use bell for now
-        try {
-            if (screen instanceof TerminalScreen) {
-                ((TerminalScreen) screen).getTerminal().bell();
+        if (outputStage != null && !unattended) {
+            outputStage.requestBell();
+        }
+    }
+
+    private void moveScenery(int speed, int rows) {
+        for (int i = sceneryList.size() - 1; i >= 0; i--) {
+            Scenery scenery = sceneryList.get(i);
+            scenery.move(speed);
+            if (scenery.isOutOfScreen(rows)) {
+                sceneryList.remove(i);
             }
-        } catch (IOException e) {
-            // ignore
         }
     }
 
+    /**
+     * 屏幕行数（碰撞判定按它计算玩家位置）
+     */
+    public int getScreenRows() {
+        return getTerminalSize().getRows();
+    }
+
     private TerminalSize getTerminalSize() {
         if (screen != null) {
             return screen.getTerminalSize();
         }
-        return new TerminalSize(GameConfig.TERMINAL_WIDTH, GameConfig.TERMINAL_HEIGHT);
+        return headlessSize;
     }
 }
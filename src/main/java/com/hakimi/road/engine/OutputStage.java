@@ -0,0 +1,401 @@
+package com.hakimi.road.engine;
+
+import com.googlecode.lanterna.TerminalPosition;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.graphics.BasicTextImage;
+import com.googlecode.lanterna.graphics.TextImage;
+import com.googlecode.lanterna.screen.Screen;
+import com.googlecode.lanterna.screen.TerminalScreen;
+import com.hakimi.road.system.InputLatencyTracker;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 终端输出线程
+ * 渲染线程把合成好的整帧交给输出线程，由它写入 Screen 并 refresh；
+ * 响铃等效果请求也在这里执行。帧采用三缓冲，输出跟不上时只保留最新一帧，
+ * 同一轮里的多次响铃合并为一次，终端写入再慢也不会阻塞游戏逻辑与渲染。
+ * 帧可以附带滚动提示，背景整体平移时先让终端滚动该区域，refresh 只需补画差异；
+ * 透视道路逐行宽度不同，是否滚动按估算的补画单元数决定，不划算时照常增量刷新。
+ * 终端模式下可以改用 AnsiFrameEncoder 直接把差异编码后写到输出流，不经过 Screen。
+ * 设置了 AsciicastRecorder 时，编码后写出的字节同时交给它录制。
+ * 设置了 FrameExporter 时，写出的每一帧同时交给它导出为图片（导出跟不上时丢帧，不阻塞输出）。
+ */
+public class OutputStage implements Runnable {
+    private static final Logger logger = LogManager.getLogger(OutputStage.class);
+
+    private static final int BUFFER_COUNT = 3;
+    private static final int INDEX_MASK = 0x3;
+    private static final int FRESH = 0x4;
+    // 一次滚动需要的转义序列大约相当于几个字符单元
+    private static final int SCROLL_OVERHEAD_CELLS = 8;
+    private static final int BEL = 0x07;
+
+    private final Screen screen;
+    private final BasicTextImage[] buffers = new BasicTextImage[BUFFER_COUNT];
+    private final long[] sequences = new long[BUFFER_COUNT];
+    private final long[] scrollKeys = new long[BUFFER_COUNT];
+    private final int[] scrollPositions = new int[BUFFER_COUNT];
+    private final int[] scrollTops = new int[BUFFER_COUNT];
+    private final int[] scrollBottoms = new int[BUFFER_COUNT];
+
+    // 上一次写出的帧及其滚动信息（只属于输出线程）
+    private BasicTextImage displayed;
+    private long lastScrollKey;
+    private int lastScrollPosition;
+    private final AtomicLong scrolledFrames = new AtomicLong();
+    private volatile boolean scrollRendering = true;
+
+    // 三缓冲：back 只属于渲染线程，front 只属于输出线程，middle 用于交换（带"新帧"标记）
+    private int backIndex = 0;
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int frontIndex = 2;
+
+    private final AtomicBoolean bellRequested = new AtomicBoolean();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private final AtomicLong collapsedBells = new AtomicLong();
+    private InputLatencyTracker latencyTracker;
+    private AnsiFrameEncoder ansiEncoder;
+    private OutputStream ansiOutput;
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private FrameExporter frameExporter;
+    private AsciicastRecorder recorder;
+    private volatile boolean running;
+    private volatile Thread thread;
+
+    public OutputStage(Screen screen) {
+        this.screen = screen;
+    }
+
+    public void setLatencyTracker(InputLatencyTracker latencyTracker) {
+        this.latencyTracker = latencyTracker;
+    }
+
+    /**
+     * 使用 ANSI 编码器直接输出帧（需在 start 之前调用）
+     */
+    public void setAnsiOutput(AnsiFrameEncoder encoder, OutputStream out) {
+        this.ansiEncoder = encoder;
+        this.ansiOutput = out;
+    }
+
+    /**
+     * 把写出的帧同时导出为图片（需在 start 之前调用）
+     */
+    public void setFrameExporter(FrameExporter exporter) {
+        this.frameExporter = exporter;
+    }
+
+    /**
+     * 把编码器写出的字节同时录制下来（需在 start 之前调用，只在 ANSI 编码器模式下有效）
+     */
+    public void setRecorder(AsciicastRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * 保存最近一段录像（环形录制时有效，任意线程调用）
+     */
+    public void saveRecording() {
+        AsciicastRecorder current = recorder;
+        if (current != null) {
+            current.requestSave();
+        }
+    }
+
+    /**
+     * 是否根据滚动提示使用终端滚动区域
+     */
+    public void setScrollRendering(boolean scrollRendering) {
+        this.scrollRendering = scrollRendering;
+    }
+
+    /**
+     * 启动输出线程
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread outputThread = new Thread(this, "terminal-output");
+        outputThread.setDaemon(true);
+        thread = outputThread;
+        outputThread.start();
+        logger.info("终端输出线程已启动");
+    }
+
+    /**
+     * 停止输出线程
+     */
+    public synchronized void stop() {
+        running = false;
+        Thread outputThread = thread;
+        thread = null;
+        if (outputThread != null) {
+            LockSupport.unpark(outputThread);
+        }
+        logger.info("终端输出线程已停止，丢弃帧 {} 个，滚动输出帧 {} 个，合并响铃 {} 次，编码输出 {} 字节",
+                droppedFrames.get(), scrolledFrames.get(), collapsedBells.get(), bytesWritten.get());
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 取得下一帧的绘制缓冲（渲染线程调用），尺寸与终端不一致时重新分配
+     */
+    public TextImage acquireBackBuffer(TerminalSize size) {
+        BasicTextImage buffer = buffers[backIndex];
+        if (buffer == null || !buffer.getSize().equals(size)) {
+            buffer = new BasicTextImage(size);
+            buffers[backIndex] = buffer;
+        }
+        return buffer;
+    }
+
+    /**
+     * 提交已经绘制完成的帧（渲染线程调用，不会阻塞）
+     *
+     * @param sequence 该帧对应的快照序号
+     */
+    public void submitFrame(long sequence) {
+        submitFrame(sequence, 0, 0, 0, 0);
+    }
+
+    /**
+     * 提交已经绘制完成的帧，并附带滚动提示
+     *
+     * @param sequence       该帧对应的快照序号
+     * @param scrollKey      可滚动区域的几何标识，0表示不可滚动；只有与上一次写出的帧相同才会滚动
+     * @param scrollPosition 区域内容的滚动位置，增加n表示内容上移n行
+     * @param scrollTop      可滚动区域的第一行
+     * @param scrollBottom   可滚动区域的最后一行
+     */
+    public void submitFrame(long sequence, long scrollKey, int scrollPosition, int scrollTop, int scrollBottom) {
+        sequences[backIndex] = sequence;
+        scrollKeys[backIndex] = scrollKey;
+        scrollPositions[backIndex] = scrollPosition;
+        scrollTops[backIndex] = scrollTop;
+        scrollBottoms[backIndex] = scrollBottom;
+        int previous = middle.getAndSet(backIndex | FRESH);
+        if ((previous & FRESH) != 0) {
+            droppedFrames.incrementAndGet();
+        }
+        backIndex = previous & INDEX_MASK;
+        wakeUp();
+    }
+
+    /**
+     * 请求响铃（任意线程调用，不会阻塞），输出前的多次请求只响一次
+     */
+    public void requestBell() {
+        if (bellRequested.getAndSet(true)) {
+            collapsedBells.incrementAndGet();
+        }
+        wakeUp();
+    }
+
+    private void wakeUp() {
+        Thread outputThread = thread;
+        if (outputThread != null) {
+            LockSupport.unpark(outputThread);
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            boolean bell = bellRequested.getAndSet(false);
+            boolean fresh = (middle.get() & FRESH) != 0;
+            if (!bell && !fresh) {
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                if (fresh) {
+                    frontIndex = middle.getAndSet(frontIndex) & INDEX_MASK;
+                    writeFrame(frontIndex);
+                }
+                if (bell) {
+                    ringBell();
+                }
+            } catch (IOException e) {
+                logger.error("终端输出失败，输出线程退出", e);
+                running = false;
+            }
+        }
+    }
+
+    private void writeFrame(int index) throws IOException {
+        TextImage frame = buffers[index];
+        if (ansiEncoder != null) {
+            writeEncodedFrame(index, frame);
+        } else {
+            writeScreenFrame(index, frame);
+        }
+        lastScrollKey = scrollKeys[index];
+        lastScrollPosition = scrollPositions[index];
+        if (latencyTracker != null) {
+            latencyTracker.frameShown(System.nanoTime(), sequences[index]);
+        }
+        if (frameExporter != null) {
+            frameExporter.offer(frame);
+        }
+
+        if (displayed == null || !displayed.getSize().equals(frame.getSize())) {
+            displayed = new BasicTextImage(frame.getSize());
+        }
+        frame.copyTo(displayed);
+    }
+
+    private void writeScreenFrame(int index, TextImage frame) throws IOException {
+        TerminalSize size = screen.getTerminalSize();
+        if (!frame.getSize().equals(size)) {
+            // 帧是按旧尺寸绘制的，先清掉多余的区域
+            screen.clear();
+            displayed = null;
+        }
+
+        int scrollDistance = scrollDistance(index, frame);
+        if (scrollDistance != 0) {
+            screen.scrollLines(scrollTops[index], scrollBottoms[index], scrollDistance);
+        }
+        screen.newTextGraphics().drawImage(TerminalPosition.TOP_LEFT_CORNER, frame);
+        screen.refresh();
+    }
+
+    private void writeEncodedFrame(int index, TextImage frame) throws IOException {
+        // 尺寸变化时编码器自行清屏重画
+        int scrollDistance;
+        if (recorder != null) {
+            recorder.resize(frame.getSize().getColumns(), frame.getSize().getRows());
+        }
+        if (recorder != null && recorder.isKeyframeDue()) {
+            // 环形录像丢弃旧数据后需要从整屏重画开始
+            ansiEncoder.invalidate();
+            scrollDistance = 0;
+        } else {
+            scrollDistance = scrollDistance(index, frame);
+        }
+        int length = ansiEncoder.encode(frame, scrollTops[index], scrollBottoms[index], scrollDistance);
+        bytesWritten.addAndGet(length);
+        ansiEncoder.writeTo(ansiOutput);
+        if (recorder != null) {
+            recorder.record(ansiEncoder.getBuffer(), 0, length, ansiEncoder.isKeyframe());
+        }
+    }
+
+    /**
+     * 本帧实际采用的滚动行数（判断是否划算），0表示不滚动
+     */
+    private int scrollDistance(int index, TextImage frame) {
+        int distance = scrollDistance(index);
+        if (distance == 0 || displayed == null || !displayed.getSize().equals(frame.getSize())
+                || !shouldScroll(displayed, frame, scrollTops[index], scrollBottoms[index], distance)) {
+            return 0;
+        }
+        scrolledFrames.incrementAndGet();
+        return distance;
+    }
+
+    /**
+     * 相对上一次写出的帧需要滚动的行数，不能滚动时返回0
+     */
+    int scrollDistance(int index) {
+        long key = scrollKeys[index];
+        if (!scrollRendering || key == 0 || key != lastScrollKey) {
+            return 0;
+        }
+        int distance = scrollPositions[index] - lastScrollPosition;
+        int regionHeight = scrollBottoms[index] - scrollTops[index] + 1;
+        if (distance <= 0 || distance >= regionHeight) {
+            return 0;
+        }
+        return distance;
+    }
+
+    /**
+     * 比较滚动后补画与直接增量刷新需要改写的单元数，决定是否滚动
+     */
+    static boolean shouldScroll(TextImage previous, TextImage next, int top, int bottom, int distance) {
+        int redrawCost = 0;
+        int scrollCost = SCROLL_OVERHEAD_CELLS;
+        int columns = next.getSize().getColumns();
+        for (int y = top; y <= bottom; y++) {
+            int source = y + distance;
+            for (int x = 0; x < columns; x++) {
+                TextCharacter wanted = next.getCharacterAt(x, y);
+                if (!wanted.equals(previous.getCharacterAt(x, y))) {
+                    redrawCost++;
+                }
+                // 滚动后区域底部空出的行是空白
+                TextCharacter scrolled = source <= bottom ? previous.getCharacterAt(x, source)
+                        : TextCharacter.DEFAULT_CHARACTER;
+                if (!wanted.equals(scrolled)) {
+                    scrollCost++;
+                }
+            }
+        }
+        return scrollCost < redrawCost;
+    }
+
+    private void ringBell() throws IOException {
+        if (ansiOutput != null) {
+            ansiOutput.write(BEL);
+            ansiOutput.flush();
+            if (recorder != null) {
+                recorder.record(new byte[] { BEL }, 0, 1, false);
+            }
+        } else if (screen instanceof TerminalScreen) {
+            ((TerminalScreen) screen).getTerminal().bell();
+        }
+    }
+
+    /**
+     * 因为输出跟不上而被覆盖的帧数
+     */
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    /**
+     * 通过终端滚动输出的帧数
+     */
+    public long getScrolledFrames() {
+        return scrolledFrames.get();
+    }
+
+    /**
+     * 编码器模式下累计写出的字节数
+     */
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    /**
+     * 被合并掉的响铃次数
+     */
+    public long getCollapsedBells() {
+        return collapsedBells.get();
+    }
+
+    // For Testing Only
+    boolean hasPendingFrame() {
+        return (middle.get() & FRESH) != 0;
+    }
+
+    boolean hasPendingBell() {
+        return bellRequested.get();
+    }
+}
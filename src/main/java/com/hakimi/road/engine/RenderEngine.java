@@ -1,58 +1,158 @@
 package com.hakimi.road.engine;
 
+import com.googlecode.lanterna.TextCharacter;
 import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.BasicTextImage;
 import com.googlecode.lanterna.graphics.TextGraphics;
-import com.googlecode.lanterna.screen.Screen;
-import com.hakimi.road.entity.Chaser;
-import com.hakimi.road.entity.Item;
-import com.hakimi.road.entity.Obstacle;
-import com.hakimi.road.entity.Player;
-import com.hakimi.road.entity.Scenery;
+import com.googlecode.lanterna.graphics.TextImage;
 import com.hakimi.road.level.Level;
+import com.hakimi.road.renderer.ClippedTextGraphics;
+import com.hakimi.road.renderer.RoadCurve;
 import com.hakimi.road.renderer.EntityRenderer;
 import com.hakimi.road.renderer.HudRenderer;
 import com.hakimi.road.renderer.PlayerRenderer;
+import com.hakimi.road.renderer.RenderCommandBuffer;
 import com.hakimi.road.renderer.RoadRenderer;
+import com.hakimi.road.ui.TextRunCache;
+import com.hakimi.road.util.GameConfig;
 
-import com.hakimi.road.util.SaveManager;
-import com.hakimi.road.util.SettingsManager;
 
-import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * 渲染引擎
  * 负责所有游戏画面的渲染
+ * 只读取帧快照，在渲染线程上绘制到帧缓冲
  */
 public class RenderEngine {
-    private Screen screen;
-    private com.hakimi.road.ui.NotificationSystem notificationSystem;
+    // 画面单元数达到该值且有多个核心时，道路和精灵按水平带并行绘制
+    private static final int PARALLEL_MIN_CELLS = 160 * 60;
+    private static final int MIN_BAND_ROWS = 8;
+
+    // 当前正在绘制的帧缓冲
+    private TextImage target;
+
+    // 滚动提示：道路几何（关卡、弯曲度、尺寸）不变时，背景随距离整体上移，
+    // 输出线程可以让终端滚动这一区域，只补画差异部分。scrollKey 为0表示本帧不可滚动
+    private long scrollKey;
+    private int scrollPosition;
+    private int scrollTop;
+    private int scrollBottom;
 
     private final RoadRenderer roadRenderer;
     private final EntityRenderer entityRenderer;
     private final PlayerRenderer playerRenderer;
     private final HudRenderer hudRenderer;
-
-    public RenderEngine(Screen screen) {
-        this.screen = screen;
+    // 实体绘制命令，每帧复用
+    private final RenderCommandBuffer commands = new RenderCommandBuffer();
+    // 界面文字的测量结果，居中按显示宽度计算
+    private final TextRunCache textRuns = new TextRunCache();
+
+    private RenderProfile profile = RenderProfile.STANDARD;
+    // 低带宽模式下缓存的道路背景，隔几帧才重画一次
+    private BasicTextImage background;
+    private Level backgroundLevel;
+    private int backgroundAge;
+    private int backgroundDistance;
+    private int backgroundCurveKey;
+    // 当前帧每行的道路偏移（并行分带绘制时只读共享）
+    private final RoadCurve roadCurve = new RoadCurve();
+    private int parallelMinCells = PARALLEL_MIN_CELLS;
+    private ForkJoinPool bandPool = ForkJoinPool.commonPool();
+
+    public RenderEngine() {
         this.roadRenderer = new RoadRenderer();
         this.entityRenderer = new EntityRenderer();
         this.playerRenderer = new PlayerRenderer();
         this.hudRenderer = new HudRenderer();
     }
 
-    public void setNotificationSystem(com.hakimi.road.ui.NotificationSystem notificationSystem) {
-        this.notificationSystem = notificationSystem;
+    /**
+     * 切换渲染配置（标准/低带宽）
+     */
+    public void setProfile(RenderProfile profile) {
+        this.profile = profile;
+        roadRenderer.setTextureEnabled(profile.isRoadTexture());
+        entityRenderer.setAsciiOnly(profile.isAsciiSprites());
+        hudRenderer.setAsciiOnly(profile.isAsciiSprites());
+        background = null;
+    }
+
+    public RenderProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * 按快照中的游戏状态把一帧绘制到帧缓冲中（不接触终端，由输出线程统一写出）
+     */
+    public void render(FrameSnapshot frame, TextImage target) {
+        this.target = target;
+        this.scrollKey = 0;
+        int width = target.getSize().getColumns();
+        int height = target.getSize().getRows();
+        switch (frame.getGameState()) {
+            case MENU:
+                renderMenu(width, height);
+                break;
+            case PLAYING:
+            case PAUSED:
+                renderGame(frame, width, height);
+                break;
+            case GAME_OVER:
+                renderGameOver(frame.getScore(), frame.getDistance(), frame.isCaughtByChaser(), width, height);
+                break;
+            case SETTINGS:
+                renderSettings(frame, width, height);
+                break;
+            case SAVE_MENU:
+                renderSaveMenu(frame, width, height);
+                break;
+            case LOAD_MENU:
+                renderLoadMenu(frame, width, height);
+                break;
+        }
+    }
+
+    /**
+     * 上一帧的道路几何标识（0表示不可滚动）
+     */
+    public long getScrollKey() {
+        return scrollKey;
+    }
+
+    /**
+     * 上一帧道路背景的滚动位置（行数）
+     */
+    public int getScrollPosition() {
+        return scrollPosition;
+    }
+
+    public int getScrollTop() {
+        return scrollTop;
+    }
+
+    public int getScrollBottom() {
+        return scrollBottom;
+    }
+
+    /**
+     * 清空帧缓冲并返回绘图对象
+     */
+    private TextGraphics beginFrame() {
+        target.setAll(TextCharacter.DEFAULT_CHARACTER);
+        return target.newTextGraphics();
     }
 
     /**
      * 渲染菜单界面
      */
-    public void renderMenu(int width, int height) throws IOException {
-        screen.clear();
-        TextGraphics tg = screen.newTextGraphics();
+    public void renderMenu(int width, int height) {
+        TextGraphics tg = beginFrame();
 
         tg.setForegroundColor(TextColor.ANSI.WHITE);
         tg.setBackgroundColor(TextColor.ANSI.BLACK);
@@ -77,11 +177,9 @@ public class RenderEngine {
 
         // 计算内容块的最大宽度（包括标题、说明文字、哈基米）
         int hakimiWidth = 9; // 哈基米宽度
-        int maxContentWidth = title.length();
+        int maxContentWidth = textRuns.width(title);
         for (String instruction : instructions) {
-            if (instruction.length() > maxContentWidth) {
-                maxContentWidth = instruction.length();
-            }
+            maxContentWidth = Math.max(maxContentWidth, textRuns.width(instruction));
         }
         if (hakimiWidth > maxContentWidth) {
             maxContentWidth = hakimiWidth;
@@ -110,7 +208,7 @@ public class RenderEngine {
 
         // 标题（在哈基米下方，左对齐）
         int titleY = hakimiY + hakimiHeight + 2; // 哈基米高度 + 间距
-        tg.putString(contentStartX, titleY, title);
+        textRuns.draw(tg, contentStartX, titleY, title);
 
         // 游戏说明（在标题下方，左对齐）
         int instructionStartY = titleY + 2;
@@ -118,69 +216,172 @@ public class RenderEngine {
             int drawY = instructionStartY + i;
             // 确保不超出屏幕范围
             if (drawY >= 0 && drawY < height) {
-                tg.putString(contentStartX, drawY, instructions[i]);
+                textRuns.draw(tg, contentStartX, drawY, instructions[i]);
             }
         }
 
-        screen.refresh();
     }
 
     /**
      * 渲染游戏界面
      */
-    public void renderGame(Level level, Player player, Chaser chaser, List<Obstacle> obstacles, List<Item> items,
-            List<Scenery> sceneryList,
-            boolean showChaser, int score, int distance, int gameSpeed, double curvature,
-            int width, int height) throws IOException {
-        screen.clear();
-        TextGraphics tg = screen.newTextGraphics();
+    public void renderGame(FrameSnapshot frame, int width, int height) {
+        TextGraphics tg = beginFrame();
 
         tg.setForegroundColor(TextColor.ANSI.WHITE);
 
-        // 绘制道路
-        roadRenderer.render(tg, width, height, distance, level, curvature);
+        Level level = frame.getLevel();
+        roadCurve.update(height, frame.getRoadAhead());
+        int distance = frame.getDistance();
 
-        // 绘制障碍物
-        for (Obstacle obstacle : obstacles) {
-            entityRenderer.renderObstacle(tg, width, height, obstacle, level, curvature);
+        // 障碍物、道具和风景按深度排序后绘制，近处的盖住远处的
+        commands.clear();
+        for (int i = 0; i < frame.getObstacleCount(); i++) {
+            entityRenderer.renderObstacle(commands, width, height, frame.getObstacleLane(i), frame.getObstacleY(i),
+                    frame.getObstacleType(i), level, roadCurve);
         }
-
-        // 绘制道具
-        for (Item item : items) {
-            entityRenderer.renderItem(tg, width, height, item, curvature);
+        for (int i = 0; i < frame.getItemCount(); i++) {
+            entityRenderer.renderItem(commands, width, height, frame.getItemLane(i), frame.getItemY(i),
+                    frame.getItemType(i), roadCurve);
+        }
+        for (int i = 0; i < frame.getSceneryCount(); i++) {
+            entityRenderer.renderScenery(commands, width, height, frame.getScenerySide(i), frame.getSceneryY(i),
+                    roadCurve);
         }
 
-        // 绘制风景
-        for (Scenery scenery : sceneryList) {
-            entityRenderer.renderScenery(tg, width, height, scenery, curvature);
+        // 绘制道路，再在上面执行精灵命令
+        if (profile.getBackgroundInterval() > 1) {
+            renderCachedRoad(width, height, distance, level);
+            commands.execute(tg);
+        } else if (width * height >= parallelMinCells && bandPool.getParallelism() > 1) {
+            renderBandsInParallel(width, height, distance, level);
+            // 与顺序绘制道路后 tg 的颜色状态保持一致
+            tg.setBackgroundColor(TextColor.ANSI.BLACK);
+        } else {
+            roadRenderer.render(tg, width, height, distance, level, roadCurve);
+            commands.execute(tg);
+        }
+        if (profile.getBackgroundInterval() <= 1) {
+            backgroundDistance = distance;
+            backgroundCurveKey = roadCurve.getKey();
         }
+        scrollKey = ((long) Objects.hash(level.getName(), backgroundCurveKey, width, height) << 1) | 1;
+        scrollPosition = backgroundDistance;
+        scrollTop = GameConfig.HORIZON_OFFSET + 1;
+        scrollBottom = height - 2;
 
         // 绘制玩家
-        playerRenderer.renderPlayer(tg, width, height, player, distance);
+        playerRenderer.renderPlayer(tg, width, height, frame.getPlayerLane(), frame.getPlayerState(),
+                frame.getPlayerVerticalOffset(), distance);
 
         // 绘制追逐者
-        if (showChaser && chaser != null) {
-            playerRenderer.renderChaser(tg, width, height, player, chaser);
+        if (frame.isChaserVisible()) {
+            playerRenderer.renderChaser(tg, width, height, frame.getPlayerLane(), frame.getPlayerState(),
+                    frame.getChaserAnimationFrame());
         }
 
         // 绘制HUD
-        hudRenderer.renderHud(tg, width, height, player, score, distance, gameSpeed);
+        hudRenderer.renderHud(target, width, height, frame.getPlayerLane(), frame.getHealth(), frame.getMaxHealth(),
+                frame.getDriedFishCount(), frame.hasHagenAbility(), frame.getScore(), distance,
+                frame.getGameSpeed());
 
         // 渲染通知
-        if (notificationSystem != null) {
-            hudRenderer.renderNotifications(tg, width, height, notificationSystem);
+        hudRenderer.renderNotifications(target, width, height, frame.getToast(), frame.getScreenFlashColor(),
+                frame.getScreenFlashTimer());
+
+        // 如果暂停，显示暂停提示
+        if (frame.getGameState() == GameEngine.GameState.PAUSED) {
+            hudRenderer.renderPauseBanner(target, width, height);
         }
+    }
 
-        screen.refresh();
+    /**
+     * 把画面分成水平带，用 ForkJoin 并行绘制道路和精灵
+     * 每个带只写自己的行，使用自己的 ClippedTextGraphics，命令缓冲事先排好序、执行时只读；
+     * 跨带的精灵在两个带里各画一部分，结果与顺序绘制完全相同。
+     */
+    private void renderBandsInParallel(int width, int height, int distance, Level level) {
+        commands.sort();
+        int bands = bandPool.getParallelism() * 2;
+        int bandRows = Math.max(MIN_BAND_ROWS, (height + bands - 1) / bands);
+        bandPool.invoke(new BandTask(0, height, bandRows, width, height, distance, level));
+    }
+
+    /**
+     * 绘制 [top, bottom) 行的任务，行数多于 bandRows 时对半拆分
+     */
+    private final class BandTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int top;
+        private final int bottom;
+        private final int bandRows;
+        private final int width;
+        private final int height;
+        private final int distance;
+        private final Level level;
+
+        BandTask(int top, int bottom, int bandRows, int width, int height, int distance, Level level) {
+            this.top = top;
+            this.bottom = bottom;
+            this.bandRows = bandRows;
+            this.width = width;
+            this.height = height;
+            this.distance = distance;
+            this.level = level;
+        }
+
+        @Override
+        protected void compute() {
+            if (bottom - top > bandRows) {
+                int middle = (top + bottom) >>> 1;
+                invokeAll(new BandTask(top, middle, bandRows, width, height, distance, level),
+                        new BandTask(middle, bottom, bandRows, width, height, distance, level));
+                return;
+            }
+            TextGraphics band = new ClippedTextGraphics(target, top, bottom);
+            band.setForegroundColor(TextColor.ANSI.WHITE);
+            roadRenderer.render(band, width, height, distance, level, roadCurve, top, bottom);
+            commands.execute(band, top, bottom);
+        }
+    }
+
+    // For Testing Only
+    void setParallelMinCells(int cells) {
+        this.parallelMinCells = cells;
+    }
+
+    // For Testing Only
+    void setBandPool(ForkJoinPool pool) {
+        this.bandPool = pool;
+    }
+
+    /**
+     * 道路背景每隔 backgroundInterval 帧重画一次，其余帧复制缓存；关卡或尺寸变化时立即重画
+     */
+    private void renderCachedRoad(int width, int height, int distance, Level level) {
+        if (background == null || !background.getSize().equals(target.getSize()) || backgroundLevel != level
+                || ++backgroundAge >= profile.getBackgroundInterval()) {
+            if (background == null || !background.getSize().equals(target.getSize())) {
+                background = new BasicTextImage(target.getSize());
+            }
+            background.setAll(TextCharacter.DEFAULT_CHARACTER);
+            TextGraphics bg = background.newTextGraphics();
+            bg.setForegroundColor(TextColor.ANSI.WHITE);
+            roadRenderer.render(bg, width, height, distance, level, roadCurve);
+            backgroundLevel = level;
+            backgroundAge = 0;
+            backgroundDistance = distance;
+            backgroundCurveKey = roadCurve.getKey();
+        }
+        background.copyTo(target);
     }
 
     /**
      * 渲染游戏结束界面
      */
     public void renderGameOver(int score, int distance, boolean caughtByChaser,
-            int width, int height) throws IOException {
-        screen.clear();
-        TextGraphics tg = screen.newTextGraphics();
+            int width, int height) {
+        TextGraphics tg = beginFrame();
 
         tg.setForegroundColor(TextColor.ANSI.WHITE);
         tg.setBackgroundColor(TextColor.ANSI.BLACK);
@@ -214,7 +415,7 @@ public class RenderEngine {
             for (int i = 0; i < caughtScene.length; i++) {
                 int drawY = sceneStartY + i;
                 if (drawY >= 0 && drawY < height) {
-                    tg.putString(width / 2 - caughtScene[i].length() / 2, drawY, caughtScene[i]);
+                    textRuns.drawCentered(tg, width, drawY, caughtScene[i]);
                 }
             }
         } else {
@@ -229,7 +430,7 @@ public class RenderEngine {
             for (int i = 0; i < sadHakimi.length; i++) {
                 int drawY = sceneStartY + i;
                 if (drawY >= 0 && drawY < height) {
-                    tg.putString(width / 2 - 4, drawY, sadHakimi[i]);
+                    textRuns.draw(tg, width / 2 - 4, drawY, sadHakimi[i]);
                 }
             }
         }
@@ -238,102 +439,97 @@ public class RenderEngine {
         String gameOver = "游戏结束!";
         int gameOverY = textStartY;
         if (gameOverY >= 0 && gameOverY < height) {
-            tg.putString(width / 2 - gameOver.length() / 2, gameOverY, gameOver);
+            textRuns.drawCentered(tg, width, gameOverY, gameOver);
         }
 
         String scoreText = "最终分数: " + score;
         int scoreY = gameOverY + 1;
         if (scoreY >= 0 && scoreY < height) {
-            tg.putString(width / 2 - scoreText.length() / 2, scoreY, scoreText);
+            textRuns.drawCentered(tg, width, scoreY, scoreText);
         }
 
         String distanceText = "奔跑距离: " + distance;
         int distanceY = scoreY + 1;
         if (distanceY >= 0 && distanceY < height) {
-            tg.putString(width / 2 - distanceText.length() / 2, distanceY, distanceText);
+            textRuns.drawCentered(tg, width, distanceY, distanceText);
         }
 
         String restart = "按 Enter 重新开始";
         int restartY = distanceY + 2;
         if (restartY >= 0 && restartY < height) {
-            tg.putString(width / 2 - restart.length() / 2, restartY, restart);
+            textRuns.drawCentered(tg, width, restartY, restart);
         }
 
-        screen.refresh();
     }
 
     /**
-     * 渲染设置界面
+     * 渲染设置界面（选项值来自快照）
      */
-    public void renderSettings(int width, int height, int selectedOption) throws IOException {
-        screen.clear();
-        TextGraphics tg = screen.newTextGraphics();
+    public void renderSettings(FrameSnapshot frame, int width, int height) {
+        TextGraphics tg = beginFrame();
+        int selectedOption = frame.getMenuSelection();
 
         tg.setForegroundColor(TextColor.ANSI.WHITE);
         tg.setBackgroundColor(TextColor.ANSI.BLACK);
 
-        SettingsManager settings = SettingsManager.getInstance();
-
         String title = "设置";
-        tg.putString(width / 2 - title.length() / 2, 3, title);
+        textRuns.drawCentered(tg, width, 3, title);
 
         String[] options = {
-                "基础游戏速度: " + settings.getBaseGameSpeed(),
-                "障碍物生成频率: " + settings.getObstacleSpawnRate(),
-                "速度增加间隔: " + settings.getSpeedIncreaseInterval(),
-                "游戏循环延迟(ms): " + settings.getGameLoopDelayMs(),
-                "显示模式: " + getDisplayModeName(settings.getDisplayMode()) + " (需重启)",
+                "基础游戏速度: " + frame.getBaseGameSpeed(),
+                "障碍物生成频率: " + frame.getObstacleSpawnRate(),
+                "速度增加间隔: " + frame.getSpeedIncreaseInterval(),
+                "游戏循环延迟(ms): " + frame.getGameLoopDelayMs(),
+                "显示模式: " + getDisplayModeName(frame.getDisplayMode()) + " (需重启)",
                 "重置为默认值",
                 "返回菜单"
         };
 
         int startY = height / 2 - options.length / 2;
         for (int i = 0; i < options.length; i++) {
-            int x = width / 2 - options[i].length() / 2;
+            int x = textRuns.centerX(width, options[i]);
             int y = startY + i;
 
             if (i == selectedOption) {
                 tg.setForegroundColor(TextColor.ANSI.YELLOW);
                 tg.putString(x - 2, y, "> ");
-                tg.putString(x, y, options[i]);
+                textRuns.draw(tg, x, y, options[i]);
             } else {
                 tg.setForegroundColor(TextColor.ANSI.WHITE);
-                tg.putString(x, y, options[i]);
+                textRuns.draw(tg, x, y, options[i]);
             }
         }
 
         String hint = "使用 ↑↓ 选择，←→ 调整数值，Enter 确认，Esc 返回";
         tg.setForegroundColor(TextColor.ANSI.CYAN);
-        tg.putString(width / 2 - hint.length() / 2, height - 2, hint);
+        textRuns.drawCentered(tg, width, height - 2, hint);
 
-        screen.refresh();
     }
 
     /**
-     * 渲染存档菜单
+     * 渲染存档菜单（存档列表来自快照）
      */
-    public void renderSaveMenu(int width, int height, int selectedIndex, String inputName) throws IOException {
-        screen.clear();
-        TextGraphics tg = screen.newTextGraphics();
+    public void renderSaveMenu(FrameSnapshot frame, int width, int height) {
+        TextGraphics tg = beginFrame();
+        int selectedIndex = frame.getMenuSelection();
+        String inputName = frame.getMenuInput();
 
         tg.setForegroundColor(TextColor.ANSI.WHITE);
         tg.setBackgroundColor(TextColor.ANSI.BLACK);
 
         String title = "保存游戏";
-        tg.putString(width / 2 - title.length() / 2, 3, title);
-
-        List<String> saves = SaveManager.getInstance().getSaveList();
+        textRuns.drawCentered(tg, width, 3, title);
 
         int startY = 6;
         int maxVisible = height - startY - 5;
         int displayStart = Math.max(0, selectedIndex - maxVisible / 2);
-        int displayEnd = Math.min(saves.size(), displayStart + maxVisible);
+        int displayEnd = Math.min(frame.getSaveCount(), displayStart + maxVisible);
 
         // 显示存档列表
         for (int i = displayStart; i < displayEnd; i++) {
             int y = startY + (i - displayStart);
-            String saveName = saves.get(i);
-            long timestamp = SaveManager.getInstance().getSaveTimestamp(saveName);
+            String saveName = frame.getSaveName(i);
+            long timestamp = frame.getSaveTimestamp(i);
             String timeStr = timestamp > 0 ? new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(timestamp))
                     : "未知时间";
 
@@ -341,56 +537,53 @@ public class RenderEngine {
 
             if (i == selectedIndex) {
                 tg.setForegroundColor(TextColor.ANSI.YELLOW);
-                tg.putString(2, y, "> " + saveText);
+                textRuns.draw(tg, 2, y, "> " + saveText);
             } else {
                 tg.setForegroundColor(TextColor.ANSI.WHITE);
-                tg.putString(4, y, saveText);
+                textRuns.draw(tg, 4, y, saveText);
             }
         }
 
         // 显示输入框
         String inputLabel = "存档名称: ";
         tg.setForegroundColor(TextColor.ANSI.CYAN);
-        tg.putString(2, height - 4, inputLabel);
+        textRuns.draw(tg, 2, height - 4, inputLabel);
         tg.setForegroundColor(TextColor.ANSI.WHITE);
-        tg.putString(2 + inputLabel.length(), height - 4, inputName + "_");
+        textRuns.draw(tg, 2 + textRuns.width(inputLabel), height - 4, inputName + "_");
 
         String hint = "输入存档名称后按 Enter 保存，Esc 返回";
         tg.setForegroundColor(TextColor.ANSI.CYAN);
-        tg.putString(width / 2 - hint.length() / 2, height - 2, hint);
+        textRuns.drawCentered(tg, width, height - 2, hint);
 
-        screen.refresh();
     }
 
     /**
-     * 渲染读档菜单
+     * 渲染读档菜单（存档列表来自快照）
      */
-    public void renderLoadMenu(int width, int height, int selectedIndex) throws IOException {
-        screen.clear();
-        TextGraphics tg = screen.newTextGraphics();
+    public void renderLoadMenu(FrameSnapshot frame, int width, int height) {
+        TextGraphics tg = beginFrame();
+        int selectedIndex = frame.getMenuSelection();
 
         tg.setForegroundColor(TextColor.ANSI.WHITE);
         tg.setBackgroundColor(TextColor.ANSI.BLACK);
 
         String title = "加载游戏";
-        tg.putString(width / 2 - title.length() / 2, 3, title);
-
-        List<String> saves = SaveManager.getInstance().getSaveList();
+        textRuns.drawCentered(tg, width, 3, title);
 
-        if (saves.isEmpty()) {
+        if (frame.getSaveCount() == 0) {
             String noSaves = "没有找到存档";
-            tg.putString(width / 2 - noSaves.length() / 2, height / 2, noSaves);
+            textRuns.drawCentered(tg, width, height / 2, noSaves);
         } else {
             int startY = 6;
             int maxVisible = height - startY - 5;
             int displayStart = Math.max(0, selectedIndex - maxVisible / 2);
-            int displayEnd = Math.min(saves.size(), displayStart + maxVisible);
+            int displayEnd = Math.min(frame.getSaveCount(), displayStart + maxVisible);
 
             // 显示存档列表
             for (int i = displayStart; i < displayEnd; i++) {
                 int y = startY + (i - displayStart);
-                String saveName = saves.get(i);
-                long timestamp = SaveManager.getInstance().getSaveTimestamp(saveName);
+                String saveName = frame.getSaveName(i);
+                long timestamp = frame.getSaveTimestamp(i);
                 String timeStr = timestamp > 0 ? new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(timestamp))
                         : "未知时间";
 
@@ -398,19 +591,18 @@ public class RenderEngine {
 
                 if (i == selectedIndex) {
                     tg.setForegroundColor(TextColor.ANSI.YELLOW);
-                    tg.putString(2, y, "> " + saveText);
+                    textRuns.draw(tg, 2, y, "> " + saveText);
                 } else {
                     tg.setForegroundColor(TextColor.ANSI.WHITE);
-                    tg.putString(4, y, saveText);
+                    textRuns.draw(tg, 4, y, saveText);
                 }
             }
         }
 
         String hint = "使用 ↑↓ 选择，Enter 加载，D 删除，Esc 返回";
         tg.setForegroundColor(TextColor.ANSI.CYAN);
-        tg.putString(width / 2 - hint.length() / 2, height - 2, hint);
+        textRuns.drawCentered(tg, width, height - 2, hint);
 
-        screen.refresh();
     }
 
     private String getDisplayModeName(int mode) {
@@ -421,6 +613,8 @@ public class RenderEngine {
                 return "窗口";
             case 2:
                 return "终端";
+            case 3:
+                return "低带宽终端";
             default:
                 return "未知";
         }
@@ -0,0 +1,123 @@
+package com.hakimi.road.engine;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.graphics.TextImage;
+import com.googlecode.lanterna.screen.Screen;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 渲染线程
+ * 模拟线程通过 publish 提交帧快照，渲染线程只绘制最新的一份；
+ * 还没来得及绘制就被新快照覆盖的帧直接丢弃，终端输出卡顿不会拖慢模拟。
+ * 绘制结果交给 OutputStage 写入终端。
+ */
+public class RenderLoop implements Runnable {
+    private static final Logger logger = LogManager.getLogger(RenderLoop.class);
+
+    private final Screen screen;
+    private final RenderEngine renderEngine;
+    private final OutputStage outputStage;
+    private final AtomicReference<FrameSnapshot> latest = new AtomicReference<>();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private volatile boolean running;
+    private volatile long renderedSequence;
+    private Thread thread;
+
+    public RenderLoop(Screen screen, RenderEngine renderEngine, OutputStage outputStage) {
+        this.screen = screen;
+        this.renderEngine = renderEngine;
+        this.outputStage = outputStage;
+    }
+
+    /**
+     * 启动渲染线程
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "render");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("渲染线程已启动");
+    }
+
+    /**
+     * 停止渲染线程
+     */
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread = null;
+        }
+        logger.info("渲染线程已停止，丢弃过期帧 {} 个", droppedFrames.get());
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 提交一帧快照（模拟线程调用，不会阻塞）
+     */
+    public void publish(FrameSnapshot frame) {
+        FrameSnapshot stale = latest.getAndSet(frame);
+        if (stale != null) {
+            droppedFrames.incrementAndGet();
+        }
+        Thread renderThread = thread;
+        if (renderThread != null) {
+            LockSupport.unpark(renderThread);
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            FrameSnapshot frame = latest.getAndSet(null);
+            if (frame == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                renderFrame(frame);
+            } catch (RuntimeException e) {
+                logger.error("渲染帧 {} 时出错", frame.getSequence(), e);
+            }
+        }
+    }
+
+    /**
+     * 把一帧绘制到输出缓冲并提交给输出线程
+     */
+    void renderFrame(FrameSnapshot frame) {
+        TerminalSize size = screen.getTerminalSize();
+        TextImage target = outputStage.acquireBackBuffer(size);
+        renderEngine.render(frame, target);
+        outputStage.submitFrame(frame.getSequence(), renderEngine.getScrollKey(), renderEngine.getScrollPosition(),
+                renderEngine.getScrollTop(), renderEngine.getScrollBottom());
+        renderedSequence = frame.getSequence();
+    }
+
+    /**
+     * 因为被更新的快照覆盖而没有绘制的帧数
+     */
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    /**
+     * 最近一次绘制完成的快照序号
+     */
+    public long getRenderedSequence() {
+        return renderedSequence;
+    }
+}
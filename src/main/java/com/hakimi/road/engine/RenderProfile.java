@@ -0,0 +1,69 @@
+package com.hakimi.road.engine;
+
+/**
+ * 渲染配置
+ * 标准配置按原样绘制；低带宽配置用于慢速的远程终端（SSH等）：
+ * 精灵只用ASCII、关闭路面纹理、道路背景隔几帧才重画一次（实体仍然每帧更新），
+ * 输出时颜色降为基本8色或单色。
+ */
+public final class RenderProfile {
+    // 显示模式：3=低带宽终端（见 SettingsManager）
+    public static final int LOW_BANDWIDTH_DISPLAY_MODE = 3;
+
+    public static final RenderProfile STANDARD = new RenderProfile(false, true, 1,
+            AnsiFrameEncoder.ColorMode.FULL);
+    public static final RenderProfile LOW_BANDWIDTH = new RenderProfile(true, false, 4,
+            AnsiFrameEncoder.ColorMode.ANSI8);
+    public static final RenderProfile LOW_BANDWIDTH_MONOCHROME = new RenderProfile(true, false, 4,
+            AnsiFrameEncoder.ColorMode.MONOCHROME);
+
+    private final boolean asciiSprites;
+    private final boolean roadTexture;
+    private final int backgroundInterval;
+    private final AnsiFrameEncoder.ColorMode colorMode;
+
+    private RenderProfile(boolean asciiSprites, boolean roadTexture, int backgroundInterval,
+            AnsiFrameEncoder.ColorMode colorMode) {
+        this.asciiSprites = asciiSprites;
+        this.roadTexture = roadTexture;
+        this.backgroundInterval = backgroundInterval;
+        this.colorMode = colorMode;
+    }
+
+    /**
+     * 按显示模式选择渲染配置
+     *
+     * @param monochrome 低带宽模式下是否使用单色
+     */
+    public static RenderProfile forDisplayMode(int displayMode, boolean monochrome) {
+        if (displayMode != LOW_BANDWIDTH_DISPLAY_MODE) {
+            return STANDARD;
+        }
+        return monochrome ? LOW_BANDWIDTH_MONOCHROME : LOW_BANDWIDTH;
+    }
+
+    /**
+     * 精灵和HUD符号是否只用ASCII
+     */
+    public boolean isAsciiSprites() {
+        return asciiSprites;
+    }
+
+    /**
+     * 是否绘制路面纹理
+     */
+    public boolean isRoadTexture() {
+        return roadTexture;
+    }
+
+    /**
+     * 道路背景每隔几帧重画一次（1表示每帧）
+     */
+    public int getBackgroundInterval() {
+        return backgroundInterval;
+    }
+
+    public AnsiFrameEncoder.ColorMode getColorMode() {
+        return colorMode;
+    }
+}
@@ -27,10 +27,17 @@ public class Obstacle extends GameEntity {
         this.lane = lane;
         this.type = type;
         // 根据类型设置高度
-        this.height = type == 0 ? ObstacleHeight.LOW : ObstacleHeight.HIGH;
+        this.height = heightOf(type);
         logger.debug("障碍物创建: lane={}, y={}, type={}, height={}", lane, y, type, height);
     }
 
+    /**
+     * 障碍物类型对应的高度（0=石头要跳，其余要滑铲）
+     */
+    public static ObstacleHeight heightOf(int type) {
+        return type == 0 ? ObstacleHeight.LOW : ObstacleHeight.HIGH;
+    }
+
     /**
      * 检查是否与玩家碰撞
      */
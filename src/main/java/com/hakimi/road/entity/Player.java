@@ -111,6 +111,13 @@ public class Player {
      * 跳跃时保持在同一深度（baseY不变），垂直偏移在渲染时应用
      */
     public int calculateY(int screenHeight) {
+        return calculateY(screenHeight, state);
+    }
+
+    /**
+     * 按给定状态计算玩家在屏幕上的y坐标（供渲染快照使用）
+     */
+    public static int calculateY(int screenHeight, PlayerState state) {
         // 基础位置在屏幕底部附近，保持在同一深度
         int baseY = screenHeight - GameConfig.PLAYER_HEIGHT - 1;
 
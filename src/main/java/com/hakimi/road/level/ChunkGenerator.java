@@ -0,0 +1,207 @@
+package com.hakimi.road.level;
+
+import com.hakimi.road.util.GameConfig;
+import com.hakimi.road.util.SpscQueue;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 赛道块生成器
+ * 在后台线程按顺序生成玩家前方的赛道块，通过单生产者单消费者队列交给模拟线程，
+ * 队列有界，内存中最多保留 QUEUE_CAPACITY 个未取走的块。
+ * 所有随机数都来自同一个种子，生成顺序固定，因此同一种子总是得到同一条赛道，与线程调度无关。
+ * 没有启动后台线程时，take 直接在调用线程生成（无界面的批量模拟用这种方式）。
+ * 每个障碍物都先经 SolvabilityValidator 校验，堵死去路的会换车道或丢弃，高速时也总留有通路。
+ */
+public class ChunkGenerator implements Runnable {
+    private static final Logger logger = LogManager.getLogger(ChunkGenerator.class);
+
+    // 每个块覆盖的距离
+    public static final int CHUNK_LENGTH = 64;
+    private static final int QUEUE_CAPACITY = 8;
+    // 道具与同车道障碍物至少相隔的距离
+    private static final int ITEM_CLEARANCE = 5;
+    // 队列满时生成线程的休眠时间，队列空时消费者的等待时间
+    private static final long PARK_NANOS = 1_000_000L;
+    private static final long WAIT_NANOS = 50_000L;
+
+    private final long seed;
+    private final Random random;
+    private final DifficultyConfig difficulty;
+    private final SpscQueue<TrackChunk> queue = new SpscQueue<>(QUEUE_CAPACITY);
+
+    // 以下只属于生成线程（未启动时属于调用 take 的线程）
+    private int nextStart;
+    private RoadManager.SegmentType previousSegment = RoadManager.SegmentType.STRAIGHT;
+    private int nextSegmentStart;
+    private final int[] lastObstacleAt = new int[GameConfig.ROAD_WIDTH];
+    private final SolvabilityValidator validator;
+    private int rejectedObstacles;
+    // 每个距离单位最多一个障碍物/道具/风景，按块长分配的草稿数组
+    private final int[] segmentScratch = new int[CHUNK_LENGTH * 2];
+    private final int[] obstacleScratch = new int[CHUNK_LENGTH * 3];
+    private final int[] itemScratch = new int[CHUNK_LENGTH * 3];
+    private final int[] sceneryScratch = new int[CHUNK_LENGTH * 2];
+
+    private volatile boolean closed;
+    private Thread thread;
+
+    /**
+     * @param startDistance 第一个块的起点；此处的路段是 RoadManager.reset 给出的直道
+     */
+    public ChunkGenerator(long seed, int startDistance) {
+        this(seed, startDistance, DifficultyConfig.getInstance());
+    }
+
+    public ChunkGenerator(long seed, int startDistance, DifficultyConfig difficulty) {
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.difficulty = difficulty;
+        this.nextStart = startDistance;
+        this.nextSegmentStart = startDistance + RoadManager.segmentLength(RoadManager.SegmentType.STRAIGHT, false);
+        this.validator = new SolvabilityValidator(startDistance, difficulty);
+        Arrays.fill(lastObstacleAt, Integer.MIN_VALUE / 2);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * 启动后台生成线程
+     */
+    public synchronized void start() {
+        if (thread != null || closed) {
+            return;
+        }
+        Thread generatorThread = new Thread(this, "chunk-generator");
+        generatorThread.setDaemon(true);
+        thread = generatorThread;
+        generatorThread.start();
+        logger.debug("开始后台生成赛道, seed={}", seed);
+    }
+
+    /**
+     * 取得下一个赛道块（只能由一个消费线程调用）
+     * 后台线程还没生成出来时等待，这只会在刚启动时发生
+     */
+    public TrackChunk take() {
+        Thread generatorThread = thread;
+        if (generatorThread == null) {
+            return generate();
+        }
+        TrackChunk chunk;
+        while ((chunk = queue.poll()) == null) {
+            if (closed) {
+                throw new IllegalStateException("赛道生成器已关闭");
+            }
+            LockSupport.parkNanos(WAIT_NANOS);
+        }
+        // 腾出了位置，让生成线程继续
+        LockSupport.unpark(generatorThread);
+        return chunk;
+    }
+
+    /**
+     * 停止后台线程，队列中未取走的块被丢弃
+     */
+    public void close() {
+        closed = true;
+        Thread generatorThread;
+        synchronized (this) {
+            generatorThread = thread;
+        }
+        if (generatorThread != null) {
+            LockSupport.unpark(generatorThread);
+        }
+    }
+
+    @Override
+    public void run() {
+        TrackChunk pending = generate();
+        while (!closed) {
+            if (queue.offer(pending)) {
+                pending = generate();
+            } else {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * 生成下一个块
+     */
+    TrackChunk generate() {
+        int start = nextStart;
+        int end = start + CHUNK_LENGTH;
+        nextStart = end;
+
+        // 从这个块开始的路段
+        int segments = 0;
+        while (nextSegmentStart < end) {
+            RoadManager.SegmentType type = RoadManager.chooseSegment(difficulty, random, previousSegment,
+                    nextSegmentStart);
+            segmentScratch[segments++] = nextSegmentStart - start;
+            segmentScratch[segments++] = type.ordinal();
+            previousSegment = type;
+            nextSegmentStart += RoadManager.segmentLength(type,
+                    difficulty.bandAt(nextSegmentStart).isGentleCurves());
+        }
+
+        int obstacles = 0;
+        int items = 0;
+        int scenery = 0;
+        for (int distance = start; distance < end; distance++) {
+            DifficultyConfig.Band band = difficulty.bandAt(distance);
+            // 原来按逻辑帧掷骰：每帧跑 speed 个单位，障碍物概率 speed / rate，折算到每个单位是 1 / rate；
+            // 道具和风景的概率按当时的速度摊到每个单位上
+            int speed = difficulty.speedAt(distance);
+            if (band.rollObstacle(random, 1)) {
+                int lane = random.nextInt(GameConfig.ROAD_WIDTH);
+                int type = band.sampleObstacleType(random);
+                // 会堵死去路时依次换到其他车道，都不行就不放
+                int placed = -1;
+                for (int i = 0; i < GameConfig.ROAD_WIDTH && placed < 0; i++) {
+                    int candidate = (lane + i) % GameConfig.ROAD_WIDTH;
+                    if (validator.tryPlace(distance, candidate, type)) {
+                        placed = candidate;
+                    }
+                }
+                if (placed >= 0) {
+                    obstacleScratch[obstacles++] = distance - start;
+                    obstacleScratch[obstacles++] = placed;
+                    obstacleScratch[obstacles++] = type;
+                    lastObstacleAt[placed] = distance;
+                }
+                if (placed != lane) {
+                    rejectedObstacles++;
+                }
+            }
+            if (random.nextInt(100 * speed) < band.getItemChance()) {
+                int lane = random.nextInt(GameConfig.ROAD_WIDTH);
+                // 避免与同车道刚放下的障碍物重叠
+                if (distance - lastObstacleAt[lane] >= ITEM_CLEARANCE) {
+                    itemScratch[items++] = distance - start;
+                    itemScratch[items++] = lane;
+                    itemScratch[items++] = band.sampleItem(random).ordinal();
+                }
+            }
+            if (random.nextInt(100 * speed) < band.getSceneryChance()) {
+                sceneryScratch[scenery++] = distance - start;
+                sceneryScratch[scenery++] = band.sampleScenerySide(random);
+            }
+        }
+        return new TrackChunk(start, CHUNK_LENGTH, Arrays.copyOf(segmentScratch, segments),
+                Arrays.copyOf(obstacleScratch, obstacles), Arrays.copyOf(itemScratch, items),
+                Arrays.copyOf(sceneryScratch, scenery));
+    }
+
+    // For Testing Only
+    int getRejectedObstacles() {
+        return rejectedObstacles;
+    }
+}
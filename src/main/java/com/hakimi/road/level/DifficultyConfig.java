@@ -0,0 +1,316 @@
+package com.hakimi.road.level;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hakimi.road.entity.Item;
+import com.hakimi.road.util.AliasSampler;
+import com.hakimi.road.util.GameConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 难度曲线配置
+ * 按距离分段的关卡切换点、各类生成概率和速度曲线，从 JSON 加载：
+ * 优先读取 data/difficulty.json，不存在或解析失败时使用内置的 difficulty.json，
+ * 这样调整难度不需要重新编译。加载时把每张权重表构造成别名抽样器，抽样开销与类别数量无关。
+ */
+public class DifficultyConfig {
+    private static final Logger logger = LogManager.getLogger(DifficultyConfig.class);
+    private static final String OVERRIDE_FILE = "data/difficulty.json";
+    private static final String RESOURCE = "/difficulty.json";
+
+    private static DifficultyConfig instance;
+
+    /**
+     * 一个距离区间内的生成参数
+     */
+    public static final class Band {
+        private final int from;
+        private final boolean gentleCurves;
+        private final RoadManager.SegmentType[] segmentTypes;
+        private final AliasSampler segmentSampler;
+        private final int obstacleSpawnRate;
+        private final AliasSampler obstacleTypeSampler;
+        private final int itemChance;
+        private final Item.ItemType[] itemTypes;
+        private final AliasSampler itemSampler;
+        private final int sceneryChance;
+        private final int[] scenerySides;
+        private final AliasSampler scenerySideSampler;
+
+        private Band(JsonNode node) {
+            this.from = node.path("from").asInt(0);
+            this.gentleCurves = node.path("gentleCurves").asBoolean(false);
+
+            JsonNode segments = require(node, "segments");
+            this.segmentTypes = new RoadManager.SegmentType[segments.size()];
+            this.segmentSampler = new AliasSampler(weights(segments, (name, i) -> segmentTypes[i] =
+                    RoadManager.SegmentType.valueOf(name)));
+
+            this.obstacleSpawnRate = node.path("obstacleSpawnRate").asInt(GameConfig.OBSTACLE_SPAWN_RATE);
+            if (obstacleSpawnRate <= 0) {
+                throw new IllegalArgumentException("obstacleSpawnRate 必须大于0: " + obstacleSpawnRate);
+            }
+            JsonNode obstacleTypes = require(node, "obstacleTypes");
+            if (obstacleTypes.size() != GameConfig.OBSTACLE_TYPES) {
+                throw new IllegalArgumentException("obstacleTypes 需要 " + GameConfig.OBSTACLE_TYPES + " 个权重");
+            }
+            double[] obstacleWeights = new double[obstacleTypes.size()];
+            for (int i = 0; i < obstacleWeights.length; i++) {
+                obstacleWeights[i] = obstacleTypes.get(i).asDouble();
+            }
+            this.obstacleTypeSampler = new AliasSampler(obstacleWeights);
+
+            this.itemChance = node.path("itemChance").asInt(0);
+            JsonNode items = require(node, "items");
+            this.itemTypes = new Item.ItemType[items.size()];
+            this.itemSampler = new AliasSampler(weights(items, (name, i) -> itemTypes[i] =
+                    Item.ItemType.valueOf(name)));
+
+            this.sceneryChance = node.path("sceneryChance").asInt(0);
+            JsonNode sides = require(node, "scenerySides");
+            this.scenerySides = new int[sides.size()];
+            this.scenerySideSampler = new AliasSampler(weights(sides, (name, i) -> scenerySides[i] =
+                    sideOf(name)));
+        }
+
+        public int getFrom() {
+            return from;
+        }
+
+        /**
+         * 弯道是否减半（长度和弯曲度），让刚开始的玩家适应
+         */
+        public boolean isGentleCurves() {
+            return gentleCurves;
+        }
+
+        public RoadManager.SegmentType sampleSegment(Random random) {
+            return segmentTypes[segmentSampler.sample(random)];
+        }
+
+        /**
+         * 本次逻辑更新是否生成障碍物（速度越快越密）
+         */
+        public boolean rollObstacle(Random random, int gameSpeed) {
+            return random.nextInt(obstacleSpawnRate) < gameSpeed;
+        }
+
+        /**
+         * 平均每跑多少个距离单位生成一个障碍物
+         */
+        public int getObstacleSpawnRate() {
+            return obstacleSpawnRate;
+        }
+
+        public int sampleObstacleType(Random random) {
+            return obstacleTypeSampler.sample(random);
+        }
+
+        /**
+         * 每次逻辑更新生成道具的概率（百分比，按基础速度）
+         */
+        public int getItemChance() {
+            return itemChance;
+        }
+
+        /**
+         * 每次逻辑更新生成风景的概率（百分比，按基础速度）
+         */
+        public int getSceneryChance() {
+            return sceneryChance;
+        }
+
+        public boolean rollItem(Random random) {
+            return random.nextInt(100) < itemChance;
+        }
+
+        public Item.ItemType sampleItem(Random random) {
+            return itemTypes[itemSampler.sample(random)];
+        }
+
+        public boolean rollScenery(Random random) {
+            return random.nextInt(100) < sceneryChance;
+        }
+
+        /**
+         * @return -1: 左侧, 1: 右侧
+         */
+        public int sampleScenerySide(Random random) {
+            return scenerySides[scenerySideSampler.sample(random)];
+        }
+    }
+
+    private interface KeyConsumer {
+        void accept(String name, int index);
+    }
+
+    private final JsonNode source;
+    private final int[] levelFrom;
+    private final Level.ObstacleStyle[] levelStyles;
+    private final Band[] bands;
+    private final int speedIncreaseInterval;
+
+    private DifficultyConfig(JsonNode root) {
+        this.source = root;
+        this.speedIncreaseInterval = root.path("speedIncreaseInterval").asInt(GameConfig.SPEED_INCREASE_INTERVAL);
+        if (speedIncreaseInterval <= 0) {
+            throw new IllegalArgumentException("speedIncreaseInterval 必须大于0: " + speedIncreaseInterval);
+        }
+        JsonNode levels = require(root, "levels");
+        this.levelFrom = new int[levels.size()];
+        this.levelStyles = new Level.ObstacleStyle[levels.size()];
+        for (int i = 0; i < levels.size(); i++) {
+            levelFrom[i] = levels.get(i).path("from").asInt(0);
+            levelStyles[i] = Level.ObstacleStyle.valueOf(levels.get(i).path("style").asText());
+        }
+        checkAscending(levelFrom, "levels");
+
+        JsonNode bandNodes = require(root, "bands");
+        this.bands = new Band[bandNodes.size()];
+        int[] bandFrom = new int[bands.length];
+        for (int i = 0; i < bands.length; i++) {
+            bands[i] = new Band(bandNodes.get(i));
+            bandFrom[i] = bands[i].getFrom();
+        }
+        checkAscending(bandFrom, "bands");
+    }
+
+    public static synchronized DifficultyConfig getInstance() {
+        if (instance == null) {
+            instance = load();
+        }
+        return instance;
+    }
+
+    private static DifficultyConfig load() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        File file = new File(OVERRIDE_FILE);
+        if (file.exists()) {
+            try {
+                DifficultyConfig config = new DifficultyConfig(objectMapper.readTree(file));
+                logger.info("Loaded difficulty from {}", OVERRIDE_FILE);
+                return config;
+            } catch (IOException | IllegalArgumentException e) {
+                logger.error("Failed to load {}, using built-in difficulty", OVERRIDE_FILE, e);
+            }
+        }
+        try (InputStream in = DifficultyConfig.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("缺少内置难度配置 " + RESOURCE);
+            }
+            return new DifficultyConfig(objectMapper.readTree(in));
+        } catch (IOException e) {
+            throw new IllegalStateException("无法读取内置难度配置", e);
+        }
+    }
+
+    /**
+     * 从 JSON 文本构造配置（格式错误时抛出 IllegalArgumentException）
+     */
+    public static DifficultyConfig fromJson(String json) {
+        try {
+            return new DifficultyConfig(new ObjectMapper().readTree(json));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("难度配置不是有效的 JSON", e);
+        }
+    }
+
+    /**
+     * 从 JSON 树构造配置（格式错误时抛出 IllegalArgumentException）
+     */
+    public static DifficultyConfig fromJson(JsonNode json) {
+        return new DifficultyConfig(json.deepCopy());
+    }
+
+    /**
+     * 配置的 JSON 副本（调参工具在它上面修改后重新构造）
+     */
+    public JsonNode toJson() {
+        return source.deepCopy();
+    }
+
+    /**
+     * 跑到指定距离时的游戏速度：分数每增加 speedIncreaseInterval 速度加一
+     */
+    public int speedAt(int distance) {
+        int score = Math.max(0, distance) / GameConfig.SCORE_PER_DISTANCE;
+        return GameConfig.BASE_GAME_SPEED + score / speedIncreaseInterval;
+    }
+
+    public int getSpeedIncreaseInterval() {
+        return speedIncreaseInterval;
+    }
+
+    /**
+     * 距离所在的生成区间
+     */
+    public Band bandAt(int distance) {
+        for (int i = bands.length - 1; i > 0; i--) {
+            if (distance >= bands[i].getFrom()) {
+                return bands[i];
+            }
+        }
+        return bands[0];
+    }
+
+    /**
+     * 距离对应的关卡风格
+     */
+    public Level.ObstacleStyle levelStyleAt(int distance) {
+        for (int i = levelFrom.length - 1; i > 0; i--) {
+            if (distance >= levelFrom[i]) {
+                return levelStyles[i];
+            }
+        }
+        return levelStyles[0];
+    }
+
+    private static JsonNode require(JsonNode node, String field) {
+        JsonNode child = node.get(field);
+        if (child == null || child.size() == 0) {
+            throw new IllegalArgumentException("难度配置缺少 " + field);
+        }
+        return child;
+    }
+
+    private static double[] weights(JsonNode table, KeyConsumer keys) {
+        double[] weights = new double[table.size()];
+        int i = 0;
+        Iterator<Map.Entry<String, JsonNode>> fields = table.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            keys.accept(field.getKey(), i);
+            weights[i++] = field.getValue().asDouble();
+        }
+        return weights;
+    }
+
+    private static int sideOf(String name) {
+        if ("LEFT".equals(name)) {
+            return -1;
+        }
+        if ("RIGHT".equals(name)) {
+            return 1;
+        }
+        throw new IllegalArgumentException("未知的风景位置: " + name);
+    }
+
+    private static void checkAscending(int[] from, String field) {
+        if (from[0] != 0) {
+            throw new IllegalArgumentException(field + " 的第一项必须从 0 开始");
+        }
+        for (int i = 1; i < from.length; i++) {
+            if (from[i] <= from[i - 1]) {
+                throw new IllegalArgumentException(field + " 的 from 必须递增: " + from[i]);
+            }
+        }
+    }
+}
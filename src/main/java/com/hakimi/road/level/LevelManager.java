@@ -12,6 +12,7 @@ public class LevelManager {
     private static final Logger logger = LogManager.getLogger(LevelManager.class);
 
     private Level currentLevel;
+    private DifficultyConfig difficulty;
 
     // 预定义关卡
     private static final Level LEVEL_FOREST = new Level(
@@ -36,8 +37,23 @@ public class LevelManager {
             Level.ObstacleStyle.CYBERPUNK);
 
     public LevelManager() {
+        this(DifficultyConfig.getInstance());
+    }
+
+    /**
+     * @param difficulty 按距离划分关卡的配置
+     */
+    public LevelManager(DifficultyConfig difficulty) {
         // 初始关卡
         this.currentLevel = LEVEL_FOREST;
+        this.difficulty = difficulty;
+    }
+
+    /**
+     * 设置难度配置，下一次 update 起按它切换关卡
+     */
+    public void setDifficulty(DifficultyConfig difficulty) {
+        this.difficulty = difficulty;
     }
 
     /**
@@ -46,13 +62,7 @@ public class LevelManager {
      * @param distance 当前距离
      */
     public void update(int distance) {
-        Level targetLevel = LEVEL_FOREST;
-
-        if (distance >= 2000) {
-            targetLevel = LEVEL_CYBERPUNK;
-        } else if (distance >= 1000) {
-            targetLevel = LEVEL_DESERT;
-        }
+        Level targetLevel = levelFor(difficulty.levelStyleAt(distance));
 
         if (currentLevel != targetLevel) {
             logger.info("关卡切换: {} -> {}", currentLevel.getName(), targetLevel.getName());
@@ -60,6 +70,17 @@ public class LevelManager {
         }
     }
 
+    private static Level levelFor(Level.ObstacleStyle style) {
+        switch (style) {
+            case DESERT:
+                return LEVEL_DESERT;
+            case CYBERPUNK:
+                return LEVEL_CYBERPUNK;
+            default:
+                return LEVEL_FOREST;
+        }
+    }
+
     public Level getCurrentLevel() {
         return currentLevel;
     }
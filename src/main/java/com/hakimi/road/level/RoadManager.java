@@ -4,11 +4,15 @@ import com.hakimi.road.util.GameConfig;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 /**
  * 道路管理器
  * 负责管理道路的弯曲、转向和路段生成
+ * 路段提前规划，并按距离单位预先生成前方道路的弯曲度采样（环形缓冲），
+ * 渲染时据此逐行累加偏移，玩家能看到远处的弯道和急转弯逐渐靠近。
  */
 public class RoadManager {
     private static final Logger logger = LogManager.getLogger(RoadManager.class);
@@ -28,22 +32,75 @@ public class RoadManager {
         WRONG_DIRECTION // 方向错误
     }
 
+    // 前方道路采样覆盖的距离（采样数 - 1），环形缓冲容量为2的幂
+    public static final int LOOKAHEAD_DISTANCE = 255;
+    private static final int SAMPLE_CAPACITY = LOOKAHEAD_DISTANCE + 1;
+    private static final int SAMPLE_MASK = SAMPLE_CAPACITY - 1;
+    // 每个距离单位弯曲度向目标靠近的比例
+    private static final double CURVE_SMOOTHING = 0.1;
+
+    /**
+     * 已规划的路段
+     */
+    private static final class PlannedSegment {
+        final SegmentType type;
+        final int length;
+        final double curvature;
+
+        PlannedSegment(SegmentType type, int length, double curvature) {
+            this.type = type;
+            this.length = length;
+            this.curvature = curvature;
+        }
+    }
+
+    /**
+     * 路段来源（例如后台生成的赛道块），按顺序给出之后的路段
+     */
+    public interface SegmentSource {
+        SegmentType nextSegment(SegmentType previous, int startDistance);
+    }
+
     private SegmentType currentSegment;
     private double currentCurvature;
     private double targetCurvature;
     private int segmentDistanceRemaining;
     private Random random;
+    private DifficultyConfig difficulty;
+    private int totalDistance;
+    private SegmentSource segmentSource;
+
+    // 当前路段之后已规划的路段
+    private final List<PlannedSegment> upcoming = new ArrayList<>();
+
+    // 前方道路弯曲度采样：samples[sampleHead] 是玩家脚下，往后每个元素前进一个距离单位
+    private final double[] samples = new double[SAMPLE_CAPACITY];
+    private int sampleHead;
+    private int sampleCount;
+    private double lastSample;
+    // 采样写到的路段（-1 表示当前路段，否则是 upcoming 的下标）及该路段还未采样的距离
+    private int samplingIndex;
+    private int samplingLeft;
 
     // 转向相关
     private boolean isTurnActive; // 是否处于需要玩家操作的急转弯状态
     private boolean turnCompleted; // 当前转弯是否已完成
 
     public RoadManager() {
+        this(DifficultyConfig.getInstance());
+    }
+
+    /**
+     * @param difficulty 路段权重和早期弯道是否平缓
+     */
+    public RoadManager(DifficultyConfig difficulty) {
         this.random = new Random();
+        this.difficulty = difficulty;
         this.currentSegment = SegmentType.STRAIGHT;
         this.segmentDistanceRemaining = GameConfig.ROAD_SEGMENT_LENGTH;
         this.currentCurvature = 0;
         this.targetCurvature = 0;
+        resample(0);
         logger.info("RoadManager initialized");
     }
 
@@ -54,125 +111,199 @@ public class RoadManager {
      * @param totalDistance 总奔跑距离
      */
     public void update(int speed, int totalDistance) {
+        this.totalDistance = totalDistance;
         segmentDistanceRemaining -= speed;
 
-        // 平滑过渡弯曲度
-        if (Math.abs(currentCurvature - targetCurvature) > 0.01) {
-            double delta = (targetCurvature - currentCurvature) * 0.1;
-            currentCurvature += delta;
-        } else {
-            currentCurvature = targetCurvature;
-        }
+        // 沿采样前进，弯曲度的平滑过渡已经包含在采样里
+        int step = Math.max(0, Math.min(speed, sampleCount - 1));
+        sampleHead = (sampleHead + step) & SAMPLE_MASK;
+        sampleCount -= step;
+        currentCurvature = samples[sampleHead];
+        fillSamples();
 
         // 检查路段结束
         if (segmentDistanceRemaining <= 0) {
-            generateNextSegment(totalDistance);
+            enterNextSegment();
         }
     }
 
     /**
-     * 生成下一个路段
-     * 根据游戏进度调整难度
+     * 进入已规划的下一个路段
      */
-    private void generateNextSegment(int totalDistance) {
-        // 如果当前是急转弯，必须接直道
-        if (currentSegment == SegmentType.TURN_LEFT_90 || currentSegment == SegmentType.TURN_RIGHT_90) {
-            setSegment(SegmentType.STRAIGHT, totalDistance);
+    private void enterNextSegment() {
+        if (upcoming.isEmpty()) {
+            upcoming.add(planSegment(currentSegment, totalDistance));
+        }
+        // 超出的距离计入下一段，与采样保持一致
+        int overshoot = segmentDistanceRemaining;
+        setSegment(upcoming.remove(0));
+        segmentDistanceRemaining += overshoot;
+        if (samplingIndex < 0) {
+            resample(currentCurvature);
         } else {
-            // 根据距离动态调整生成概率和路段长度
-            int roll = random.nextInt(100);
-
-            // 简单难度 (前2000米) - 主要是直道
-            if (totalDistance < 2000) {
-                if (roll < 70) {
-                    setSegment(SegmentType.STRAIGHT, totalDistance);
-                } else if (roll < 85) {
-                    setSegment(SegmentType.CURVE_LEFT, totalDistance);
-                } else {
-                    setSegment(SegmentType.CURVE_RIGHT, totalDistance);
-                }
-            }
-            // 中等难度 (2000-5000米) - 引入急转弯，曲线变多
-            else if (totalDistance < 5000) {
-                if (roll < 50) {
-                    setSegment(SegmentType.STRAIGHT, totalDistance);
-                } else if (roll < 70) {
-                    setSegment(SegmentType.CURVE_LEFT, totalDistance);
-                } else if (roll < 90) {
-                    setSegment(SegmentType.CURVE_RIGHT, totalDistance);
-                } else if (roll < 95) {
-                    setSegment(SegmentType.TURN_LEFT_90, totalDistance);
-                } else {
-                    setSegment(SegmentType.TURN_RIGHT_90, totalDistance);
-                }
-            }
-            // 困难难度 (>5000米) - 更多急转弯和曲线
-            else {
-                if (roll < 30) {
-                    setSegment(SegmentType.STRAIGHT, totalDistance);
-                } else if (roll < 60) {
-                    setSegment(SegmentType.CURVE_LEFT, totalDistance);
-                } else if (roll < 90) {
-                    setSegment(SegmentType.CURVE_RIGHT, totalDistance);
-                } else if (roll < 95) {
-                    setSegment(SegmentType.TURN_LEFT_90, totalDistance);
-                } else {
-                    setSegment(SegmentType.TURN_RIGHT_90, totalDistance);
-                }
-            }
+            samplingIndex--;
         }
 
         logger.debug("Next segment generated: " + currentSegment);
     }
 
-    private void setSegment(SegmentType type, int totalDistance) {
-        this.currentSegment = type;
+    /**
+     * 规划一个路段
+     * 根据游戏进度调整难度
+     */
+    private PlannedSegment planSegment(SegmentType previous, int startDistance) {
+        SegmentType type = segmentSource != null ? segmentSource.nextSegment(previous, startDistance)
+                : chooseSegment(difficulty, random, previous, startDistance);
+        return createSegment(type, startDistance);
+    }
 
-        // 动态调整路段长度
-        // 早期曲线短一些，让玩家更容易适应
-        int baseLength = GameConfig.ROAD_SEGMENT_LENGTH;
+    /**
+     * 抽取下一个路段的类型
+     */
+    static SegmentType chooseSegment(DifficultyConfig difficulty, Random random, SegmentType previous,
+            int startDistance) {
+        // 如果前一段是急转弯，必须接直道
+        if (previous == SegmentType.TURN_LEFT_90 || previous == SegmentType.TURN_RIGHT_90) {
+            return SegmentType.STRAIGHT;
+        }
+        // 按距离所在区间的权重表抽取下一个路段（见 difficulty.json）
+        return difficulty.bandAt(startDistance).sampleSegment(random);
+    }
 
-        if (type == SegmentType.CURVE_LEFT || type == SegmentType.CURVE_RIGHT) {
-            if (totalDistance < 2000) {
-                this.segmentDistanceRemaining = baseLength / 2; // 早期弯道长度减半
-            } else {
-                this.segmentDistanceRemaining = baseLength;
-            }
-        } else {
-            this.segmentDistanceRemaining = baseLength;
+    /**
+     * 路段长度
+     * 早期曲线短一些，让玩家更容易适应
+     */
+    static int segmentLength(SegmentType type, boolean gentle) {
+        if ((type == SegmentType.CURVE_LEFT || type == SegmentType.CURVE_RIGHT) && gentle) {
+            return GameConfig.ROAD_SEGMENT_LENGTH / 2; // 早期弯道长度减半
         }
+        return GameConfig.ROAD_SEGMENT_LENGTH;
+    }
 
-        this.turnCompleted = false;
+    private PlannedSegment createSegment(SegmentType type, int startDistance) {
+        boolean gentle = difficulty.bandAt(startDistance).isGentleCurves();
+        int length = segmentLength(type, gentle);
 
-        // 设置目标弯曲度
+        // 目标弯曲度
+        double curvature = 0;
         switch (type) {
             case STRAIGHT:
-                targetCurvature = 0;
-                isTurnActive = false;
                 break;
             case CURVE_LEFT:
-                targetCurvature = -GameConfig.MAX_CURVATURE;
+                curvature = -GameConfig.MAX_CURVATURE;
                 // 早期弯曲度小一点
-                if (totalDistance < 2000)
-                    targetCurvature *= 0.5;
-                isTurnActive = false;
+                if (gentle)
+                    curvature *= 0.5;
                 break;
             case CURVE_RIGHT:
-                targetCurvature = GameConfig.MAX_CURVATURE;
-                if (totalDistance < 2000)
-                    targetCurvature *= 0.5;
-                isTurnActive = false;
+                curvature = GameConfig.MAX_CURVATURE;
+                if (gentle)
+                    curvature *= 0.5;
                 break;
             case TURN_LEFT_90:
                 // 急转弯预告，先稍微弯曲
-                targetCurvature = -GameConfig.MAX_CURVATURE * 1.5;
-                isTurnActive = true;
+                curvature = -GameConfig.MAX_CURVATURE * 1.5;
                 break;
             case TURN_RIGHT_90:
-                targetCurvature = GameConfig.MAX_CURVATURE * 1.5;
-                isTurnActive = true;
+                curvature = GameConfig.MAX_CURVATURE * 1.5;
                 break;
         }
+        return new PlannedSegment(type, length, curvature);
+    }
+
+    private void setSegment(PlannedSegment segment) {
+        this.currentSegment = segment.type;
+        this.segmentDistanceRemaining = segment.length;
+        this.targetCurvature = segment.curvature;
+        this.turnCompleted = false;
+        this.isTurnActive = segment.type == SegmentType.TURN_LEFT_90 || segment.type == SegmentType.TURN_RIGHT_90;
+    }
+
+    /**
+     * 从玩家脚下开始重新生成全部采样（路段被改写时调用）
+     */
+    private void resample(double startCurvature) {
+        sampleCount = 1;
+        samples[sampleHead] = startCurvature;
+        lastSample = startCurvature;
+        samplingIndex = -1;
+        samplingLeft = segmentDistanceRemaining - 1;
+        fillSamples();
+    }
+
+    /**
+     * 把采样补满到 LOOKAHEAD_DISTANCE，不够时继续规划后面的路段
+     */
+    private void fillSamples() {
+        while (sampleCount < SAMPLE_CAPACITY) {
+            while (samplingLeft <= 0) {
+                samplingIndex++;
+                if (samplingIndex == upcoming.size()) {
+                    SegmentType previous = upcoming.isEmpty() ? currentSegment
+                            : upcoming.get(upcoming.size() - 1).type;
+                    upcoming.add(planSegment(previous, plannedEndDistance()));
+                }
+                samplingLeft = upcoming.get(samplingIndex).length;
+            }
+            double target = samplingIndex < 0 ? targetCurvature : upcoming.get(samplingIndex).curvature;
+            lastSample += (target - lastSample) * CURVE_SMOOTHING;
+            samples[(sampleHead + sampleCount) & SAMPLE_MASK] = lastSample;
+            sampleCount++;
+            samplingLeft--;
+        }
+    }
+
+    /**
+     * 已规划路段的结束位置（总距离）
+     */
+    private int plannedEndDistance() {
+        int end = totalDistance + Math.max(0, segmentDistanceRemaining);
+        for (PlannedSegment segment : upcoming) {
+            end += segment.length;
+        }
+        return end;
+    }
+
+    /**
+     * 设置路段来源，之后规划的路段都从它取得（null 表示自己随机生成）
+     * 已规划的路段保留，需要从头开始时再调用 reset
+     */
+    public void setSegmentSource(SegmentSource segmentSource) {
+        this.segmentSource = segmentSource;
+    }
+
+    /**
+     * 设置难度配置，之后规划的路段按它生成
+     */
+    public void setDifficulty(DifficultyConfig difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    /**
+     * 回到一段完整的直道上重新开始，清空已规划的路段
+     *
+     * @param totalDistance 当前总距离
+     */
+    public void reset(int totalDistance) {
+        this.totalDistance = totalDistance;
+        setSegment(createSegment(SegmentType.STRAIGHT, totalDistance));
+        currentCurvature = 0;
+        upcoming.clear();
+        resample(0);
+    }
+
+    /**
+     * 复制前方道路的弯曲度采样：out[0] 是玩家脚下，out[i] 是前方 i 个距离单位处
+     *
+     * @return 复制的采样数
+     */
+    public int copyLookahead(double[] out) {
+        int count = Math.min(out.length, sampleCount);
+        for (int i = 0; i < count; i++) {
+            out[i] = samples[(sampleHead + i) & SAMPLE_MASK];
+        }
+        return count;
     }
 
     /**
@@ -181,12 +312,22 @@ public class RoadManager {
      * @param inputDirection -1: Left, 1: Right, 0: None
      */
     public TurnResult checkTurn(int inputDirection) {
+        return checkTurn(inputDirection, 0);
+    }
+
+    /**
+     * 按按键到达时刻检查转向操作（亚tick精度）
+     *
+     * @param inputDirection  -1: Left, 1: Right, 0: None
+     * @param elapsedDistance 自上次逻辑更新到按键到达时已经跑过的距离（可为小数）
+     */
+    public TurnResult checkTurn(int inputDirection, double elapsedDistance) {
         if (!isTurnActive || turnCompleted) {
             return TurnResult.NONE;
         }
 
         // 检查是否在转向窗口内 (路段即将结束时)
-        boolean inWindow = segmentDistanceRemaining <= GameConfig.TURN_WINDOW_TOLERANCE;
+        boolean inWindow = segmentDistanceRemaining - elapsedDistance <= GameConfig.TURN_WINDOW_TOLERANCE;
 
         if (inWindow) {
             if (inputDirection == 0)
@@ -234,6 +375,7 @@ public class RoadManager {
         // 视觉上瞬间回正，或者直接切到下一段直道
         currentCurvature = 0;
         targetCurvature = 0;
+        resample(0);
         logger.info("Turn completed successfully");
     }
 
@@ -249,16 +391,35 @@ public class RoadManager {
         return isTurnActive;
     }
 
+    /**
+     * 当前急转弯是否已经完成
+     */
+    public boolean isTurnCompleted() {
+        return turnCompleted;
+    }
+
+    /**
+     * 把当前急转弯标记为已完成（读档时恢复状态用）
+     */
+    public void markTurnCompleted() {
+        if (isTurnActive && !turnCompleted) {
+            completeTurn();
+        }
+    }
+
     public int getSegmentDistanceRemaining() {
         return segmentDistanceRemaining;
     }
 
     // For manual override (testing)
     public void forceSegment(SegmentType type) {
-        setSegment(type, 5000); // Assume hard mode for forced segments
+        setSegment(createSegment(type, 5000)); // Assume hard mode for forced segments
+        upcoming.clear();
+        resample(currentCurvature);
     }
 
     public void setSegmentDistanceRemaining(int distance) {
         this.segmentDistanceRemaining = distance;
+        resample(currentCurvature);
     }
 }
@@ -0,0 +1,127 @@
+package com.hakimi.road.level;
+
+import com.hakimi.road.entity.Obstacle;
+import com.hakimi.road.system.ActionModel;
+import com.hakimi.road.util.GameConfig;
+
+import java.util.Arrays;
+
+/**
+ * 可解性校验器
+ * 按逻辑帧对 (车道, 玩家状态) 做可达性搜索，判断一组障碍物是否留有通路，规则与 CollisionSystem 一致：
+ * 低障碍物要在跳跃中通过，高障碍物要在滑铲中通过，跳跃/滑铲期间不能再起跳或滑铲，每个逻辑帧最多换一条车道。
+ * 障碍物按距离递增依次放入（tryPlace），会让前方无路可走的障碍物被拒绝，生成器据此换车道或丢弃。
+ * 状态模型见 ActionModel，可达集合用一个 long 表示，每次放入只需推进几个逻辑帧，可以逐块增量运行。
+ */
+public class SolvabilityValidator {
+    // 跳跃/滑铲覆盖的逻辑帧数（按最不利的相位取整）
+    static final int JUMP_TICKS = (GameConfig.JUMP_DURATION - 1) / ActionModel.FRAMES_PER_TICK;
+    static final int SLIDE_TICKS = (GameConfig.SLIDE_DURATION - 1) / ActionModel.FRAMES_PER_TICK;
+    // 障碍物与玩家在 y 方向重叠的距离范围
+    static final int HIT_WINDOW = GameConfig.OBSTACLE_HEIGHT + GameConfig.PLAYER_HEIGHT + 1;
+
+    private static final ActionModel MODEL = new ActionModel(JUMP_TICKS, SLIDE_TICKS);
+
+    private final DifficultyConfig difficulty;
+    // 最后一个不会再受新障碍物影响的逻辑帧：玩家所在距离和此时的可达集合
+    private int baseDistance;
+    private long baseReach = MODEL.allNormal();
+    // 还可能影响之后逻辑帧的障碍物 (distance, lane, type)
+    private int[] pending = new int[48];
+    private int pendingCount;
+    private int lastDistance = Integer.MIN_VALUE;
+
+    /**
+     * @param startDistance 赛道起点，此时玩家在任意车道的正常状态（障碍物到达前有足够时间换道）
+     */
+    public SolvabilityValidator(int startDistance) {
+        this(startDistance, DifficultyConfig.getInstance());
+    }
+
+    /**
+     * @param difficulty 提供速度曲线
+     */
+    public SolvabilityValidator(int startDistance, DifficultyConfig difficulty) {
+        this.difficulty = difficulty;
+        this.baseDistance = startDistance - difficulty.speedAt(startDistance);
+    }
+
+    /**
+     * 尝试放入障碍物，放入后前方仍有通路则接受
+     * 距离必须不小于上一次放入的距离
+     *
+     * @return 被拒绝时返回 false，校验器状态不变
+     */
+    public boolean tryPlace(int distance, int lane, int type) {
+        if (distance < lastDistance) {
+            throw new IllegalArgumentException("障碍物必须按距离递增放入: " + distance + " < " + lastDistance);
+        }
+        lastDistance = distance;
+        advanceBase(distance);
+
+        ensurePendingCapacity();
+        pending[pendingCount * 3] = distance;
+        pending[pendingCount * 3 + 1] = lane;
+        pending[pendingCount * 3 + 2] = type;
+        pendingCount++;
+
+        // 从确定的帧向前推进，直到越过所有已知障碍物
+        long reach = baseReach;
+        int tick = baseDistance;
+        int lastHit = distance + HIT_WINDOW - 1;
+        while (tick <= lastHit) {
+            tick += difficulty.speedAt(tick);
+            reach = step(reach, tick);
+            if (reach == 0) {
+                pendingCount--;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 推进确定的逻辑帧：跨度完全在 distance 之前的帧不会再被之后的障碍物影响
+     */
+    private void advanceBase(int distance) {
+        while (true) {
+            int next = baseDistance + difficulty.speedAt(baseDistance);
+            if (next + difficulty.speedAt(next) - 1 >= distance) {
+                break;
+            }
+            baseReach = step(baseReach, next);
+            baseDistance = next;
+        }
+        // 窗口已经完全落在确定帧之前的障碍物不再需要
+        int kept = 0;
+        for (int i = 0; i < pendingCount; i++) {
+            if (pending[i * 3] + HIT_WINDOW - 1 > baseDistance) {
+                System.arraycopy(pending, i * 3, pending, kept * 3, 3);
+                kept++;
+            }
+        }
+        pendingCount = kept;
+    }
+
+    /**
+     * 推进到玩家位于 tick 的逻辑帧，只保留该帧不会被撞的状态
+     * 一帧内玩家跑过 [tick, tick + speed)，窗口与之重叠的障碍物都算数（与帧的相位无关）
+     */
+    private long step(long reach, int tick) {
+        long next = MODEL.successors(reach);
+        int spanEnd = tick + difficulty.speedAt(tick) - 1;
+        for (int i = 0; i < pendingCount; i++) {
+            int distance = pending[i * 3];
+            if (distance <= spanEnd && distance + HIT_WINDOW - 1 >= tick) {
+                next = MODEL.avoid(next, pending[i * 3 + 1], Obstacle.heightOf(pending[i * 3 + 2]));
+            }
+        }
+        return next;
+    }
+
+    private void ensurePendingCapacity() {
+        if ((pendingCount + 1) * 3 > pending.length) {
+            pending = Arrays.copyOf(pending, pending.length * 2);
+        }
+    }
+}
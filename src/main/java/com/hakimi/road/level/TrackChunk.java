@@ -0,0 +1,101 @@
+package com.hakimi.road.level;
+
+import com.hakimi.road.entity.Item;
+
+/**
+ * 赛道块
+ * 一段固定长度赛道上预先生成的内容：从这段开始的路段，以及障碍物、道具和风景的位置。
+ * 位置用距离（相对块起点的偏移）表示，玩家跑过该距离时才放入游戏；创建后不再修改，可以跨线程传递。
+ */
+public final class TrackChunk {
+    private static final Item.ItemType[] ITEM_TYPES = Item.ItemType.values();
+    private static final RoadManager.SegmentType[] SEGMENT_TYPES = RoadManager.SegmentType.values();
+
+    private final int start;
+    private final int length;
+    // 路段(offset, type序号), 障碍物(offset, lane, type), 道具(offset, lane, type序号), 风景(offset, side)
+    private final int[] segments;
+    private final int[] obstacles;
+    private final int[] items;
+    private final int[] scenery;
+
+    TrackChunk(int start, int length, int[] segments, int[] obstacles, int[] items, int[] scenery) {
+        this.start = start;
+        this.length = length;
+        this.segments = segments;
+        this.obstacles = obstacles;
+        this.items = items;
+        this.scenery = scenery;
+    }
+
+    /**
+     * 块起点的总距离
+     */
+    public int getStart() {
+        return start;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getEnd() {
+        return start + length;
+    }
+
+    public int getSegmentCount() {
+        return segments.length / 2;
+    }
+
+    public int getSegmentDistance(int i) {
+        return start + segments[i * 2];
+    }
+
+    public RoadManager.SegmentType getSegmentType(int i) {
+        return SEGMENT_TYPES[segments[i * 2 + 1]];
+    }
+
+    public int getObstacleCount() {
+        return obstacles.length / 3;
+    }
+
+    public int getObstacleDistance(int i) {
+        return start + obstacles[i * 3];
+    }
+
+    public int getObstacleLane(int i) {
+        return obstacles[i * 3 + 1];
+    }
+
+    public int getObstacleType(int i) {
+        return obstacles[i * 3 + 2];
+    }
+
+    public int getItemCount() {
+        return items.length / 3;
+    }
+
+    public int getItemDistance(int i) {
+        return start + items[i * 3];
+    }
+
+    public int getItemLane(int i) {
+        return items[i * 3 + 1];
+    }
+
+    public Item.ItemType getItemType(int i) {
+        return ITEM_TYPES[items[i * 3 + 2]];
+    }
+
+    public int getSceneryCount() {
+        return scenery.length / 2;
+    }
+
+    public int getSceneryDistance(int i) {
+        return start + scenery[i * 2];
+    }
+
+    public int getScenerySide(int i) {
+        return scenery[i * 2 + 1];
+    }
+}
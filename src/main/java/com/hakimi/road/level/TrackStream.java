@@ -0,0 +1,115 @@
+package com.hakimi.road.level;
+
+import com.hakimi.road.entity.Item;
+import com.hakimi.road.entity.Obstacle;
+import com.hakimi.road.entity.Scenery;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 赛道流（模拟线程一侧）
+ * 从 ChunkGenerator 取出预先生成的赛道块：路段交给 RoadManager 规划前方道路，
+ * 障碍物、道具和风景在玩家跑过对应距离时放入游戏。每次逻辑更新只是按顺序读取数组，不再掷骰。
+ */
+public class TrackStream implements RoadManager.SegmentSource {
+    private final ChunkGenerator generator;
+    // 已取出、内容还没全部放入游戏的块（RoadManager 规划路段时可能需要提前取块）
+    private final Deque<TrackChunk> chunks = new ArrayDeque<>();
+    private final Deque<RoadManager.SegmentType> segments = new ArrayDeque<>();
+    private int takenEnd;
+    // 队首块中下一个要放入的障碍物/道具/风景
+    private int obstacleIndex;
+    private int itemIndex;
+    private int sceneryIndex;
+
+    /**
+     * @param background 是否在后台线程生成（否则取块时在当前线程生成）
+     */
+    public TrackStream(long seed, int startDistance, boolean background) {
+        this(new ChunkGenerator(seed, startDistance), background);
+    }
+
+    /**
+     * @param difficulty 生成参数和速度曲线
+     */
+    public TrackStream(long seed, int startDistance, boolean background, DifficultyConfig difficulty) {
+        this(new ChunkGenerator(seed, startDistance, difficulty), background);
+    }
+
+    TrackStream(ChunkGenerator generator, boolean background) {
+        this.generator = generator;
+        if (background) {
+            generator.start();
+        }
+    }
+
+    public long getSeed() {
+        return generator.getSeed();
+    }
+
+    /**
+     * 把距离不超过 distance 的内容放入游戏，y 按已经跑过的距离折算
+     */
+    public void spawn(int distance, List<Obstacle> obstacles, List<Item> items, List<Scenery> sceneryList) {
+        while (takenEnd <= distance) {
+            takeChunk();
+        }
+        while (!chunks.isEmpty()) {
+            TrackChunk chunk = chunks.peekFirst();
+            while (obstacleIndex < chunk.getObstacleCount() && chunk.getObstacleDistance(obstacleIndex) <= distance) {
+                obstacles.add(new Obstacle(chunk.getObstacleLane(obstacleIndex),
+                        distance - chunk.getObstacleDistance(obstacleIndex), chunk.getObstacleType(obstacleIndex)));
+                obstacleIndex++;
+            }
+            while (itemIndex < chunk.getItemCount() && chunk.getItemDistance(itemIndex) <= distance) {
+                items.add(new Item(chunk.getItemLane(itemIndex), distance - chunk.getItemDistance(itemIndex),
+                        chunk.getItemType(itemIndex)));
+                itemIndex++;
+            }
+            while (sceneryIndex < chunk.getSceneryCount() && chunk.getSceneryDistance(sceneryIndex) <= distance) {
+                sceneryList.add(new Scenery(chunk.getScenerySide(sceneryIndex),
+                        distance - chunk.getSceneryDistance(sceneryIndex), Scenery.SceneryType.TREE));
+                sceneryIndex++;
+            }
+            if (chunk.getEnd() > distance + 1) {
+                break;
+            }
+            // 整块都已跑过
+            chunks.removeFirst();
+            obstacleIndex = 0;
+            itemIndex = 0;
+            sceneryIndex = 0;
+        }
+    }
+
+    @Override
+    public RoadManager.SegmentType nextSegment(RoadManager.SegmentType previous, int startDistance) {
+        while (segments.isEmpty()) {
+            takeChunk();
+        }
+        return segments.removeFirst();
+    }
+
+    private void takeChunk() {
+        TrackChunk chunk = generator.take();
+        chunks.addLast(chunk);
+        takenEnd = chunk.getEnd();
+        for (int i = 0; i < chunk.getSegmentCount(); i++) {
+            segments.addLast(chunk.getSegmentType(i));
+        }
+    }
+
+    /**
+     * 停止后台生成
+     */
+    public void close() {
+        generator.close();
+    }
+
+    // For Testing Only
+    int getBufferedChunkCount() {
+        return chunks.size();
+    }
+}
@@ -0,0 +1,42 @@
+package com.hakimi.road.renderer;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.graphics.AbstractTextGraphics;
+import com.googlecode.lanterna.graphics.TextGraphics;
+import com.googlecode.lanterna.graphics.TextImage;
+
+/**
+ * 只写入 [top, bottom) 行的绘图对象
+ * 坐标不做平移，渲染器照常按整屏坐标绘制，落在范围外的单元被丢弃；
+ * 并行分带绘制时每个带各用一个实例，颜色等状态互不影响，跨带的精灵按行截断。
+ */
+public class ClippedTextGraphics extends AbstractTextGraphics {
+    private final TextImage target;
+    private final int top;
+    private final int bottom;
+
+    public ClippedTextGraphics(TextImage target, int top, int bottom) {
+        this.target = target;
+        this.top = top;
+        this.bottom = bottom;
+    }
+
+    @Override
+    public TextGraphics setCharacter(int columnIndex, int rowIndex, TextCharacter textCharacter) {
+        if (rowIndex >= top && rowIndex < bottom) {
+            target.setCharacterAt(columnIndex, rowIndex, textCharacter);
+        }
+        return this;
+    }
+
+    @Override
+    public TextCharacter getCharacter(int column, int row) {
+        return target.getCharacterAt(column, row);
+    }
+
+    @Override
+    public TerminalSize getSize() {
+        return target.getSize();
+    }
+}
@@ -1,46 +1,179 @@
 package com.hakimi.road.renderer;
 
 import com.googlecode.lanterna.TextColor;
-import com.googlecode.lanterna.graphics.TextGraphics;
 import com.hakimi.road.entity.Item;
-import com.hakimi.road.entity.Obstacle;
-import com.hakimi.road.entity.Scenery;
 import com.hakimi.road.level.Level;
 import com.hakimi.road.util.GameConfig;
 
+/**
+ * 实体渲染器
+ * 障碍物、道具和风景不直接绘制，而是追加到绘制命令缓冲，由它按深度排序后统一执行。
+ * 精灵按深度分为远/中/近三个细节层级：远处只画一个字符，近处才画完整精灵；
+ * 每行的层级按车道宽度预先算成表，地平线以上、屏幕以外的实体在生成命令前就被剔除。
+ */
 public class EntityRenderer {
+    // 实体绘制在路面底色上
+    private static final TextColor GROUND = TextColor.ANSI.BLACK;
 
-    public void renderObstacle(TextGraphics tg, int width, int height, Obstacle obstacle, Level level,
-            double curvature) {
-        int obstacleRow = Math.max(0, Math.min(height - 2, obstacle.getY()));
-        int laneX = GameConfig.calculateLaneX(width, height, obstacle.getLane(), obstacleRow);
+    // 细节层级（-1 表示该行不可见，直接剔除）
+    static final int TIER_CULLED = -1;
+    static final int TIER_FAR = 0;
+    static final int TIER_MID = 1;
+    static final int TIER_NEAR = 2;
+    // 车道宽度达到该列数时使用中等/完整精灵
+    private static final int MID_LANE_WIDTH = 6;
+    private static final int NEAR_LANE_WIDTH = 10;
+    // 锚点超出屏幕这么多列时整个精灵都看不见
+    private static final int CULL_MARGIN = 4;
+
+    private static final int ROCK = SpriteRegistry.registerCentered(
+            "   ▄   ",
+            "  ███  ",
+            " █████ ");
+    private static final int DESERT_CACTUS = SpriteRegistry.registerCentered(
+            "   ̦   ",
+            " ψΨψ ",
+            "  |  ");
+    private static final int CYBER_BARRIER = SpriteRegistry.registerCentered(
+            " ╱ ╲ ",
+            " |=| ",
+            " ╲_╱ ");
+    private static final int ROADBLOCK = SpriteRegistry.registerCentered(
+            "▀▀▀▀▀▀▀",
+            " \\ | / ",
+            "  [o]  ");
+    private static final int DESERT_CREATURE = SpriteRegistry.registerCentered(
+            " ^o^ ",
+            " / \\ ",
+            " v v ");
+    private static final int CYBER_DRONE = SpriteRegistry.registerCentered(
+            " <O> ",
+            " /|\\ ",
+            "  v  ");
+    private static final int DRIED_FISH = SpriteRegistry.registerCentered("><>");
+    private static final int HAGEN = SpriteRegistry.registerCentered(
+            " /|\\ ",
+            "([★])",
+            " \\|/ ");
+    // 纯ASCII版本（低带宽模式）：每个字符只占一个字节
+    private static final int ROCK_ASCII = SpriteRegistry.registerCentered(
+            "   ^   ",
+            "  /#\\  ",
+            " /###\\ ");
+    private static final int DESERT_CACTUS_ASCII = SpriteRegistry.registerCentered(
+            "  ,  ",
+            " wYw ",
+            "  |  ");
+    private static final int CYBER_BARRIER_ASCII = SpriteRegistry.registerCentered(
+            " / \\ ",
+            " |=| ",
+            " \\_/ ");
+    private static final int ROADBLOCK_ASCII = SpriteRegistry.registerCentered(
+            "=======",
+            " \\ | / ",
+            "  [o]  ");
+    private static final int HAGEN_ASCII = SpriteRegistry.registerCentered(
+            " /|\\ ",
+            "([*])",
+            " \\|/ ");
+    private static final int TREE_FAR = SpriteRegistry.registerLeftAligned("^");
+    private static final int TREE_NEAR = SpriteRegistry.registerLeftAligned(
+            " ^ ",
+            "/|\\");
+
+    // 各类实体按层级排列的精灵：{远, 中, 近}
+    private static final int[] ROCK_TIERS = tiers(center("▄"), center("▄█▄"), ROCK);
+    private static final int[] ROCK_ASCII_TIERS = tiers(center("^"), center("/#\\"), ROCK_ASCII);
+    private static final int[] DESERT_CACTUS_TIERS = tiers(center("ψ"), center("ψΨψ"), DESERT_CACTUS);
+    private static final int[] DESERT_CACTUS_ASCII_TIERS = tiers(center("Y"), center("wYw"), DESERT_CACTUS_ASCII);
+    private static final int[] CYBER_BARRIER_TIERS = tiers(center("="), center("|=|"), CYBER_BARRIER);
+    private static final int[] CYBER_BARRIER_ASCII_TIERS = tiers(center("="), center("|=|"), CYBER_BARRIER_ASCII);
+    private static final int[] ROADBLOCK_TIERS = tiers(center("▀"), center("▀▀▀"), ROADBLOCK);
+    private static final int[] ROADBLOCK_ASCII_TIERS = tiers(center("="), center("==="), ROADBLOCK_ASCII);
+    private static final int[] DESERT_CREATURE_TIERS = tiers(center("o"), center("^o^"), DESERT_CREATURE);
+    private static final int[] CYBER_DRONE_TIERS = tiers(center("o"), center("<O>"), CYBER_DRONE);
+    private static final int[] DRIED_FISH_TIERS = tiers(center(">"), DRIED_FISH, DRIED_FISH);
+    private static final int[] HAGEN_TIERS = tiers(center("★"), center("([★])"), HAGEN);
+    private static final int[] HAGEN_ASCII_TIERS = tiers(center("*"), center("([*])"), HAGEN_ASCII);
+    private static final int[] TREE_TIERS = tiers(TREE_FAR, TREE_FAR, TREE_NEAR);
+
+    private boolean asciiOnly;
+
+    // 行号 -> 细节层级，屏幕高度变化时重建
+    private int[] tierByRow = new int[0];
+    private int tierHeight = -1;
+
+    // 被剔除的实体数（累计）
+    private long culledCount;
+
+    private static int center(String glyph) {
+        return SpriteRegistry.registerCentered(glyph);
+    }
+
+    private static int[] tiers(int far, int mid, int near) {
+        return new int[] { far, mid, near };
+    }
+
+    /**
+     * 只使用ASCII精灵（低带宽模式）
+     */
+    public void setAsciiOnly(boolean asciiOnly) {
+        this.asciiOnly = asciiOnly;
+    }
+
+    public void renderObstacle(RenderCommandBuffer commands, int width, int height, int lane, int y, int type,
+            Level level, RoadCurve curve) {
+        int obstacleRow = Math.min(height - 2, y);
+        int tier = tierAt(height, y, obstacleRow);
+        if (tier == TIER_CULLED) {
+            culledCount++;
+            return;
+        }
+        int laneX = GameConfig.calculateLaneX(width, height, lane, obstacleRow);
 
         // Apply curvature offset
-        int curveOffset = GameConfig.calculateCurvatureOffset(height, obstacleRow, curvature);
+        int curveOffset = curve.getOffset(obstacleRow);
         laneX += curveOffset;
+        if (isOffScreen(laneX, width)) {
+            culledCount++;
+            return;
+        }
 
-        drawObstacleSprite(tg, laneX, obstacleRow, obstacle.getType(), level);
+        drawObstacleSprite(commands, laneX, obstacleRow, type, level, tier);
     }
 
-    public void renderItem(TextGraphics tg, int width, int height, Item item, double curvature) {
-        int itemRow = Math.max(0, Math.min(height - 2, item.getY()));
-        int laneX = GameConfig.calculateLaneX(width, height, item.getLane(), itemRow);
+    public void renderItem(RenderCommandBuffer commands, int width, int height, int lane, int y,
+            Item.ItemType type, RoadCurve curve) {
+        int itemRow = Math.min(height - 2, y);
+        int tier = tierAt(height, y, itemRow);
+        if (tier == TIER_CULLED) {
+            culledCount++;
+            return;
+        }
+        int laneX = GameConfig.calculateLaneX(width, height, lane, itemRow);
 
         // Apply curvature offset
-        int curveOffset = GameConfig.calculateCurvatureOffset(height, itemRow, curvature);
+        int curveOffset = curve.getOffset(itemRow);
         laneX += curveOffset;
+        if (isOffScreen(laneX, width)) {
+            culledCount++;
+            return;
+        }
 
-        drawItemSprite(tg, laneX, itemRow, item.getType());
+        drawItemSprite(commands, laneX, itemRow, type, tier);
     }
 
-    public void renderScenery(TextGraphics tg, int width, int height, Scenery scenery, double curvature) {
-        int row = Math.max(0, Math.min(height - 1, scenery.getY()));
-        if (row < GameConfig.HORIZON_OFFSET + 1)
+    public void renderScenery(RenderCommandBuffer commands, int width, int height, int side, int y, RoadCurve curve) {
+        int row = Math.min(height - 1, y);
+        int tier = tierAt(height, y, row);
+        if (tier == TIER_CULLED) {
+            culledCount++;
             return;
+        }
 
         // Apply curvature offset to base road position
         int roadLeft = GameConfig.getRoadLeftAtRow(width, height, row);
-        int curveOffset = GameConfig.calculateCurvatureOffset(height, row, curvature);
+        int curveOffset = curve.getOffset(row);
 
         // Adjust roadLeft by offset
         // Note: We need to act as if the whole road shifted
@@ -49,117 +182,103 @@ public class EntityRenderer {
         int roadWidth = GameConfig.getRoadWidthAtRow(height, row);
 
         int x;
-        if (scenery.getSide() == -1) {
+        if (side == -1) {
             x = adjustedRoadLeft - 5;
         } else {
             x = adjustedRoadLeft + roadWidth + 5;
         }
+        // 弯道把路边的树推出屏幕时不再贴着边缘画
+        if (x < 0 || x >= width) {
+            culledCount++;
+            return;
+        }
 
-        x = Math.max(0, Math.min(width - 1, x));
+        // 最后一行放不下两行高的树
+        int sprite = row + 1 >= height ? TREE_FAR : TREE_TIERS[tier];
+        commands.add(RenderCommandBuffer.LAYER_SCENERY, x, row, sprite, TextColor.ANSI.GREEN, GROUND);
+    }
 
-        drawScenerySprite(tg, x, row, height, scenery);
+    /**
+     * 查表得到细节层级；y 在地平线以上或已经离开屏幕时剔除
+     */
+    int tierAt(int height, int y, int row) {
+        if (height != tierHeight) {
+            buildTierTable(height);
+        }
+        if (y < 0 || y >= height || row < 0) {
+            return TIER_CULLED;
+        }
+        return tierByRow[row];
     }
 
-    private void drawObstacleSprite(TextGraphics tg, int x, int y, int type, Level level) {
-        if (type == 0) {
-            tg.setForegroundColor(TextColor.ANSI.BLACK_BRIGHT);
-            String[] sprite;
-            if (level.getObstacleStyle() == Level.ObstacleStyle.DESERT) {
-                sprite = new String[] {
-                        "   ̦   ",
-                        " ψΨψ ",
-                        "  |  "
-                };
-                tg.setForegroundColor(TextColor.ANSI.GREEN);
-            } else if (level.getObstacleStyle() == Level.ObstacleStyle.CYBERPUNK) {
-                sprite = new String[] {
-                        " ╱ ╲ ",
-                        " |=| ",
-                        " ╲_╱ "
-                };
-                tg.setForegroundColor(TextColor.ANSI.BLUE);
-            } else {
-                sprite = new String[] {
-                        "   ▄   ",
-                        "  ███  ",
-                        " █████ "
-                };
+    private void buildTierTable(int height) {
+        int[] table = new int[Math.max(0, height)];
+        for (int row = 0; row < table.length; row++) {
+            if (row <= GameConfig.HORIZON_OFFSET) {
+                table[row] = TIER_CULLED;
+                continue;
             }
-
-            drawSprite(tg, x, y, sprite);
-            tg.setForegroundColor(TextColor.ANSI.WHITE);
-        } else {
-            tg.setForegroundColor(TextColor.ANSI.RED);
-            String[] sprite;
-
-            if (level.getObstacleStyle() == Level.ObstacleStyle.DESERT) {
-                sprite = new String[] {
-                        " ^o^ ",
-                        " / \\ ",
-                        " v v "
-                };
-            } else if (level.getObstacleStyle() == Level.ObstacleStyle.CYBERPUNK) {
-                sprite = new String[] {
-                        " <O> ",
-                        " /|\\ ",
-                        "  v  "
-                };
-                tg.setForegroundColor(TextColor.ANSI.CYAN);
+            int laneWidth = GameConfig.getRoadWidthAtRow(height, row) / GameConfig.ROAD_WIDTH;
+            if (laneWidth >= NEAR_LANE_WIDTH) {
+                table[row] = TIER_NEAR;
+            } else if (laneWidth >= MID_LANE_WIDTH) {
+                table[row] = TIER_MID;
             } else {
-                sprite = new String[] {
-                        "▀▀▀▀▀▀▀",
-                        " \\ | / ",
-                        "  [o]  "
-                };
+                table[row] = TIER_FAR;
             }
-
-            drawSprite(tg, x, y, sprite);
-            tg.setForegroundColor(TextColor.ANSI.WHITE);
         }
+        tierByRow = table;
+        tierHeight = height;
     }
 
-    private void drawItemSprite(TextGraphics tg, int x, int y, Item.ItemType type) {
-        if (type == Item.ItemType.DRIED_FISH) {
-            tg.setForegroundColor(TextColor.ANSI.CYAN);
-            if (y >= 0)
-                tg.putString(x - 1, y, "><>");
-            tg.setForegroundColor(TextColor.ANSI.WHITE);
-        } else if (type == Item.ItemType.HAGEN_ABILITY) {
-            tg.setForegroundColor(TextColor.ANSI.YELLOW);
-            String[] hagen = {
-                    " /|\\ ",
-                    "([★])",
-                    " \\|/ "
-            };
-            drawSprite(tg, x, y, hagen);
-            tg.setForegroundColor(TextColor.ANSI.WHITE);
-        }
+    private static boolean isOffScreen(int x, int width) {
+        return x < -CULL_MARGIN || x >= width + CULL_MARGIN;
     }
 
-    private void drawScenerySprite(TextGraphics tg, int x, int row, int height, Scenery scenery) {
-        boolean isFar = row < height / 2;
-
-        tg.setForegroundColor(TextColor.ANSI.GREEN);
-        if (isFar) {
-            tg.putString(x, row, "^");
+    private void drawObstacleSprite(RenderCommandBuffer commands, int x, int y, int type, Level level, int tier) {
+        Level.ObstacleStyle style = level.getObstacleStyle();
+        int[] tiers;
+        TextColor color;
+        if (type == 0) {
+            if (style == Level.ObstacleStyle.DESERT) {
+                tiers = asciiOnly ? DESERT_CACTUS_ASCII_TIERS : DESERT_CACTUS_TIERS;
+                color = TextColor.ANSI.GREEN;
+            } else if (style == Level.ObstacleStyle.CYBERPUNK) {
+                tiers = asciiOnly ? CYBER_BARRIER_ASCII_TIERS : CYBER_BARRIER_TIERS;
+                color = TextColor.ANSI.BLUE;
+            } else {
+                tiers = asciiOnly ? ROCK_ASCII_TIERS : ROCK_TIERS;
+                color = TextColor.ANSI.BLACK_BRIGHT;
+            }
         } else {
-            if (row + 1 < height) {
-                tg.putString(x, row, " ^ ");
-                tg.putString(x, row + 1, "/|\\");
+            if (style == Level.ObstacleStyle.DESERT) {
+                tiers = DESERT_CREATURE_TIERS;
+                color = TextColor.ANSI.RED;
+            } else if (style == Level.ObstacleStyle.CYBERPUNK) {
+                tiers = CYBER_DRONE_TIERS;
+                color = TextColor.ANSI.CYAN;
             } else {
-                tg.putString(x, row, "^");
+                tiers = asciiOnly ? ROADBLOCK_ASCII_TIERS : ROADBLOCK_TIERS;
+                color = TextColor.ANSI.RED;
             }
         }
-        tg.setForegroundColor(TextColor.ANSI.WHITE);
+        commands.add(RenderCommandBuffer.LAYER_ENTITIES, x, y, tiers[tier], color, GROUND);
     }
 
-    private void drawSprite(TextGraphics tg, int centerX, int startY, String[] sprite) {
-        for (int i = 0; i < sprite.length; i++) {
-            if (startY + i >= 0) {
-                String line = sprite[i];
-                int drawX = centerX - line.length() / 2;
-                tg.putString(drawX, startY + i, line);
-            }
+    private void drawItemSprite(RenderCommandBuffer commands, int x, int y, Item.ItemType type, int tier) {
+        if (type == Item.ItemType.DRIED_FISH) {
+            commands.add(RenderCommandBuffer.LAYER_ENTITIES, x, y, DRIED_FISH_TIERS[tier], TextColor.ANSI.CYAN,
+                    GROUND);
+        } else if (type == Item.ItemType.HAGEN_ABILITY) {
+            int[] tiers = asciiOnly ? HAGEN_ASCII_TIERS : HAGEN_TIERS;
+            commands.add(RenderCommandBuffer.LAYER_ENTITIES, x, y, tiers[tier], TextColor.ANSI.YELLOW, GROUND);
         }
     }
+
+    /**
+     * 累计被剔除（不生成绘制命令）的实体数
+     */
+    public long getCulledCount() {
+        return culledCount;
+    }
 }
@@ -0,0 +1,136 @@
+package com.hakimi.road.renderer;
+
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.TextColor;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 字形图集
+ * 每种 (字符, 前景色, 背景色, 修饰) 组合只用 Java2D 光栅化一次，
+ * 之后以像素数组的形式缓存，由 RasterRenderer 按行复制到画面上。
+ * 只使用离屏的 BufferedImage，在 java.awt.headless=true 下也能工作。
+ */
+public class GlyphAtlas {
+    // 默认前景色/背景色（与常见终端配色一致）
+    private static final Color DEFAULT_FOREGROUND = new Color(0xC0C0C0);
+    private static final Color DEFAULT_BACKGROUND = Color.BLACK;
+    // 缓存的字形超过该数量时清空重建
+    private static final int MAX_GLYPHS = 4096;
+
+    private final Font font;
+    private final Font boldFont;
+    private final int cellWidth;
+    private final int cellHeight;
+    private final int ascent;
+
+    // 光栅化用的草稿图（两个单元宽，容纳宽字符）
+    private final BufferedImage scratch;
+    private final Graphics2D graphics;
+    private final int[] scratchPixels;
+
+    private final Map<TextCharacter, int[]> glyphs = new HashMap<>();
+    private long rasterizeCount;
+
+    public GlyphAtlas(int fontSize) {
+        this.font = new Font(Font.MONOSPACED, Font.PLAIN, fontSize);
+        this.boldFont = font.deriveFont(Font.BOLD);
+
+        BufferedImage probe = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+        Graphics2D probeGraphics = probe.createGraphics();
+        FontMetrics metrics = probeGraphics.getFontMetrics(font);
+        this.cellWidth = Math.max(1, metrics.charWidth('M'));
+        this.cellHeight = Math.max(1, metrics.getHeight());
+        this.ascent = metrics.getAscent();
+        probeGraphics.dispose();
+
+        this.scratch = new BufferedImage(cellWidth * 2, cellHeight, BufferedImage.TYPE_INT_RGB);
+        this.graphics = scratch.createGraphics();
+        this.graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        this.scratchPixels = ((DataBufferInt) scratch.getRaster().getDataBuffer()).getData();
+    }
+
+    public int getCellWidth() {
+        return cellWidth;
+    }
+
+    public int getCellHeight() {
+        return cellHeight;
+    }
+
+    /**
+     * 取得字符的像素（按行排列，宽度为 cellWidth 或宽字符的 2 * cellWidth）
+     */
+    public int[] getGlyph(TextCharacter c) {
+        int[] pixels = glyphs.get(c);
+        if (pixels == null) {
+            if (glyphs.size() >= MAX_GLYPHS) {
+                glyphs.clear();
+            }
+            pixels = rasterize(c);
+            glyphs.put(c, pixels);
+        }
+        return pixels;
+    }
+
+    /**
+     * 字形像素的宽度
+     */
+    public int getGlyphWidth(TextCharacter c) {
+        return c.isDoubleWidth() ? cellWidth * 2 : cellWidth;
+    }
+
+    private int[] rasterize(TextCharacter c) {
+        rasterizeCount++;
+        int width = getGlyphWidth(c);
+        Color foreground = toColor(c.getForegroundColor(), DEFAULT_FOREGROUND);
+        Color background = toColor(c.getBackgroundColor(), DEFAULT_BACKGROUND);
+        if (c.getModifiers().contains(SGR.REVERSE)) {
+            Color swap = foreground;
+            foreground = background;
+            background = swap;
+        }
+
+        graphics.setColor(background);
+        graphics.fillRect(0, 0, width, cellHeight);
+        String text = c.getCharacterString();
+        if (!text.isBlank()) {
+            graphics.setColor(foreground);
+            graphics.setFont(c.getModifiers().contains(SGR.BOLD) ? boldFont : font);
+            graphics.drawString(text, 0, ascent);
+        }
+        if (c.getModifiers().contains(SGR.UNDERLINE)) {
+            graphics.setColor(foreground);
+            graphics.drawLine(0, cellHeight - 1, width - 1, cellHeight - 1);
+        }
+
+        int[] pixels = new int[width * cellHeight];
+        int stride = scratch.getWidth();
+        for (int y = 0; y < cellHeight; y++) {
+            System.arraycopy(scratchPixels, y * stride, pixels, y * width, width);
+        }
+        return pixels;
+    }
+
+    private static Color toColor(TextColor color, Color defaultColor) {
+        if (color == null || color == TextColor.ANSI.DEFAULT) {
+            return defaultColor;
+        }
+        return new Color(color.getRed(), color.getGreen(), color.getBlue());
+    }
+
+    // For Testing Only
+    long getRasterizeCount() {
+        return rasterizeCount;
+    }
+}
@@ -2,92 +2,119 @@ package com.hakimi.road.renderer;
 
 import com.googlecode.lanterna.TextColor;
 import com.googlecode.lanterna.graphics.TextGraphics;
-import com.hakimi.road.entity.Player;
+import com.googlecode.lanterna.graphics.TextImage;
+import com.hakimi.road.ui.CounterWidget;
+import com.hakimi.road.ui.HealthWidget;
+import com.hakimi.road.ui.LabelWidget;
 import com.hakimi.road.ui.NotificationSystem;
+import com.hakimi.road.ui.WidgetLayer;
 import com.hakimi.road.util.GameConfig;
 
 /**
  * 界面渲染器 (Head-Up Display)
  * 负责渲染分数、生命值、通知等UI元素
+ * 分数、血量、车道指示器和暂停提示是保留模式的界面元素，值不变的帧只复制缓存的单元
  */
 public class HudRenderer {
-    private int lastScore = -1;
-    private String scoreStr = "";
-    private int lastDistance = -1;
-    private String distanceStr = "";
-    private int lastGameSpeed = -1;
-    private String gameSpeedStr = "";
-    private int lastDriedFish = -1;
-    private String driedFishStr = "";
-
-    public void renderHud(TextGraphics tg, int width, int height, Player player, int score, int distance,
-            int gameSpeed) {
-        // 绘制HUD（放在屏幕右侧，不占用跑道空间）
-        int hudX = width - 20;
+    // HUD文字画在路面底色上
+    private static final TextColor TEXT = TextColor.ANSI.WHITE;
+    private static final TextColor GROUND = TextColor.ANSI.BLACK;
 
-        if (score != lastScore) {
-            scoreStr = "分数: " + score;
-            lastScore = score;
-        }
-        tg.putString(hudX, 1, scoreStr);
+    // 保留模式的HUD元素：只有显示的值变化时才重绘自己的单元
+    private final WidgetLayer hud = new WidgetLayer();
+    private final CounterWidget scoreWidget = hud.add(new CounterWidget("分数: ", TEXT, GROUND));
+    private final CounterWidget distanceWidget = hud.add(new CounterWidget("距离: ", TEXT, GROUND));
+    private final CounterWidget speedWidget = hud.add(new CounterWidget("速度: ", TEXT, GROUND));
+    private final CounterWidget driedFishWidget = hud.add(new CounterWidget("小鱼干: ", TEXT, GROUND));
+    private final LabelWidget healthLabel = hud.add(new LabelWidget("血量: ", TEXT, GROUND));
+    private final HealthWidget healthWidget = hud.add(new HealthWidget(TextColor.ANSI.RED, GROUND));
+    private final LabelWidget hagenWidget = hud.add(new LabelWidget("★ 哈根之力 ★", TextColor.ANSI.YELLOW, GROUND));
+    private final LabelWidget[] laneIndicators = new LabelWidget[GameConfig.ROAD_WIDTH];
 
-        if (distance != lastDistance) {
-            distanceStr = "距离: " + distance;
-            lastDistance = distance;
-        }
-        tg.putString(hudX, 2, distanceStr);
+    // 当前车道标记（低带宽模式下换成ASCII）
+    private String laneMarker = "[★]";
 
-        if (gameSpeed != lastGameSpeed) {
-            gameSpeedStr = "速度: " + gameSpeed;
-            lastGameSpeed = gameSpeed;
-        }
-        tg.putString(hudX, 3, gameSpeedStr);
+    private final WidgetLayer overlay = new WidgetLayer();
+    private final LabelWidget pauseBanner = overlay.add(new LabelWidget("游戏暂停 - 按 P 继续，按 S 保存",
+            TextColor.ANSI.DEFAULT, TextColor.ANSI.DEFAULT));
 
-        int currentDriedFish = player.getDriedFishCount();
-        if (currentDriedFish != lastDriedFish) {
-            driedFishStr = "小鱼干: " + currentDriedFish;
-            lastDriedFish = currentDriedFish;
+    public HudRenderer() {
+        for (int i = 0; i < laneIndicators.length; i++) {
+            laneIndicators[i] = hud.add(new LabelWidget("[ ]", TEXT, GROUND));
         }
-        tg.putString(hudX, 4, driedFishStr);
-
-        // 绘制血量
-        tg.putString(hudX, 5, "血量: ");
-        tg.setForegroundColor(TextColor.ANSI.RED);
-        StringBuilder hearts = new StringBuilder();
-        for (int i = 0; i < player.getMaxHealth(); i++) {
-            if (i < player.getHealth()) {
-                hearts.append("❤");
-            } else {
-                hearts.append("♡");
-            }
-        }
-        tg.putString(hudX + 6, 5, hearts.toString());
-        tg.setForegroundColor(TextColor.ANSI.WHITE);
+    }
 
-        if (player.hasHagenAbility()) {
-            tg.setForegroundColor(TextColor.ANSI.YELLOW);
-            tg.putString(hudX, 7, "★ 哈根之力 ★");
-            tg.setForegroundColor(TextColor.ANSI.WHITE);
+    /**
+     * 只使用ASCII符号（低带宽模式）
+     */
+    public void setAsciiOnly(boolean asciiOnly) {
+        laneMarker = asciiOnly ? "[*]" : "[★]";
+        hagenWidget.setText(asciiOnly ? "* 哈根之力 *" : "★ 哈根之力 ★");
+        if (asciiOnly) {
+            healthWidget.setSymbols("#", "-");
+        } else {
+            healthWidget.setSymbols("❤", "♡");
         }
+    }
 
-        // 绘制车道指示器（放在底部）
-        for (int i = 0; i < GameConfig.ROAD_WIDTH; i++) {
-            String indicator = (i == player.getLane()) ? "[★]" : "[ ]";
+    public void renderHud(TextImage target, int width, int height, int lane, int health, int maxHealth,
+            int driedFish, boolean hagenAbility, int score, int distance, int gameSpeed) {
+        // 绘制HUD（放在屏幕右侧，不占用跑道空间）
+        int hudX = width - 20;
+
+        scoreWidget.setValue(score);
+        scoreWidget.setPosition(hudX, 1);
+        distanceWidget.setValue(distance);
+        distanceWidget.setPosition(hudX, 2);
+        speedWidget.setValue(gameSpeed);
+        speedWidget.setPosition(hudX, 3);
+        driedFishWidget.setValue(driedFish);
+        driedFishWidget.setPosition(hudX, 4);
+
+        // 血量
+        healthLabel.setPosition(hudX, 5);
+        healthWidget.setHealth(health, maxHealth);
+        healthWidget.setPosition(hudX + 6, 5);
+
+        hagenWidget.setVisible(hagenAbility);
+        hagenWidget.setPosition(hudX, 7);
+
+        // 车道指示器（放在底部）
+        for (int i = 0; i < laneIndicators.length; i++) {
+            laneIndicators[i].setText(i == lane ? laneMarker : "[ ]");
             int laneX = GameConfig.calculateLaneX(width, height, i, height - 1);
-            tg.putString(laneX - 1, height - 1, indicator);
+            laneIndicators[i].setPosition(laneX - 1, height - 1);
         }
+
+        hud.compose(target);
+    }
+
+    /**
+     * 绘制暂停提示
+     */
+    public void renderPauseBanner(TextImage target, int width, int height) {
+        pauseBanner.setPosition(width / 2 - pauseBanner.getWidth() / 2, height / 2);
+        overlay.compose(target);
+    }
+
+    /**
+     * 累计重绘HUD元素的次数
+     */
+    public long getRepaintCount() {
+        return hud.getRepaintCount() + overlay.getRepaintCount();
     }
 
-    public void renderNotifications(TextGraphics tg, int width, int height, NotificationSystem notificationSystem) {
-        if (notificationSystem != null) {
-            notificationSystem.render(tg, width, height);
-            renderScreenFlash(tg, width, height, notificationSystem);
+    public void renderNotifications(TextImage target, int width, int height, TextImage toast,
+            TextColor flashColor, int flashTimer) {
+        NotificationSystem.renderToast(target, width, height, toast);
+        if (flashTimer > 0) {
+            renderScreenFlash(target.newTextGraphics(), width, height, flashColor, flashTimer);
         }
     }
 
-    private void renderScreenFlash(TextGraphics tg, int width, int height, NotificationSystem notificationSystem) {
-        if (notificationSystem.getScreenFlashTimer() > 0) {
-            tg.setBackgroundColor(notificationSystem.getScreenFlashColor());
+    private void renderScreenFlash(TextGraphics tg, int width, int height, TextColor flashColor, int flashTimer) {
+        if (flashTimer > 0) {
+            tg.setBackgroundColor(flashColor);
             // 绘制边框
             tg.drawLine(0, 0, width - 1, 0, ' ');
             tg.drawLine(0, height - 1, width - 1, height - 1, ' ');
@@ -2,7 +2,6 @@ package com.hakimi.road.renderer;
 
 import com.googlecode.lanterna.TextColor;
 import com.googlecode.lanterna.graphics.TextGraphics;
-import com.hakimi.road.entity.Chaser;
 import com.hakimi.road.entity.Player;
 import com.hakimi.road.util.GameConfig;
 
@@ -12,30 +11,28 @@ import com.hakimi.road.util.GameConfig;
  */
 public class PlayerRenderer {
 
-    public void renderPlayer(TextGraphics tg, int width, int height, Player player, int distance) {
-        int playerY = player.calculateY(height);
+    public void renderPlayer(TextGraphics tg, int width, int height, int lane, Player.PlayerState state,
+            int verticalOffset, int distance) {
+        int playerY = Player.calculateY(height, state);
         int playerRow = Math.max(0, Math.min(height - 2, playerY));
 
-        int verticalOffset = player.getVerticalOffset();
         int renderRow = Math.max(0, Math.min(height - 2, playerRow - verticalOffset));
-        int playerX = GameConfig.calculateLaneX(width, height, player.getLane(), playerRow);
+        int playerX = GameConfig.calculateLaneX(width, height, lane, playerRow);
 
         float depthFactor = calculateDepthFactor(height, playerRow);
-        renderHakimi3D(tg, width, height, playerX, renderRow, player, true, distance, depthFactor);
+        renderHakimi3D(tg, width, height, playerX, renderRow, state, true, distance, depthFactor);
     }
 
-    public void renderChaser(TextGraphics tg, int width, int height, Player player, Chaser chaser) {
-        if (chaser == null)
-            return;
-
-        int playerY = player.calculateY(height);
+    public void renderChaser(TextGraphics tg, int width, int height, int playerLane, Player.PlayerState playerState,
+            int animationFrame) {
+        int playerY = Player.calculateY(height, playerState);
         int playerRow = Math.max(0, Math.min(height - 2, playerY));
 
         int chaserRow = Math.max(GameConfig.HORIZON_OFFSET + 1,
                 Math.min(playerRow - 5, height - 4));
-        int chaserX = GameConfig.calculateLaneX(width, height, player.getLane(), chaserRow);
+        int chaserX = GameConfig.calculateLaneX(width, height, playerLane, chaserRow);
 
-        renderChaserSprite(tg, width, height, chaserX - 3, chaserRow - 3, chaser.getAnimationFrame());
+        renderChaserSprite(tg, width, height, chaserX - 3, chaserRow - 3, animationFrame);
     }
 
     /**
@@ -54,11 +51,11 @@ public class PlayerRenderer {
         return 0.5f + depth * 0.5f;
     }
 
-    private void renderHakimi3D(TextGraphics tg, int width, int height, int x, int y, Player player,
+    private void renderHakimi3D(TextGraphics tg, int width, int height, int x, int y, Player.PlayerState state,
             boolean isRunning, int animationSeed, float depthFactor) {
         String[] hakimi;
 
-        if (player.isJumping()) {
+        if (state == Player.PlayerState.JUMPING) {
             hakimi = new String[] {
                     "   /\\_/\\   ",
                     "  ( > < )  ",
@@ -67,7 +64,7 @@ public class PlayerRenderer {
                     " /_|   |_\\ ",
                     "   /___\\   "
             };
-        } else if (player.isSliding()) {
+        } else if (state == Player.PlayerState.SLIDING) {
             hakimi = new String[] {
                     "           ",
                     "           ",
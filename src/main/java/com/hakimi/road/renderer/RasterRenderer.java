@@ -0,0 +1,67 @@
+package com.hakimi.road.renderer;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.graphics.TextImage;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * 离屏光栅渲染器
+ * 把字符单元缓冲绘制成 BufferedImage，不依赖 Swing 终端窗口，
+ * 可以在无图形界面的环境中截图或导出动画。字形取自 GlyphAtlas，逐行复制像素。
+ * 输出图像在尺寸不变时复用，调用方需要在下一次 render 之前用完。
+ */
+public class RasterRenderer {
+    private final GlyphAtlas atlas;
+
+    private BufferedImage image;
+    private int[] pixels;
+
+    public RasterRenderer(GlyphAtlas atlas) {
+        this.atlas = atlas;
+    }
+
+    public GlyphAtlas getAtlas() {
+        return atlas;
+    }
+
+    /**
+     * 把一帧绘制成图像
+     */
+    public BufferedImage render(TextImage frame) {
+        TerminalSize size = frame.getSize();
+        int columns = size.getColumns();
+        int rows = size.getRows();
+        int cellWidth = atlas.getCellWidth();
+        int cellHeight = atlas.getCellHeight();
+        int imageWidth = columns * cellWidth;
+        int imageHeight = rows * cellHeight;
+        if (image == null || image.getWidth() != imageWidth || image.getHeight() != imageHeight) {
+            image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        }
+
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < columns; x++) {
+                TextCharacter c = frame.getCharacterAt(x, y);
+                if (c == null) {
+                    c = TextCharacter.DEFAULT_CHARACTER;
+                }
+                int[] glyph = atlas.getGlyph(c);
+                int glyphWidth = atlas.getGlyphWidth(c);
+                // 最后一列的宽字符只画能放下的部分
+                int copyWidth = Math.min(glyphWidth, imageWidth - x * cellWidth);
+                int offset = y * cellHeight * imageWidth + x * cellWidth;
+                for (int line = 0; line < cellHeight; line++) {
+                    System.arraycopy(glyph, line * glyphWidth, pixels, offset + line * imageWidth, copyWidth);
+                }
+                if (c.isDoubleWidth()) {
+                    x++; // 后半个单元已经画过
+                }
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,207 @@
+package com.hakimi.road.renderer;
+
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.TextGraphics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 绘制命令缓冲
+ * 渲染器把精灵绘制追加为命令，每帧按 (层, 深度, 颜色对, 提交顺序) 排序一次后统一执行：
+ * 近处（行号大）的实体后画，不会被远处的实体盖住；同一深度的命令按颜色分组，减少颜色切换。
+ * 命令保存在可复用的并行数组中，排序键打包为long并用基数排序，每帧不产生对象分配。
+ * 并行分带绘制时先 sort 一次，各个带再用 execute(tg, top, bottom) 只执行与自己相交的命令，
+ * 执行期间只读取命令，不修改缓冲。
+ */
+public class RenderCommandBuffer {
+    // 层：风景总在实体下面
+    public static final int LAYER_SCENERY = 0;
+    public static final int LAYER_ENTITIES = 1;
+
+    // 排序键: 层(8位) | 深度(16位) | 颜色对(24位) | 提交序号(16位)
+    private static final int DEPTH_SHIFT = 40;
+    private static final int COLOR_SHIFT = 16;
+    private static final int LAYER_SHIFT = 56;
+    private static final int DEPTH_BIAS = 0x8000;
+    private static final int MAX_COMMANDS = 1 << 16;
+    private static final int MAX_COLORS = 1 << 12;
+
+    private long[] keys = new long[64];
+    private long[] sortBuffer = new long[64];
+    private final int[] digitCounts = new int[256];
+    private int[] xs = new int[64];
+    private int[] ys = new int[64];
+    private int[] sprites = new int[64];
+    private int count;
+
+    // 颜色编号（跨帧保留）
+    private final Map<TextColor, Integer> colorIds = new HashMap<>();
+    private TextColor[] palette = new TextColor[16];
+
+    private int colorChanges;
+
+    /**
+     * 清空命令（每帧开始时调用）
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * 追加一条精灵绘制命令
+     *
+     * @param layer    层
+     * @param x        锚点列
+     * @param y        精灵第一行
+     * @param spriteId 精灵编号（见 SpriteRegistry）
+     */
+    public void add(int layer, int x, int y, int spriteId, TextColor foreground, TextColor background) {
+        if (count == MAX_COMMANDS) {
+            throw new IllegalStateException("绘制命令过多: " + count);
+        }
+        ensureCapacity(count + 1);
+        int depth = Math.max(0, Math.min(0xFFFF, y + SpriteRegistry.getHeight(spriteId) - 1 + DEPTH_BIAS));
+        long colorPair = ((long) colorId(foreground) << 12) | colorId(background);
+        keys[count] = ((long) layer << LAYER_SHIFT) | ((long) depth << DEPTH_SHIFT)
+                | (colorPair << COLOR_SHIFT) | count;
+        xs[count] = x;
+        ys[count] = y;
+        sprites[count] = spriteId;
+        count++;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 排序并执行所有命令，执行后恢复 tg 原来的颜色
+     */
+    public void execute(TextGraphics tg) {
+        sort();
+        colorChanges = execute(tg, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 按已排好的顺序执行与 [top, bottom) 行相交的命令（调用前需要先 sort），执行后恢复 tg 原来的颜色
+     *
+     * @return 颜色切换次数
+     */
+    public int execute(TextGraphics tg, int top, int bottom) {
+        TextColor savedForeground = tg.getForegroundColor();
+        TextColor savedBackground = tg.getBackgroundColor();
+        TextColor foreground = null;
+        TextColor background = null;
+        int changes = 0;
+
+        for (int i = 0; i < count; i++) {
+            long key = keys[i];
+            int index = (int) (key & 0xFFFF);
+            int spriteId = sprites[index];
+            String[] lines = SpriteRegistry.getLines(spriteId);
+            int y = ys[index];
+            if (y >= bottom || y + lines.length <= top) {
+                continue;
+            }
+            int colorPair = (int) (key >>> COLOR_SHIFT) & 0xFFFFFF;
+            TextColor fg = palette[colorPair >>> 12];
+            TextColor bg = palette[colorPair & 0xFFF];
+            if (fg != foreground) {
+                tg.setForegroundColor(fg);
+                foreground = fg;
+                changes++;
+            }
+            if (bg != background) {
+                tg.setBackgroundColor(bg);
+                background = bg;
+                changes++;
+            }
+
+            int[] offsets = SpriteRegistry.getOffsets(spriteId);
+            int x = xs[index];
+            // 精灵跨过带的边界时只画落在带内的行
+            int first = (int) Math.max(0, (long) top - y);
+            int last = (int) Math.min(lines.length, (long) bottom - y);
+            for (int line = first; line < last; line++) {
+                if (y + line >= 0) {
+                    tg.putString(x + offsets[line], y + line, lines[line]);
+                }
+            }
+        }
+
+        tg.setForegroundColor(savedForeground);
+        tg.setBackgroundColor(savedBackground);
+        return changes;
+    }
+
+    /**
+     * 按 (层, 深度, 颜色对, 提交顺序) 排序
+     * 按字节的LSD基数排序，所有键在某一字节上都相同时跳过该趟
+     */
+    public void sort() {
+        long[] source = keys;
+        long[] target = sortBuffer;
+        for (int shift = 0; shift < 64; shift += 8) {
+            Arrays.fill(digitCounts, 0);
+            for (int i = 0; i < count; i++) {
+                digitCounts[(int) (source[i] >>> shift) & 0xFF]++;
+            }
+            if (count == 0 || digitCounts[(int) (source[0] >>> shift) & 0xFF] == count) {
+                continue;
+            }
+            int total = 0;
+            for (int d = 0; d < 256; d++) {
+                int c = digitCounts[d];
+                digitCounts[d] = total;
+                total += c;
+            }
+            for (int i = 0; i < count; i++) {
+                long key = source[i];
+                target[digitCounts[(int) (key >>> shift) & 0xFF]++] = key;
+            }
+            long[] swap = source;
+            source = target;
+            target = swap;
+        }
+        keys = source;
+        sortBuffer = target;
+    }
+
+    private int colorId(TextColor color) {
+        Integer id = colorIds.get(color);
+        if (id == null) {
+            if (colorIds.size() == MAX_COLORS) {
+                throw new IllegalStateException("颜色过多: " + MAX_COLORS);
+            }
+            id = colorIds.size();
+            colorIds.put(color, id);
+            if (id == palette.length) {
+                palette = Arrays.copyOf(palette, palette.length * 2);
+            }
+            palette[id] = color;
+        }
+        return id;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            int size = Math.min(MAX_COMMANDS, keys.length * 2);
+            keys = Arrays.copyOf(keys, size);
+            sortBuffer = new long[size];
+            xs = Arrays.copyOf(xs, size);
+            ys = Arrays.copyOf(ys, size);
+            sprites = Arrays.copyOf(sprites, size);
+        }
+    }
+
+    // For Testing Only
+    int getColorChanges() {
+        return colorChanges;
+    }
+
+    long[] getKeys() {
+        return keys;
+    }
+}
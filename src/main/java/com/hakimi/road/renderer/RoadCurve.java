@@ -0,0 +1,81 @@
+package com.hakimi.road.renderer;
+
+import com.hakimi.road.util.GameConfig;
+
+import java.util.Arrays;
+
+/**
+ * 每行道路的水平偏移
+ * 经典伪3D赛车的做法：从屏幕底部（玩家脚下）往上逐行累加，每行的弯曲度取该行对应距离处的道路采样，
+ * 一次线性扫描得到整屏的偏移，远处的弯道因此会先于近处出现。
+ * 弯曲度处处相同时结果与 GameConfig.calculateCurvatureOffset 一致。
+ */
+public class RoadCurve {
+    private int[] offsets = new int[0];
+    private int key;
+
+    // 行号 -> 采样下标（透视：越远的行跨越的距离越大），高度或采样数变化时重建
+    private int[] sampleIndexByRow = new int[0];
+    private int tableHeight = -1;
+    private int tableSamples = -1;
+
+    /**
+     * 按前方道路采样计算每行偏移
+     *
+     * @param samples samples[i] 是前方 i 个距离单位处的弯曲度，最后一个对应地平线
+     */
+    public void update(int height, double[] samples) {
+        if (height != tableHeight || samples.length != tableSamples) {
+            buildTable(height, samples.length);
+        }
+        int span = Math.max(1, height - GameConfig.HORIZON_OFFSET);
+        // 弯曲度为 c 时第 n 行累计偏移 c * 50 * (n / span)^2
+        double scale = 100.0 / ((double) span * span);
+        double x = 0;
+        double dx = 0;
+        for (int row = height - 1; row >= 0; row--) {
+            double ddx = samples.length == 0 ? 0 : samples[sampleIndexByRow[row]] * scale;
+            x += dx + ddx / 2;
+            dx += ddx;
+            // 去掉浮点误差后向零取整
+            offsets[row] = (int) (x + Math.copySign(1e-9, x));
+        }
+        key = Arrays.hashCode(offsets);
+    }
+
+    /**
+     * 弯曲度处处相同的道路
+     */
+    public void update(int height, double curvature) {
+        update(height, new double[] { curvature });
+    }
+
+    private void buildTable(int height, int sampleLength) {
+        int span = Math.max(1, height - GameConfig.HORIZON_OFFSET);
+        long spanSquared = (long) span * span;
+        int[] table = new int[Math.max(0, height)];
+        for (int row = 0; row < table.length; row++) {
+            long n = height - row;
+            long index = (n * n * (sampleLength - 1) + spanSquared / 2) / spanSquared;
+            table[row] = (int) Math.max(0, Math.min(sampleLength - 1, index));
+        }
+        sampleIndexByRow = table;
+        offsets = new int[table.length];
+        tableHeight = height;
+        tableSamples = sampleLength;
+    }
+
+    /**
+     * 指定行的水平偏移（行超出范围时为0）
+     */
+    public int getOffset(int row) {
+        return row >= 0 && row < offsets.length ? offsets[row] : 0;
+    }
+
+    /**
+     * 整屏偏移的摘要，偏移不变时背景可以复用或滚动
+     */
+    public int getKey() {
+        return key;
+    }
+}
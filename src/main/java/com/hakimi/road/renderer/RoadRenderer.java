@@ -10,21 +10,38 @@ import com.hakimi.road.util.GameConfig;
  * 负责渲染天空、草地和道路
  */
 public class RoadRenderer {
+    // 是否绘制路面的点状纹理和滚动的车道线（低带宽模式关闭）
+    private boolean textureEnabled = true;
 
-    public void render(TextGraphics tg, int width, int height, int distance, Level level, double curvature) {
+    public void setTextureEnabled(boolean textureEnabled) {
+        this.textureEnabled = textureEnabled;
+    }
+
+    public void render(TextGraphics tg, int width, int height, int distance, Level level, RoadCurve curve) {
+        render(tg, width, height, distance, level, curve, 0, height);
+    }
+
+    /**
+     * 只绘制 [fromRow, toRow) 范围内的行（并行分带绘制时每个带各自调用）
+     */
+    public void render(TextGraphics tg, int width, int height, int distance, Level level, RoadCurve curve,
+            int fromRow, int toRow) {
         // 地平线
         int horizonY = GameConfig.HORIZON_OFFSET;
 
         // 绘制天空
-        tg.setBackgroundColor(level.getSkyColor());
-        for (int x = 0; x < width; x++) {
-            tg.putString(x, horizonY, " "); // Cloud or empty sky
+        if (horizonY >= fromRow && horizonY < toRow) {
+            tg.setBackgroundColor(level.getSkyColor());
+            for (int x = 0; x < width; x++) {
+                tg.putString(x, horizonY, " "); // Cloud or empty sky
+            }
         }
         tg.setBackgroundColor(TextColor.ANSI.BLACK);
 
-        for (int y = horizonY + 1; y < height; y++) {
-            // 计算弯曲偏移量
-            int curveOffset = GameConfig.calculateCurvatureOffset(height, y, curvature);
+        int lastRow = Math.min(height, toRow);
+        for (int y = Math.max(horizonY + 1, fromRow); y < lastRow; y++) {
+            // 弯曲偏移量（按前方道路逐行累加）
+            int curveOffset = curve.getOffset(y);
 
             int roadWidth = GameConfig.getRoadWidthAtRow(height, y);
             int baseRoadLeft = GameConfig.getRoadLeftAtRow(width, height, y);
@@ -37,6 +54,7 @@ public class RoadRenderer {
             int clampedRight = Math.max(clampedLeft + 1, Math.min(width - 1, roadRight));
 
             // 绘制草地（道路两侧）
+            tg.setForegroundColor(TextColor.ANSI.WHITE);
             tg.setBackgroundColor(level.getGrassColor());
             if (clampedLeft > 0) {
                 tg.drawLine(0, y, clampedLeft - 1, y, ' ');
@@ -45,6 +63,10 @@ public class RoadRenderer {
                 tg.drawLine(clampedRight + 1, y, width - 1, y, ' ');
             }
             tg.setBackgroundColor(TextColor.ANSI.BLACK);
+            // 路面铺满底色，纹理之间的空格与纹理同色，输出时可以连续写出
+            if (clampedRight - clampedLeft > 1) {
+                tg.drawLine(clampedLeft + 1, y, clampedRight - 1, y, ' ');
+            }
 
             // 绘制道路边界
             tg.setForegroundColor(TextColor.ANSI.WHITE);
@@ -68,15 +90,21 @@ public class RoadRenderer {
 
                 int laneDivider = laneDividerBase + curveOffset;
 
-                if ((y + distance) % 4 < 2 && laneDivider > clampedLeft && laneDivider < clampedRight) {
+                // 关闭纹理时分隔线不随距离移动，背景只在弯道变化时才需要重画
+                int phase = textureEnabled ? y + distance : y;
+                if (phase % 4 < 2 && laneDivider > clampedLeft && laneDivider < clampedRight) {
                     tg.putString(laneDivider, y, "|");
                 }
             }
 
-            // 地面纹理
+            // 地面纹理（列按屏幕中心对齐奇偶，相邻行的纹理上下平移后仍然重合，便于滚动输出）
             tg.setForegroundColor(level.getRoadColor());
-            if ((y + distance) % 6 < 3) {
-                for (int fillX = clampedLeft + 1; fillX < clampedRight; fillX += 2) {
+            if (textureEnabled && (y + distance) % 6 < 3) {
+                int firstDot = clampedLeft + 1;
+                if (((firstDot - width / 2) & 1) != 0) {
+                    firstDot++;
+                }
+                for (int fillX = firstDot; fillX < clampedRight; fillX += 2) {
                     tg.putString(fillX, y, ".");
                 }
             }
@@ -0,0 +1,68 @@
+package com.hakimi.road.renderer;
+
+import com.googlecode.lanterna.TerminalTextUtils;
+
+import java.util.Arrays;
+
+/**
+ * 精灵注册表
+ * 精灵在类初始化时注册一次，绘制命令只记录精灵编号；
+ * 每行的水平偏移在注册时按显示宽度算好，绘制时不再计算。
+ * 注册时复制出新数组再整体替换，绘制线程（包括并行的各个带）读取时不加锁。
+ */
+public final class SpriteRegistry {
+    private static volatile String[][] lines = new String[0][];
+    private static volatile int[][] offsets = new int[0][];
+
+    private SpriteRegistry() {
+    }
+
+    /**
+     * 注册以锚点为水平中心的精灵（按显示宽度居中，中文、emoji 占两列）
+     *
+     * @return 精灵编号
+     */
+    public static int registerCentered(String... spriteLines) {
+        int[] lineOffsets = new int[spriteLines.length];
+        for (int i = 0; i < spriteLines.length; i++) {
+            lineOffsets[i] = -(TerminalTextUtils.getColumnWidth(spriteLines[i]) / 2);
+        }
+        return register(spriteLines, lineOffsets);
+    }
+
+    /**
+     * 注册以锚点为左边界的精灵
+     *
+     * @return 精灵编号
+     */
+    public static int registerLeftAligned(String... spriteLines) {
+        return register(spriteLines, new int[spriteLines.length]);
+    }
+
+    private static synchronized int register(String[] spriteLines, int[] lineOffsets) {
+        int id = lines.length;
+        String[][] newLines = Arrays.copyOf(lines, id + 1);
+        int[][] newOffsets = Arrays.copyOf(offsets, id + 1);
+        newLines[id] = spriteLines.clone();
+        newOffsets[id] = lineOffsets;
+        // 先发布偏移，读到新的行数组时偏移一定已经可见
+        offsets = newOffsets;
+        lines = newLines;
+        return id;
+    }
+
+    static String[] getLines(int spriteId) {
+        return lines[spriteId];
+    }
+
+    static int[] getOffsets(int spriteId) {
+        return offsets[spriteId];
+    }
+
+    /**
+     * 精灵的行数
+     */
+    public static int getHeight(int spriteId) {
+        return getLines(spriteId).length;
+    }
+}
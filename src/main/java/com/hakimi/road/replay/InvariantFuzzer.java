@@ -0,0 +1,587 @@
+package com.hakimi.road.replay;
+
+import com.hakimi.road.ai.Action;
+import com.hakimi.road.engine.GameEngine;
+import com.hakimi.road.entity.GameEntity;
+import com.hakimi.road.entity.Item;
+import com.hakimi.road.entity.Obstacle;
+import com.hakimi.road.entity.Player;
+import com.hakimi.road.level.RoadManager;
+import com.hakimi.road.renderer.RoadCurve;
+import com.hakimi.road.system.ScoreSystem;
+import com.hakimi.road.util.GameConfig;
+import com.hakimi.road.util.SaveManager;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 模拟不变量模糊测试
+ * 在所有核心上并行地用随机输入序列驱动无界面的 GameEngine，每一帧之后检查不变量：
+ * 车道在 0..2，血量在 0..上限且与受击次数一致，实体数量有上限，距离不倒退，
+ * 弯曲度采样和由它推出的实体横向偏移都是有限值且不超出最大弯曲度的范围；
+ * 每隔 SAVE_CHECK_INTERVAL 个逻辑帧把状态经存档格式写出再读回另一个引擎，存档覆盖的字段必须一致，
+ * 之后两个引擎用同样的输入同步推进到下一次检查，每个逻辑帧的状态哈希都必须相同（赛道、道路和之后生成的实体也要一致）。
+ * 发现违反后用 delta debugging 把输入日志缩减到仍然触发同一不变量的最小子集，输出为 Replay 格式（不含哈希）。
+ * 用法: mvn exec:java -Dexec.mainClass=com.hakimi.road.replay.InvariantFuzzer -Dexec.args="用例数 每个的帧数 [种子] [输入频率]"
+ */
+public class InvariantFuzzer {
+    private static final Action[] ACTIONS = Action.values();
+    // 每个列表的实体数上限（正常游戏中屏幕内远少于此）
+    static final int MAX_ENTITIES = 128;
+    static final double MAX_ABS_CURVATURE = GameConfig.MAX_CURVATURE * 1.5;
+    // 存档往返检查的间隔（逻辑帧）
+    static final int SAVE_CHECK_INTERVAL = 32;
+
+    private final int cases;
+    private final int framesPerCase;
+    private final long seed;
+    private final double inputRate;
+
+    /**
+     * 一次不变量违反（已缩减）
+     */
+    public static final class Failure {
+        private final int caseIndex;
+        private final String invariant;
+        private final String detail;
+        private final int frame;
+        private final int originalInputs;
+        private final Replay replay;
+
+        private Failure(int caseIndex, Violation violation, int originalInputs, Replay replay) {
+            this.caseIndex = caseIndex;
+            this.invariant = violation.invariant;
+            this.detail = violation.detail;
+            this.frame = violation.frame;
+            this.originalInputs = originalInputs;
+            this.replay = replay;
+        }
+
+        public int getCaseIndex() {
+            return caseIndex;
+        }
+
+        public String getInvariant() {
+            return invariant;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+
+        /**
+         * 缩减后的输入日志上违反发生的帧（第几次 update()，从 0 开始）
+         */
+        public int getFrame() {
+            return frame;
+        }
+
+        /**
+         * 缩减前截止到违反那一帧的输入数
+         */
+        public int getOriginalInputs() {
+            return originalInputs;
+        }
+
+        /**
+         * 缩减后的输入日志，可以用 check 复现
+         */
+        public Replay getReplay() {
+            return replay;
+        }
+
+        @Override
+        public String toString() {
+            return "用例 " + caseIndex + " 第 " + frame + " 帧违反 " + invariant + ": " + detail + "（输入 "
+                    + originalInputs + " -> " + replay.inputs.length + "）";
+        }
+    }
+
+    /**
+     * 汇总结果
+     */
+    public static final class Result {
+        private int cases;
+        private long frames;
+        private final List<Failure> failures = new ArrayList<>();
+
+        private void merge(Result other) {
+            cases += other.cases;
+            frames += other.frames;
+            failures.addAll(other.failures);
+        }
+
+        public int getCases() {
+            return cases;
+        }
+
+        public long getFrames() {
+            return frames;
+        }
+
+        public List<Failure> getFailures() {
+            return Collections.unmodifiableList(failures);
+        }
+    }
+
+    /**
+     * 检查不通过的描述
+     */
+    static final class Violation {
+        final String invariant;
+        final String detail;
+        final int frame;
+
+        Violation(String invariant, String detail, int frame) {
+            this.invariant = invariant;
+            this.detail = detail;
+            this.frame = frame;
+        }
+
+        @Override
+        public String toString() {
+            return invariant + ": " + detail + " @" + frame;
+        }
+    }
+
+    /**
+     * @param cases         随机输入序列的数量
+     * @param framesPerCase 每个序列的最大帧数（游戏结束时提前停止）
+     * @param inputRate     每帧产生一次随机操作的概率
+     */
+    public InvariantFuzzer(int cases, int framesPerCase, long seed, double inputRate) {
+        this.cases = cases;
+        this.framesPerCase = framesPerCase;
+        this.seed = seed;
+        this.inputRate = inputRate;
+    }
+
+    /**
+     * 并行运行所有用例，全部结束后返回
+     */
+    public Result run() {
+        SplittableRandom seeds = new SplittableRandom(seed);
+        long[] caseSeeds = new long[cases];
+        for (int i = 0; i < cases; i++) {
+            caseSeeds[i] = seeds.nextLong();
+        }
+        // 分成比核心数多几倍的批次，每批复用一组引擎
+        int batches = Math.max(1, Math.min(cases, Runtime.getRuntime().availableProcessors() * 4));
+        List<Result> results = IntStream.range(0, batches).parallel()
+                .mapToObj(batch -> runBatch(caseSeeds, batch, batches))
+                .collect(Collectors.toList());
+        Result total = new Result();
+        for (Result result : results) {
+            total.merge(result);
+        }
+        return total;
+    }
+
+    private Result runBatch(long[] caseSeeds, int batch, int batches) {
+        Result result = new Result();
+        Checker checker = new Checker();
+        for (int i = batch; i < caseSeeds.length; i += batches) {
+            Replay replay = generate(caseSeeds[i]);
+            Violation violation = checker.run(replay);
+            result.cases++;
+            result.frames += checker.framesRun;
+            if (violation != null) {
+                result.failures.add(minimize(checker, i, replay, violation));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 随机输入序列：每帧以 inputRate 的概率追加一个操作（可能连续追加多个），转向带随机的逻辑帧内相位
+     */
+    private Replay generate(long caseSeed) {
+        SplittableRandom random = new SplittableRandom(caseSeed);
+        Replay replay = new Replay();
+        replay.seed = random.nextLong();
+        replay.frames = framesPerCase;
+        int[] inputs = new int[Math.max(16, (int) (framesPerCase * inputRate * 1.5))];
+        int count = 0;
+        for (int frame = 0; frame < framesPerCase; frame++) {
+            while (random.nextDouble() < inputRate) {
+                if (count == inputs.length) {
+                    inputs = Arrays.copyOf(inputs, count * 2);
+                }
+                int action = 1 + random.nextInt(ACTIONS.length - 1);
+                boolean turn = ACTIONS[action] == Action.TURN_LEFT || ACTIONS[action] == Action.TURN_RIGHT;
+                inputs[count++] = Replay.encodeInput(frame, action, turn ? random.nextInt(GameEngine.TURN_PHASES) : 0);
+            }
+        }
+        replay.inputs = Arrays.copyOf(inputs, count);
+        return replay;
+    }
+
+    private static Failure minimize(Checker checker, int caseIndex, Replay replay, Violation violation) {
+        Replay shrunk = new Replay();
+        shrunk.seed = replay.seed;
+        shrunk.frames = violation.frame + 1;
+        int[] prefix = Arrays.stream(replay.inputs)
+                .filter(input -> Replay.inputFrame(input) <= violation.frame)
+                .toArray();
+        shrunk.inputs = shrink(prefix, candidate -> {
+            shrunk.inputs = candidate;
+            Violation again = checker.run(shrunk);
+            return again != null && again.invariant.equals(violation.invariant);
+        });
+        Violation last = checker.run(shrunk);
+        shrunk.frames = last.frame + 1;
+        return new Failure(caseIndex, last, prefix.length, shrunk);
+    }
+
+    /**
+     * delta debugging（ddmin）：反复删去输入的一部分，只要仍然失败就保留删减，直到删去任何一块都不再失败
+     *
+     * @param stillFails 对候选输入重新运行，判断是否还触发同一个不变量
+     */
+    static int[] shrink(int[] inputs, Predicate<int[]> stillFails) {
+        int[] current = inputs;
+        if (current.length > 0 && stillFails.test(new int[0])) {
+            return new int[0];
+        }
+        int granularity = 2;
+        while (current.length >= 2) {
+            int chunk = (current.length + granularity - 1) / granularity;
+            boolean reduced = false;
+            for (int start = 0; start < current.length; start += chunk) {
+                int end = Math.min(current.length, start + chunk);
+                int[] candidate = new int[current.length - (end - start)];
+                System.arraycopy(current, 0, candidate, 0, start);
+                System.arraycopy(current, end, candidate, start, current.length - end);
+                if (stillFails.test(candidate)) {
+                    current = candidate;
+                    granularity = Math.max(granularity - 1, 2);
+                    reduced = true;
+                    break;
+                }
+            }
+            if (!reduced) {
+                if (granularity >= current.length) {
+                    break;
+                }
+                granularity = Math.min(current.length, granularity * 2);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 在当前线程运行一个输入日志
+     *
+     * @return 第一个违反的不变量的描述，全部通过时返回 null
+     */
+    public static String check(Replay replay) {
+        Violation violation = new Checker().run(replay);
+        return violation != null ? violation.toString() : null;
+    }
+
+    /**
+     * 一个线程的检查器：被测引擎、读档用的引擎和检查用的缓冲区
+     */
+    static final class Checker {
+        private final GameEngine engine = newEngine();
+        private final GameEngine probe = newEngine();
+        private final double[] lookahead = new double[RoadManager.LOOKAHEAD_DISTANCE + 1];
+        private final RoadCurve curve = new RoadCurve();
+        private final int rows = engine.getScreenRows();
+        private final int maxOffset;
+        private int lastDistance;
+        // 读档后还要与被测引擎同步推进的逻辑帧数
+        private int lockstepTicks;
+        long framesRun;
+
+        Checker() {
+            // 弯曲度处处为最大值时偏移最大，地平线处最远
+            RoadCurve widest = new RoadCurve();
+            widest.update(rows, MAX_ABS_CURVATURE);
+            this.maxOffset = Math.abs(widest.getOffset(0));
+        }
+
+        /**
+         * 从头运行输入日志，返回第一个违反的不变量
+         */
+        Violation run(Replay replay) {
+            engine.startGame(replay.seed);
+            lastDistance = 0;
+            lockstepTicks = 0;
+            framesRun = 0;
+            int[] inputs = replay.inputs;
+            int next = 0;
+            int ticks = 0;
+            for (int frame = 0; frame < replay.frames; frame++) {
+                if (engine.getGameState() != GameEngine.GameState.PLAYING) {
+                    break;
+                }
+                boolean logicTick;
+                try {
+                    while (next < inputs.length && Replay.inputFrame(inputs[next]) == frame) {
+                        Action action = ACTIONS[Replay.inputAction(inputs[next])];
+                        int turnPhase = Replay.inputTurnPhase(inputs[next]);
+                        engine.applyAction(action, turnPhase);
+                        if (lockstepTicks > 0) {
+                            probe.applyAction(action, turnPhase);
+                        }
+                        next++;
+                    }
+                    logicTick = engine.isLogicTickNext();
+                    engine.update();
+                    if (lockstepTicks > 0) {
+                        probe.update();
+                    }
+                } catch (RuntimeException e) {
+                    return new Violation("exception", e.toString(), frame);
+                }
+                framesRun++;
+                if (logicTick) {
+                    ticks++;
+                    if (lockstepTicks > 0) {
+                        lockstepTicks--;
+                        Violation violation = checkLockstep(frame);
+                        if (violation != null) {
+                            return violation;
+                        }
+                    }
+                }
+                Violation violation = check(engine, frame, logicTick,
+                        logicTick && ticks % SAVE_CHECK_INTERVAL == 0);
+                if (violation != null) {
+                    return violation;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * 检查一帧之后的状态
+         *
+         * @param logicTick 这一帧执行了逻辑更新（只有这时才检查弯曲度）
+         * @param roundTrip 同时做一次存档往返检查
+         */
+        Violation check(GameEngine engine, int frame, boolean logicTick, boolean roundTrip) {
+            Player player = engine.getPlayer();
+            if (player.getLane() < 0 || player.getLane() >= GameConfig.ROAD_WIDTH) {
+                return new Violation("lane", "车道 " + player.getLane(), frame);
+            }
+            int health = player.getHealth();
+            if (health < 0 || health > player.getMaxHealth()) {
+                return new Violation("health", "血量 " + health + " / " + player.getMaxHealth(), frame);
+            }
+            if (engine.getHitCount() != player.getMaxHealth() - health) {
+                return new Violation("hitCount", "受击 " + engine.getHitCount() + " 次，血量 " + health, frame);
+            }
+            if (health == 0 && engine.getGameState() == GameEngine.GameState.PLAYING) {
+                return new Violation("health", "血量为0但游戏仍在进行", frame);
+            }
+            if (engine.getObstacles().size() > MAX_ENTITIES || engine.getItems().size() > MAX_ENTITIES
+                    || engine.getSceneryList().size() > MAX_ENTITIES) {
+                return new Violation("entities", "障碍物 " + engine.getObstacles().size() + "，道具 "
+                        + engine.getItems().size() + "，风景 " + engine.getSceneryList().size(), frame);
+            }
+            int distance = engine.getScoreSystem().getDistance();
+            if (distance < lastDistance) {
+                return new Violation("distance", "距离 " + lastDistance + " -> " + distance, frame);
+            }
+            lastDistance = distance;
+            if (logicTick) {
+                Violation violation = checkCurvature(engine, frame);
+                if (violation != null) {
+                    return violation;
+                }
+            }
+            if (roundTrip) {
+                return checkSaveRoundTrip(engine, frame);
+            }
+            return null;
+        }
+
+        /**
+         * 前方道路的弯曲度采样和实体所在行的横向偏移（渲染时实体按它平移）
+         */
+        private Violation checkCurvature(GameEngine engine, int frame) {
+            RoadManager road = engine.getRoadManager();
+            if (!isValidCurvature(road.getCurrentCurvature())) {
+                return new Violation("curvature", "当前弯曲度 " + road.getCurrentCurvature(), frame);
+            }
+            int count = road.copyLookahead(lookahead);
+            for (int i = 0; i < count; i++) {
+                if (!isValidCurvature(lookahead[i])) {
+                    return new Violation("curvature", "前方 " + i + " 处弯曲度 " + lookahead[i], frame);
+                }
+            }
+            curve.update(rows, count == lookahead.length ? lookahead : Arrays.copyOf(lookahead, count));
+            String entity = checkOffsets(engine.getObstacles());
+            if (entity == null) {
+                entity = checkOffsets(engine.getItems());
+            }
+            if (entity == null) {
+                entity = checkOffsets(engine.getSceneryList());
+            }
+            return entity != null ? new Violation("curvature", entity, frame) : null;
+        }
+
+        private String checkOffsets(List<? extends GameEntity> entities) {
+            for (int i = 0; i < entities.size(); i++) {
+                GameEntity entity = entities.get(i);
+                int offset = curve.getOffset(entity.getY());
+                if (Math.abs(offset) > maxOffset) {
+                    return entity.getClass().getSimpleName() + " 在第 " + entity.getY() + " 行偏移 " + offset;
+                }
+            }
+            return null;
+        }
+
+        private static boolean isValidCurvature(double curvature) {
+            return Double.isFinite(curvature) && Math.abs(curvature) <= MAX_ABS_CURVATURE;
+        }
+
+        /**
+         * 按存档文件的格式写出再读回另一个引擎，存档覆盖的字段必须一致
+         */
+        private Violation checkSaveRoundTrip(GameEngine engine, int frame) {
+            try {
+                StringWriter writer = new StringWriter();
+                SaveManager.toProperties(engine.createSaveData()).store(writer, null);
+                Properties loaded = new Properties();
+                loaded.load(new StringReader(writer.toString()));
+                probe.restoreSaveData(SaveManager.fromProperties(loaded));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                return new Violation("save", "存档往返失败: " + e, frame);
+            }
+            String difference = savedStateDifference(engine, probe);
+            if (difference != null) {
+                return new Violation("save", difference, frame);
+            }
+            lockstepTicks = SAVE_CHECK_INTERVAL;
+            return null;
+        }
+
+        /**
+         * 读档的引擎与被测引擎同步推进后的状态哈希必须相同
+         */
+        private Violation checkLockstep(int frame) {
+            if (StateHash.fold(0, engine) == StateHash.fold(0, probe)) {
+                return null;
+            }
+            String difference = savedStateDifference(engine, probe);
+            return new Violation("save", "读档后第 " + (SAVE_CHECK_INTERVAL - lockstepTicks) + " 个逻辑帧状态分叉"
+                    + (difference != null ? ": " + difference : "（道路或玩家计时器不同）"), frame);
+        }
+    }
+
+    /**
+     * 比较存档覆盖的字段，返回第一个不同的字段，全部相同时返回 null
+     */
+    static String savedStateDifference(GameEngine expected, GameEngine actual) {
+        Player a = expected.getPlayer();
+        Player b = actual.getPlayer();
+        ScoreSystem sa = expected.getScoreSystem();
+        ScoreSystem sb = actual.getScoreSystem();
+        String difference = firstDifference(
+                "lane", a.getLane(), b.getLane(),
+                "y", a.getY(), b.getY(),
+                "state", a.getState().ordinal(), b.getState().ordinal(),
+                "stateTimer", a.getStateTimer(), b.getStateTimer(),
+                "health", a.getHealth(), b.getHealth(),
+                "driedFish", a.getDriedFishCount(), b.getDriedFishCount(),
+                "hagen", a.hasHagenAbility() ? 1 : 0, b.hasHagenAbility() ? 1 : 0,
+                "chaserY", expected.getChaser().getY(), actual.getChaser().getY(),
+                "gameSpeed", expected.getGameSpeed(), actual.getGameSpeed(),
+                "hitCount", expected.getHitCount(), actual.getHitCount(),
+                "gameState", expected.getGameState().ordinal(), actual.getGameState().ordinal(),
+                "score", sa.getScore(), sb.getScore(),
+                "distance", sa.getDistance(), sb.getDistance(),
+                "combo", sa.getCombo(), sb.getCombo(),
+                "obstacles", expected.getObstacles().size(), actual.getObstacles().size(),
+                "items", expected.getItems().size(), actual.getItems().size());
+        if (difference != null) {
+            return difference;
+        }
+        for (int i = 0; i < expected.getObstacles().size(); i++) {
+            Obstacle x = expected.getObstacles().get(i);
+            Obstacle y = actual.getObstacles().get(i);
+            difference = firstDifference("obstacle" + i + ".lane", x.getLane(), y.getLane(),
+                    "obstacle" + i + ".y", x.getY(), y.getY(),
+                    "obstacle" + i + ".type", x.getType(), y.getType());
+            if (difference != null) {
+                return difference;
+            }
+        }
+        for (int i = 0; i < expected.getItems().size(); i++) {
+            Item x = expected.getItems().get(i);
+            Item y = actual.getItems().get(i);
+            difference = firstDifference("item" + i + ".lane", x.getLane(), y.getLane(),
+                    "item" + i + ".y", x.getY(), y.getY(),
+                    "item" + i + ".type", x.getType().ordinal(), y.getType().ordinal());
+            if (difference != null) {
+                return difference;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 参数按 (名称, 期望值, 实际值) 三个一组
+     */
+    private static String firstDifference(Object... fields) {
+        for (int i = 0; i < fields.length; i += 3) {
+            if (!fields[i + 1].equals(fields[i + 2])) {
+                return "读档后 " + fields[i] + " 为 " + fields[i + 2] + "，应为 " + fields[i + 1];
+            }
+        }
+        return null;
+    }
+
+    private static GameEngine newEngine() {
+        GameEngine engine = new GameEngine(null);
+        engine.setUnattended(true);
+        return engine;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: InvariantFuzzer 用例数 每个的帧数 [种子] [输入频率]");
+            System.exit(2);
+        }
+        // 大量用例同时运行时日志会成为瓶颈
+        Configurator.setAllLevels(LogManager.ROOT_LOGGER_NAME, Level.OFF);
+
+        int cases = Integer.parseInt(args[0]);
+        int frames = Integer.parseInt(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        double inputRate = args.length > 3 ? Double.parseDouble(args[3]) : 0.1;
+
+        long start = System.nanoTime();
+        Result result = new InvariantFuzzer(cases, frames, seed, inputRate).run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("种子 %d: %d 个用例, %d 帧, %.1f 秒 (%.0f 帧/秒)%n", seed, result.getCases(),
+                result.getFrames(), seconds, result.getFrames() / Math.max(seconds, 1e-9));
+        for (Failure failure : result.getFailures()) {
+            System.out.println("失败: " + failure);
+            System.out.println("  " + failure.getReplay().toJson());
+        }
+        System.exit(result.getFailures().isEmpty() ? 0 : 1);
+    }
+}
@@ -0,0 +1,70 @@
+package com.hakimi.road.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hakimi.road.util.GameConfig;
+
+import java.io.IOException;
+
+/**
+ * 一局游戏的录像
+ * 赛道种子加上每一帧的操作就能完整复现一局；另外附带每个逻辑帧之后的滚动状态哈希和最终分数，
+ * 供服务器重新模拟时逐帧比对（见 ReplayVerifier）。
+ * 玩家位置和碰撞判定依赖屏幕行数，所以录像也记下开局时的屏幕行数，重新模拟时使用同样的行数。
+ * 操作按帧号递增排列，每项为 帧号 << INPUT_FRAME_SHIFT | 转向相位 << ACTION_BITS | Action 序号，
+ * 表示在第几次 update() 之前执行；转向相位见 GameEngine.turnPhaseAt，其他操作为 0。
+ */
+public class Replay {
+    // 版本 2 起操作带转向相位
+    public static final int FORMAT_VERSION = 2;
+    public static final int ACTION_BITS = 3;
+    public static final int ACTION_MASK = (1 << ACTION_BITS) - 1;
+    // 容纳 GameEngine.TURN_PHASES 个相位
+    public static final int PHASE_BITS = 4;
+    public static final int PHASE_MASK = (1 << PHASE_BITS) - 1;
+    private static final int INPUT_FRAME_SHIFT = ACTION_BITS + PHASE_BITS;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public int version = FORMAT_VERSION;
+    public long seed;
+    // 录制时的屏幕行数（旧录像没有这一项，按默认终端高度）
+    public int rows = GameConfig.TERMINAL_HEIGHT;
+    // 录制时调用 update() 的次数
+    public int frames;
+    public int[] inputs = new int[0];
+    // 第 i 项为第 i + 1 个逻辑帧之后的滚动哈希
+    public long[] tickHashes = new long[0];
+
+    // 结束时 ScoreSystem 的值
+    public int score;
+    public int distance;
+    public int combo;
+
+    public static int encodeInput(int frame, int action) {
+        return encodeInput(frame, action, 0);
+    }
+
+    public static int encodeInput(int frame, int action, int turnPhase) {
+        return frame << INPUT_FRAME_SHIFT | turnPhase << ACTION_BITS | action;
+    }
+
+    public static int inputFrame(int input) {
+        return input >>> INPUT_FRAME_SHIFT;
+    }
+
+    public static int inputAction(int input) {
+        return input & ACTION_MASK;
+    }
+
+    public static int inputTurnPhase(int input) {
+        return input >>> ACTION_BITS & PHASE_MASK;
+    }
+
+    public String toJson() throws IOException {
+        return objectMapper.writeValueAsString(this);
+    }
+
+    public static Replay fromJson(String json) throws IOException {
+        return objectMapper.readValue(json, Replay.class);
+    }
+}
@@ -0,0 +1,102 @@
+package com.hakimi.road.replay;
+
+import com.hakimi.road.ai.Action;
+import com.hakimi.road.engine.GameEngine;
+
+import java.util.Arrays;
+
+/**
+ * 录像录制器
+ * 代替直接调用 GameEngine.applyAction / update 来驱动一局游戏，同时记下操作和每个逻辑帧的状态哈希。
+ * 键盘转向的到达时间量化成逻辑帧内的相位一起记下，重新模拟时按同样的相位判定，结果与实际游戏相同。
+ * 开局时记下引擎的屏幕行数；录制途中终端高度改变的对局无法通过校验。
+ */
+public class ReplayRecorder {
+    private final GameEngine engine;
+    private long seed;
+    private int rows;
+    private int frame;
+    private int[] inputs = new int[64];
+    private int inputCount;
+    private long[] tickHashes = new long[256];
+    private int tickCount;
+    private long hash;
+
+    public ReplayRecorder(GameEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * 用指定的赛道种子开始新的一局并清空之前的记录
+     */
+    public void start(long seed) {
+        this.seed = seed;
+        engine.startGame(seed);
+        rows = engine.getScreenRows();
+        frame = 0;
+        inputCount = 0;
+        tickCount = 0;
+        hash = StateHash.initial(seed);
+    }
+
+    /**
+     * 执行一次操作，在下一次 update() 之前生效，转向按当前逻辑帧的状态判定
+     */
+    public void apply(Action action) {
+        apply(action, 0L);
+    }
+
+    /**
+     * 执行一次键盘操作，转向按按键到达时的逻辑帧内相位判定
+     *
+     * @param timestampNanos 按键到达时间（System.nanoTime），0表示按当前状态判定
+     */
+    public void apply(Action action, long timestampNanos) {
+        if (engine.getGameState() != GameEngine.GameState.PLAYING || action == Action.NONE) {
+            return;
+        }
+        int turnPhase = action == Action.TURN_LEFT || action == Action.TURN_RIGHT
+                ? engine.turnPhaseAt(timestampNanos) : 0;
+        engine.applyAction(action, turnPhase);
+        if (inputCount == inputs.length) {
+            inputs = Arrays.copyOf(inputs, inputCount * 2);
+        }
+        inputs[inputCount++] = Replay.encodeInput(frame, action.ordinal(), turnPhase);
+    }
+
+    /**
+     * 推进一帧，逻辑帧之后记录状态哈希
+     */
+    public void update() {
+        boolean logicTick = engine.getGameState() == GameEngine.GameState.PLAYING && engine.isLogicTickNext();
+        engine.update();
+        frame++;
+        if (logicTick) {
+            hash = StateHash.fold(hash, engine);
+            if (tickCount == tickHashes.length) {
+                tickHashes = Arrays.copyOf(tickHashes, tickCount * 2);
+            }
+            tickHashes[tickCount++] = hash;
+        }
+    }
+
+    /**
+     * 生成到目前为止的录像
+     */
+    public Replay finish() {
+        Replay replay = new Replay();
+        replay.seed = seed;
+        replay.rows = rows;
+        replay.frames = frame;
+        replay.inputs = Arrays.copyOf(inputs, inputCount);
+        replay.tickHashes = Arrays.copyOf(tickHashes, tickCount);
+        replay.score = engine.getScoreSystem().getScore();
+        replay.distance = engine.getScoreSystem().getDistance();
+        replay.combo = engine.getScoreSystem().getCombo();
+        return replay;
+    }
+
+    public GameEngine getEngine() {
+        return engine;
+    }
+}
@@ -0,0 +1,267 @@
+package com.hakimi.road.replay;
+
+import com.hakimi.road.ai.Action;
+import com.hakimi.road.engine.GameEngine;
+import com.hakimi.road.level.DifficultyConfig;
+import com.hakimi.road.system.ScoreSystem;
+import com.hakimi.road.util.GameConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * 录像校验器
+ * 排行榜收到成绩后，在无界面模式下用录像里的种子和操作重新跑一遍，逐个逻辑帧比对滚动状态哈希，
+ * 最后比对 ScoreSystem 的分数、距离和连击，任何不一致都拒绝并给出第一个分叉的逻辑帧。
+ *
+ * 校验在固定大小的工作线程池上并行执行，每个线程复用一个引擎，一局录像只分配少量对象。
+ * 距离只由逻辑帧数决定，提交的距离与帧数对不上时不用模拟就能拒绝；哈希一旦分叉立即停止模拟。
+ */
+public class ReplayVerifier implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ReplayVerifier.class);
+    private static final Action[] ACTIONS = Action.values();
+    // 录像允许的屏幕行数上限
+    static final int MAX_ROWS = 1024;
+
+    private final ExecutorService pool;
+    private final ThreadLocal<GameEngine> engines = ThreadLocal.withInitial(ReplayVerifier::newEngine);
+
+    /**
+     * 校验结果
+     */
+    public static final class Result {
+        private final boolean accepted;
+        private final int divergentTick;
+        private final String reason;
+        private final int score;
+        private final int distance;
+        private final int combo;
+
+        private Result(boolean accepted, int divergentTick, String reason, ScoreSystem scoreSystem) {
+            this.accepted = accepted;
+            this.divergentTick = divergentTick;
+            this.reason = reason;
+            this.score = scoreSystem != null ? scoreSystem.getScore() : 0;
+            this.distance = scoreSystem != null ? scoreSystem.getDistance() : 0;
+            this.combo = scoreSystem != null ? scoreSystem.getCombo() : 0;
+        }
+
+        public boolean isAccepted() {
+            return accepted;
+        }
+
+        /**
+         * 第一个不一致的逻辑帧（从 1 开始；录像格式错误时为 0，通过时为 -1）
+         */
+        public int getDivergentTick() {
+            return divergentTick;
+        }
+
+        /**
+         * 拒绝原因（通过时为 null）
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        /**
+         * 重新模拟得到的分数（录像未经模拟就被拒绝时为 0，下同）
+         */
+        public int getScore() {
+            return score;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+
+        public int getCombo() {
+            return combo;
+        }
+
+        @Override
+        public String toString() {
+            return accepted ? "通过" : "拒绝(逻辑帧 " + divergentTick + "): " + reason;
+        }
+    }
+
+    /**
+     * 每个 CPU 一个工作线程
+     */
+    public ReplayVerifier() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param workers 工作线程数
+     */
+    public ReplayVerifier(int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("工作线程数必须大于0: " + workers);
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "replay-verifier-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("录像校验器启动: {} 个工作线程", workers);
+    }
+
+    /**
+     * 提交一局录像，在工作线程上校验
+     */
+    public CompletableFuture<Result> submit(Replay replay) {
+        return CompletableFuture.supplyAsync(() -> verify(replay), pool);
+    }
+
+    /**
+     * 并行校验一批录像，全部完成后按提交顺序返回结果
+     */
+    public List<Result> verifyAll(List<Replay> replays) {
+        List<CompletableFuture<Result>> futures = new ArrayList<>(replays.size());
+        for (Replay replay : replays) {
+            futures.add(submit(replay));
+        }
+        List<Result> results = new ArrayList<>(replays.size());
+        for (CompletableFuture<Result> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * 在当前线程校验一局录像
+     */
+    public Result verify(Replay replay) {
+        return verify(replay, engines.get());
+    }
+
+    /**
+     * 用指定的引擎校验一局录像（引擎须没有屏幕，会按录像的屏幕行数重新开局）
+     */
+    static Result verify(Replay replay, GameEngine engine) {
+        String problem = checkFormat(replay);
+        if (problem != null) {
+            return reject(0, problem, null);
+        }
+        int ticks = replay.tickHashes.length;
+        int expectedDistance = distanceAfter(engine.getDifficulty(), ticks);
+        if (replay.distance != expectedDistance) {
+            return reject(ticks, "距离 " + replay.distance + " 与 " + ticks + " 个逻辑帧不符（应为 " + expectedDistance + "）",
+                    null);
+        }
+
+        engine.setHeadlessRows(replay.rows);
+        engine.startGame(replay.seed);
+        long hash = StateHash.initial(replay.seed);
+        int[] inputs = replay.inputs;
+        int next = 0;
+        int tick = 0;
+        for (int frame = 0; frame < replay.frames; frame++) {
+            if (engine.getGameState() != GameEngine.GameState.PLAYING) {
+                break;
+            }
+            while (next < inputs.length && Replay.inputFrame(inputs[next]) == frame) {
+                engine.applyAction(ACTIONS[Replay.inputAction(inputs[next])], Replay.inputTurnPhase(inputs[next]));
+                next++;
+            }
+            boolean logicTick = engine.isLogicTickNext();
+            engine.update();
+            if (!logicTick) {
+                continue;
+            }
+            hash = StateHash.fold(hash, engine);
+            tick++;
+            if (tick > ticks) {
+                return reject(tick, "录像缺少逻辑帧哈希", engine.getScoreSystem());
+            }
+            if (hash != replay.tickHashes[tick - 1]) {
+                return reject(tick, "状态哈希不一致", engine.getScoreSystem());
+            }
+        }
+        ScoreSystem scoreSystem = engine.getScoreSystem();
+        if (tick < ticks) {
+            return reject(tick + 1, "重新模拟在第 " + tick + " 个逻辑帧结束", scoreSystem);
+        }
+        if (next < inputs.length) {
+            return reject(tick, "游戏结束后仍有操作", scoreSystem);
+        }
+        if (scoreSystem.getScore() != replay.score || scoreSystem.getDistance() != replay.distance
+                || scoreSystem.getCombo() != replay.combo) {
+            return reject(tick, "最终分数不一致: 提交 " + replay.score + "/" + replay.distance + "/" + replay.combo
+                    + "，模拟 " + scoreSystem.getScore() + "/" + scoreSystem.getDistance() + "/"
+                    + scoreSystem.getCombo(), scoreSystem);
+        }
+        return new Result(true, -1, null, scoreSystem);
+    }
+
+    /**
+     * 检查录像结构，返回问题描述，没有问题时返回 null
+     */
+    private static String checkFormat(Replay replay) {
+        if (replay.version != Replay.FORMAT_VERSION) {
+            return "不支持的录像版本: " + replay.version;
+        }
+        if (replay.inputs == null || replay.tickHashes == null || replay.frames < 0) {
+            return "录像不完整";
+        }
+        if (replay.rows <= GameConfig.PLAYER_HEIGHT + 1 || replay.rows > MAX_ROWS) {
+            return "无效的屏幕行数: " + replay.rows;
+        }
+        // 开局后每两帧一个逻辑帧
+        if (replay.tickHashes.length > replay.frames / 2) {
+            return "逻辑帧数 " + replay.tickHashes.length + " 超过帧数 " + replay.frames + " 所能容纳的数量";
+        }
+        int lastFrame = 0;
+        for (int input : replay.inputs) {
+            int frame = Replay.inputFrame(input);
+            int action = Replay.inputAction(input);
+            if (frame < lastFrame || frame >= replay.frames || action >= ACTIONS.length) {
+                return "无效的操作: " + input;
+            }
+            // 只有转向带相位
+            if (Replay.inputTurnPhase(input) != 0
+                    && ACTIONS[action] != Action.TURN_LEFT && ACTIONS[action] != Action.TURN_RIGHT) {
+                return "无效的操作: " + input;
+            }
+            lastFrame = frame;
+        }
+        return null;
+    }
+
+    /**
+     * 跑完指定逻辑帧数后的距离（与 GameEngine.update 相同：先按旧速度前进，再按新距离算速度）
+     */
+    static int distanceAfter(DifficultyConfig difficulty, int ticks) {
+        int distance = 0;
+        int speed = GameConfig.BASE_GAME_SPEED;
+        for (int i = 0; i < ticks; i++) {
+            distance += speed;
+            speed = difficulty.speedAt(distance);
+        }
+        return distance;
+    }
+
+    private static Result reject(int tick, String reason, ScoreSystem scoreSystem) {
+        return new Result(false, tick, reason, scoreSystem);
+    }
+
+    private static GameEngine newEngine() {
+        GameEngine engine = new GameEngine(null);
+        engine.setUnattended(true);
+        return engine;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,71 @@
+package com.hakimi.road.replay;
+
+import com.hakimi.road.engine.GameEngine;
+import com.hakimi.road.entity.Item;
+import com.hakimi.road.entity.Obstacle;
+import com.hakimi.road.entity.Player;
+import com.hakimi.road.level.RoadManager;
+import com.hakimi.road.system.ScoreSystem;
+
+import java.util.List;
+
+/**
+ * 滚动状态哈希
+ * 每个逻辑帧之后把影响之后结果的状态（分数、速度、玩家、障碍物、道具、道路）折叠进上一帧的哈希，
+ * 录像和重新模拟的哈希在第一处不一致的逻辑帧就会分叉。只做整数运算，不创建对象。
+ */
+final class StateHash {
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private StateHash() {
+    }
+
+    /**
+     * 一局开始时的哈希
+     */
+    static long initial(long seed) {
+        return mix(MULTIPLIER, seed);
+    }
+
+    static long fold(long hash, GameEngine engine) {
+        ScoreSystem score = engine.getScoreSystem();
+        hash = mix(hash, score.getDistance());
+        hash = mix(hash, score.getScore());
+        hash = mix(hash, score.getCombo());
+        hash = mix(hash, engine.getGameSpeed());
+        hash = mix(hash, engine.getGameState().ordinal());
+
+        Player player = engine.getPlayer();
+        hash = mix(hash, player.getLane());
+        hash = mix(hash, player.getState().ordinal());
+        hash = mix(hash, player.getStateTimer());
+        hash = mix(hash, player.getHealth());
+        hash = mix(hash, player.getInvincibilityTimer());
+        hash = mix(hash, player.getDriedFishCount());
+        hash = mix(hash, player.hasHagenAbility() ? 1 : 0);
+        hash = mix(hash, engine.getChaser().getY());
+
+        RoadManager road = engine.getRoadManager();
+        hash = mix(hash, road.getCurrentSegment().ordinal());
+        hash = mix(hash, road.getSegmentDistanceRemaining());
+
+        List<Obstacle> obstacles = engine.getObstacles();
+        hash = mix(hash, obstacles.size());
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle obstacle = obstacles.get(i);
+            hash = mix(hash, (long) obstacle.getY() << 16 | obstacle.getLane() << 8 | obstacle.getType());
+        }
+        List<Item> items = engine.getItems();
+        hash = mix(hash, items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            hash = mix(hash, (long) item.getY() << 16 | item.getLane() << 8 | item.getType().ordinal());
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        hash = (hash ^ value) * MULTIPLIER;
+        return hash ^ (hash >>> 29);
+    }
+}
@@ -0,0 +1,160 @@
+package com.hakimi.road.system;
+
+import com.hakimi.road.entity.Obstacle;
+import com.hakimi.road.entity.Player;
+import com.hakimi.road.util.GameConfig;
+
+/**
+ * 按逻辑帧描述玩家可做的动作（与 CollisionSystem 的判定一致）
+ * 状态是 (车道, 动作阶段)：阶段 0 为正常，其后依次是跳跃、滑铲的剩余逻辑帧数。
+ * 所有状态不超过 64 个，一组状态用一个 long 表示，供可达性搜索使用。
+ * 跳跃/滑铲期间不能再起跳或滑铲，动作结束的那一帧可以立即开始下一个动作，每个逻辑帧最多换一条车道。
+ */
+public final class ActionModel {
+    // GameEngine 每两帧做一次逻辑更新
+    public static final int FRAMES_PER_TICK = 2;
+
+    private final int jumpTicks;
+    private final int slideTicks;
+    private final int phases;
+    private final long phaseMask;
+    private final long jumping;
+    private final long sliding;
+    private final long allNormal;
+    private final long allStates;
+    // successors[s] = 下一逻辑帧可以到达的状态
+    private final long[] successors;
+
+    /**
+     * @param jumpTicks  跳跃覆盖的逻辑帧数
+     * @param slideTicks 滑铲覆盖的逻辑帧数
+     */
+    public ActionModel(int jumpTicks, int slideTicks) {
+        this.jumpTicks = jumpTicks;
+        this.slideTicks = slideTicks;
+        this.phases = 1 + jumpTicks + slideTicks;
+        if (phases * GameConfig.ROAD_WIDTH > Long.SIZE) {
+            throw new IllegalArgumentException("动作帧数过长: " + jumpTicks + "/" + slideTicks);
+        }
+        this.phaseMask = (1L << phases) - 1;
+        this.jumping = ((1L << jumpTicks) - 1) << 1;
+        this.sliding = ((1L << slideTicks) - 1) << (1 + jumpTicks);
+        long normal = 0;
+        for (int lane = 0; lane < GameConfig.ROAD_WIDTH; lane++) {
+            normal |= 1L << (lane * phases);
+        }
+        this.allNormal = normal;
+        int states = GameConfig.ROAD_WIDTH * phases;
+        this.allStates = states == Long.SIZE ? -1L : (1L << states) - 1;
+
+        this.successors = new long[states];
+        for (int lane = 0; lane < GameConfig.ROAD_WIDTH; lane++) {
+            for (int phase = 0; phase < phases; phase++) {
+                long next;
+                if (phase == 0 || phase == 1 || phase == 1 + jumpTicks) {
+                    // 正常或动作刚好结束：可以保持正常，也可以立即起跳/滑铲
+                    next = 1L | 1L << jumpTicks | 1L << (jumpTicks + slideTicks);
+                } else {
+                    next = 1L << (phase - 1);
+                }
+                long result = 0;
+                for (int target = Math.max(0, lane - 1); target <= Math.min(GameConfig.ROAD_WIDTH - 1, lane + 1); target++) {
+                    result |= next << (target * phases);
+                }
+                successors[lane * phases + phase] = result;
+            }
+        }
+    }
+
+    /**
+     * 游戏中实际的动作长度：在逻辑帧前按键时，跳跃/滑铲覆盖 DURATION / 2 个逻辑帧
+     */
+    public static ActionModel forGame() {
+        return new ActionModel(GameConfig.JUMP_DURATION / FRAMES_PER_TICK, GameConfig.SLIDE_DURATION / FRAMES_PER_TICK);
+    }
+
+    public int getJumpTicks() {
+        return jumpTicks;
+    }
+
+    public int getSlideTicks() {
+        return slideTicks;
+    }
+
+    /**
+     * 所有车道的正常状态
+     */
+    public long allNormal() {
+        return allNormal;
+    }
+
+    public long allStates() {
+        return allStates;
+    }
+
+    /**
+     * 一组状态在下一逻辑帧可以到达的状态
+     */
+    public long successors(long states) {
+        long next = 0;
+        long remaining = states;
+        while (remaining != 0) {
+            int state = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            next |= successors[state];
+        }
+        return next;
+    }
+
+    /**
+     * 单个状态在下一逻辑帧可以到达的状态
+     */
+    public long successorsOf(int state) {
+        return successors[state];
+    }
+
+    /**
+     * 去掉在 lane 车道会撞上该高度障碍物的状态
+     */
+    public long avoid(long states, int lane, Obstacle.ObstacleHeight height) {
+        int shift = lane * phases;
+        long safe;
+        if (height == Obstacle.ObstacleHeight.LOW) {
+            safe = jumping;
+        } else if (height == Obstacle.ObstacleHeight.HIGH) {
+            safe = sliding;
+        } else {
+            safe = 0;
+        }
+        return states & (~(phaseMask << shift) | (safe << shift));
+    }
+
+    /**
+     * 状态编号
+     *
+     * @param ticksLeft 跳跃/滑铲还剩的逻辑帧数（正常状态忽略）
+     */
+    public int state(int lane, Player.PlayerState action, int ticksLeft) {
+        int phase;
+        if (action == Player.PlayerState.JUMPING && ticksLeft > 0) {
+            phase = Math.min(ticksLeft, jumpTicks);
+        } else if (action == Player.PlayerState.SLIDING && ticksLeft > 0) {
+            phase = jumpTicks + Math.min(ticksLeft, slideTicks);
+        } else {
+            phase = 0;
+        }
+        return lane * phases + phase;
+    }
+
+    public int laneOf(int state) {
+        return state / phases;
+    }
+
+    /**
+     * 该状态在下一逻辑帧是否可以自由行动（正常或动作刚好结束）
+     */
+    public boolean isFree(int state) {
+        int phase = state % phases;
+        return phase == 0 || phase == 1 || phase == 1 + jumpTicks;
+    }
+}
@@ -0,0 +1,67 @@
+package com.hakimi.road.system;
+
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+
+/**
+ * 输入事件
+ * 一次按键及其到达时间（System.nanoTime），游戏进行中连续的同向换道会合并为一个事件
+ */
+public class InputEvent {
+    private final KeyStroke key;
+    private final long timestampNanos;
+    private long lastTimestampNanos;
+    private int repeatCount;
+
+    public InputEvent(KeyStroke key, long timestampNanos) {
+        this.key = key;
+        this.timestampNanos = timestampNanos;
+        this.lastTimestampNanos = timestampNanos;
+        this.repeatCount = 1;
+    }
+
+    public KeyStroke getKey() {
+        return key;
+    }
+
+    /**
+     * 第一次按键到达的时间
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    /**
+     * 最后一次被合并的按键到达的时间
+     */
+    public long getLastTimestampNanos() {
+        return lastTimestampNanos;
+    }
+
+    /**
+     * 合并的按键次数
+     */
+    public int getRepeatCount() {
+        return repeatCount;
+    }
+
+    /**
+     * 是否为换道按键
+     */
+    public boolean isLaneMove() {
+        KeyType type = key.getKeyType();
+        return type == KeyType.ArrowLeft || type == KeyType.ArrowRight;
+    }
+
+    /**
+     * 是否可以与另一个事件合并（同方向的换道）
+     */
+    boolean canCoalesce(InputEvent other) {
+        return isLaneMove() && key.getKeyType() == other.key.getKeyType();
+    }
+
+    void coalesce(InputEvent other) {
+        repeatCount += other.repeatCount;
+        lastTimestampNanos = other.lastTimestampNanos;
+    }
+}
@@ -0,0 +1,101 @@
+package com.hakimi.road.system;
+
+import com.hakimi.road.util.LatencyHistogram;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * 输入延迟统计
+ * 记录按键到达 InputSystem 到第一次显示其效果的 screen.refresh() 之间的耗时，
+ * 并定期输出 p50/p99/p999。
+ * 每个按键记下第一份反映它的帧快照序号，渲染线程输出该帧（或更新的帧）时计入延迟。
+ * 记录过程不分配内存；模拟线程与渲染线程可以并发调用。
+ */
+public class InputLatencyTracker {
+    private static final Logger logger = LogManager.getLogger(InputLatencyTracker.class);
+    static final int MAX_PENDING = 64;
+    private static final long DEFAULT_DUMP_INTERVAL_NANOS = 10_000_000_000L; // 10秒
+
+    private final LatencyHistogram histogram;
+    private final long[] pending;
+    private final long[] pendingSequence;
+    private int pendingCount;
+    private final long dumpIntervalNanos;
+    private long lastDumpNanos;
+
+    public InputLatencyTracker() {
+        this(DEFAULT_DUMP_INTERVAL_NANOS);
+    }
+
+    public InputLatencyTracker(long dumpIntervalNanos) {
+        this.histogram = new LatencyHistogram();
+        this.pending = new long[MAX_PENDING];
+        this.pendingSequence = new long[MAX_PENDING];
+        this.dumpIntervalNanos = dumpIntervalNanos;
+        this.lastDumpNanos = System.nanoTime();
+    }
+
+    /**
+     * 标记一个已经改变了游戏状态的按键，等待显示它的帧
+     *
+     * @param arrivalNanos 按键到达时间
+     * @param sequence     第一份反映该按键的帧快照序号
+     */
+    public synchronized void inputApplied(long arrivalNanos, long sequence) {
+        if (pendingCount < MAX_PENDING) {
+            pending[pendingCount] = arrivalNanos;
+            pendingSequence[pendingCount] = sequence;
+            pendingCount++;
+        }
+    }
+
+    /**
+     * 一帧已经输出到终端，记录序号不大于它的所有等待中的按键延迟
+     *
+     * @param nowNanos 刷新完成时间
+     * @param sequence 已输出帧的快照序号
+     */
+    public synchronized void frameShown(long nowNanos, long sequence) {
+        int kept = 0;
+        for (int i = 0; i < pendingCount; i++) {
+            if (pendingSequence[i] <= sequence) {
+                histogram.record(nowNanos - pending[i]);
+            } else {
+                pending[kept] = pending[i];
+                pendingSequence[kept] = pendingSequence[i];
+                kept++;
+            }
+        }
+        pendingCount = kept;
+
+        if (nowNanos - lastDumpNanos >= dumpIntervalNanos) {
+            dump();
+            lastDumpNanos = nowNanos;
+        }
+    }
+
+    /**
+     * 输出当前统计并开始新的统计周期
+     */
+    public synchronized void dump() {
+        if (histogram.getCount() == 0) {
+            return;
+        }
+        logger.info("输入延迟(ms): n={}, p50={}, p99={}, p999={}, max={}",
+                histogram.getCount(),
+                toMillis(histogram.getValueAtPercentile(50)),
+                toMillis(histogram.getValueAtPercentile(99)),
+                toMillis(histogram.getValueAtPercentile(99.9)),
+                toMillis(histogram.getMax()));
+        histogram.reset();
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+}
@@ -3,9 +3,14 @@ package com.hakimi.road.system;
 import com.googlecode.lanterna.input.KeyStroke;
 import com.googlecode.lanterna.input.KeyType;
 import com.googlecode.lanterna.screen.Screen;
+import com.hakimi.road.ai.Action;
 import com.hakimi.road.entity.Player;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -13,22 +18,155 @@ import org.apache.logging.log4j.Logger;
 /**
  * 输入处理系统
  * 负责处理玩家输入
+ *
+ * 独立的读取线程阻塞在 screen.readInput() 上，为每个按键打上到达时间戳后放入无锁队列，
+ * 模拟循环在每个tick把队列一次性取空；没有需要推进的画面时，模拟线程可以阻塞等待输入。
  */
 public class InputSystem {
     private static final Logger logger = LogManager.getLogger(InputSystem.class);
     private Screen screen;
     private KeyStroke lastKey; // 缓存最后一次按键
 
+    private final ConcurrentLinkedQueue<InputEvent> eventQueue;
+    private Thread readerThread;
+    private volatile boolean running;
+
+    // 阻塞等待输入的线程及其唤醒标记
+    private volatile Thread waiter;
+    private final AtomicBoolean wakeUpRequested = new AtomicBoolean();
+
     public InputSystem(Screen screen) {
         this.screen = screen;
+        this.eventQueue = new ConcurrentLinkedQueue<>();
         logger.debug("InputSystem初始化");
     }
 
     /**
-     * 轮询输入，返回当前按键（如果存在）
+     * 启动输入读取线程
+     */
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        readerThread = new Thread(this::readLoop, "input-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+        logger.debug("输入读取线程已启动");
+    }
+
+    /**
+     * 停止输入读取线程
+     */
+    public void stop() {
+        running = false;
+        if (readerThread != null) {
+            readerThread.interrupt();
+        }
+    }
+
+    private void readLoop() {
+        while (running) {
+            try {
+                KeyStroke key = screen.readInput();
+                if (key == null) {
+                    continue;
+                }
+                if (key.getKeyType() == KeyType.EOF) {
+                    logger.warn("输入流已关闭，停止读取输入");
+                    running = false;
+                    break;
+                }
+                submit(new InputEvent(key, System.nanoTime()));
+            } catch (IOException e) {
+                logger.error("读取输入失败", e);
+                running = false;
+            }
+        }
+    }
+
+    /**
+     * 直接投递一个输入事件（用于测试或非终端输入源）
+     */
+    public void submit(InputEvent event) {
+        eventQueue.offer(event);
+        Thread t = waiter;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    /**
+     * 阻塞直到有输入、被 wakeUp 唤醒或超时
+     *
+     * @param timeoutNanos 超时时间，小于等于0表示一直等待
+     * @return 队列中是否有输入
+     */
+    public boolean awaitInput(long timeoutNanos) {
+        waiter = Thread.currentThread();
+        try {
+            long deadline = System.nanoTime() + timeoutNanos;
+            while (eventQueue.isEmpty() && !wakeUpRequested.getAndSet(false)) {
+                if (timeoutNanos <= 0) {
+                    LockSupport.park(this);
+                } else {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    LockSupport.parkNanos(this, remaining);
+                }
+                if (Thread.interrupted()) {
+                    break;
+                }
+            }
+        } finally {
+            waiter = null;
+        }
+        return !eventQueue.isEmpty();
+    }
+
+    /**
+     * 唤醒阻塞在 awaitInput 上的线程（例如终端尺寸变化需要重绘）
+     */
+    public void wakeUp() {
+        wakeUpRequested.set(true);
+        Thread t = waiter;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    /**
+     * 取出队列中全部的输入事件
+     * 游戏进行中连续的同向换道合并为一个事件（保留第一次按键的时间戳）；
+     * 菜单、设置等界面上每次按键都有各自的含义，不合并。
+     *
+     * @param out               输出列表，调用方负责复用和清空
+     * @param coalesceLaneMoves 是否合并连续的同向换道
+     * @return 取出的事件数量
+     */
+    public int drainInput(List<InputEvent> out, boolean coalesceLaneMoves) {
+        int start = out.size();
+        InputEvent event;
+        while ((event = eventQueue.poll()) != null) {
+            int last = out.size() - 1;
+            if (coalesceLaneMoves && last >= start && out.get(last).canCoalesce(event)) {
+                out.get(last).coalesce(event);
+            } else {
+                out.add(event);
+            }
+            lastKey = event.getKey();
+        }
+        return out.size() - start;
+    }
+
+    /**
+     * 轮询输入，返回队列中的下一个按键（如果存在）
      */
     public KeyStroke pollInput() throws IOException {
-        lastKey = screen.pollInput();
+        InputEvent event = eventQueue.poll();
+        lastKey = event != null ? event.getKey() : null;
         return lastKey;
     }
 
@@ -39,6 +177,35 @@ public class InputSystem {
         return lastKey;
     }
 
+    /**
+     * 游戏中的按键对应的玩家操作，不是游戏操作键时返回 Action.NONE
+     */
+    public Action toAction(KeyStroke key) {
+        switch (key.getKeyType()) {
+            case ArrowLeft:
+                return Action.MOVE_LEFT;
+            case ArrowRight:
+                return Action.MOVE_RIGHT;
+            case ArrowUp:
+                return Action.JUMP;
+            case ArrowDown:
+                return Action.SLIDE;
+            case Character:
+                switch (Character.toLowerCase(key.getCharacter())) {
+                    case ' ':
+                        return Action.JUMP;
+                    case 'a':
+                        return Action.TURN_LEFT;
+                    case 'd':
+                        return Action.TURN_RIGHT;
+                    default:
+                        return Action.NONE;
+                }
+            default:
+                return Action.NONE;
+        }
+    }
+
     /**
      * 处理输入并更新玩家状态
      * 
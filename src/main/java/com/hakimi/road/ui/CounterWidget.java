@@ -0,0 +1,47 @@
+package com.hakimi.road.ui;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.TextGraphics;
+
+/**
+ * "名称: 数值" 形式的计数显示，只有数值变化时才重新拼接文字并重绘
+ */
+public class CounterWidget extends Widget {
+    private final String prefix;
+    private final TextColor foreground;
+    private final TextColor background;
+    private int value;
+    private TextRun run;
+
+    public CounterWidget(String prefix, TextColor foreground, TextColor background) {
+        this.prefix = prefix;
+        this.foreground = foreground;
+        this.background = background;
+        this.run = new TextRun(prefix + value);
+    }
+
+    public void setValue(int value) {
+        if (this.value != value) {
+            this.value = value;
+            this.run = new TextRun(prefix + value);
+            markDirty();
+        }
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    @Override
+    protected TerminalSize measure() {
+        return new TerminalSize(run.getWidth(), 1);
+    }
+
+    @Override
+    protected void paint(TextGraphics tg) {
+        tg.setForegroundColor(foreground);
+        tg.setBackgroundColor(background);
+        run.draw(tg, 0, 0);
+    }
+}
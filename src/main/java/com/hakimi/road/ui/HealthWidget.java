@@ -0,0 +1,65 @@
+package com.hakimi.road.ui;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.TextGraphics;
+
+/**
+ * 血量显示（实心/空心的心形），血量或上限变化时重绘
+ */
+public class HealthWidget extends Widget {
+    private final TextColor foreground;
+    private final TextColor background;
+    private int health = -1;
+    private int maxHealth = -1;
+    private TextRun hearts = new TextRun("");
+    private String full = "❤";
+    private String empty = "♡";
+
+    public HealthWidget(TextColor foreground, TextColor background) {
+        this.foreground = foreground;
+        this.background = background;
+    }
+
+    public void setHealth(int health, int maxHealth) {
+        if (this.health == health && this.maxHealth == maxHealth) {
+            return;
+        }
+        this.health = health;
+        this.maxHealth = maxHealth;
+        rebuild();
+    }
+
+    /**
+     * 更换表示满血/空血的符号（低带宽模式使用纯ASCII）
+     */
+    public void setSymbols(String full, String empty) {
+        if (this.full.equals(full) && this.empty.equals(empty)) {
+            return;
+        }
+        this.full = full;
+        this.empty = empty;
+        rebuild();
+    }
+
+    private void rebuild() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < maxHealth; i++) {
+            sb.append(i < health ? full : empty);
+        }
+        hearts = new TextRun(sb.toString());
+        markDirty();
+    }
+
+    @Override
+    protected TerminalSize measure() {
+        return new TerminalSize(hearts.getWidth(), 1);
+    }
+
+    @Override
+    protected void paint(TextGraphics tg) {
+        tg.setForegroundColor(foreground);
+        tg.setBackgroundColor(background);
+        hearts.draw(tg, 0, 0);
+    }
+}
@@ -0,0 +1,57 @@
+package com.hakimi.road.ui;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.TextGraphics;
+
+/**
+ * 单行文字标签，文字或颜色变化时重绘
+ */
+public class LabelWidget extends Widget {
+    private TextRun run;
+    private TextColor foreground;
+    private final TextColor background;
+
+    public LabelWidget(String text, TextColor foreground, TextColor background) {
+        this.run = new TextRun(text);
+        this.foreground = foreground;
+        this.background = background;
+    }
+
+    public void setText(String text) {
+        if (!run.getText().equals(text)) {
+            run = new TextRun(text);
+            markDirty();
+        }
+    }
+
+    public String getText() {
+        return run.getText();
+    }
+
+    /**
+     * 显示宽度（列数）
+     */
+    public int getWidth() {
+        return run.getWidth();
+    }
+
+    public void setForeground(TextColor foreground) {
+        if (!this.foreground.equals(foreground)) {
+            this.foreground = foreground;
+            markDirty();
+        }
+    }
+
+    @Override
+    protected TerminalSize measure() {
+        return new TerminalSize(run.getWidth(), 1);
+    }
+
+    @Override
+    protected void paint(TextGraphics tg) {
+        tg.setForegroundColor(foreground);
+        tg.setBackgroundColor(background);
+        run.draw(tg, 0, 0);
+    }
+}
@@ -1,11 +1,11 @@
 package com.hakimi.road.ui;
 
 import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.BasicTextImage;
 import com.googlecode.lanterna.graphics.TextGraphics;
+import com.googlecode.lanterna.graphics.TextImage;
 import com.hakimi.road.system.Achievement;
-
-import java.util.LinkedList;
-import java.util.Queue;
+import com.hakimi.road.util.GameConfig;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -13,25 +13,129 @@ import org.apache.logging.log4j.Logger;
 /**
  * 通知系统
  * 负责管理和显示游戏内的通知（如成就解锁）
+ *
+ * 通知按优先级分道存放在定长环形缓冲区中，计时以模拟tick为单位；
+ * 相同的通知会合并为一条并累加计数，弹窗的字符单元在内容变化时才重建。
  */
 public class NotificationSystem {
     private static final Logger logger = LogManager.getLogger(NotificationSystem.class);
 
+    /**
+     * 通知优先级（每个优先级一条独立队列）
+     */
+    public enum Priority {
+        HIGH, // 游戏反馈（哈气、撞墙、过弯），可打断普通通知
+        NORMAL // 成就等普通通知
+    }
+
     private static class Notification {
         String title;
         String message;
         String icon;
-        long startTime;
-        long duration;
         TextColor color;
+        Priority priority;
+        int durationTicks;
+        int enqueueTick;
+        int startTick;
+        int count;
 
-        public Notification(String title, String message, String icon, long duration, TextColor color) {
+        void set(String title, String message, String icon, int durationTicks, TextColor color,
+                Priority priority, int tick) {
             this.title = title;
             this.message = message;
             this.icon = icon;
-            this.duration = duration;
+            this.durationTicks = durationTicks;
             this.color = color;
-            this.startTime = System.currentTimeMillis();
+            this.priority = priority;
+            this.enqueueTick = tick;
+            this.startTick = tick;
+            this.count = 1;
+        }
+
+        void copyFrom(Notification other) {
+            this.title = other.title;
+            this.message = other.message;
+            this.icon = other.icon;
+            this.durationTicks = other.durationTicks;
+            this.color = other.color;
+            this.priority = other.priority;
+            this.enqueueTick = other.enqueueTick;
+            this.startTick = other.startTick;
+            this.count = other.count;
+        }
+
+        boolean sameContent(String title, String message, String icon) {
+            return this.title.equals(title) && this.message.equals(message) && this.icon.equals(icon);
+        }
+    }
+
+    /**
+     * 定长环形队列，满了以后丢弃最旧的通知
+     */
+    private static class Lane {
+        private final Notification[] slots;
+        private int head;
+        private int size;
+
+        Lane(int capacity) {
+            slots = new Notification[capacity];
+            for (int i = 0; i < capacity; i++) {
+                slots[i] = new Notification();
+            }
+        }
+
+        Notification find(String title, String message, String icon) {
+            for (int i = 0; i < size; i++) {
+                Notification n = slots[(head + i) % slots.length];
+                if (n.sameContent(title, message, icon)) {
+                    return n;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * 返回队尾可写入的槽位，队列已满时覆盖最旧的通知
+         */
+        Notification offer() {
+            if (size == slots.length) {
+                logger.debug("通知队列已满，丢弃最旧通知: {}", slots[head].message);
+                head = (head + 1) % slots.length;
+                size--;
+            }
+            Notification slot = slots[(head + size) % slots.length];
+            size++;
+            return slot;
+        }
+
+        /**
+         * 把通知放回队首（被高优先级通知打断时使用），队列已满时丢弃队尾
+         */
+        void pushFront(Notification notification) {
+            if (size == slots.length) {
+                size--;
+            }
+            head = (head - 1 + slots.length) % slots.length;
+            slots[head].copyFrom(notification);
+            size++;
+        }
+
+        Notification peek() {
+            return size == 0 ? null : slots[head];
+        }
+
+        void drop() {
+            head = (head + 1) % slots.length;
+            size--;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            head = 0;
+            size = 0;
         }
     }
 
@@ -39,12 +143,30 @@ public class NotificationSystem {
     private TextColor screenFlashColor;
     private int screenFlashTimer;
 
-    private Queue<Notification> notificationQueue;
-    private Notification currentNotification;
     private static final long DEFAULT_DURATION = 4000; // 4秒
+    private static final int LANE_CAPACITY = 4;
+    private static final int MAX_DISPLAY_COUNT = 99;
+
+    // 弹窗尺寸
+    private static final int BOX_WIDTH = 30;
+    private static final int BOX_HEIGHT = 5;
+
+    private final Lane[] lanes;
+    private final Notification currentNotification;
+    private boolean hasCurrent;
+    private int tick;
+
+    // 当前弹窗的缓存字符单元，仅在通知或计数变化时重建；
+    // 每次重建生成新的图像，已经交给渲染线程的图像不会再被修改
+    private TextImage toastCells;
+    private boolean toastDirty;
 
     public NotificationSystem() {
-        this.notificationQueue = new LinkedList<>();
+        this.lanes = new Lane[Priority.values().length];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(LANE_CAPACITY);
+        }
+        this.currentNotification = new Notification();
         logger.debug("NotificationSystem初始化");
     }
 
@@ -78,50 +200,162 @@ public class NotificationSystem {
     }
 
     /**
-     * 添加通用通知
+     * 添加通用通知（普通优先级）
      */
     public void addNotification(String title, String message, String icon, long duration, TextColor color) {
-        notificationQueue.offer(new Notification(title, message, icon, duration, color));
+        addNotification(title, message, icon, duration, color, Priority.NORMAL);
+    }
+
+    /**
+     * 添加通用通知
+     *
+     * @param duration 显示时长（毫秒），内部换算为模拟tick
+     */
+    public void addNotification(String title, String message, String icon, long duration, TextColor color,
+            Priority priority) {
+        // 与正在显示的通知相同：累加计数并重新计时
+        if (hasCurrent && currentNotification.sameContent(title, message, icon)) {
+            currentNotification.count++;
+            currentNotification.startTick = tick;
+            toastDirty = true;
+            logger.trace("合并通知: {} x{}", message, currentNotification.count);
+            return;
+        }
+
+        // 与排队中的通知相同：累加计数
+        Lane lane = lanes[priority.ordinal()];
+        Notification queued = lane.find(title, message, icon);
+        if (queued != null) {
+            queued.count++;
+            queued.enqueueTick = tick;
+            logger.trace("合并排队通知: {} x{}", message, queued.count);
+            return;
+        }
+
+        lane.offer().set(title, message, icon, toTicks(duration), color, priority, tick);
         logger.debug("添加通知到队列: {}", message);
     }
 
     /**
-     * 更新通知状态
+     * 更新通知状态（每个模拟tick调用一次）
      */
     public void update() {
+        tick++;
+
         if (screenFlashTimer > 0) {
             screenFlashTimer--;
         }
 
-        if (currentNotification == null && !notificationQueue.isEmpty()) {
-            currentNotification = notificationQueue.poll();
-            currentNotification.startTime = System.currentTimeMillis();
-            logger.trace("显示通知: {}", currentNotification.message);
+        // 高优先级通知打断正在显示的低优先级通知
+        if (hasCurrent && currentNotification.priority != Priority.HIGH
+                && lanes[Priority.HIGH.ordinal()].size() > 0) {
+            logger.trace("通知被打断: {}", currentNotification.message);
+            lanes[currentNotification.priority.ordinal()].pushFront(currentNotification);
+            hasCurrent = false;
+        }
+
+        if (hasCurrent && tick - currentNotification.startTick > currentNotification.durationTicks) {
+            logger.trace("通知过期: {}", currentNotification.message);
+            hasCurrent = false;
+            toastDirty = true;
+        }
+
+        if (!hasCurrent) {
+            showNext();
         }
+    }
 
-        if (currentNotification != null) {
-            long currentTime = System.currentTimeMillis();
-            if (currentTime - currentNotification.startTime > currentNotification.duration) {
-                logger.trace("通知过期: {}", currentNotification.message);
-                currentNotification = null;
+    private void showNext() {
+        for (Lane lane : lanes) {
+            Notification next;
+            while ((next = lane.peek()) != null) {
+                lane.drop();
+                // 排队时间超过自身显示时长的通知已经过时，直接丢弃
+                if (tick - next.enqueueTick > next.durationTicks) {
+                    logger.trace("丢弃过时通知: {}", next.message);
+                    continue;
+                }
+                currentNotification.copyFrom(next);
+                currentNotification.startTick = tick;
+                hasCurrent = true;
+                toastDirty = true;
+                logger.trace("显示通知: {}", currentNotification.message);
+                return;
             }
         }
     }
 
+    /**
+     * 是否有正在显示的通知
+     */
+    public boolean hasActiveNotification() {
+        return hasCurrent;
+    }
+
+    /**
+     * 是否还有需要推进计时的通知（显示中、排队中或屏幕闪烁中）
+     */
+    public boolean hasPendingNotifications() {
+        return hasCurrent || getQueuedCount() > 0 || screenFlashTimer > 0;
+    }
+
+    /**
+     * 清空所有通知
+     */
+    public void clear() {
+        for (Lane lane : lanes) {
+            lane.clear();
+        }
+        hasCurrent = false;
+        toastDirty = true;
+        screenFlashTimer = 0;
+    }
+
     /**
      * 渲染通知
      */
-    public void render(TextGraphics tg, int screenWidth, int screenHeight) {
-        if (currentNotification == null) {
+    public void render(TextImage target, int screenWidth, int screenHeight) {
+        renderToast(target, screenWidth, screenHeight, getToastImage());
+    }
+
+    /**
+     * 把弹窗字符单元复制到屏幕右下角（不经过 TextGraphics，双宽字符不会被拆开）
+     */
+    public static void renderToast(TextImage target, int screenWidth, int screenHeight, TextImage toast) {
+        if (toast == null) {
             return;
         }
 
         // 绘制类似Steam的弹窗
         // 位置：右下角
-        int width = 30;
-        int height = 5;
-        int x = screenWidth - width - 2;
-        int y = screenHeight - height - 1;
+        int x = screenWidth - BOX_WIDTH - 2;
+        int y = screenHeight - BOX_HEIGHT - 1;
+
+        toast.copyTo(target, 0, BOX_HEIGHT, 0, BOX_WIDTH, y, x);
+    }
+
+    /**
+     * 获取当前弹窗的字符单元（仅在内容变化后重建），没有通知时返回null
+     */
+    public TextImage getToastImage() {
+        if (!hasCurrent) {
+            return null;
+        }
+        if (toastDirty || toastCells == null) {
+            BasicTextImage cells = new BasicTextImage(BOX_WIDTH, BOX_HEIGHT);
+            paintToast(cells.newTextGraphics());
+            toastCells = cells;
+            toastDirty = false;
+        }
+        return toastCells;
+    }
+
+    /**
+     * 绘制弹窗（只在内容变化时调用，文字按字形拆分，emoji图标不会被拆成两个代理字符）
+     */
+    private void paintToast(TextGraphics tg) {
+        int width = BOX_WIDTH;
+        int height = BOX_HEIGHT;
 
         // 绘制背景框
         tg.setBackgroundColor(TextColor.ANSI.BLUE);
@@ -129,30 +363,56 @@ public class NotificationSystem {
 
         // 填充背景
         for (int i = 0; i < height; i++) {
-            tg.drawLine(x, y + i, x + width - 1, y + i, ' ');
+            tg.drawLine(0, i, width - 1, i, ' ');
         }
 
         // 绘制边框
-        tg.drawLine(x, y, x + width - 1, y, '─');
-        tg.drawLine(x, y + height - 1, x + width - 1, y + height - 1, '─');
-        tg.drawLine(x, y, x, y + height - 1, '│');
-        tg.drawLine(x + width - 1, y, x + width - 1, y + height - 1, '│');
+        tg.drawLine(0, 0, width - 1, 0, '─');
+        tg.drawLine(0, height - 1, width - 1, height - 1, '─');
+        tg.drawLine(0, 0, 0, height - 1, '│');
+        tg.drawLine(width - 1, 0, width - 1, height - 1, '│');
 
         // 角落
-        tg.setCharacter(x, y, '┌');
-        tg.setCharacter(x + width - 1, y, '┐');
-        tg.setCharacter(x, y + height - 1, '└');
-        tg.setCharacter(x + width - 1, y + height - 1, '┘');
+        tg.setCharacter(0, 0, '┌');
+        tg.setCharacter(width - 1, 0, '┐');
+        tg.setCharacter(0, height - 1, '└');
+        tg.setCharacter(width - 1, height - 1, '┘');
 
         // 绘制图标
-        tg.putString(x + 2, y + 2, currentNotification.icon);
+        new TextRun(currentNotification.icon).draw(tg, 2, 2);
 
-        // 绘制标题
+        // 绘制标题（合并的通知显示计数）
         tg.setForegroundColor(currentNotification.color);
-        tg.putString(x + 6, y + 1, currentNotification.title);
+        new TextRun(currentNotification.title).draw(tg, 6, 1);
+        if (currentNotification.count > 1) {
+            int count = Math.min(currentNotification.count, MAX_DISPLAY_COUNT);
+            tg.setForegroundColor(TextColor.ANSI.YELLOW_BRIGHT);
+            tg.putString(width - 6, 1, "x" + count);
+        }
 
         // 绘制内容
         tg.setForegroundColor(TextColor.ANSI.WHITE);
-        tg.putString(x + 6, y + 3, currentNotification.message);
+        new TextRun(currentNotification.message).draw(tg, 6, 3);
+    }
+
+    private static int toTicks(long durationMs) {
+        return (int) Math.max(1, durationMs / GameConfig.GAME_LOOP_DELAY_MS);
+    }
+
+    // For Testing Only
+    String getCurrentMessage() {
+        return hasCurrent ? currentNotification.message : null;
+    }
+
+    int getCurrentCount() {
+        return hasCurrent ? currentNotification.count : 0;
+    }
+
+    int getQueuedCount() {
+        int total = 0;
+        for (Lane lane : lanes) {
+            total += lane.size();
+        }
+        return total;
     }
 }
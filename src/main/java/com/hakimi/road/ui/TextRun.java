@@ -0,0 +1,68 @@
+package com.hakimi.road.ui;
+
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.TextGraphics;
+
+/**
+ * 已测量的文字段
+ * 文字按字形（而不是UTF-16字符）拆分为字符单元并算好每个字形所在的列，
+ * 绘制时不再计算宽度；emoji、中文等双宽字符按显示宽度占两列。
+ */
+public final class TextRun {
+    private final String text;
+    private final TextCharacter[] glyphs;
+    private final int[] columns;
+    private final int width;
+
+    // 最近一次使用的颜色对应的字符单元
+    private TextColor coloredForeground;
+    private TextColor coloredBackground;
+    private TextCharacter[] colored;
+
+    public TextRun(String text) {
+        this.text = text;
+        this.glyphs = TextCharacter.fromString(text);
+        this.columns = new int[glyphs.length];
+        int column = 0;
+        for (int i = 0; i < glyphs.length; i++) {
+            columns[i] = column;
+            column += glyphs[i].isDoubleWidth() ? 2 : 1;
+        }
+        this.width = column;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * 显示宽度（列数）
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * 用 tg 当前的颜色把文字画在 (x, y)
+     */
+    public void draw(TextGraphics tg, int x, int y) {
+        TextCharacter[] cells = cellsFor(tg.getForegroundColor(), tg.getBackgroundColor());
+        for (int i = 0; i < cells.length; i++) {
+            tg.setCharacter(x + columns[i], y, cells[i]);
+        }
+    }
+
+    private TextCharacter[] cellsFor(TextColor foreground, TextColor background) {
+        if (colored == null || !foreground.equals(coloredForeground) || !background.equals(coloredBackground)) {
+            TextCharacter[] cells = new TextCharacter[glyphs.length];
+            for (int i = 0; i < glyphs.length; i++) {
+                cells[i] = glyphs[i].withForegroundColor(foreground).withBackgroundColor(background);
+            }
+            colored = cells;
+            coloredForeground = foreground;
+            coloredBackground = background;
+        }
+        return colored;
+    }
+}
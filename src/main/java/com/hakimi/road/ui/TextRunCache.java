@@ -0,0 +1,74 @@
+package com.hakimi.road.ui;
+
+import com.googlecode.lanterna.graphics.TextGraphics;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 文字段缓存
+ * 按字符串对象本身查找（常量文字每帧都是同一个对象），找不到时再按内容查找，
+ * 每段文字只测量一次；居中计算使用显示宽度而不是 String.length()。
+ * 不是线程安全的，每个渲染器持有自己的缓存。
+ */
+public class TextRunCache {
+    private static final int MAX_ENTRIES = 512;
+
+    private final Map<String, TextRun> byIdentity = new IdentityHashMap<>();
+    private final Map<String, TextRun> byContent = new HashMap<>();
+    private long measureCount;
+
+    /**
+     * 取得文字段，第一次出现时测量
+     */
+    public TextRun get(String text) {
+        TextRun run = byIdentity.get(text);
+        if (run != null) {
+            return run;
+        }
+        if (byIdentity.size() >= MAX_ENTRIES) {
+            // 动态拼接的文字每次都是新对象，超过上限时整体清空
+            byIdentity.clear();
+            byContent.clear();
+        }
+        run = byContent.get(text);
+        if (run == null) {
+            run = new TextRun(text);
+            byContent.put(text, run);
+            measureCount++;
+        }
+        byIdentity.put(text, run);
+        return run;
+    }
+
+    /**
+     * 文字的显示宽度（列数）
+     */
+    public int width(String text) {
+        return get(text).getWidth();
+    }
+
+    /**
+     * 使文字在 [0, width) 内居中的起始列
+     */
+    public int centerX(int width, String text) {
+        return width / 2 - get(text).getWidth() / 2;
+    }
+
+    public void draw(TextGraphics tg, int x, int y, String text) {
+        get(text).draw(tg, x, y);
+    }
+
+    public void drawCentered(TextGraphics tg, int width, int y, String text) {
+        TextRun run = get(text);
+        run.draw(tg, width / 2 - run.getWidth() / 2, y);
+    }
+
+    /**
+     * 累计测量文字的次数
+     */
+    public long getMeasureCount() {
+        return measureCount;
+    }
+}
@@ -0,0 +1,86 @@
+package com.hakimi.road.ui;
+
+import com.googlecode.lanterna.TerminalPosition;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.graphics.BasicTextImage;
+import com.googlecode.lanterna.graphics.TextGraphics;
+import com.googlecode.lanterna.graphics.TextImage;
+
+/**
+ * 保留模式的界面元素
+ * 每个元素持有自己的字符单元，只有显示的值变化（标记为脏）时才重新绘制这些单元，
+ * 其余帧由 WidgetLayer 直接把缓存的单元复制到（每帧重画的）帧缓冲。
+ */
+public abstract class Widget {
+    private TerminalPosition position = TerminalPosition.TOP_LEFT_CORNER;
+    private boolean visible = true;
+    private boolean dirty = true;
+    private BasicTextImage cells;
+
+    /**
+     * 设置左上角位置（移动位置不需要重绘单元）
+     */
+    public void setPosition(int x, int y) {
+        if (position.getColumn() != x || position.getRow() != y) {
+            position = new TerminalPosition(x, y);
+        }
+    }
+
+    public TerminalPosition getPosition() {
+        return position;
+    }
+
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * 显示的值发生变化，下次合成时重绘
+     */
+    protected void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * 元素占用的尺寸（列数按显示宽度计算）
+     */
+    protected abstract TerminalSize measure();
+
+    /**
+     * 把元素绘制到自己的单元中（左上角为原点）
+     */
+    protected abstract void paint(TextGraphics tg);
+
+    /**
+     * 需要时重绘单元
+     *
+     * @return 是否重绘了
+     */
+    boolean refresh() {
+        if (!dirty && cells != null) {
+            return false;
+        }
+        TerminalSize size = measure();
+        if (cells == null || !cells.getSize().equals(size)) {
+            cells = new BasicTextImage(size);
+        } else {
+            cells.setAll(TextCharacter.DEFAULT_CHARACTER);
+        }
+        paint(cells.newTextGraphics());
+        dirty = false;
+        return true;
+    }
+
+    TextImage getCells() {
+        return cells;
+    }
+}
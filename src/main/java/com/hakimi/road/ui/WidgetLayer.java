@@ -0,0 +1,51 @@
+package com.hakimi.road.ui;
+
+import com.googlecode.lanterna.graphics.TextImage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 界面元素合成层
+ * 帧缓冲每帧随道路整体重画，因此每帧都按添加顺序把所有可见元素的缓存单元复制上去；
+ * 脏标记只决定元素是否重新绘制自己的单元，值不变的元素每帧只花一次单元复制，
+ * 这些单元与上一帧相同，输出阶段按差异写终端时不会再输出它们。
+ */
+public class WidgetLayer {
+    private final List<Widget> widgets = new ArrayList<>();
+    private long repaintCount;
+
+    /**
+     * 添加元素（后添加的在上层）
+     */
+    public <T extends Widget> T add(T widget) {
+        widgets.add(widget);
+        return widget;
+    }
+
+    /**
+     * 把所有可见元素合成到本帧已画好背景的帧缓冲（每帧都要调用，脏元素先重绘自己的单元）
+     * 直接复制单元而不经过 TextGraphics，双宽字符和它的后半格保持原样
+     */
+    public void compose(TextImage target) {
+        for (int i = 0; i < widgets.size(); i++) {
+            Widget widget = widgets.get(i);
+            if (!widget.isVisible()) {
+                continue;
+            }
+            if (widget.refresh()) {
+                repaintCount++;
+            }
+            TextImage cells = widget.getCells();
+            cells.copyTo(target, 0, cells.getSize().getRows(), 0, cells.getSize().getColumns(),
+                    widget.getPosition().getRow(), widget.getPosition().getColumn());
+        }
+    }
+
+    /**
+     * 累计重绘元素的次数
+     */
+    public long getRepaintCount() {
+        return repaintCount;
+    }
+}
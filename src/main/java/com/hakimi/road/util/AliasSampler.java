@@ -0,0 +1,91 @@
+package com.hakimi.road.util;
+
+import java.util.Random;
+
+/**
+ * 别名法（Vose）加权抽样
+ * 构造时把权重整理成概率表和别名表，之后每次抽样只需一次随机下标和一次比较，
+ * 与类别数量无关。构造后不可变，可以在多个线程间共享（Random 由调用方提供）。
+ */
+public class AliasSampler {
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * @param weights 各类别的权重（非负，总和大于0）
+     */
+    public AliasSampler(double[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("权重表不能为空");
+        }
+        double total = 0;
+        for (double weight : weights) {
+            if (weight < 0 || Double.isNaN(weight) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("权重必须是非负有限数: " + weight);
+            }
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("权重总和必须大于0");
+        }
+
+        this.probability = new double[n];
+        this.alias = new int[n];
+
+        // 按平均值缩放后分成不足1和超过1的两组
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        // 每个不足1的格子用一个超过1的类别补满
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // 剩下的格子（含浮点误差留下的）概率取1
+        while (largeCount > 0) {
+            int index = large[--largeCount];
+            probability[index] = 1.0;
+            alias[index] = index;
+        }
+        while (smallCount > 0) {
+            int index = small[--smallCount];
+            probability[index] = 1.0;
+            alias[index] = index;
+        }
+    }
+
+    /**
+     * 按权重抽取一个类别的下标
+     */
+    public int sample(Random random) {
+        int index = random.nextInt(probability.length);
+        return random.nextDouble() < probability[index] ? index : alias[index];
+    }
+
+    /**
+     * 类别数量
+     */
+    public int size() {
+        return probability.length;
+    }
+}
@@ -0,0 +1,98 @@
+package com.hakimi.road.util;
+
+/**
+ * 对数-线性延迟直方图
+ * 每个2的幂区间再线性细分为32个桶（相对误差约3%），记录时不分配内存。
+ * 非线程安全：只允许一个线程写入。
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final long[] counts;
+    private long totalCount;
+    private long totalValue;
+    private long maxValue;
+
+    public LatencyHistogram() {
+        this.counts = new long[BUCKET_COUNT];
+    }
+
+    /**
+     * 记录一个值（负数按0处理）
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[bucketIndex(value)]++;
+        totalCount++;
+        totalValue += value;
+        if (value > maxValue) {
+            maxValue = value;
+        }
+    }
+
+    /**
+     * 获取指定百分位的值（所在桶的上界）
+     *
+     * @param percentile 0-100
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(totalCount * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+        target = Math.max(1, target);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(bucketUpperBound(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getMax() {
+        return maxValue;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : (double) totalValue / totalCount;
+    }
+
+    /**
+     * 清空所有记录
+     */
+    public void reset() {
+        java.util.Arrays.fill(counts, 0);
+        totalCount = 0;
+        totalValue = 0;
+        maxValue = 0;
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >> SUB_BUCKET_BITS) - 1;
+        long sub = index & (SUB_BUCKET_COUNT - 1);
+        long lower = (SUB_BUCKET_COUNT + sub) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -49,63 +49,10 @@ public class SaveManager {
                 saveName, saveData.score, saveData.distance);
         try {
             Path saveFile = Paths.get(SAVE_DIR, saveName + ".save");
-            Properties props = new Properties();
-
-            // 保存玩家数据
-            props.setProperty("player.lane", String.valueOf(saveData.playerLane));
-            props.setProperty("player.y", String.valueOf(saveData.playerY));
-            props.setProperty("player.state", saveData.playerState);
-            props.setProperty("player.stateTimer", String.valueOf(saveData.playerStateTimer));
-            props.setProperty("player.driedFishCount", String.valueOf(saveData.driedFishCount));
-            props.setProperty("player.hasHagenAbility", String.valueOf(saveData.hasHagenAbility));
-
-            // 保存追逐者数据
-            props.setProperty("chaser.y", String.valueOf(saveData.chaserY));
-            props.setProperty("chaser.animationTick", String.valueOf(saveData.chaserAnimationTick));
-
-            // 保存游戏状态
-            props.setProperty("game.speed", String.valueOf(saveData.gameSpeed));
-            props.setProperty("game.hitCount", String.valueOf(saveData.hitCount));
-            props.setProperty("game.chaserVisibleTimer", String.valueOf(saveData.chaserVisibleTimer));
-            props.setProperty("game.chaserAwakened", String.valueOf(saveData.chaserAwakened));
-            props.setProperty("game.caughtByChaser", String.valueOf(saveData.caughtByChaser));
-
-            // 保存分数系统
-            props.setProperty("score.score", String.valueOf(saveData.score));
-            props.setProperty("score.distance", String.valueOf(saveData.distance));
-            props.setProperty("score.combo", String.valueOf(saveData.combo));
-
-            // 保存障碍物
-            props.setProperty("obstacles.count", String.valueOf(saveData.obstacles.size()));
-            for (int i = 0; i < saveData.obstacles.size(); i++) {
-                ObstacleData obs = saveData.obstacles.get(i);
-                props.setProperty("obstacle." + i + ".lane", String.valueOf(obs.lane));
-                props.setProperty("obstacle." + i + ".y", String.valueOf(obs.y));
-                props.setProperty("obstacle." + i + ".type", String.valueOf(obs.type));
-                props.setProperty("obstacle." + i + ".type", String.valueOf(obs.type));
-            }
-
-            // 保存道具
-            props.setProperty("items.count", String.valueOf(saveData.items.size()));
-            for (int i = 0; i < saveData.items.size(); i++) {
-                ItemData item = saveData.items.get(i);
-                props.setProperty("item." + i + ".lane", String.valueOf(item.lane));
-                props.setProperty("item." + i + ".y", String.valueOf(item.y));
-                props.setProperty("item." + i + ".type", item.type);
-            }
-
+            Properties props = toProperties(saveData);
             // 保存时间戳
             props.setProperty("save.timestamp", String.valueOf(System.currentTimeMillis()));
 
-            // 保存成就
-            if (saveData.unlockedAchievements != null) {
-                props.setProperty("achievements.count", String.valueOf(saveData.unlockedAchievements.size()));
-                for (int i = 0; i < saveData.unlockedAchievements.size(); i++) {
-                    props.setProperty("achievement." + i, saveData.unlockedAchievements.get(i));
-                }
-                logger.debug("保存了{}个成就", saveData.unlockedAchievements.size());
-            }
-
             try (OutputStream output = Files.newOutputStream(saveFile)) {
                 props.store(output, "游戏存档 - " + saveName);
             }
@@ -134,68 +81,10 @@ public class SaveManager {
                 props.load(input);
             }
 
-            GameSaveData saveData = new GameSaveData();
-
-            // 加载玩家数据
-            saveData.playerLane = Integer.parseInt(props.getProperty("player.lane", "1"));
-            saveData.playerY = Integer.parseInt(props.getProperty("player.y", "0"));
-            saveData.playerState = props.getProperty("player.state", "NORMAL");
-            saveData.playerStateTimer = Integer.parseInt(props.getProperty("player.stateTimer", "0"));
-            saveData.driedFishCount = Integer.parseInt(props.getProperty("player.driedFishCount", "0"));
-            saveData.hasHagenAbility = Boolean.parseBoolean(props.getProperty("player.hasHagenAbility", "false"));
-
-            // 加载追逐者数据
-            saveData.chaserY = Integer.parseInt(props.getProperty("chaser.y", "0"));
-            saveData.chaserAnimationTick = Integer.parseInt(props.getProperty("chaser.animationTick", "0"));
-
-            // 加载游戏状态
-            saveData.gameSpeed = Integer.parseInt(props.getProperty("game.speed", "1"));
-            saveData.hitCount = Integer.parseInt(props.getProperty("game.hitCount", "0"));
-            saveData.chaserVisibleTimer = Integer.parseInt(props.getProperty("game.chaserVisibleTimer", "0"));
-            saveData.chaserAwakened = Boolean.parseBoolean(props.getProperty("game.chaserAwakened", "false"));
-            saveData.caughtByChaser = Boolean.parseBoolean(props.getProperty("game.caughtByChaser", "false"));
-
-            // 加载分数系统
-            saveData.score = Integer.parseInt(props.getProperty("score.score", "0"));
-            saveData.distance = Integer.parseInt(props.getProperty("score.distance", "0"));
-            saveData.combo = Integer.parseInt(props.getProperty("score.combo", "0"));
-
-            // 加载障碍物
-            int obstacleCount = Integer.parseInt(props.getProperty("obstacles.count", "0"));
-            saveData.obstacles = new ArrayList<>();
-            for (int i = 0; i < obstacleCount; i++) {
-                ObstacleData obs = new ObstacleData();
-                obs.lane = Integer.parseInt(props.getProperty("obstacle." + i + ".lane", "0"));
-                obs.y = Integer.parseInt(props.getProperty("obstacle." + i + ".y", "0"));
-                obs.type = Integer.parseInt(props.getProperty("obstacle." + i + ".type", "0"));
-                saveData.obstacles.add(obs);
-            }
-
-            // 加载道具
-            int itemCount = Integer.parseInt(props.getProperty("items.count", "0"));
-            saveData.items = new ArrayList<>();
-            for (int i = 0; i < itemCount; i++) {
-                ItemData item = new ItemData();
-                item.lane = Integer.parseInt(props.getProperty("item." + i + ".lane", "0"));
-                item.y = Integer.parseInt(props.getProperty("item." + i + ".y", "0"));
-                item.type = props.getProperty("item." + i + ".type", "DRIED_FISH");
-                saveData.items.add(item);
-            }
-
-            saveData.timestamp = Long.parseLong(props.getProperty("save.timestamp", "0"));
-
-            // 加载成就
-            int achievementCount = Integer.parseInt(props.getProperty("achievements.count", "0"));
-            saveData.unlockedAchievements = new ArrayList<>();
-            for (int i = 0; i < achievementCount; i++) {
-                String achievementId = props.getProperty("achievement." + i);
-                if (achievementId != null) {
-                    saveData.unlockedAchievements.add(achievementId);
-                }
-            }
+            GameSaveData saveData = fromProperties(props);
 
             logger.info("游戏加载成功: {}, score={}, distance={}, obstacles={}",
-                    saveName, saveData.score, saveData.distance, obstacleCount);
+                    saveName, saveData.score, saveData.distance, saveData.obstacles.size());
             return saveData;
         } catch (IOException | NumberFormatException e) {
             logger.error("加载游戏失败: {}", saveName, e);
@@ -203,6 +92,149 @@ public class SaveManager {
         }
     }
 
+    /**
+     * 把存档数据写成属性表（不含时间戳），与存档文件的格式相同
+     */
+    public static Properties toProperties(GameSaveData saveData) {
+        Properties props = new Properties();
+
+        // 保存玩家数据
+        props.setProperty("player.lane", String.valueOf(saveData.playerLane));
+        props.setProperty("player.y", String.valueOf(saveData.playerY));
+        props.setProperty("player.state", saveData.playerState);
+        props.setProperty("player.stateTimer", String.valueOf(saveData.playerStateTimer));
+        props.setProperty("player.driedFishCount", String.valueOf(saveData.driedFishCount));
+        props.setProperty("player.hasHagenAbility", String.valueOf(saveData.hasHagenAbility));
+        props.setProperty("player.invincibilityTimer", String.valueOf(saveData.invincibilityTimer));
+
+        // 保存追逐者数据
+        props.setProperty("chaser.y", String.valueOf(saveData.chaserY));
+        props.setProperty("chaser.animationTick", String.valueOf(saveData.chaserAnimationTick));
+
+        // 保存游戏状态
+        props.setProperty("game.speed", String.valueOf(saveData.gameSpeed));
+        props.setProperty("game.hitCount", String.valueOf(saveData.hitCount));
+        props.setProperty("game.chaserVisibleTimer", String.valueOf(saveData.chaserVisibleTimer));
+        props.setProperty("game.chaserAwakened", String.valueOf(saveData.chaserAwakened));
+        props.setProperty("game.caughtByChaser", String.valueOf(saveData.caughtByChaser));
+        props.setProperty("game.tickCounter", String.valueOf(saveData.tickCounter));
+
+        // 保存赛道（读档时用种子重建到存档距离）
+        if (saveData.trackSeed != null) {
+            props.setProperty("track.seed", String.valueOf(saveData.trackSeed));
+        }
+        props.setProperty("track.turnCompleted", String.valueOf(saveData.turnCompleted));
+
+        // 保存分数系统
+        props.setProperty("score.score", String.valueOf(saveData.score));
+        props.setProperty("score.distance", String.valueOf(saveData.distance));
+        props.setProperty("score.combo", String.valueOf(saveData.combo));
+
+        // 保存障碍物
+        props.setProperty("obstacles.count", String.valueOf(saveData.obstacles.size()));
+        for (int i = 0; i < saveData.obstacles.size(); i++) {
+            ObstacleData obs = saveData.obstacles.get(i);
+            props.setProperty("obstacle." + i + ".lane", String.valueOf(obs.lane));
+            props.setProperty("obstacle." + i + ".y", String.valueOf(obs.y));
+            props.setProperty("obstacle." + i + ".type", String.valueOf(obs.type));
+            props.setProperty("obstacle." + i + ".type", String.valueOf(obs.type));
+        }
+
+        // 保存道具
+        props.setProperty("items.count", String.valueOf(saveData.items.size()));
+        for (int i = 0; i < saveData.items.size(); i++) {
+            ItemData item = saveData.items.get(i);
+            props.setProperty("item." + i + ".lane", String.valueOf(item.lane));
+            props.setProperty("item." + i + ".y", String.valueOf(item.y));
+            props.setProperty("item." + i + ".type", item.type);
+        }
+
+        // 保存成就
+        if (saveData.unlockedAchievements != null) {
+            props.setProperty("achievements.count", String.valueOf(saveData.unlockedAchievements.size()));
+            for (int i = 0; i < saveData.unlockedAchievements.size(); i++) {
+                props.setProperty("achievement." + i, saveData.unlockedAchievements.get(i));
+            }
+            logger.debug("保存了{}个成就", saveData.unlockedAchievements.size());
+        }
+        return props;
+    }
+
+    /**
+     * 从属性表读出存档数据，缺少的字段取默认值
+     *
+     * @throws NumberFormatException 数值字段格式错误
+     */
+    public static GameSaveData fromProperties(Properties props) {
+        GameSaveData saveData = new GameSaveData();
+
+        // 加载玩家数据
+        saveData.playerLane = Integer.parseInt(props.getProperty("player.lane", "1"));
+        saveData.playerY = Integer.parseInt(props.getProperty("player.y", "0"));
+        saveData.playerState = props.getProperty("player.state", "NORMAL");
+        saveData.playerStateTimer = Integer.parseInt(props.getProperty("player.stateTimer", "0"));
+        saveData.driedFishCount = Integer.parseInt(props.getProperty("player.driedFishCount", "0"));
+        saveData.hasHagenAbility = Boolean.parseBoolean(props.getProperty("player.hasHagenAbility", "false"));
+        saveData.invincibilityTimer = Integer.parseInt(props.getProperty("player.invincibilityTimer", "0"));
+
+        // 加载追逐者数据
+        saveData.chaserY = Integer.parseInt(props.getProperty("chaser.y", "0"));
+        saveData.chaserAnimationTick = Integer.parseInt(props.getProperty("chaser.animationTick", "0"));
+
+        // 加载游戏状态
+        saveData.gameSpeed = Integer.parseInt(props.getProperty("game.speed", "1"));
+        saveData.hitCount = Integer.parseInt(props.getProperty("game.hitCount", "0"));
+        saveData.chaserVisibleTimer = Integer.parseInt(props.getProperty("game.chaserVisibleTimer", "0"));
+        saveData.chaserAwakened = Boolean.parseBoolean(props.getProperty("game.chaserAwakened", "false"));
+        saveData.caughtByChaser = Boolean.parseBoolean(props.getProperty("game.caughtByChaser", "false"));
+        saveData.tickCounter = Integer.parseInt(props.getProperty("game.tickCounter", "0"));
+
+        // 加载赛道（旧存档没有种子）
+        String trackSeed = props.getProperty("track.seed");
+        saveData.trackSeed = trackSeed != null ? Long.valueOf(trackSeed) : null;
+        saveData.turnCompleted = Boolean.parseBoolean(props.getProperty("track.turnCompleted", "false"));
+
+        // 加载分数系统
+        saveData.score = Integer.parseInt(props.getProperty("score.score", "0"));
+        saveData.distance = Integer.parseInt(props.getProperty("score.distance", "0"));
+        saveData.combo = Integer.parseInt(props.getProperty("score.combo", "0"));
+
+        // 加载障碍物
+        int obstacleCount = Integer.parseInt(props.getProperty("obstacles.count", "0"));
+        saveData.obstacles = new ArrayList<>();
+        for (int i = 0; i < obstacleCount; i++) {
+            ObstacleData obs = new ObstacleData();
+            obs.lane = Integer.parseInt(props.getProperty("obstacle." + i + ".lane", "0"));
+            obs.y = Integer.parseInt(props.getProperty("obstacle." + i + ".y", "0"));
+            obs.type = Integer.parseInt(props.getProperty("obstacle." + i + ".type", "0"));
+            saveData.obstacles.add(obs);
+        }
+
+        // 加载道具
+        int itemCount = Integer.parseInt(props.getProperty("items.count", "0"));
+        saveData.items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            ItemData item = new ItemData();
+            item.lane = Integer.parseInt(props.getProperty("item." + i + ".lane", "0"));
+            item.y = Integer.parseInt(props.getProperty("item." + i + ".y", "0"));
+            item.type = props.getProperty("item." + i + ".type", "DRIED_FISH");
+            saveData.items.add(item);
+        }
+
+        saveData.timestamp = Long.parseLong(props.getProperty("save.timestamp", "0"));
+
+        // 加载成就
+        int achievementCount = Integer.parseInt(props.getProperty("achievements.count", "0"));
+        saveData.unlockedAchievements = new ArrayList<>();
+        for (int i = 0; i < achievementCount; i++) {
+            String achievementId = props.getProperty("achievement." + i);
+            if (achievementId != null) {
+                saveData.unlockedAchievements.add(achievementId);
+            }
+        }
+        return saveData;
+    }
+
     /**
      * 获取所有存档列表
      */
@@ -275,6 +307,7 @@ public class SaveManager {
         public int playerStateTimer;
         public int driedFishCount;
         public boolean hasHagenAbility;
+        public int invincibilityTimer;
 
         public int chaserY;
         public int chaserAnimationTick;
@@ -284,6 +317,11 @@ public class SaveManager {
         public int chaserVisibleTimer;
         public boolean chaserAwakened;
         public boolean caughtByChaser;
+        public int tickCounter;
+
+        // 赛道种子（旧存档为 null）和当前急转弯是否已完成
+        public Long trackSeed;
+        public boolean turnCompleted;
 
         public int score;
         public int distance;
@@ -27,7 +27,10 @@ public class SettingsManager {
     private static final int DEFAULT_OBSTACLE_SPAWN_RATE = 10;
     private static final int DEFAULT_SPEED_INCREASE_INTERVAL = 50;
     private static final int DEFAULT_GAME_LOOP_DELAY_MS = 100;
-    private static final int DEFAULT_DISPLAY_MODE = 0; // 0=Auto, 1=Swing, 2=Console
+    private static final int DEFAULT_DISPLAY_MODE = 0; // 0=Auto, 1=Swing, 2=Console, 3=Low bandwidth console
+    private static final boolean DEFAULT_SCROLL_RENDERING = true;
+    private static final boolean DEFAULT_LOW_BANDWIDTH_MONOCHROME = false;
+    private static final boolean DEFAULT_ATTRACT_MODE = false;
 
     private SettingsManager() {
         settings = new Properties();
@@ -98,6 +101,9 @@ public class SettingsManager {
         settings.setProperty("speedIncreaseInterval", String.valueOf(DEFAULT_SPEED_INCREASE_INTERVAL));
         settings.setProperty("gameLoopDelayMs", String.valueOf(DEFAULT_GAME_LOOP_DELAY_MS));
         settings.setProperty("displayMode", String.valueOf(DEFAULT_DISPLAY_MODE));
+        settings.setProperty("scrollRendering", String.valueOf(DEFAULT_SCROLL_RENDERING));
+        settings.setProperty("lowBandwidthMonochrome", String.valueOf(DEFAULT_LOW_BANDWIDTH_MONOCHROME));
+        settings.setProperty("attractMode", String.valueOf(DEFAULT_ATTRACT_MODE));
         logger.debug("应用默认设置");
     }
 
@@ -141,7 +147,7 @@ public class SettingsManager {
 
     /**
      * 获取显示模式
-     * 0=Auto, 1=Swing, 2=Console
+     * 0=Auto, 1=Swing, 2=Console, 3=Low bandwidth console
      */
     public int getDisplayMode() {
         return Integer.parseInt(settings.getProperty("displayMode", String.valueOf(DEFAULT_DISPLAY_MODE)));
@@ -149,13 +155,51 @@ public class SettingsManager {
 
     /**
      * 设置显示模式
-     * 0=Auto, 1=Swing, 2=Console
+     * 0=Auto, 1=Swing, 2=Console, 3=Low bandwidth console
      */
     public void setDisplayMode(int mode) {
         settings.setProperty("displayMode", String.valueOf(mode));
         logger.debug("更新显示模式: {}", mode);
     }
 
+    /**
+     * 是否使用终端滚动区域输出道路（只补画新出现的行和移动的物体）
+     */
+    public boolean isScrollRendering() {
+        return Boolean.parseBoolean(
+                settings.getProperty("scrollRendering", String.valueOf(DEFAULT_SCROLL_RENDERING)));
+    }
+
+    public void setScrollRendering(boolean enabled) {
+        settings.setProperty("scrollRendering", String.valueOf(enabled));
+        logger.debug("更新滚动渲染: {}", enabled);
+    }
+
+    /**
+     * 低带宽终端模式下是否只输出单色（否则降为基本8色）
+     */
+    public boolean isLowBandwidthMonochrome() {
+        return Boolean.parseBoolean(settings.getProperty("lowBandwidthMonochrome",
+                String.valueOf(DEFAULT_LOW_BANDWIDTH_MONOCHROME)));
+    }
+
+    public void setLowBandwidthMonochrome(boolean monochrome) {
+        settings.setProperty("lowBandwidthMonochrome", String.valueOf(monochrome));
+        logger.debug("更新低带宽单色输出: {}", monochrome);
+    }
+
+    /**
+     * 菜单闲置时是否进入自动驾驶演示
+     */
+    public boolean isAttractMode() {
+        return Boolean.parseBoolean(settings.getProperty("attractMode", String.valueOf(DEFAULT_ATTRACT_MODE)));
+    }
+
+    public void setAttractMode(boolean enabled) {
+        settings.setProperty("attractMode", String.valueOf(enabled));
+        logger.debug("更新演示模式: {}", enabled);
+    }
+
     /**
      * 重置为默认设置
      */
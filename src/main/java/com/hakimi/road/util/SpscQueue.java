@@ -0,0 +1,69 @@
+package com.hakimi.road.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单生产者单消费者的有界无锁队列
+ * 只允许一个线程 offer、一个线程 poll；两端各自只写自己的下标，
+ * 写入元素后再发布下标（lazySet），另一端读到新下标时一定能看到元素。
+ */
+public class SpscQueue<T> {
+    private final Object[] buffer;
+    private final int mask;
+    // 下一个要读的位置（消费者写）
+    private final AtomicLong head = new AtomicLong();
+    // 下一个要写的位置（生产者写）
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity 容量，向上取整到2的幂
+     */
+    public SpscQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("容量必须大于0: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.buffer = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * 放入元素（只能由生产者调用），队列已满时返回 false
+     */
+    public boolean offer(T value) {
+        long t = tail.get();
+        if (t - head.get() == buffer.length) {
+            return false;
+        }
+        buffer[(int) t & mask] = value;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * 取出元素（只能由消费者调用），队列为空时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long h = head.get();
+        if (h == tail.get()) {
+            return null;
+        }
+        int index = (int) h & mask;
+        T value = (T) buffer[index];
+        buffer[index] = null;
+        head.lazySet(h + 1);
+        return value;
+    }
+
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+}
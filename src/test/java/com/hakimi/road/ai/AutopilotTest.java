@@ -0,0 +1,84 @@
+package com.hakimi.road.ai;
+
+import com.hakimi.road.engine.GameEngine;
+import com.hakimi.road.entity.Obstacle;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AutopilotTest {
+
+    private static GameEngine startAtLogicFrame() {
+        GameEngine engine = new GameEngine(null);
+        engine.setUnattended(true);
+        engine.startGame(1);
+        if (!engine.isLogicTickNext()) {
+            engine.update();
+        }
+        engine.getObstacles().clear();
+        engine.getItems().clear();
+        return engine;
+    }
+
+    /**
+     * 下一个逻辑帧正好撞到玩家的 y
+     */
+    private static int hitNextTick(GameEngine engine) {
+        int playerY = engine.getPlayer().calculateY(engine.getScreenRows());
+        return playerY - 3 - engine.getGameSpeed();
+    }
+
+    @Test
+    public void testJumpsOverLowRow() {
+        GameEngine engine = startAtLogicFrame();
+        for (int lane = 0; lane < 3; lane++) {
+            engine.getObstacles().add(new Obstacle(lane, hitNextTick(engine), 0));
+        }
+        List<Action> actions = new Autopilot().decide(engine);
+        assertTrue(actions.contains(Action.JUMP), actions.toString());
+    }
+
+    @Test
+    public void testSlidesUnderHighRow() {
+        GameEngine engine = startAtLogicFrame();
+        for (int lane = 0; lane < 3; lane++) {
+            engine.getObstacles().add(new Obstacle(lane, hitNextTick(engine), 1));
+        }
+        List<Action> actions = new Autopilot().decide(engine);
+        assertTrue(actions.contains(Action.SLIDE), actions.toString());
+    }
+
+    @Test
+    public void testPrefersLaneChangeAndKeepsStillWhenClear() {
+        GameEngine engine = startAtLogicFrame();
+        Autopilot autopilot = new Autopilot();
+        assertTrue(autopilot.decide(engine).isEmpty());
+
+        // 低障碍物后面紧跟高障碍物：跳过去会在空中撞上，只能换道
+        engine.getObstacles().add(new Obstacle(1, hitNextTick(engine), 0));
+        engine.getObstacles().add(new Obstacle(1, hitNextTick(engine) - 6, 1));
+        List<Action> actions = autopilot.decide(engine);
+        assertEquals(1, actions.size(), actions.toString());
+        assertTrue(actions.get(0) == Action.MOVE_LEFT || actions.get(0) == Action.MOVE_RIGHT);
+    }
+
+    @Test
+    public void testPlaysEarlyGameWithoutHits() {
+        for (long seed = 1; seed <= 3; seed++) {
+            GameEngine engine = new GameEngine(null);
+            engine.setUnattended(true);
+            engine.startGame(seed);
+            Autopilot autopilot = new Autopilot();
+            int health = engine.getPlayer().getHealth();
+            // 速度不太高时屏幕上的障碍物都来得及躲
+            while (engine.getGameSpeed() < 10) {
+                autopilot.control(engine);
+                engine.update();
+                assertEquals(health, engine.getPlayer().getHealth(),
+                        "seed " + seed + " distance " + engine.getScoreSystem().getDistance());
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.hakimi.road.ai;
+
+import com.hakimi.road.engine.GameEngine;
+import com.hakimi.road.entity.Obstacle;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchEnvironmentTest {
+
+    @Test
+    public void testResetWritesInitialObservations() {
+        BatchEnvironment env = new BatchEnvironment(4, 1);
+        float[] obs = env.reset();
+        assertSame(obs, env.getObservations());
+        assertEquals(4 * BatchEnvironment.OBSERVATION_SIZE, obs.length);
+        for (int i = 0; i < 4; i++) {
+            int base = i * BatchEnvironment.OBSERVATION_SIZE;
+            assertEquals(1, obs[base + BatchEnvironment.OBS_LANE]);
+            assertEquals(0, obs[base + BatchEnvironment.OBS_STATE]);
+            assertEquals(1, obs[base + BatchEnvironment.OBS_SPEED]);
+            assertEquals(env.getEngine(i).getPlayer().getMaxHealth(), obs[base + BatchEnvironment.OBS_HEALTH]);
+            assertTrue(env.getEngine(i).isLogicTickNext());
+        }
+    }
+
+    @Test
+    public void testStepAppliesActionsAndAdvancesOneTick() {
+        BatchEnvironment env = new BatchEnvironment(3, 2);
+        env.reset();
+        int[] actions = { Action.MOVE_LEFT.ordinal(), Action.JUMP.ordinal(), Action.NONE.ordinal() };
+        env.step(actions);
+        float[] obs = env.getObservations();
+        int size = BatchEnvironment.OBSERVATION_SIZE;
+        assertEquals(0, obs[BatchEnvironment.OBS_LANE]);
+        assertEquals(1, obs[size + BatchEnvironment.OBS_STATE]);
+        assertEquals(1, obs[2 * size + BatchEnvironment.OBS_LANE]);
+        for (int i = 0; i < 3; i++) {
+            // 一步一个逻辑帧，速度为1
+            assertEquals(1f, env.getRewards()[i]);
+            assertFalse(env.getDones()[i]);
+            assertEquals(1, env.getEngine(i).getScoreSystem().getDistance());
+            assertTrue(env.getEngine(i).isLogicTickNext());
+        }
+        assertThrows(IllegalArgumentException.class, () -> env.step(new int[] { 0, 0 }));
+        assertThrows(IllegalArgumentException.class, () -> env.step(new int[] { 0, 0, BatchEnvironment.ACTION_COUNT }));
+    }
+
+    @Test
+    public void testGridShowsObstacles() {
+        BatchEnvironment env = new BatchEnvironment(1, 3);
+        env.reset();
+        GameEngine engine = env.getEngine(0);
+        engine.getObstacles().clear();
+        engine.getItems().clear();
+        engine.getObstacles().add(new Obstacle(2, 10, 1));
+        env.step(new int[] { 0 });
+        int y = engine.getObstacles().stream().filter(o -> o.getLane() == 2 && o.getType() == 1)
+                .mapToInt(Obstacle::getY).max().getAsInt();
+        int row = y * BatchEnvironment.GRID_ROWS / engine.getScreenRows();
+        float[] obs = env.getObservations();
+        assertEquals(BatchEnvironment.CELL_HIGH,
+                obs[BatchEnvironment.OBS_GRID + row * BatchEnvironment.GRID_LANES + 2]);
+    }
+
+    @Test
+    public void testSameSeedAndActionsGiveSameObservations() {
+        BatchEnvironment a = new BatchEnvironment(2, 9);
+        BatchEnvironment b = new BatchEnvironment(2, 9);
+        a.reset();
+        b.reset();
+        int[] actions = new int[2];
+        for (int t = 0; t < 500; t++) {
+            actions[0] = t % BatchEnvironment.ACTION_COUNT;
+            actions[1] = (t / 7) % BatchEnvironment.ACTION_COUNT;
+            a.step(actions);
+            b.step(actions);
+            assertArrayEquals(a.getObservations(), b.getObservations(), "step " + t);
+            assertArrayEquals(a.getRewards(), b.getRewards());
+        }
+    }
+
+    @Test
+    public void testGameOverResetsAutomatically() {
+        BatchEnvironment env = new BatchEnvironment(1, 4);
+        env.reset();
+        GameEngine engine = env.getEngine(0);
+        int[] actions = { Action.NONE.ordinal() };
+        for (int t = 0; t < 20; t++) {
+            env.step(actions);
+        }
+        int distance = engine.getScoreSystem().getDistance();
+        // 只剩一滴血，正前方放一排躲不过的障碍物
+        engine.getPlayer().setHealth(1);
+        engine.getObstacles().clear();
+        int playerY = engine.getPlayer().calculateY(engine.getScreenRows());
+        engine.getObstacles().add(new Obstacle(engine.getPlayer().getLane(), playerY - 3 - engine.getGameSpeed(), 0));
+        long episodes = env.getEpisodeCount();
+
+        env.step(actions);
+        assertTrue(env.getDones()[0]);
+        assertTrue(env.getRewards()[0] < 0);
+        assertEquals(distance + 1, env.getFinalDistances()[0]);
+        assertEquals(episodes + 1, env.getEpisodeCount());
+        assertEquals(GameEngine.GameState.PLAYING, engine.getGameState());
+        assertEquals(0, engine.getScoreSystem().getDistance());
+        assertEquals(engine.getPlayer().getMaxHealth(), env.getObservations()[BatchEnvironment.OBS_HEALTH]);
+
+        env.step(actions);
+        assertFalse(env.getDones()[0]);
+        assertEquals(1f, env.getRewards()[0]);
+    }
+}
@@ -0,0 +1,81 @@
+package com.hakimi.road.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hakimi.road.engine.GameEngine;
+import com.hakimi.road.level.DifficultyConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DifficultySweepTest {
+
+    @Test
+    public void testConfigForRewritesTunables() {
+        DifficultyConfig base = DifficultyConfig.getInstance();
+        DifficultySweep sweep = new DifficultySweep(base, 1, 1, 0.02, 100);
+        DifficultyConfig config = sweep.configFor(7, 20, 2.0, 40);
+
+        assertEquals(20, config.getSpeedIncreaseInterval());
+        JsonNode baseBands = base.toJson().path("bands");
+        JsonNode bands = config.toJson().path("bands");
+        for (int i = 0; i < bands.size(); i++) {
+            assertEquals(7, bands.get(i).path("obstacleSpawnRate").asInt());
+            assertEquals(40, bands.get(i).path("itemChance").asInt());
+            JsonNode segments = bands.get(i).path("segments");
+            JsonNode baseSegments = baseBands.get(i).path("segments");
+            assertEquals(baseSegments.path("STRAIGHT").asDouble(), segments.path("STRAIGHT").asDouble());
+            assertEquals(baseSegments.path("CURVE_LEFT").asDouble() * 2, segments.path("CURVE_LEFT").asDouble());
+        }
+        // 基础配置不受影响
+        assertEquals(base.bandAt(0).getItemChance(), DifficultyConfig.getInstance().bandAt(0).getItemChance());
+        assertEquals(7, config.bandAt(0).getObstacleSpawnRate());
+    }
+
+    @Test
+    public void testSweepStreamsOneRowPerCombination() throws IOException {
+        DifficultySweep sweep = new DifficultySweep(DifficultyConfig.getInstance(), 6, 3, 0.1, 1500);
+        sweep.setSpawnRates(5, 20);
+        sweep.setSpeedIntervals(50);
+        assertEquals(2, sweep.getCombinationCount());
+
+        StringWriter csv = new StringWriter();
+        List<DifficultySweep.Stats> results = new ArrayList<>();
+        try (DifficultySweep.Report report = new DifficultySweep.Report(csv, false)) {
+            sweep.run(stats -> {
+                report.accept(stats);
+                results.add(stats);
+            });
+        }
+        String[] lines = csv.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("spawnRate,speedInterval"));
+        assertTrue(lines[1].startsWith("5,50,1.0,"));
+        assertEquals(lines[0].split(",").length, lines[1].split(",").length);
+
+        for (DifficultySweep.Stats stats : results) {
+            assertEquals(6, stats.getGames());
+            int ended = stats.getSurvived();
+            for (GameEngine.HitCause cause : GameEngine.HitCause.values()) {
+                ended += stats.getDeaths(cause);
+            }
+            assertEquals(6, ended);
+            assertTrue(stats.getP10Distance() <= stats.getP50Distance());
+            assertTrue(stats.getP50Distance() <= stats.getP90Distance());
+            assertTrue(stats.getP90Distance() <= stats.getMaxDistance());
+        }
+        // 障碍物更密时跑得更近
+        assertTrue(results.get(0).getMeanDistance() < results.get(1).getMeanDistance());
+
+        StringWriter json = new StringWriter();
+        new DifficultySweep.Report(json, true).accept(results.get(0));
+        JsonNode row = new ObjectMapper().readTree(json.toString());
+        assertEquals(5, row.path("spawnRate").asInt());
+        assertEquals(6, row.path("games").asInt());
+    }
+}
@@ -0,0 +1,19 @@
+package com.hakimi.road.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SoakRunnerTest {
+
+    @Test
+    public void testSoakRunsAllBotsAndRestartsGames() {
+        SoakRunner.Result result = new SoakRunner(3, 4000, 7, 0.05).run();
+        assertTrue(result.getFailures().isEmpty(), result.getFailures().toString());
+        assertEquals(3 * 4000, result.getFrames());
+        // 随机失误会受击并结束游戏，然后换种子重新开始
+        assertTrue(result.getHits() > 0);
+        assertTrue(result.getRuns() > 3);
+        assertTrue(result.getMaxDistance() > 0);
+    }
+}
@@ -0,0 +1,300 @@
+package com.hakimi.road.engine;
+
+import com.googlecode.lanterna.TerminalPosition;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.BasicTextImage;
+import com.googlecode.lanterna.graphics.TextGraphics;
+import com.googlecode.lanterna.screen.TerminalScreen;
+import com.googlecode.lanterna.terminal.ansi.ANSITerminal;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnsiFrameEncoderTest {
+
+    private static final TerminalSize SIZE = new TerminalSize(80, 40);
+
+    /**
+     * 连续若干帧游戏画面
+     */
+    private List<BasicTextImage> renderGameFrames(int count) throws Exception {
+        GameEngine engine = new GameEngine(null);
+        engine.startGame();
+        RenderEngine renderEngine = new RenderEngine();
+        List<BasicTextImage> frames = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            engine.update();
+            engine.update();
+            BasicTextImage frame = new BasicTextImage(SIZE);
+            renderEngine.render(engine.captureSnapshot(0, ""), frame);
+            frames.add(frame);
+        }
+        return frames;
+    }
+
+    @Test
+    public void testOutputReproducesFrames() throws Exception {
+        AnsiFrameEncoder encoder = new AnsiFrameEncoder();
+        VirtualTerminal terminal = new VirtualTerminal(SIZE.getColumns(), SIZE.getRows());
+        for (BasicTextImage frame : renderGameFrames(30)) {
+            int length = encoder.encode(frame);
+            terminal.feed(encoder.getBuffer(), length);
+            terminal.assertShows(frame);
+        }
+    }
+
+    @Test
+    public void testScrolledOutputReproducesFrames() {
+        AnsiFrameEncoder encoder = new AnsiFrameEncoder();
+        VirtualTerminal terminal = new VirtualTerminal(10, 6);
+        BasicTextImage previous = null;
+        for (int shift = 0; shift < 4; shift++) {
+            BasicTextImage frame = new BasicTextImage(10, 6);
+            TextGraphics tg = frame.newTextGraphics();
+            tg.putString(0, 0, "HUD " + shift);
+            for (int y = 1; y < 6; y++) {
+                tg.setForegroundColor(y % 2 == 0 ? TextColor.ANSI.GREEN : TextColor.ANSI.RED);
+                tg.drawLine(0, y, 9, y, (char) ('a' + y + shift));
+            }
+            int length = previous == null ? encoder.encode(frame) : encoder.encode(frame, 1, 5, 1);
+            terminal.feed(encoder.getBuffer(), length);
+            terminal.assertShows(frame);
+            previous = frame;
+        }
+    }
+
+    @Test
+    public void testUnchangedFrameEncodesToNothing() throws Exception {
+        AnsiFrameEncoder encoder = new AnsiFrameEncoder();
+        BasicTextImage frame = renderGameFrames(1).get(0);
+        assertTrue(encoder.encode(frame) > 0);
+        assertEquals(0, encoder.encode(frame));
+    }
+
+    @Test
+    public void testColorPairMergedIntoOneSequence() {
+        AnsiFrameEncoder encoder = new AnsiFrameEncoder();
+        BasicTextImage frame = new BasicTextImage(4, 1);
+        encoder.encode(frame);
+
+        frame.setCharacterAt(1, 0, TextCharacter.fromCharacter('x', TextColor.ANSI.RED, TextColor.ANSI.BLUE)[0]);
+        int length = encoder.encode(frame);
+        String output = new String(encoder.getBuffer(), 0, length, StandardCharsets.US_ASCII);
+        assertTrue(output.endsWith("\033[31;44mx"), output);
+    }
+
+    @Test
+    public void testBytesHalvedAgainstLanternaRefresh() throws Exception {
+        List<BasicTextImage> frames = renderGameFrames(60);
+
+        ByteArrayOutputStream lanternaOut = new ByteArrayOutputStream();
+        ANSITerminal terminal = new ANSITerminal(new ByteArrayInputStream(new byte[0]), lanternaOut,
+                StandardCharsets.UTF_8) {
+            @Override
+            protected TerminalSize findTerminalSize() {
+                return SIZE;
+            }
+        };
+        TerminalScreen screen = new TerminalScreen(terminal);
+        screen.startScreen();
+        screen.setCursorPosition(null);
+
+        AnsiFrameEncoder encoder = new AnsiFrameEncoder();
+        long lanternaBytes = 0;
+        long encodedBytes = 0;
+        for (int i = 0; i < frames.size(); i++) {
+            BasicTextImage frame = frames.get(i);
+            lanternaOut.reset();
+            screen.newTextGraphics().drawImage(TerminalPosition.TOP_LEFT_CORNER, frame);
+            screen.refresh();
+            int encoded = encoder.encode(frame);
+            // 首帧是整屏绘制，只比较之后的增量帧
+            if (i > 0) {
+                lanternaBytes += lanternaOut.size();
+                encodedBytes += encoded;
+            }
+        }
+
+        assertTrue(encodedBytes * 2 <= lanternaBytes,
+                "encoded=" + encodedBytes + ", lanterna=" + lanternaBytes);
+    }
+
+    /**
+     * 只解析编码器会输出的那部分 ANSI 序列的简易终端
+     */
+    private static class VirtualTerminal {
+        private final int columns;
+        private final int rows;
+        private final String[][] chars;
+        private final String[][] colors;
+        private int x;
+        private int y;
+        private int top;
+        private int bottom;
+        private String fg = "39";
+        private String bg = "49";
+
+        VirtualTerminal(int columns, int rows) {
+            this.columns = columns;
+            this.rows = rows;
+            this.chars = new String[rows][columns];
+            this.colors = new String[rows][columns];
+            this.bottom = rows - 1;
+            clear();
+        }
+
+        private void clear() {
+            for (int row = 0; row < rows; row++) {
+                clearRow(row);
+            }
+        }
+
+        private void clearRow(int row) {
+            chars[row] = new String[columns];
+            colors[row] = new String[columns];
+            for (int col = 0; col < columns; col++) {
+                chars[row][col] = " ";
+                colors[row][col] = "39/49";
+            }
+        }
+
+        void feed(byte[] bytes, int length) {
+            String text = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            int i = 0;
+            while (i < text.length()) {
+                char c = text.charAt(i);
+                if (c == 0x1b) {
+                    int end = i + 2;
+                    while (!Character.isLetter(text.charAt(end))) {
+                        end++;
+                    }
+                    escape(text.substring(i + 2, end), text.charAt(end));
+                    i = end + 1;
+                } else if (c == '\r') {
+                    x = 0;
+                    i++;
+                } else if (c == '\n') {
+                    lineFeed();
+                    i++;
+                } else {
+                    int cp = text.codePointAt(i);
+                    String s = new String(Character.toChars(cp));
+                    put(s, TextCharacter.fromString(s)[0].isDoubleWidth() ? 2 : 1);
+                    i += Character.charCount(cp);
+                }
+            }
+        }
+
+        private void put(String s, int width) {
+            assertTrue(x + width <= columns, "写出了屏幕右边界");
+            chars[y][x] = s;
+            colors[y][x] = fg + "/" + bg;
+            if (width == 2) {
+                chars[y][x + 1] = "";
+            }
+            x += width;
+            if (x >= columns) {
+                // 简化处理：待换行状态下不允许再直接写字符
+                x = columns;
+            }
+        }
+
+        private void erase(int count) {
+            for (int col = x; col < Math.min(columns, x + count); col++) {
+                chars[y][col] = " ";
+                colors[y][col] = fg + "/" + bg;
+            }
+        }
+
+        private void lineFeed() {
+            if (y == bottom) {
+                for (int row = top; row < bottom; row++) {
+                    chars[row] = chars[row + 1];
+                    colors[row] = colors[row + 1];
+                }
+                clearRow(bottom);
+            } else {
+                y++;
+            }
+        }
+
+        private void escape(String params, char command) {
+            String[] p = params.isEmpty() ? new String[0] : params.split(";");
+            switch (command) {
+                case 'H':
+                    y = p.length > 0 ? Integer.parseInt(p[0]) - 1 : 0;
+                    x = p.length > 1 ? Integer.parseInt(p[1]) - 1 : 0;
+                    break;
+                case 'C':
+                    x += p.length > 0 ? Integer.parseInt(p[0]) : 1;
+                    break;
+                case 'J':
+                    clear();
+                    break;
+                case 'K':
+                    erase(columns - x);
+                    break;
+                case 'X':
+                    erase(Integer.parseInt(p[0]));
+                    break;
+                case 'r':
+                    top = p.length > 0 ? Integer.parseInt(p[0]) - 1 : 0;
+                    bottom = p.length > 1 ? Integer.parseInt(p[1]) - 1 : rows - 1;
+                    x = 0;
+                    y = 0;
+                    break;
+                case 'm':
+                    for (int k = 0; k < p.length; k++) {
+                        int code = Integer.parseInt(p[k]);
+                        if (code == 0) {
+                            fg = "39";
+                            bg = "49";
+                        } else if (code == 38 || code == 48) {
+                            int n = p[k + 1].equals("5") ? 3 : 5;
+                            String color = String.join(";", java.util.Arrays.copyOfRange(p, k, k + n));
+                            if (code == 38) {
+                                fg = color;
+                            } else {
+                                bg = color;
+                            }
+                            k += n - 1;
+                        } else if ((code >= 30 && code <= 39) || (code >= 90 && code <= 97)) {
+                            fg = p[k];
+                        } else if ((code >= 40 && code <= 49) || (code >= 100 && code <= 107)) {
+                            bg = p[k];
+                        }
+                    }
+                    break;
+                default:
+                    fail("未预期的转义序列: " + params + command);
+            }
+        }
+
+        void assertShows(BasicTextImage frame) {
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < columns; col++) {
+                    TextCharacter expected = frame.getCharacterAt(col, row);
+                    if (col > 0 && frame.getCharacterAt(col - 1, row).isDoubleWidth()) {
+                        continue;
+                    }
+                    String where = "(" + col + "," + row + ")";
+                    assertEquals(expected.getCharacterString(), chars[row][col], "字符不一致 " + where);
+                    // 空格看不出前景色，只比较背景色
+                    String bgColor = new String(expected.getBackgroundColor().getBackgroundSGRSequence());
+                    String color = expected.getCharacterString().equals(" ")
+                            ? colors[row][col].substring(0, colors[row][col].indexOf('/') + 1) + bgColor
+                            : new String(expected.getForegroundColor().getForegroundSGRSequence()) + "/" + bgColor;
+                    assertEquals(color, colors[row][col], "颜色不一致 " + where);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.hakimi.road.engine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsciicastRecorderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static void record(AsciicastRecorder recorder, String text, boolean keyframe) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        recorder.record(bytes, 0, bytes.length, keyframe);
+    }
+
+    @Test
+    public void testStreamingWritesHeaderAndEvents(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("session.cast");
+        AsciicastRecorder recorder = AsciicastRecorder.streaming(file, 80, 24);
+        recorder.start();
+        record(recorder, "\033[H\033[2J哈基米", true);
+        record(recorder, "\033[2;3Hx", false);
+        recorder.resize(100, 30);
+        recorder.close();
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(4, lines.size());
+        JsonNode header = objectMapper.readTree(lines.get(0));
+        assertEquals(2, header.get("version").asInt());
+        assertEquals(80, header.get("width").asInt());
+        assertEquals(24, header.get("height").asInt());
+
+        JsonNode first = objectMapper.readTree(lines.get(1));
+        assertEquals(0.0, first.get(0).asDouble());
+        assertEquals("o", first.get(1).asText());
+        assertEquals("\033[H\033[2J哈基米", first.get(2).asText());
+        JsonNode second = objectMapper.readTree(lines.get(2));
+        assertTrue(second.get(0).asDouble() >= 0.0);
+        JsonNode resize = objectMapper.readTree(lines.get(3));
+        assertEquals("r", resize.get(1).asText());
+        assertEquals("100x30", resize.get(2).asText());
+    }
+
+    @Test
+    public void testRingKeepsRecentSegmentsFromKeyframe(@TempDir Path dir) throws Exception {
+        long window = TimeUnit.MILLISECONDS.toNanos(100);
+        AsciicastRecorder recorder = new AsciicastRecorder(dir, window, 40, 10);
+        recorder.start();
+        record(recorder, "A", true);
+        Thread.sleep(150);
+        record(recorder, "B", true);
+        record(recorder, "C", false);
+        Thread.sleep(150);
+        record(recorder, "D", true);
+        recorder.requestSave();
+        recorder.close();
+
+        // 最早的一段已经超出窗口被丢弃
+        assertEquals(2, recorder.getSegmentCount());
+        List<Path> saved;
+        try (var files = Files.list(dir)) {
+            saved = files.collect(Collectors.toList());
+        }
+        assertEquals(1, saved.size());
+        List<String> lines = Files.readAllLines(saved.get(0), StandardCharsets.UTF_8);
+        List<String> data = lines.stream().skip(1)
+                .map(line -> {
+                    try {
+                        return objectMapper.readTree(line).get(2).asText();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .collect(Collectors.toList());
+        assertEquals(List.of("B", "C", "D"), data);
+    }
+
+    @Test
+    public void testKeyframeDueOnlyInRingMode(@TempDir Path dir) {
+        assertFalse(AsciicastRecorder.streaming(dir.resolve("a.cast"), 80, 24).isKeyframeDue());
+        AsciicastRecorder ring = AsciicastRecorder.ring(dir, 5, 80, 24);
+        assertTrue(ring.isKeyframeDue());
+        record(ring, "x", true);
+        assertFalse(ring.isKeyframeDue());
+    }
+}
@@ -0,0 +1,79 @@
+package com.hakimi.road.engine;
+
+import com.googlecode.lanterna.graphics.BasicTextImage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FrameExporterTest {
+
+    private static BasicTextImage frame(int n) {
+        BasicTextImage frame = new BasicTextImage(16, 4);
+        frame.newTextGraphics().putString(0, n % 4, "frame " + n);
+        return frame;
+    }
+
+    @Test
+    public void testFormatFromExtension() {
+        assertEquals(FrameExporter.Format.GIF, FrameExporter.formatFor(Path.of("run.GIF")));
+        assertEquals(FrameExporter.Format.PNG_SEQUENCE, FrameExporter.formatFor(Path.of("frames")));
+    }
+
+    @Test
+    public void testGifContainsAllFrames(@TempDir Path dir) throws Exception {
+        Path gif = dir.resolve("run.gif");
+        FrameExporter exporter = new FrameExporter(gif, 50);
+        exporter.start();
+        for (int i = 0; i < 12; i++) {
+            exporter.submit(frame(i));
+        }
+        exporter.close();
+        assertEquals(12, exporter.getFramesWritten());
+
+        try (ImageInputStream in = ImageIO.createImageInputStream(gif.toFile())) {
+            ImageReader reader = ImageIO.getImageReaders(in).next();
+            reader.setInput(in);
+            assertEquals(12, reader.getNumImages(true));
+            reader.dispose();
+        }
+    }
+
+    @Test
+    public void testPngSequence(@TempDir Path dir) throws Exception {
+        Path frames = dir.resolve("frames");
+        FrameExporter exporter = new FrameExporter(frames, 50);
+        exporter.start();
+        for (int i = 0; i < 3; i++) {
+            exporter.submit(frame(i));
+        }
+        exporter.close();
+
+        BufferedImage last = ImageIO.read(frames.resolve("frame-00002.png").toFile());
+        assertNotNull(last);
+        try (var files = Files.list(frames)) {
+            assertEquals(3, files.count());
+        }
+    }
+
+    @Test
+    public void testOfferDropsInsteadOfBlocking() throws Exception {
+        FrameExporter exporter = new FrameExporter(Path.of("unused"), 50);
+        // 导出线程没有启动，队列满后直接丢帧
+        int queued = 0;
+        for (int i = 0; i < 20; i++) {
+            if (exporter.offer(frame(i))) {
+                queued++;
+            }
+        }
+        assertTrue(queued < 20);
+        assertEquals(20 - queued, exporter.getDroppedFrames());
+    }
+}
@@ -1,5 +1,8 @@
 package com.hakimi.road.engine;
 
+import com.hakimi.road.ai.Action;
+import com.hakimi.road.util.GameConfig;
+import com.hakimi.road.util.SettingsManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -63,4 +66,113 @@ public class GameEngineTest {
         gameEngine.togglePause();
         assertEquals(GameEngine.GameState.PLAYING, gameEngine.getGameState());
     }
+
+    @Test
+    public void testSnapshotIsDetachedFromEngine() throws Exception {
+        gameEngine.startGame();
+        for (int i = 0; i < 20; i++) {
+            gameEngine.update();
+        }
+        FrameSnapshot first = gameEngine.captureSnapshot(0, "");
+        int distance = first.getDistance();
+        int lane = first.getPlayerLane();
+
+        gameEngine.getPlayer().moveToLane(lane == 0 ? 1 : 0);
+        for (int i = 0; i < 20; i++) {
+            gameEngine.update();
+        }
+        FrameSnapshot second = gameEngine.captureSnapshot(0, "");
+
+        assertEquals(distance, first.getDistance());
+        assertEquals(lane, first.getPlayerLane());
+        assertEquals(first.getSequence() + 1, second.getSequence());
+        assertEquals(gameEngine.getObstacles().size(), second.getObstacleCount());
+    }
+
+    @Test
+    public void testSettingsScreenSnapshotCarriesValues() {
+        gameEngine.enterSettings();
+        FrameSnapshot snapshot = gameEngine.captureSnapshot(2, "");
+        SettingsManager settings = SettingsManager.getInstance();
+        assertEquals(2, snapshot.getMenuSelection());
+        assertEquals(settings.getBaseGameSpeed(), snapshot.getBaseGameSpeed());
+        assertEquals(settings.getObstacleSpawnRate(), snapshot.getObstacleSpawnRate());
+        assertEquals(settings.getSpeedIncreaseInterval(), snapshot.getSpeedIncreaseInterval());
+        assertEquals(settings.getGameLoopDelayMs(), snapshot.getGameLoopDelayMs());
+        assertEquals(settings.getDisplayMode(), snapshot.getDisplayMode());
+
+        // 游戏画面不读取存档列表
+        gameEngine.startGame();
+        assertEquals(0, gameEngine.captureSnapshot(0, "").getSaveCount());
+    }
+
+    @Test
+    public void testPausedGameStopsTicking() throws Exception {
+        gameEngine.startGame();
+        assertTrue(gameEngine.isTicking());
+        for (int i = 0; i < 10; i++) {
+            gameEngine.update();
+        }
+
+        gameEngine.togglePause();
+        assertFalse(gameEngine.isTicking());
+        int distance = gameEngine.getScoreSystem().getDistance();
+        for (int i = 0; i < 10; i++) {
+            gameEngine.update();
+        }
+        assertEquals(distance, gameEngine.getScoreSystem().getDistance());
+    }
+
+    @Test
+    public void testApplyActionUsesPlayerControls() {
+        // 不在游戏中时忽略
+        gameEngine.applyAction(Action.MOVE_LEFT);
+        assertEquals(1, gameEngine.getPlayer().getLane());
+
+        gameEngine.startGame();
+        gameEngine.applyAction(Action.MOVE_LEFT);
+        assertEquals(0, gameEngine.getPlayer().getLane());
+        gameEngine.applyAction(Action.MOVE_LEFT);
+        assertEquals(0, gameEngine.getPlayer().getLane());
+        gameEngine.applyAction(Action.MOVE_RIGHT);
+        gameEngine.applyAction(Action.MOVE_RIGHT);
+        gameEngine.applyAction(Action.MOVE_RIGHT);
+        assertEquals(2, gameEngine.getPlayer().getLane());
+
+        gameEngine.applyAction(Action.JUMP);
+        assertTrue(gameEngine.getPlayer().isJumping());
+        // 跳跃中不能滑铲
+        gameEngine.applyAction(Action.SLIDE);
+        assertTrue(gameEngine.getPlayer().isJumping());
+    }
+
+    @Test
+    public void testLogicTickParity() throws Exception {
+        gameEngine.startGame();
+        int distance = gameEngine.getScoreSystem().getDistance();
+        for (int i = 0; i < 6; i++) {
+            boolean logicNext = gameEngine.isLogicTickNext();
+            gameEngine.update();
+            int now = gameEngine.getScoreSystem().getDistance();
+            assertEquals(logicNext, now != distance);
+            distance = now;
+        }
+    }
+
+    @Test
+    public void testTurnPhaseQuantizesArrivalTime() {
+        gameEngine.startGame();
+        // 还没有逻辑帧、或没有时间戳时按当前状态判定
+        assertEquals(0, gameEngine.turnPhaseAt(System.nanoTime()));
+        while (!gameEngine.isLogicTickNext()) {
+            gameEngine.update();
+        }
+        gameEngine.update();
+        long tickNanos = 2L * GameConfig.GAME_LOOP_DELAY_MS * 1_000_000L;
+        assertEquals(0, gameEngine.turnPhaseAt(0));
+        int half = gameEngine.turnPhaseAt(System.nanoTime() + tickNanos / 2);
+        assertTrue(half >= GameEngine.TURN_PHASES / 2 - 1 && half < GameEngine.TURN_PHASES - 1, "相位 " + half);
+        // 超过一个逻辑帧的按键按下一次逻辑更新判定
+        assertEquals(GameEngine.TURN_PHASES - 1, gameEngine.turnPhaseAt(System.nanoTime() + 10 * tickNanos));
+    }
 }
@@ -0,0 +1,65 @@
+package com.hakimi.road.engine;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.graphics.BasicTextImage;
+import com.googlecode.lanterna.graphics.TextImage;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutputStageTest {
+
+    private static final TerminalSize SIZE = new TerminalSize(10, 5);
+
+    @Test
+    public void testSubmitRotatesBuffersAndDropsOverwrittenFrames() {
+        // 未启动输出线程，提交的帧只会停留在交换缓冲中
+        OutputStage stage = new OutputStage(null);
+
+        TextImage first = stage.acquireBackBuffer(SIZE);
+        stage.submitFrame(1);
+        assertTrue(stage.hasPendingFrame());
+
+        TextImage second = stage.acquireBackBuffer(SIZE);
+        assertNotSame(first, second);
+        stage.submitFrame(2);
+        assertEquals(1, stage.getDroppedFrames());
+
+        // 被覆盖的缓冲回到渲染线程手里复用
+        assertSame(first, stage.acquireBackBuffer(SIZE));
+    }
+
+    @Test
+    public void testBackBufferFollowsTerminalSize() {
+        OutputStage stage = new OutputStage(null);
+        TextImage small = stage.acquireBackBuffer(SIZE);
+        TextImage large = stage.acquireBackBuffer(new TerminalSize(20, 8));
+        assertNotSame(small, large);
+        assertEquals(new TerminalSize(20, 8), large.getSize());
+    }
+
+    @Test
+    public void testBellRequestsCollapse() {
+        OutputStage stage = new OutputStage(null);
+        stage.requestBell();
+        stage.requestBell();
+        stage.requestBell();
+        assertTrue(stage.hasPendingBell());
+        assertEquals(2, stage.getCollapsedBells());
+    }
+
+    @Test
+    public void testScrollChosenOnlyWhenCheaper() {
+        BasicTextImage previous = new BasicTextImage(SIZE);
+        BasicTextImage shifted = new BasicTextImage(SIZE);
+        for (int y = 0; y < 5; y++) {
+            previous.newTextGraphics().drawLine(0, y, 9, y, (char) ('a' + y));
+            shifted.newTextGraphics().drawLine(0, y, 9, y, (char) ('a' + y + 1));
+        }
+        // 内容整体上移一行：滚动只需补画最后一行
+        assertTrue(OutputStage.shouldScroll(previous, shifted, 0, 4, 1));
+
+        // 内容没有平移：滚动反而要重画所有行
+        assertFalse(OutputStage.shouldScroll(previous, previous, 0, 4, 1));
+    }
+}
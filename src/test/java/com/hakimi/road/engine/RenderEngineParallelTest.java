@@ -0,0 +1,44 @@
+package com.hakimi.road.engine;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.graphics.BasicTextImage;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderEngineParallelTest {
+
+    private static final TerminalSize LARGE = new TerminalSize(300, 100);
+
+    @Test
+    public void testParallelBandsMatchSequentialFrame() throws Exception {
+        GameEngine engine = new GameEngine(null);
+        engine.startGame();
+        RenderEngine sequential = new RenderEngine();
+        sequential.setParallelMinCells(Integer.MAX_VALUE);
+        RenderEngine parallel = new RenderEngine();
+        parallel.setParallelMinCells(0);
+        // 单核机器上公共池只有一个线程，这里固定用4个线程确保走分带路径
+        ForkJoinPool pool = new ForkJoinPool(4);
+        parallel.setBandPool(pool);
+
+        for (int i = 0; i < 60; i++) {
+            engine.update();
+            FrameSnapshot snapshot = engine.captureSnapshot(0, "");
+            BasicTextImage expected = new BasicTextImage(LARGE);
+            sequential.render(snapshot, expected);
+            BasicTextImage actual = new BasicTextImage(LARGE);
+            parallel.render(snapshot, actual);
+
+            for (int y = 0; y < LARGE.getRows(); y++) {
+                for (int x = 0; x < LARGE.getColumns(); x++) {
+                    assertEquals(expected.getCharacterAt(x, y), actual.getCharacterAt(x, y),
+                            "frame " + i + " at " + x + "," + y);
+                }
+            }
+        }
+        pool.shutdown();
+    }
+}
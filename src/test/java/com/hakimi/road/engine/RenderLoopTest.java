@@ -0,0 +1,23 @@
+package com.hakimi.road.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderLoopTest {
+
+    @Test
+    public void testPublishDropsUnrenderedSnapshots() {
+        GameEngine engine = new GameEngine(null);
+        // 未启动渲染线程，快照只会被覆盖
+        RenderLoop loop = new RenderLoop(null, null, null);
+
+        loop.publish(engine.captureSnapshot(0, ""));
+        assertEquals(0, loop.getDroppedFrames());
+
+        loop.publish(engine.captureSnapshot(0, ""));
+        loop.publish(engine.captureSnapshot(0, ""));
+        assertEquals(2, loop.getDroppedFrames());
+        assertEquals(0, loop.getRenderedSequence());
+    }
+}
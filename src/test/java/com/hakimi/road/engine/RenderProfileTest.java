@@ -0,0 +1,92 @@
+package com.hakimi.road.engine;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.BasicTextImage;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderProfileTest {
+
+    private static final TerminalSize SIZE = new TerminalSize(80, 40);
+
+    @Test
+    public void testDisplayModeSelectsProfile() {
+        assertSame(RenderProfile.STANDARD, RenderProfile.forDisplayMode(2, true));
+        assertSame(RenderProfile.LOW_BANDWIDTH, RenderProfile.forDisplayMode(3, false));
+        assertSame(RenderProfile.LOW_BANDWIDTH_MONOCHROME, RenderProfile.forDisplayMode(3, true));
+    }
+
+    @Test
+    public void testLowBandwidthFrameIsAsciiOnly() throws Exception {
+        GameEngine engine = new GameEngine(null);
+        engine.startGame();
+        RenderEngine renderEngine = new RenderEngine();
+        renderEngine.setProfile(RenderProfile.LOW_BANDWIDTH);
+        for (int i = 0; i < 40; i++) {
+            engine.update();
+            BasicTextImage frame = new BasicTextImage(SIZE);
+            renderEngine.render(engine.captureSnapshot(0, ""), frame);
+            // 跑道区域（HUD的中文标签在右侧）只有ASCII字符
+            for (int y = 0; y < SIZE.getRows(); y++) {
+                for (int x = 0; x < SIZE.getColumns() - 20; x++) {
+                    TextCharacter c = frame.getCharacterAt(x, y);
+                    assertTrue(c.getCharacterString().chars().allMatch(ch -> ch < 0x80),
+                            "non-ASCII '" + c.getCharacterString() + "' at " + x + "," + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testColorModesReduceColors() {
+        BasicTextImage frame = new BasicTextImage(3, 1);
+        frame.setCharacterAt(0, 0, TextCharacter.fromCharacter('a', TextColor.ANSI.RED_BRIGHT, TextColor.ANSI.BLACK)[0]);
+        frame.setCharacterAt(1, 0,
+                TextCharacter.fromCharacter('b', new TextColor.RGB(250, 240, 10), TextColor.ANSI.BLACK)[0]);
+
+        AnsiFrameEncoder ansi8 = new AnsiFrameEncoder(AnsiFrameEncoder.ColorMode.ANSI8);
+        String output = new String(ansi8.getBuffer(), 0, ansi8.encode(frame));
+        assertTrue(output.contains("\033[31;40ma"), output);
+        assertTrue(output.contains("\033[33mb"), output);
+
+        AnsiFrameEncoder mono = new AnsiFrameEncoder(AnsiFrameEncoder.ColorMode.MONOCHROME);
+        output = new String(mono.getBuffer(), 0, mono.encode(frame));
+        assertFalse(output.contains("3"), output);
+    }
+
+    @Test
+    public void testLowBandwidthCutsBytesPerSecond() throws Exception {
+        GameEngine engine = new GameEngine(null);
+        engine.startGame();
+        RenderEngine standard = new RenderEngine();
+        RenderEngine lowBandwidth = new RenderEngine();
+        lowBandwidth.setProfile(RenderProfile.LOW_BANDWIDTH_MONOCHROME);
+        AnsiFrameEncoder standardEncoder = new AnsiFrameEncoder();
+        AnsiFrameEncoder lowEncoder = new AnsiFrameEncoder(AnsiFrameEncoder.ColorMode.MONOCHROME);
+
+        long standardBytes = 0;
+        long lowBytes = 0;
+        for (int i = 0; i < 80; i++) {
+            engine.update();
+            engine.update();
+            FrameSnapshot snapshot = engine.captureSnapshot(0, "");
+            BasicTextImage frame = new BasicTextImage(SIZE);
+            standard.render(snapshot, frame);
+            int a = standardEncoder.encode(frame);
+            frame = new BasicTextImage(SIZE);
+            lowBandwidth.render(snapshot, frame);
+            int b = lowEncoder.encode(frame);
+            // 首帧是整屏绘制，只比较之后的增量帧
+            if (i > 0) {
+                standardBytes += a;
+                lowBytes += b;
+            }
+        }
+
+        // 精灵仍然每帧更新，相对标准配置的编码输出约为 1/4~1/5
+        assertTrue(lowBytes * 3 <= standardBytes, "standard=" + standardBytes + ", low=" + lowBytes);
+    }
+}
@@ -0,0 +1,112 @@
+package com.hakimi.road.level;
+
+import com.hakimi.road.entity.Item;
+import com.hakimi.road.entity.Obstacle;
+import com.hakimi.road.entity.Scenery;
+import com.hakimi.road.util.GameConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkGeneratorTest {
+
+    private static String describe(TrackChunk chunk) {
+        StringBuilder sb = new StringBuilder().append(chunk.getStart()).append(':');
+        for (int i = 0; i < chunk.getSegmentCount(); i++) {
+            sb.append(" S").append(chunk.getSegmentDistance(i)).append(chunk.getSegmentType(i));
+        }
+        for (int i = 0; i < chunk.getObstacleCount(); i++) {
+            sb.append(" O").append(chunk.getObstacleDistance(i)).append('/').append(chunk.getObstacleLane(i))
+                    .append('/').append(chunk.getObstacleType(i));
+        }
+        for (int i = 0; i < chunk.getItemCount(); i++) {
+            sb.append(" I").append(chunk.getItemDistance(i)).append('/').append(chunk.getItemLane(i))
+                    .append(chunk.getItemType(i));
+        }
+        for (int i = 0; i < chunk.getSceneryCount(); i++) {
+            sb.append(" T").append(chunk.getSceneryDistance(i)).append('/').append(chunk.getScenerySide(i));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testSameSeedSameTrackWithOrWithoutThread() {
+        ChunkGenerator inline = new ChunkGenerator(42, 0);
+        ChunkGenerator background = new ChunkGenerator(42, 0);
+        background.start();
+        try {
+            for (int i = 0; i < 100; i++) {
+                assertEquals(describe(inline.take()), describe(background.take()), "chunk " + i);
+            }
+        } finally {
+            background.close();
+        }
+        assertNotEquals(describe(new ChunkGenerator(1, 0).take()), describe(new ChunkGenerator(2, 0).take()));
+    }
+
+    @Test
+    public void testPlacementRules() {
+        ChunkGenerator generator = new ChunkGenerator(7, 0);
+        int[] lastObstacle = new int[GameConfig.ROAD_WIDTH];
+        Arrays.fill(lastObstacle, -1000);
+        int obstacles = 0;
+        int chunks = 200;
+        RoadManager.SegmentType previous = RoadManager.SegmentType.STRAIGHT;
+        int segments = 0;
+        for (int c = 0; c < chunks; c++) {
+            TrackChunk chunk = generator.take();
+            assertEquals(c * ChunkGenerator.CHUNK_LENGTH, chunk.getStart());
+            for (int i = 0; i < chunk.getSegmentCount(); i++) {
+                if (previous == RoadManager.SegmentType.TURN_LEFT_90
+                        || previous == RoadManager.SegmentType.TURN_RIGHT_90) {
+                    assertEquals(RoadManager.SegmentType.STRAIGHT, chunk.getSegmentType(i));
+                }
+                previous = chunk.getSegmentType(i);
+                segments++;
+            }
+            // 道具不会紧贴在同车道障碍物后面
+            int o = 0;
+            for (int i = 0; i < chunk.getItemCount(); i++) {
+                while (o < chunk.getObstacleCount() && chunk.getObstacleDistance(o) <= chunk.getItemDistance(i)) {
+                    lastObstacle[chunk.getObstacleLane(o)] = chunk.getObstacleDistance(o);
+                    o++;
+                }
+                assertTrue(chunk.getItemDistance(i) - lastObstacle[chunk.getItemLane(i)] >= 5);
+            }
+            for (; o < chunk.getObstacleCount(); o++) {
+                lastObstacle[chunk.getObstacleLane(o)] = chunk.getObstacleDistance(o);
+            }
+            obstacles += chunk.getObstacleCount();
+        }
+        // 每个距离单位 1 / OBSTACLE_SPAWN_RATE 的障碍物
+        double density = obstacles / (double) (chunks * ChunkGenerator.CHUNK_LENGTH);
+        assertEquals(1.0 / GameConfig.OBSTACLE_SPAWN_RATE, density, 0.02);
+        assertTrue(segments > 5);
+    }
+
+    @Test
+    public void testStreamSpawnsPassedPlacements() {
+        TrackStream stream = new TrackStream(new ChunkGenerator(3, 0), false);
+        ChunkGenerator reference = new ChunkGenerator(3, 0);
+        TrackChunk first = reference.take();
+
+        List<Obstacle> obstacles = new ArrayList<>();
+        List<Item> items = new ArrayList<>();
+        List<Scenery> scenery = new ArrayList<>();
+        for (int distance = 1; distance <= ChunkGenerator.CHUNK_LENGTH; distance++) {
+            stream.spawn(distance, obstacles, items, scenery);
+        }
+        assertEquals(first.getObstacleCount(), obstacles.size());
+        for (int i = 0; i < obstacles.size(); i++) {
+            assertEquals(first.getObstacleLane(i), obstacles.get(i).getLane());
+        }
+        assertEquals(first.getItemCount(), items.size());
+        assertEquals(first.getSceneryCount(), scenery.size());
+        // 跑过的块被丢弃，只保留下一个块
+        assertEquals(1, stream.getBufferedChunkCount());
+    }
+}
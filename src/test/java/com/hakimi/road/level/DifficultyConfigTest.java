@@ -0,0 +1,122 @@
+package com.hakimi.road.level;
+
+import com.hakimi.road.entity.Item;
+import com.hakimi.road.util.GameConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DifficultyConfigTest {
+
+    private static final String CONFIG = "{"
+            + "\"levels\": [{\"from\": 0, \"style\": \"FOREST\"}, {\"from\": 300, \"style\": \"CYBERPUNK\"}],"
+            + "\"bands\": ["
+            + band(0, true, "{\"STRAIGHT\": 1}") + ","
+            + band(500, false, "{\"STRAIGHT\": 0, \"TURN_LEFT_90\": 1}")
+            + "]}";
+
+    private static String band(int from, boolean gentle, String segments) {
+        return "{\"from\": " + from + ", \"gentleCurves\": " + gentle + ", \"segments\": " + segments
+                + ", \"obstacleSpawnRate\": 10, \"obstacleTypes\": [0, 1], \"itemChance\": 100,"
+                + " \"items\": {\"HAGEN_ABILITY\": 1}, \"sceneryChance\": 0, \"scenerySides\": {\"LEFT\": 1}}";
+    }
+
+    @Test
+    public void testBuiltInConfigMatchesOriginalCurve() {
+        DifficultyConfig config = DifficultyConfig.fromJson(readResource());
+        assertEquals(Level.ObstacleStyle.FOREST, config.levelStyleAt(999));
+        assertEquals(Level.ObstacleStyle.DESERT, config.levelStyleAt(1000));
+        assertEquals(Level.ObstacleStyle.CYBERPUNK, config.levelStyleAt(2000));
+        assertTrue(config.bandAt(1999).isGentleCurves());
+        assertFalse(config.bandAt(2000).isGentleCurves());
+
+        // 简单区间不会出现急转弯
+        Random random = new Random(5);
+        for (int i = 0; i < 1000; i++) {
+            RoadManager.SegmentType type = config.bandAt(0).sampleSegment(random);
+            assertNotEquals(RoadManager.SegmentType.TURN_LEFT_90, type);
+            assertNotEquals(RoadManager.SegmentType.TURN_RIGHT_90, type);
+        }
+    }
+
+    @Test
+    public void testBandsSelectedByDistance() {
+        DifficultyConfig config = DifficultyConfig.fromJson(CONFIG);
+        Random random = new Random(6);
+        assertEquals(RoadManager.SegmentType.STRAIGHT, config.bandAt(499).sampleSegment(random));
+        assertEquals(RoadManager.SegmentType.TURN_LEFT_90, config.bandAt(500).sampleSegment(random));
+        assertEquals(Level.ObstacleStyle.CYBERPUNK, config.levelStyleAt(300));
+
+        DifficultyConfig.Band band = config.bandAt(0);
+        assertEquals(1, band.sampleObstacleType(random));
+        assertTrue(band.rollItem(random));
+        assertEquals(Item.ItemType.HAGEN_ABILITY, band.sampleItem(random));
+        assertFalse(band.rollScenery(random));
+        assertEquals(-1, band.sampleScenerySide(random));
+    }
+
+    @Test
+    public void testManagersFollowGivenConfig() {
+        DifficultyConfig config = DifficultyConfig.fromJson(CONFIG);
+        LevelManager levels = new LevelManager(config);
+        levels.update(300);
+        assertEquals(Level.ObstacleStyle.CYBERPUNK, levels.getCurrentLevel().getObstacleStyle());
+
+        // 500 之前只有直道，之后全是急转弯（中间必须接直道）
+        RoadManager road = new RoadManager(config);
+        boolean turned = false;
+        for (int distance = 1; distance <= 2000; distance++) {
+            road.update(1, distance);
+            RoadManager.SegmentType segment = road.getCurrentSegment();
+            if (distance < 500) {
+                assertEquals(RoadManager.SegmentType.STRAIGHT, segment);
+            }
+            assertNotEquals(RoadManager.SegmentType.CURVE_LEFT, segment);
+            turned |= segment == RoadManager.SegmentType.TURN_LEFT_90;
+        }
+        assertTrue(turned);
+    }
+
+    @Test
+    public void testSpeedCurve() {
+        DifficultyConfig builtIn = DifficultyConfig.fromJson(readResource());
+        // 内置配置沿用原来的曲线：每 SPEED_INCREASE_INTERVAL 分加速一次
+        for (int distance = 0; distance < 20000; distance += 37) {
+            int score = distance / GameConfig.SCORE_PER_DISTANCE;
+            assertEquals(GameConfig.BASE_GAME_SPEED + score / GameConfig.SPEED_INCREASE_INTERVAL,
+                    builtIn.speedAt(distance));
+        }
+
+        DifficultyConfig faster = DifficultyConfig.fromJson(CONFIG.replace("{\"levels\"",
+                "{\"speedIncreaseInterval\": 10, \"levels\""));
+        assertEquals(10, faster.getSpeedIncreaseInterval());
+        assertEquals(GameConfig.BASE_GAME_SPEED, faster.speedAt(99));
+        assertEquals(GameConfig.BASE_GAME_SPEED + 1, faster.speedAt(100));
+        // JSON 副本可以改写后重新构造
+        assertEquals(10, DifficultyConfig.fromJson(faster.toJson()).getSpeedIncreaseInterval());
+        assertThrows(IllegalArgumentException.class, () -> DifficultyConfig.fromJson(CONFIG.replace("{\"levels\"",
+                "{\"speedIncreaseInterval\": 0, \"levels\"")));
+    }
+
+    @Test
+    public void testInvalidConfigRejected() {
+        assertThrows(IllegalArgumentException.class, () -> DifficultyConfig.fromJson("{}"));
+        assertThrows(IllegalArgumentException.class,
+                () -> DifficultyConfig.fromJson(CONFIG.replace("STRAIGHT\": 1", "SPIRAL\": 1")));
+        assertThrows(IllegalArgumentException.class,
+                () -> DifficultyConfig.fromJson(CONFIG.replace("\"from\": 500", "\"from\": 0")));
+    }
+
+    private static String readResource() {
+        try (InputStream in = DifficultyConfig.class.getResourceAsStream("/difficulty.json")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
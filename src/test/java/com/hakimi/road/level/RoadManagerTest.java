@@ -66,6 +66,17 @@ public class RoadManagerTest {
         assertEquals(RoadManager.TurnResult.NONE, result);
     }
 
+    @Test
+    public void testTurnWindowUsesSubTickDistance() {
+        roadManager.forceSegment(RoadManager.SegmentType.TURN_LEFT_90);
+        roadManager.setSegmentDistanceRemaining(GameConfig.TURN_WINDOW_TOLERANCE + 1);
+
+        // Pressed at the last tick the window was still closed
+        assertEquals(RoadManager.TurnResult.NONE, roadManager.checkTurn(-1, 0));
+        // Pressed halfway through the next tick at speed 4 the window is already open
+        assertEquals(RoadManager.TurnResult.SUCCESS, roadManager.checkTurn(-1, 2.0));
+    }
+
     @Test
     public void testMissedTurn() {
         roadManager.forceSegment(RoadManager.SegmentType.TURN_LEFT_90);
@@ -73,4 +84,39 @@ public class RoadManagerTest {
 
         assertTrue(roadManager.checkMissedTurn());
     }
+
+    @Test
+    public void testLookaheadCoversPlannedSegments() {
+        roadManager.forceSegment(RoadManager.SegmentType.TURN_LEFT_90);
+        // 急转弯只剩100个单位，之后必然是直道
+        roadManager.setSegmentDistanceRemaining(100);
+
+        double[] ahead = new double[RoadManager.LOOKAHEAD_DISTANCE + 1];
+        assertEquals(ahead.length, roadManager.copyLookahead(ahead));
+        assertTrue(ahead[99] < -2.5, "turn ahead: " + ahead[99]);
+        assertTrue(Math.abs(ahead[RoadManager.LOOKAHEAD_DISTANCE]) < 0.01,
+                "straight after turn: " + ahead[RoadManager.LOOKAHEAD_DISTANCE]);
+    }
+
+    @Test
+    public void testCurvatureFollowsLookahead() {
+        roadManager.forceSegment(RoadManager.SegmentType.CURVE_RIGHT);
+        double[] ahead = new double[RoadManager.LOOKAHEAD_DISTANCE + 1];
+        roadManager.copyLookahead(ahead);
+
+        // 走过 speed 个单位后脚下的弯曲度就是之前看到的前方第 speed 个采样
+        roadManager.update(3, 5000);
+        assertEquals(ahead[3], roadManager.getCurrentCurvature(), 1e-9);
+        for (int i = 1; i < 50; i++) {
+            assertTrue(ahead[i] > ahead[i - 1], "sample " + i);
+        }
+    }
+
+    @Test
+    public void testTurnIsFollowedByStraightInPlan() {
+        roadManager.forceSegment(RoadManager.SegmentType.TURN_LEFT_90);
+        roadManager.setSegmentDistanceRemaining(1);
+        roadManager.update(1, 5000);
+        assertEquals(RoadManager.SegmentType.STRAIGHT, roadManager.getCurrentSegment());
+    }
 }
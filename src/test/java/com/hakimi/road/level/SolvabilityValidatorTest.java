@@ -0,0 +1,146 @@
+package com.hakimi.road.level;
+
+import com.hakimi.road.util.GameConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SolvabilityValidatorTest {
+
+    private static final int LOW = 0;
+    private static final int HIGH = 1;
+
+    @Test
+    public void testSingleRowsAreAlwaysPassable() {
+        SolvabilityValidator validator = new SolvabilityValidator(0);
+        // 三条车道都是低障碍物：跳过去
+        assertTrue(validator.tryPlace(100, 0, LOW));
+        assertTrue(validator.tryPlace(100, 1, LOW));
+        assertTrue(validator.tryPlace(100, 2, LOW));
+        // 三条车道都是高障碍物：滑过去
+        assertTrue(validator.tryPlace(200, 0, HIGH));
+        assertTrue(validator.tryPlace(200, 1, HIGH));
+        assertTrue(validator.tryPlace(200, 2, HIGH));
+    }
+
+    @Test
+    public void testRejectsWallThatNeedsJumpAndSlideAtOnce() {
+        SolvabilityValidator validator = new SolvabilityValidator(0);
+        for (int lane = 0; lane < GameConfig.ROAD_WIDTH; lane++) {
+            assertTrue(validator.tryPlace(100, lane, LOW));
+        }
+        // 还在跳跃中就遇到高障碍物，只剩一条车道可走
+        assertTrue(validator.tryPlace(103, 0, HIGH));
+        assertTrue(validator.tryPlace(103, 1, HIGH));
+        assertFalse(validator.tryPlace(103, 2, HIGH));
+        // 被拒绝的障碍物不影响之后的判断
+        assertTrue(validator.tryPlace(103, 2, LOW));
+        assertTrue(validator.tryPlace(150, 2, HIGH));
+    }
+
+    @Test
+    public void testSlideRightAfterJumpIsAllowed() {
+        SolvabilityValidator validator = new SolvabilityValidator(0);
+        // 低速时跳跃比碰撞范围长，提前起跳就能在落地后马上滑铲
+        int next = 100 + SolvabilityValidator.HIT_WINDOW;
+        for (int lane = 0; lane < GameConfig.ROAD_WIDTH; lane++) {
+            assertTrue(validator.tryPlace(100, lane, LOW));
+        }
+        for (int lane = 0; lane < GameConfig.ROAD_WIDTH; lane++) {
+            assertTrue(validator.tryPlace(next, lane, HIGH));
+        }
+    }
+
+    @Test
+    public void testRejectsOutOfOrderPlacement() {
+        SolvabilityValidator validator = new SolvabilityValidator(0);
+        validator.tryPlace(50, 0, LOW);
+        assertThrows(IllegalArgumentException.class, () -> validator.tryPlace(49, 0, LOW));
+    }
+
+    @Test
+    public void testGeneratedTrackIsSolvableAtHighSpeed() {
+        // 从速度很高的距离开始生成，用独立的逐帧搜索检查
+        int start = 30_000;
+        ChunkGenerator generator = new ChunkGenerator(11, start);
+        List<int[]> obstacles = new ArrayList<>();
+        for (int c = 0; c < 40; c++) {
+            TrackChunk chunk = generator.take();
+            for (int i = 0; i < chunk.getObstacleCount(); i++) {
+                obstacles.add(new int[] { chunk.getObstacleDistance(i), chunk.getObstacleLane(i),
+                        chunk.getObstacleType(i) });
+            }
+        }
+        int end = start + 40 * ChunkGenerator.CHUNK_LENGTH;
+        assertTrue(obstacles.size() > 0);
+        assertTrue(generator.getRejectedObstacles() > 0);
+        assertTrue(solvable(obstacles, start, end));
+
+        // 同样的随机布局不经校验就会出现死局
+        List<int[]> raw = new ArrayList<>(obstacles);
+        for (int d = start; d < end; d += 5) {
+            for (int lane = 0; lane < GameConfig.ROAD_WIDTH; lane++) {
+                raw.add(new int[] { d, lane, (d / 5 + lane) % 2 });
+            }
+        }
+        assertFalse(solvable(raw, start, end));
+    }
+
+    /**
+     * 直接按规则逐帧枚举 (车道, 动作, 剩余帧数)
+     */
+    private static boolean solvable(List<int[]> obstacles, int start, int end) {
+        Set<List<Integer>> reach = new HashSet<>();
+        for (int lane = 0; lane < GameConfig.ROAD_WIDTH; lane++) {
+            reach.add(List.of(lane, 0, 0));
+        }
+        int tick = start;
+        while (tick < end + SolvabilityValidator.HIT_WINDOW && !reach.isEmpty()) {
+            int speed = DifficultyConfig.getInstance().speedAt(tick);
+            Set<List<Integer>> next = new HashSet<>();
+            for (List<Integer> state : reach) {
+                int action = state.get(1);
+                int left = state.get(2);
+                List<int[]> actions = new ArrayList<>();
+                if (left > 1) {
+                    actions.add(new int[] { action, left - 1 });
+                } else {
+                    actions.add(new int[] { 0, 0 });
+                    actions.add(new int[] { 1, SolvabilityValidator.JUMP_TICKS });
+                    actions.add(new int[] { 2, SolvabilityValidator.SLIDE_TICKS });
+                }
+                for (int move = -1; move <= 1; move++) {
+                    int lane = state.get(0) + move;
+                    if (lane < 0 || lane >= GameConfig.ROAD_WIDTH) {
+                        continue;
+                    }
+                    for (int[] a : actions) {
+                        if (safe(obstacles, tick, tick + speed - 1, lane, a[0])) {
+                            next.add(List.of(lane, a[0], a[1]));
+                        }
+                    }
+                }
+            }
+            reach = next;
+            tick += speed;
+        }
+        return !reach.isEmpty();
+    }
+
+    private static boolean safe(List<int[]> obstacles, int from, int to, int lane, int action) {
+        for (int[] o : obstacles) {
+            if (o[1] == lane && o[0] <= to && o[0] + SolvabilityValidator.HIT_WINDOW - 1 >= from) {
+                int needed = o[2] == 0 ? 1 : 2;
+                if (action != needed) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,81 @@
+package com.hakimi.road.renderer;
+
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.BasicTextImage;
+import com.hakimi.road.entity.Item;
+import com.hakimi.road.level.Level;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityRendererTest {
+
+    private static final int WIDTH = 80;
+    private static final int HEIGHT = 40;
+    private static final Level FOREST = new Level("森林", TextColor.ANSI.CYAN, TextColor.ANSI.GREEN,
+            TextColor.ANSI.BLACK_BRIGHT, Level.ObstacleStyle.FOREST);
+
+    private static RoadCurve curve(double curvature) {
+        RoadCurve curve = new RoadCurve();
+        curve.update(HEIGHT, curvature);
+        return curve;
+    }
+
+    private static int countGlyphs(BasicTextImage image) {
+        int count = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (!" ".equals(image.getCharacterAt(x, y).getCharacterString())) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static BasicTextImage drawObstacle(EntityRenderer renderer, int y) {
+        RenderCommandBuffer commands = new RenderCommandBuffer();
+        renderer.renderObstacle(commands, WIDTH, HEIGHT, 1, y, 0, FOREST, curve(0));
+        BasicTextImage image = new BasicTextImage(WIDTH, HEIGHT);
+        commands.execute(image.newTextGraphics());
+        return image;
+    }
+
+    @Test
+    public void testTierTableGrowsWithDepth() {
+        EntityRenderer renderer = new EntityRenderer();
+        assertEquals(EntityRenderer.TIER_CULLED, renderer.tierAt(HEIGHT, 0, 0));
+        assertEquals(EntityRenderer.TIER_FAR, renderer.tierAt(HEIGHT, 2, 2));
+        assertEquals(EntityRenderer.TIER_NEAR, renderer.tierAt(HEIGHT, HEIGHT - 2, HEIGHT - 2));
+        int previous = EntityRenderer.TIER_FAR;
+        for (int row = 2; row < HEIGHT; row++) {
+            int tier = renderer.tierAt(HEIGHT, row, row);
+            assertTrue(tier >= previous, "row " + row);
+            previous = tier;
+        }
+    }
+
+    @Test
+    public void testFarObstacleIsSingleGlyph() {
+        EntityRenderer renderer = new EntityRenderer();
+        assertEquals(1, countGlyphs(drawObstacle(renderer, 2)));
+        // 近处是完整的三行精灵
+        assertEquals(1 + 3 + 5, countGlyphs(drawObstacle(renderer, 30)));
+    }
+
+    @Test
+    public void testInvisibleEntitiesCulledBeforeDrawing() {
+        EntityRenderer renderer = new EntityRenderer();
+        RenderCommandBuffer commands = new RenderCommandBuffer();
+        // 地平线上、屏幕下方、弯道推出屏幕的实体都不生成命令
+        renderer.renderObstacle(commands, WIDTH, HEIGHT, 0, 0, 0, FOREST, curve(0));
+        renderer.renderItem(commands, WIDTH, HEIGHT, 2, 1, Item.ItemType.DRIED_FISH, curve(0));
+        renderer.renderObstacle(commands, WIDTH, HEIGHT, 1, HEIGHT, 1, FOREST, curve(0));
+        renderer.renderScenery(commands, WIDTH, HEIGHT, 1, 3, curve(2.0));
+        assertEquals(0, commands.size());
+        assertEquals(4, renderer.getCulledCount());
+
+        renderer.renderObstacle(commands, WIDTH, HEIGHT, 1, 20, 0, FOREST, curve(0));
+        assertEquals(1, commands.size());
+    }
+}
@@ -0,0 +1,68 @@
+package com.hakimi.road.renderer;
+
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.BasicTextImage;
+import com.googlecode.lanterna.graphics.TextGraphics;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RasterRendererTest {
+
+    @Test
+    public void testImageSizeFollowsCells() {
+        GlyphAtlas atlas = new GlyphAtlas(12);
+        RasterRenderer renderer = new RasterRenderer(atlas);
+        BufferedImage image = renderer.render(new BasicTextImage(10, 4));
+        assertEquals(10 * atlas.getCellWidth(), image.getWidth());
+        assertEquals(4 * atlas.getCellHeight(), image.getHeight());
+    }
+
+    @Test
+    public void testEachGlyphRasterizedOnce() {
+        GlyphAtlas atlas = new GlyphAtlas(12);
+        RasterRenderer renderer = new RasterRenderer(atlas);
+        BasicTextImage frame = new BasicTextImage(20, 5);
+        TextGraphics tg = frame.newTextGraphics();
+        tg.setForegroundColor(TextColor.ANSI.YELLOW);
+        tg.setBackgroundColor(TextColor.ANSI.BLUE);
+        tg.putString(0, 0, "ababab");
+
+        renderer.render(frame);
+        // 空白单元、a、b 各一次
+        assertEquals(3, atlas.getRasterizeCount());
+        renderer.render(frame);
+        assertEquals(3, atlas.getRasterizeCount());
+    }
+
+    @Test
+    public void testCellBackgroundColor() {
+        GlyphAtlas atlas = new GlyphAtlas(12);
+        RasterRenderer renderer = new RasterRenderer(atlas);
+        BasicTextImage frame = new BasicTextImage(3, 1);
+        frame.setCharacterAt(1, 0,
+                TextCharacter.fromCharacter(' ', TextColor.ANSI.WHITE, new TextColor.RGB(10, 200, 30))[0]);
+
+        BufferedImage image = renderer.render(frame);
+        assertEquals(0x0AC81E, image.getRGB(atlas.getCellWidth() + 1, 1) & 0xFFFFFF);
+        assertEquals(0, image.getRGB(1, 1) & 0xFFFFFF);
+    }
+
+    @Test
+    public void testDoubleWidthGlyphSpansTwoCells() {
+        GlyphAtlas atlas = new GlyphAtlas(12);
+        RasterRenderer renderer = new RasterRenderer(atlas);
+        BasicTextImage frame = new BasicTextImage(4, 1);
+        frame.setCharacterAt(1, 0, TextCharacter.fromCharacter('哈', TextColor.ANSI.WHITE, TextColor.ANSI.RED)[0]);
+
+        BufferedImage image = renderer.render(frame);
+        int red = TextColor.ANSI.RED.getRed() << 16;
+        // 宽字符的背景覆盖第1、2两个单元
+        assertEquals(red, image.getRGB(2 * atlas.getCellWidth() + atlas.getCellWidth() - 1,
+                atlas.getCellHeight() - 1) & 0xFFFFFF);
+        assertEquals(0, image.getRGB(3 * atlas.getCellWidth() + 1, 1) & 0xFFFFFF);
+    }
+}
@@ -0,0 +1,126 @@
+package com.hakimi.road.renderer;
+
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.BasicTextImage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderCommandBufferTest {
+
+    private static final int BLOCK_A = SpriteRegistry.registerCentered("AAA", "AAA");
+    private static final int BLOCK_B = SpriteRegistry.registerCentered("BBB", "BBB");
+    private static final int DOT = SpriteRegistry.registerLeftAligned("o");
+    private static final int MARK = SpriteRegistry.registerLeftAligned("A");
+
+    @Test
+    public void testCenteredSpriteUsesDisplayWidth() {
+        int wide = SpriteRegistry.registerCentered("[中文]", "AB");
+        // "[中文]" 占6列，居中偏移为 -3 而不是按字符数算的 -2
+        assertEquals(-3, SpriteRegistry.getOffsets(wide)[0]);
+        assertEquals(-1, SpriteRegistry.getOffsets(wide)[1]);
+        assertArrayEquals(new String[] { "[中文]", "AB" }, SpriteRegistry.getLines(wide));
+    }
+
+    @Test
+    public void testNearSpriteDrawnOverFarSprite() {
+        RenderCommandBuffer commands = new RenderCommandBuffer();
+        BasicTextImage image = new BasicTextImage(10, 10);
+
+        // 近处的A先提交，远处的B后提交，二者在第5行重叠
+        commands.add(RenderCommandBuffer.LAYER_ENTITIES, 5, 5, BLOCK_A, TextColor.ANSI.RED, TextColor.ANSI.BLACK);
+        commands.add(RenderCommandBuffer.LAYER_ENTITIES, 5, 4, BLOCK_B, TextColor.ANSI.RED, TextColor.ANSI.BLACK);
+        commands.execute(image.newTextGraphics());
+
+        assertEquals("B", image.getCharacterAt(5, 4).getCharacterString());
+        assertEquals("A", image.getCharacterAt(5, 5).getCharacterString());
+        assertEquals("A", image.getCharacterAt(5, 6).getCharacterString());
+    }
+
+    @Test
+    public void testLayerBeforeDepth() {
+        RenderCommandBuffer commands = new RenderCommandBuffer();
+        BasicTextImage image = new BasicTextImage(10, 10);
+
+        commands.add(RenderCommandBuffer.LAYER_ENTITIES, 5, 2, BLOCK_A, TextColor.ANSI.RED, TextColor.ANSI.BLACK);
+        commands.add(RenderCommandBuffer.LAYER_SCENERY, 5, 3, BLOCK_B, TextColor.ANSI.GREEN, TextColor.ANSI.BLACK);
+        commands.execute(image.newTextGraphics());
+
+        assertEquals("A", image.getCharacterAt(5, 3).getCharacterString());
+        assertEquals("B", image.getCharacterAt(5, 4).getCharacterString());
+    }
+
+    @Test
+    public void testSameDepthGroupedByColorAndStable() {
+        RenderCommandBuffer commands = new RenderCommandBuffer();
+        BasicTextImage image = new BasicTextImage(10, 3);
+
+        TextColor[] colors = { TextColor.ANSI.RED, TextColor.ANSI.BLUE };
+        for (int x = 0; x < 8; x++) {
+            commands.add(RenderCommandBuffer.LAYER_ENTITIES, x, 1, DOT, colors[x % 2], TextColor.ANSI.BLACK);
+        }
+        // 同一位置同色的命令保持提交顺序，后提交的覆盖先提交的
+        commands.add(RenderCommandBuffer.LAYER_ENTITIES, 0, 1, MARK, TextColor.ANSI.RED, TextColor.ANSI.BLACK);
+        commands.execute(image.newTextGraphics());
+
+        // 一次背景色加两次前景色
+        assertEquals(3, commands.getColorChanges());
+        assertEquals("A", image.getCharacterAt(0, 1).getCharacterString());
+        assertEquals(TextColor.ANSI.BLUE, image.getCharacterAt(3, 1).getForegroundColor());
+    }
+
+    @Test
+    public void testRadixSortMatchesArraySort() {
+        RenderCommandBuffer commands = new RenderCommandBuffer();
+        Random random = new Random(42);
+        TextColor[] colors = TextColor.ANSI.values();
+        for (int i = 0; i < 500; i++) {
+            commands.add(random.nextInt(2), random.nextInt(80), random.nextInt(50) - 5, DOT,
+                    colors[random.nextInt(colors.length)], colors[random.nextInt(colors.length)]);
+        }
+        long[] expected = Arrays.copyOf(commands.getKeys(), commands.size());
+        Arrays.sort(expected);
+
+        commands.sort();
+        assertArrayEquals(expected, Arrays.copyOf(commands.getKeys(), commands.size()));
+    }
+
+    @Test
+    public void testBandedExecuteMatchesFullExecute() {
+        RenderCommandBuffer commands = new RenderCommandBuffer();
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            commands.add(random.nextInt(2), random.nextInt(12), random.nextInt(14) - 2,
+                    random.nextBoolean() ? BLOCK_A : BLOCK_B, TextColor.ANSI.RED, TextColor.ANSI.BLACK);
+        }
+        commands.sort();
+        BasicTextImage full = new BasicTextImage(12, 10);
+        commands.execute(full.newTextGraphics(), Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+        // 按3行一带分别执行，跨带的精灵被截断成两半，拼起来与整屏执行相同
+        BasicTextImage banded = new BasicTextImage(12, 10);
+        for (int top = 0; top < 10; top += 3) {
+            commands.execute(new ClippedTextGraphics(banded, top, top + 3), top, top + 3);
+        }
+        for (int y = 0; y < 10; y++) {
+            for (int x = 0; x < 12; x++) {
+                assertEquals(full.getCharacterAt(x, y), banded.getCharacterAt(x, y), x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    public void testClippedGraphicsOnlyWritesItsRows() {
+        BasicTextImage image = new BasicTextImage(4, 6);
+        ClippedTextGraphics band = new ClippedTextGraphics(image, 2, 4);
+        band.fill('#');
+
+        for (int y = 0; y < 6; y++) {
+            String expected = y >= 2 && y < 4 ? "#" : " ";
+            assertEquals(expected, image.getCharacterAt(0, y).getCharacterString(), "row " + y);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.hakimi.road.renderer;
+
+import com.hakimi.road.util.GameConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoadCurveTest {
+
+    private static final int HEIGHT = 40;
+
+    @Test
+    public void testConstantCurvatureMatchesQuadraticOffset() {
+        RoadCurve curve = new RoadCurve();
+        double[] samples = new double[256];
+        for (double curvature : new double[] { 0, 1.0, -2.0, 3.0 }) {
+            Arrays.fill(samples, curvature);
+            curve.update(HEIGHT, samples);
+            for (int row = GameConfig.HORIZON_OFFSET + 1; row < HEIGHT; row++) {
+                assertEquals(GameConfig.calculateCurvatureOffset(HEIGHT, row, curvature), curve.getOffset(row),
+                        "curvature " + curvature + " row " + row);
+            }
+        }
+    }
+
+    @Test
+    public void testCurveAheadBendsOnlyFarRows() {
+        // 前方 128 个距离单位以后才开始右弯
+        double[] samples = new double[256];
+        Arrays.fill(samples, 128, samples.length, 2.0);
+        RoadCurve curve = new RoadCurve();
+        curve.update(HEIGHT, samples);
+
+        assertEquals(0, curve.getOffset(HEIGHT - 1));
+        assertEquals(0, curve.getOffset(HEIGHT - 10));
+        assertTrue(curve.getOffset(GameConfig.HORIZON_OFFSET + 1) > 0);
+        int previous = 0;
+        for (int row = HEIGHT - 1; row > GameConfig.HORIZON_OFFSET; row--) {
+            assertTrue(curve.getOffset(row) >= previous, "row " + row);
+            previous = curve.getOffset(row);
+        }
+    }
+
+    @Test
+    public void testKeyTracksOffsets() {
+        RoadCurve curve = new RoadCurve();
+        curve.update(HEIGHT, 0.0);
+        int straight = curve.getKey();
+        curve.update(HEIGHT, 1.0);
+        assertNotEquals(straight, curve.getKey());
+        curve.update(HEIGHT, 0.0);
+        assertEquals(straight, curve.getKey());
+    }
+}
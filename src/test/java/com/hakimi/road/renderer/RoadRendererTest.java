@@ -0,0 +1,50 @@
+package com.hakimi.road.renderer;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.graphics.BasicTextImage;
+import com.hakimi.road.level.LevelManager;
+import com.hakimi.road.util.GameConfig;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoadRendererTest {
+
+    private static final int WIDTH = 80;
+    private static final int HEIGHT = 40;
+
+    private BasicTextImage renderRoad(int distance) {
+        BasicTextImage image = new BasicTextImage(new TerminalSize(WIDTH, HEIGHT));
+        RoadCurve straight = new RoadCurve();
+        straight.update(HEIGHT, 0.0);
+        new RoadRenderer().render(image.newTextGraphics(), WIDTH, HEIGHT, distance,
+                new LevelManager().getCurrentLevel(), straight);
+        return image;
+    }
+
+    private int countDifferences(BasicTextImage a, BasicTextImage b, int top, int bottom) {
+        int diff = 0;
+        for (int y = top; y <= bottom; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (!a.getCharacterAt(x, y).equals(b.getCharacterAt(x, y))) {
+                    diff++;
+                }
+            }
+        }
+        return diff;
+    }
+
+    @Test
+    public void testScrolledBackgroundNeedsFewerPatches() {
+        int top = GameConfig.HORIZON_OFFSET + 1;
+        int bottom = HEIGHT - 2;
+        BasicTextImage previous = renderRoad(100);
+        BasicTextImage next = renderRoad(101);
+
+        int redraw = countDifferences(previous, next, top, bottom);
+        previous.scrollLines(top, bottom, 1);
+        int scrolled = countDifferences(previous, next, top, bottom);
+
+        assertTrue(scrolled < redraw, "scrolled=" + scrolled + ", redraw=" + redraw);
+    }
+}
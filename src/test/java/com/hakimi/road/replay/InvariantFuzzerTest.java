@@ -0,0 +1,110 @@
+package com.hakimi.road.replay;
+
+import com.hakimi.road.ai.Action;
+import com.hakimi.road.engine.GameEngine;
+import com.hakimi.road.util.SaveManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvariantFuzzerTest {
+
+    @Test
+    public void testRandomInputsKeepInvariants() {
+        InvariantFuzzer.Result result = new InvariantFuzzer(60, 1500, 7, 0.1).run();
+        assertEquals(60, result.getCases());
+        assertTrue(result.getFrames() > 60 * 100);
+        assertTrue(result.getFailures().isEmpty(), result.getFailures().toString());
+    }
+
+    @Test
+    public void testShrinkFindsMinimalFailingSubset() {
+        int[] inputs = new int[40];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = i;
+        }
+        // 同时包含 7 和 23 时失败
+        int[] minimal = InvariantFuzzer.shrink(inputs, candidate -> Arrays.stream(candidate).anyMatch(x -> x == 7)
+                && Arrays.stream(candidate).anyMatch(x -> x == 23));
+        assertArrayEquals(new int[] { 7, 23 }, minimal);
+
+        assertArrayEquals(new int[0], InvariantFuzzer.shrink(inputs, candidate -> true));
+    }
+
+    @Test
+    public void testCheckerDetectsBrokenState() {
+        InvariantFuzzer.Checker checker = new InvariantFuzzer.Checker();
+        GameEngine engine = new GameEngine(null);
+        engine.setUnattended(true);
+        engine.startGame(3);
+        assertNull(checker.check(engine, 0, true, true));
+
+        // 血量与受击次数不一致
+        engine.getPlayer().setHealth(1);
+        InvariantFuzzer.Violation violation = checker.check(engine, 5, false, false);
+        assertNotNull(violation);
+        assertEquals("hitCount", violation.invariant);
+        assertEquals(5, violation.frame);
+    }
+
+    @Test
+    public void testSaveRoundTripRestoresSavedFields() {
+        GameEngine engine = new GameEngine(null);
+        engine.setUnattended(true);
+        engine.startGame(5);
+        for (int i = 0; i < 300; i++) {
+            if (i == 101) {
+                engine.applyAction(Action.JUMP);
+            }
+            engine.update();
+        }
+        GameEngine restored = new GameEngine(null);
+        restored.setUnattended(true);
+        restored.restoreSaveData(SaveManager.fromProperties(SaveManager.toProperties(engine.createSaveData())));
+        assertNull(InvariantFuzzer.savedStateDifference(engine, restored));
+
+        restored.getScoreSystem().setCombo(engine.getScoreSystem().getCombo() + 1);
+        assertTrue(InvariantFuzzer.savedStateDifference(engine, restored).contains("combo"));
+    }
+
+    @Test
+    public void testRestoredEngineContinuesOnSameTrack() {
+        GameEngine engine = new GameEngine(null);
+        engine.setUnattended(true);
+        engine.startGame(21);
+        // 停在非逻辑帧的相位上存档
+        for (int i = 0; i < 401; i++) {
+            engine.update();
+        }
+        GameEngine restored = new GameEngine(null);
+        restored.setUnattended(true);
+        restored.restoreSaveData(SaveManager.fromProperties(SaveManager.toProperties(engine.createSaveData())));
+        assertEquals(engine.getWorldSeed(), restored.getWorldSeed());
+        assertEquals(engine.getSceneryList().size(), restored.getSceneryList().size());
+        assertEquals(engine.getRoadManager().getCurrentSegment(), restored.getRoadManager().getCurrentSegment());
+        assertEquals(engine.getRoadManager().getSegmentDistanceRemaining(),
+                restored.getRoadManager().getSegmentDistanceRemaining());
+
+        for (int i = 0; i < 600 && engine.getGameState() == GameEngine.GameState.PLAYING; i++) {
+            if (i % 40 == 0) {
+                engine.applyAction(Action.MOVE_LEFT);
+                restored.applyAction(Action.MOVE_LEFT);
+            }
+            engine.update();
+            restored.update();
+            assertEquals(StateHash.fold(0, engine), StateHash.fold(0, restored), "第 " + i + " 帧");
+        }
+    }
+
+    @Test
+    public void testCheckReplaysInputLog() {
+        Replay replay = new Replay();
+        replay.seed = 9;
+        replay.frames = 400;
+        replay.inputs = new int[] { Replay.encodeInput(10, Action.MOVE_LEFT.ordinal()),
+                Replay.encodeInput(50, Action.SLIDE.ordinal()) };
+        assertNull(InvariantFuzzer.check(replay));
+    }
+}
@@ -0,0 +1,226 @@
+package com.hakimi.road.replay;
+
+import com.hakimi.road.ai.Action;
+import com.hakimi.road.ai.Autopilot;
+import com.hakimi.road.engine.GameEngine;
+import com.hakimi.road.level.DifficultyConfig;
+import com.hakimi.road.util.GameConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayVerifierTest {
+
+    /**
+     * 用会犯错的自动驾驶录一局，直到游戏结束或达到帧数上限
+     */
+    private static Replay record(long seed, int maxFrames) {
+        return record(seed, maxFrames, GameConfig.TERMINAL_HEIGHT);
+    }
+
+    private static Replay record(long seed, int maxFrames, int rows) {
+        GameEngine engine = new GameEngine(null);
+        engine.setUnattended(true);
+        engine.setHeadlessRows(rows);
+        ReplayRecorder recorder = new ReplayRecorder(engine);
+        Autopilot autopilot = new Autopilot(seed, 0.05);
+        recorder.start(seed);
+        for (int frame = 0; frame < maxFrames && engine.getGameState() == GameEngine.GameState.PLAYING; frame++) {
+            for (Action action : autopilot.decide(engine)) {
+                recorder.apply(action);
+            }
+            recorder.update();
+        }
+        return recorder.finish();
+    }
+
+    private static Replay copy(Replay replay) throws IOException {
+        return Replay.fromJson(replay.toJson());
+    }
+
+    @Test
+    public void testRecordedRunIsAccepted() throws IOException {
+        Replay replay = record(11, 3000);
+        assertTrue(replay.inputs.length > 0);
+        assertEquals(replay.frames / 2, replay.tickHashes.length);
+
+        try (ReplayVerifier verifier = new ReplayVerifier(1)) {
+            ReplayVerifier.Result result = verifier.verify(copy(replay));
+            assertTrue(result.isAccepted(), result.toString());
+            assertEquals(-1, result.getDivergentTick());
+            assertEquals(replay.score, result.getScore());
+            assertEquals(replay.distance, result.getDistance());
+            assertEquals(replay.combo, result.getCombo());
+        }
+    }
+
+    @Test
+    public void testReplayRecordedOnOtherScreenHeight() throws IOException {
+        Replay replay = record(15, 3000, 60);
+        assertEquals(60, replay.rows);
+        try (ReplayVerifier verifier = new ReplayVerifier(1)) {
+            ReplayVerifier.Result result = verifier.verify(copy(replay));
+            assertTrue(result.isAccepted(), result.toString());
+
+            // 按默认高度重新模拟会分叉
+            Replay wrongRows = copy(replay);
+            wrongRows.rows = GameConfig.TERMINAL_HEIGHT;
+            assertFalse(verifier.verify(wrongRows).isAccepted());
+
+            Replay badRows = copy(replay);
+            badRows.rows = 0;
+            assertEquals(0, verifier.verify(badRows).getDivergentTick());
+
+            // 默认高度的录像在同一个工作线程上仍然通过
+            assertTrue(verifier.verify(record(16, 1500)).isAccepted());
+        }
+    }
+
+    @Test
+    public void testTurnPhaseIsReplayed() throws IOException {
+        GameEngine engine = new GameEngine(null);
+        engine.setUnattended(true);
+        ReplayRecorder recorder = new ReplayRecorder(engine);
+        Autopilot autopilot = new Autopilot(17, 0.05);
+        recorder.start(17);
+        for (int frame = 0; frame < 4000 && engine.getGameState() == GameEngine.GameState.PLAYING; frame++) {
+            for (Action action : autopilot.decide(engine)) {
+                recorder.apply(action);
+            }
+            if (frame % 100 == 51) {
+                // 转向键在逻辑帧中途到达（不在转向窗口内时被忽略，窗口内按错方向算撞墙）
+                recorder.apply(Action.TURN_LEFT, System.nanoTime() + GameConfig.GAME_LOOP_DELAY_MS * 1_000_000L);
+            }
+            recorder.update();
+        }
+        Replay replay = recorder.finish();
+        boolean phased = false;
+        for (int input : replay.inputs) {
+            int action = Replay.inputAction(input);
+            if (action == Action.TURN_LEFT.ordinal() || action == Action.TURN_RIGHT.ordinal()) {
+                phased |= Replay.inputTurnPhase(input) > 0;
+            } else {
+                assertEquals(0, Replay.inputTurnPhase(input));
+            }
+        }
+        assertTrue(phased, "录像中没有带相位的转向");
+
+        try (ReplayVerifier verifier = new ReplayVerifier(1)) {
+            assertTrue(verifier.verify(copy(replay)).isAccepted());
+
+            // 非转向操作不能带相位
+            Replay badPhase = copy(replay);
+            badPhase.inputs = new int[] { Replay.encodeInput(3, Action.JUMP.ordinal(), 5) };
+            assertEquals(0, verifier.verify(badPhase).getDivergentTick());
+        }
+    }
+
+    @Test
+    public void testTamperedInputRejectedAtFirstAffectedTick() {
+        Replay replay = record(12, 3000);
+        int index = -1;
+        for (int i = 0; i < replay.inputs.length; i++) {
+            int action = Replay.inputAction(replay.inputs[i]);
+            if (action == Action.MOVE_LEFT.ordinal() || action == Action.MOVE_RIGHT.ordinal()) {
+                index = i;
+                break;
+            }
+        }
+        assertTrue(index >= 0, "录像中没有换道");
+        int frame = Replay.inputFrame(replay.inputs[index]);
+        int flipped = Replay.inputAction(replay.inputs[index]) == Action.MOVE_LEFT.ordinal()
+                ? Action.MOVE_RIGHT.ordinal() : Action.MOVE_LEFT.ordinal();
+        replay.inputs[index] = Replay.encodeInput(frame, flipped);
+
+        try (ReplayVerifier verifier = new ReplayVerifier(1)) {
+            ReplayVerifier.Result result = verifier.verify(replay);
+            assertFalse(result.isAccepted());
+            // 第 f 次 update() 之前的操作最早在第 f / 2 + 1 个逻辑帧体现
+            assertEquals(frame / 2 + 1, result.getDivergentTick(), result.toString());
+        }
+    }
+
+    @Test
+    public void testTamperedHashAndScoreRejected() throws IOException {
+        Replay replay = record(13, 2000);
+        try (ReplayVerifier verifier = new ReplayVerifier(1)) {
+            Replay badHash = copy(replay);
+            badHash.tickHashes[100] ^= 1;
+            ReplayVerifier.Result result = verifier.verify(badHash);
+            assertFalse(result.isAccepted());
+            assertEquals(101, result.getDivergentTick());
+
+            Replay badScore = copy(replay);
+            badScore.score += 1000;
+            result = verifier.verify(badScore);
+            assertFalse(result.isAccepted());
+            assertEquals(replay.tickHashes.length, result.getDivergentTick());
+            assertTrue(result.getReason().contains("分数"));
+            assertEquals(replay.score, result.getScore());
+
+            // 距离与逻辑帧数对不上时不需要模拟
+            Replay badDistance = copy(replay);
+            badDistance.distance += 50;
+            result = verifier.verify(badDistance);
+            assertFalse(result.isAccepted());
+            assertEquals(0, result.getScore());
+
+            Replay truncated = copy(replay);
+            truncated.tickHashes = java.util.Arrays.copyOf(replay.tickHashes, replay.tickHashes.length - 1);
+            truncated.distance = ReplayVerifier.distanceAfter(DifficultyConfig.getInstance(),
+                    truncated.tickHashes.length);
+            result = verifier.verify(truncated);
+            assertFalse(result.isAccepted());
+            assertEquals(replay.tickHashes.length, result.getDivergentTick());
+        }
+    }
+
+    @Test
+    public void testMalformedReplayRejectedWithoutSimulation() throws IOException {
+        Replay replay = record(14, 200);
+        try (ReplayVerifier verifier = new ReplayVerifier(1)) {
+            Replay badAction = copy(replay);
+            badAction.inputs = new int[] { Replay.encodeInput(3, Replay.ACTION_MASK) };
+            assertEquals(0, verifier.verify(badAction).getDivergentTick());
+
+            Replay unordered = copy(replay);
+            unordered.inputs = new int[] { Replay.encodeInput(5, 1), Replay.encodeInput(4, 1) };
+            assertEquals(0, verifier.verify(unordered).getDivergentTick());
+
+            Replay tooManyTicks = copy(replay);
+            tooManyTicks.frames = 10;
+            assertEquals(0, verifier.verify(tooManyTicks).getDivergentTick());
+        }
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        List<Replay> replays = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Replay replay = record(100 + i, 1500);
+            if (i % 2 == 1) {
+                replay.tickHashes[i * 50] ^= 0x40;
+            }
+            replays.add(replay);
+        }
+        List<ReplayVerifier.Result> parallel;
+        try (ReplayVerifier verifier = new ReplayVerifier(3)) {
+            parallel = verifier.verifyAll(replays);
+        }
+        GameEngine engine = new GameEngine(null);
+        engine.setUnattended(true);
+        for (int i = 0; i < replays.size(); i++) {
+            ReplayVerifier.Result sequential = ReplayVerifier.verify(replays.get(i), engine);
+            assertEquals(i % 2 == 0, parallel.get(i).isAccepted(), parallel.get(i).toString());
+            assertEquals(sequential.isAccepted(), parallel.get(i).isAccepted());
+            assertEquals(sequential.getDivergentTick(), parallel.get(i).getDivergentTick());
+            if (i % 2 == 1) {
+                assertEquals(i * 50 + 1, parallel.get(i).getDivergentTick());
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.hakimi.road.system;
+
+import com.hakimi.road.util.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputLatencyTrackerTest {
+
+    private static InputLatencyTracker tracker() {
+        // 不触发周期输出，避免统计被清空
+        return new InputLatencyTracker(Long.MAX_VALUE);
+    }
+
+    @Test
+    void testInputWaitsForLaterFrame() {
+        InputLatencyTracker tracker = tracker();
+        tracker.inputApplied(1_000L, 5);
+
+        tracker.frameShown(2_000L, 4);
+        assertEquals(0, tracker.getHistogram().getCount());
+
+        tracker.frameShown(3_000L, 5);
+        assertEquals(1, tracker.getHistogram().getCount());
+        assertEquals(2_000L, tracker.getHistogram().getMax());
+
+        // 已经计入的按键不会被后续帧重复统计
+        tracker.frameShown(4_000L, 6);
+        assertEquals(1, tracker.getHistogram().getCount());
+    }
+
+    @Test
+    void testOneFrameResolvesSeveralInputs() {
+        InputLatencyTracker tracker = tracker();
+        tracker.inputApplied(1_000L, 3);
+        tracker.inputApplied(2_000L, 3);
+        tracker.inputApplied(3_000L, 4);
+        tracker.inputApplied(4_000L, 7);
+
+        // 跳帧时更新的帧同样显示了较早按键的效果
+        tracker.frameShown(10_000L, 4);
+        LatencyHistogram histogram = tracker.getHistogram();
+        assertEquals(3, histogram.getCount());
+        assertEquals(9_000L, histogram.getMax());
+
+        tracker.frameShown(12_000L, 7);
+        assertEquals(4, histogram.getCount());
+    }
+
+    @Test
+    void testInputsBeyondPendingLimitAreDropped() {
+        InputLatencyTracker tracker = tracker();
+        for (int i = 0; i < InputLatencyTracker.MAX_PENDING; i++) {
+            tracker.inputApplied(1_000L, 1);
+        }
+        // 等待队列已满时新按键直接丢弃，不计入统计
+        tracker.inputApplied(500L, 1);
+
+        tracker.frameShown(2_000L, 1);
+        LatencyHistogram histogram = tracker.getHistogram();
+        assertEquals(InputLatencyTracker.MAX_PENDING, histogram.getCount());
+        assertEquals(1_000L, histogram.getMax());
+
+        // 队列清空后可以继续记录
+        tracker.inputApplied(3_000L, 2);
+        tracker.frameShown(3_500L, 2);
+        assertEquals(InputLatencyTracker.MAX_PENDING + 1, histogram.getCount());
+    }
+
+    @Test
+    void testDumpStartsNewPeriod() {
+        InputLatencyTracker tracker = new InputLatencyTracker(0);
+        long now = System.nanoTime();
+        tracker.inputApplied(now, 1);
+        tracker.frameShown(now + 1_000L, 1);
+        assertEquals(0, tracker.getHistogram().getCount());
+    }
+}
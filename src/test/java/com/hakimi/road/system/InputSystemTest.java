@@ -0,0 +1,123 @@
+package com.hakimi.road.system;
+
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import com.hakimi.road.ai.Action;
+import com.hakimi.road.engine.GameEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InputSystemTest {
+
+    private InputSystem inputSystem;
+
+    @BeforeEach
+    public void setUp() {
+        // No screen needed, events are submitted directly
+        inputSystem = new InputSystem(null);
+    }
+
+    @Test
+    public void testDrainTakesAllEvents() {
+        inputSystem.submit(new InputEvent(new KeyStroke(KeyType.ArrowUp), 1));
+        inputSystem.submit(new InputEvent(new KeyStroke(' ', false, false), 2));
+        inputSystem.submit(new InputEvent(new KeyStroke(KeyType.ArrowDown), 3));
+
+        List<InputEvent> events = new ArrayList<>();
+        assertEquals(3, inputSystem.drainInput(events, true));
+        assertEquals(0, inputSystem.drainInput(new ArrayList<>(), true));
+    }
+
+    @Test
+    public void testRepeatedLaneMovesAreCoalesced() {
+        for (int i = 0; i < 5; i++) {
+            inputSystem.submit(new InputEvent(new KeyStroke(KeyType.ArrowLeft), 100 + i));
+        }
+        inputSystem.submit(new InputEvent(new KeyStroke(KeyType.ArrowRight), 200));
+
+        List<InputEvent> events = new ArrayList<>();
+        inputSystem.drainInput(events, true);
+
+        assertEquals(2, events.size());
+        InputEvent left = events.get(0);
+        assertEquals(5, left.getRepeatCount());
+        assertEquals(100, left.getTimestampNanos());
+        assertEquals(104, left.getLastTimestampNanos());
+        assertEquals(1, events.get(1).getRepeatCount());
+    }
+
+    @Test
+    public void testLaneMovesKeptApartOutsideGameplay() {
+        for (int i = 0; i < 3; i++) {
+            inputSystem.submit(new InputEvent(new KeyStroke(KeyType.ArrowRight), 100 + i));
+        }
+
+        List<InputEvent> events = new ArrayList<>();
+        assertEquals(3, inputSystem.drainInput(events, false));
+        assertEquals(3, events.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1, events.get(i).getRepeatCount());
+            assertEquals(100 + i, events.get(i).getTimestampNanos());
+        }
+    }
+
+    @Test
+    public void testKeysMapToActions() {
+        assertEquals(Action.MOVE_LEFT, inputSystem.toAction(new KeyStroke(KeyType.ArrowLeft)));
+        assertEquals(Action.MOVE_RIGHT, inputSystem.toAction(new KeyStroke(KeyType.ArrowRight)));
+        assertEquals(Action.JUMP, inputSystem.toAction(new KeyStroke(KeyType.ArrowUp)));
+        assertEquals(Action.JUMP, inputSystem.toAction(new KeyStroke(' ', false, false)));
+        assertEquals(Action.SLIDE, inputSystem.toAction(new KeyStroke(KeyType.ArrowDown)));
+        assertEquals(Action.TURN_LEFT, inputSystem.toAction(new KeyStroke('A', false, false)));
+        assertEquals(Action.TURN_RIGHT, inputSystem.toAction(new KeyStroke('d', false, false)));
+        assertEquals(Action.NONE, inputSystem.toAction(new KeyStroke('x', false, false)));
+        assertEquals(Action.NONE, inputSystem.toAction(new KeyStroke(KeyType.Enter)));
+    }
+
+    @Test
+    public void testCoalescedMoveIsClampedToRoad() {
+        GameEngine engine = new GameEngine(null);
+        engine.setUnattended(true);
+        engine.startGame(1);
+        InputEvent event = new InputEvent(new KeyStroke(KeyType.ArrowLeft), 0);
+        for (int i = 0; i < 4; i++) {
+            event.coalesce(new InputEvent(new KeyStroke(KeyType.ArrowLeft), i + 1));
+        }
+
+        Action action = inputSystem.toAction(event.getKey());
+        for (int i = 0; i < event.getRepeatCount(); i++) {
+            engine.applyAction(action, engine.turnPhaseAt(event.getTimestampNanos()));
+        }
+        assertEquals(0, engine.getPlayer().getLane());
+    }
+
+    @Test
+    public void testAwaitInputWakesOnSubmit() throws Exception {
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                return;
+            }
+            inputSystem.submit(new InputEvent(new KeyStroke(KeyType.Enter), System.nanoTime()));
+        });
+        producer.start();
+
+        assertTrue(inputSystem.awaitInput(5_000_000_000L));
+        producer.join();
+    }
+
+    @Test
+    public void testAwaitInputTimesOutAndWakesUp() {
+        assertFalse(inputSystem.awaitInput(1_000_000L));
+
+        // 提前请求的唤醒不会丢失
+        inputSystem.wakeUp();
+        assertFalse(inputSystem.awaitInput(0));
+    }
+}
@@ -0,0 +1,107 @@
+package com.hakimi.road.ui;
+
+import com.googlecode.lanterna.TextColor;
+import com.hakimi.road.util.GameConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotificationSystemTest {
+
+    private NotificationSystem notificationSystem;
+
+    @BeforeEach
+    public void setUp() {
+        notificationSystem = new NotificationSystem();
+    }
+
+    @Test
+    public void testDuplicateNotificationsAreCoalesced() {
+        for (int i = 0; i < 10; i++) {
+            notificationSystem.addNotification("哈!!!!!!", "吓退了敌人!", "⚡", 2000, TextColor.ANSI.RED);
+        }
+        assertEquals(1, notificationSystem.getQueuedCount());
+
+        notificationSystem.update();
+        assertEquals("吓退了敌人!", notificationSystem.getCurrentMessage());
+        assertEquals(10, notificationSystem.getCurrentCount());
+
+        // Repeats while showing merge into the visible toast
+        notificationSystem.addNotification("哈!!!!!!", "吓退了敌人!", "⚡", 2000, TextColor.ANSI.RED);
+        assertEquals(11, notificationSystem.getCurrentCount());
+        assertEquals(0, notificationSystem.getQueuedCount());
+    }
+
+    @Test
+    public void testQueueIsBounded() {
+        for (int i = 0; i < 100; i++) {
+            notificationSystem.addNotification("成就解锁!", "msg" + i, "★", 4000, TextColor.ANSI.YELLOW);
+        }
+        assertTrue(notificationSystem.getQueuedCount() <= 4);
+
+        // Oldest entries were dropped, the newest survive
+        notificationSystem.update();
+        assertEquals("msg96", notificationSystem.getCurrentMessage());
+    }
+
+    @Test
+    public void testHighPriorityPreemptsNormal() {
+        notificationSystem.addNotification("成就解锁!", "第一步", "★", 4000, TextColor.ANSI.YELLOW);
+        notificationSystem.update();
+        assertEquals("第一步", notificationSystem.getCurrentMessage());
+
+        notificationSystem.addNotification("撞墙了!", "未能及时转向", "XXX", 2000, TextColor.ANSI.RED,
+                NotificationSystem.Priority.HIGH);
+        notificationSystem.update();
+        assertEquals("未能及时转向", notificationSystem.getCurrentMessage());
+
+        // The interrupted notification comes back afterwards
+        int ticks = 2000 / GameConfig.GAME_LOOP_DELAY_MS + 1;
+        for (int i = 0; i < ticks; i++) {
+            notificationSystem.update();
+        }
+        assertEquals("第一步", notificationSystem.getCurrentMessage());
+    }
+
+    @Test
+    public void testExpiresInTicks() {
+        notificationSystem.addNotification("飘移成功!", "完美过弯!", ">>>", 1000, TextColor.ANSI.GREEN);
+        notificationSystem.update();
+        assertTrue(notificationSystem.hasActiveNotification());
+
+        int ticks = 1000 / GameConfig.GAME_LOOP_DELAY_MS + 1;
+        for (int i = 0; i < ticks; i++) {
+            notificationSystem.update();
+        }
+        assertFalse(notificationSystem.hasActiveNotification());
+    }
+
+    @Test
+    public void testStaleQueuedNotificationsAreDropped() {
+        notificationSystem.addNotification("成就解锁!", "第一步", "★", 4000, TextColor.ANSI.YELLOW);
+        notificationSystem.update();
+        notificationSystem.addNotification("成就解锁!", "短跑健将", "⚡", 100, TextColor.ANSI.YELLOW);
+
+        // The short notification waits behind the first one and expires in the queue
+        int ticks = 4000 / GameConfig.GAME_LOOP_DELAY_MS + 1;
+        for (int i = 0; i < ticks; i++) {
+            notificationSystem.update();
+        }
+        assertFalse(notificationSystem.hasActiveNotification());
+        assertEquals(0, notificationSystem.getQueuedCount());
+    }
+
+    @Test
+    public void testPendingUntilLastToastExpires() {
+        assertFalse(notificationSystem.hasPendingNotifications());
+        notificationSystem.addNotification("提示", "msg", "★", GameConfig.GAME_LOOP_DELAY_MS * 2,
+                TextColor.ANSI.WHITE);
+        assertTrue(notificationSystem.hasPendingNotifications());
+
+        for (int i = 0; i < 5; i++) {
+            notificationSystem.update();
+        }
+        assertFalse(notificationSystem.hasPendingNotifications());
+    }
+}
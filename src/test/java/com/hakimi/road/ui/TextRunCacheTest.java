@@ -0,0 +1,59 @@
+package com.hakimi.road.ui;
+
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.BasicTextImage;
+import com.googlecode.lanterna.graphics.TextGraphics;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TextRunCacheTest {
+
+    @Test
+    public void testWidthCountsDisplayColumns() {
+        assertEquals(4, new TextRun("设置").getWidth());
+        assertEquals(9, new TextRun("游戏结束!").getWidth());
+        assertEquals(5, new TextRun("Enter").getWidth());
+    }
+
+    @Test
+    public void testEmojiIsOneGlyph() {
+        BasicTextImage image = new BasicTextImage(6, 1);
+        TextGraphics tg = image.newTextGraphics();
+        new TextRun("🏃A").draw(tg, 0, 0);
+
+        // 代理对不会被拆成两个单元
+        assertEquals("🏃", image.getCharacterAt(0, 0).getCharacterString());
+        assertEquals("A", image.getCharacterAt(2, 0).getCharacterString());
+    }
+
+    @Test
+    public void testCenteringUsesDisplayWidth() {
+        TextRunCache cache = new TextRunCache();
+        // "设置" 占4列，80列屏幕上从第38列开始（按 length() 会错算为39）
+        assertEquals(38, cache.centerX(80, "设置"));
+
+        BasicTextImage image = new BasicTextImage(10, 1);
+        TextGraphics tg = image.newTextGraphics();
+        tg.setForegroundColor(TextColor.ANSI.YELLOW);
+        cache.drawCentered(tg, 10, 0, "哈基米");
+        assertEquals("哈", image.getCharacterAt(2, 0).getCharacterString());
+        assertEquals("米", image.getCharacterAt(6, 0).getCharacterString());
+        assertEquals(TextColor.ANSI.YELLOW, image.getCharacterAt(4, 0).getForegroundColor());
+    }
+
+    @Test
+    public void testEachTextMeasuredOnce() {
+        TextRunCache cache = new TextRunCache();
+        String title = "加载游戏";
+        for (int i = 0; i < 10; i++) {
+            cache.get(title);
+        }
+        assertEquals(1, cache.getMeasureCount());
+
+        // 内容相同的新字符串对象复用已有的测量结果
+        String dynamic = new StringBuilder("加载").append("游戏").toString();
+        assertSame(cache.get(title), cache.get(dynamic));
+        assertEquals(1, cache.getMeasureCount());
+    }
+}
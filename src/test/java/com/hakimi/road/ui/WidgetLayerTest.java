@@ -0,0 +1,78 @@
+package com.hakimi.road.ui;
+
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.BasicTextImage;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WidgetLayerTest {
+
+    @Test
+    public void testOnlyDirtyWidgetsRepaint() {
+        WidgetLayer layer = new WidgetLayer();
+        CounterWidget score = layer.add(new CounterWidget("分数: ", TextColor.ANSI.WHITE, TextColor.ANSI.BLACK));
+        LabelWidget label = layer.add(new LabelWidget("血量: ", TextColor.ANSI.WHITE, TextColor.ANSI.BLACK));
+        label.setPosition(0, 1);
+
+        BasicTextImage frame = new BasicTextImage(20, 3);
+        layer.compose(frame);
+        assertEquals(2, layer.getRepaintCount());
+
+        // 值不变：只复制缓存单元
+        score.setValue(0);
+        label.setText("血量: ");
+        layer.compose(frame);
+        assertEquals(2, layer.getRepaintCount());
+
+        score.setValue(42);
+        assertTrue(score.isDirty());
+        assertFalse(label.isDirty());
+        layer.compose(frame);
+        assertEquals(3, layer.getRepaintCount());
+        assertEquals("4", frame.getCharacterAt(6, 0).getCharacterString());
+    }
+
+    @Test
+    public void testWidgetWidthFollowsDisplayColumns() {
+        WidgetLayer layer = new WidgetLayer();
+        layer.add(new LabelWidget("哈根", TextColor.ANSI.YELLOW, TextColor.ANSI.BLACK)).setPosition(1, 0);
+        layer.add(new LabelWidget("!", TextColor.ANSI.WHITE, TextColor.ANSI.BLACK)).setPosition(5, 0);
+
+        BasicTextImage frame = new BasicTextImage(10, 1);
+        layer.compose(frame);
+
+        // 两个双宽字符占4列，紧随其后的元素不会被覆盖
+        assertEquals("哈", frame.getCharacterAt(1, 0).getCharacterString());
+        assertEquals("根", frame.getCharacterAt(3, 0).getCharacterString());
+        assertEquals("!", frame.getCharacterAt(5, 0).getCharacterString());
+        assertEquals(" ", frame.getCharacterAt(6, 0).getCharacterString());
+    }
+
+    @Test
+    public void testHiddenWidgetIsNotDrawn() {
+        WidgetLayer layer = new WidgetLayer();
+        LabelWidget banner = layer.add(new LabelWidget("P", TextColor.ANSI.WHITE, TextColor.ANSI.BLACK));
+        banner.setVisible(false);
+
+        BasicTextImage frame = new BasicTextImage(4, 1);
+        layer.compose(frame);
+        assertEquals(" ", frame.getCharacterAt(0, 0).getCharacterString());
+        assertEquals(0, layer.getRepaintCount());
+    }
+
+    @Test
+    public void testHealthWidgetTracksValues() {
+        HealthWidget health = new HealthWidget(TextColor.ANSI.RED, TextColor.ANSI.BLACK);
+        WidgetLayer layer = new WidgetLayer();
+        layer.add(health);
+        health.setHealth(2, 3);
+
+        BasicTextImage frame = new BasicTextImage(10, 1);
+        layer.compose(frame);
+        health.setHealth(2, 3);
+        assertFalse(health.isDirty());
+        health.setHealth(1, 3);
+        assertTrue(health.isDirty());
+    }
+}
@@ -0,0 +1,50 @@
+package com.hakimi.road.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AliasSamplerTest {
+
+    @Test
+    public void testFrequenciesMatchWeights() {
+        double[] weights = { 50, 20, 20, 5, 5 };
+        AliasSampler sampler = new AliasSampler(weights);
+        Random random = new Random(1);
+        int samples = 200_000;
+        int[] counts = new int[weights.length];
+        for (int i = 0; i < samples; i++) {
+            counts[sampler.sample(random)]++;
+        }
+        for (int i = 0; i < weights.length; i++) {
+            double expected = weights[i] / 100.0;
+            assertEquals(expected, counts[i] / (double) samples, 0.005, "category " + i);
+        }
+    }
+
+    @Test
+    public void testZeroWeightNeverSampled() {
+        AliasSampler sampler = new AliasSampler(new double[] { 0, 3, 0, 1 });
+        Random random = new Random(2);
+        for (int i = 0; i < 10_000; i++) {
+            int index = sampler.sample(random);
+            assertTrue(index == 1 || index == 3, "sampled " + index);
+        }
+    }
+
+    @Test
+    public void testSingleCategory() {
+        AliasSampler sampler = new AliasSampler(new double[] { 7 });
+        assertEquals(1, sampler.size());
+        assertEquals(0, sampler.sample(new Random(3)));
+    }
+
+    @Test
+    public void testInvalidWeightsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new AliasSampler(new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> new AliasSampler(new double[] { 0, 0 }));
+        assertThrows(IllegalArgumentException.class, () -> new AliasSampler(new double[] { 1, -1 }));
+    }
+}
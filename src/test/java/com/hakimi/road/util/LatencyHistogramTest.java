@@ -0,0 +1,42 @@
+package com.hakimi.road.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 10_000; v++) {
+            histogram.record(v * 1_000L);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(5_000_000L, histogram.getValueAtPercentile(50), 5_000_000L * 0.04);
+        assertEquals(9_900_000L, histogram.getValueAtPercentile(99), 9_900_000L * 0.04);
+        assertEquals(9_990_000L, histogram.getValueAtPercentile(99.9), 9_990_000L * 0.04);
+        assertEquals(10_000_000L, histogram.getMax());
+    }
+
+    @Test
+    void testBucketBoundsAreMonotonic() {
+        long previous = -1;
+        for (int i = 0; i < 1800; i++) {
+            long upper = LatencyHistogram.bucketUpperBound(i);
+            assertTrue(upper > previous);
+            assertEquals(i, LatencyHistogram.bucketIndex(upper));
+            previous = upper;
+        }
+    }
+
+    @Test
+    void testReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+}
@@ -0,0 +1,48 @@
+package com.hakimi.road.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpscQueueTest {
+
+    @Test
+    public void testBoundedFifo() {
+        SpscQueue<Integer> queue = new SpscQueue<>(3);
+        assertEquals(4, queue.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4));
+        assertEquals(0, queue.poll());
+        assertTrue(queue.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, queue.poll());
+        }
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testConcurrentTransferKeepsOrder() throws Exception {
+        SpscQueue<Integer> queue = new SpscQueue<>(8);
+        int count = 20_000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                while (!queue.offer(i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+        for (int expected = 0; expected < count; expected++) {
+            Integer value;
+            while ((value = queue.poll()) == null) {
+                Thread.yield();
+            }
+            assertEquals(expected, value);
+        }
+        producer.join();
+        assertNull(queue.poll());
+    }
+}